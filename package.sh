@@ -6,6 +6,8 @@ cd ../twitter4j-examples
 mvn clean package -Dmaven.test.skip=true
 cd ../twitter4j-httpclient-support
 mvn clean package -Dmaven.test.skip=true
+cd ../twitter4j-http2-support
+mvn clean package -Dmaven.test.skip=true
 cd ..
 
 DIR=twitter4j-$1
@@ -26,6 +28,10 @@ mkdir $DIR/twitter4j-httpclient-support
 cp -r twitter4j-httpclient-support/src $DIR/twitter4j-httpclient-support/
 cp twitter4j-httpclient-support/pom.xml $DIR/twitter4j-httpclient-support/
 
+mkdir $DIR/twitter4j-http2-support
+cp -r twitter4j-http2-support/src $DIR/twitter4j-http2-support/
+cp twitter4j-http2-support/pom.xml $DIR/twitter4j-http2-support/
+
 
 
 cp pom.xml $DIR/pom.xml
@@ -56,6 +62,12 @@ cp twitter4j-httpclient-support/target/twitter4j-httpclient-support-$1.jar $DIR/
 mkdir $DIR/twitter4j-httpclient-support/javadoc/
 unzip twitter4j-httpclient-support/target/twitter4j-httpclient-support-$1-javadoc.jar -d $DIR/twitter4j-httpclient-support/javadoc/
 
+cp twitter4j-http2-support/target/twitter4j-http2-support-$1-javadoc.jar $DIR/twitter4j-http2-support/
+cp twitter4j-http2-support/target/twitter4j-http2-support-$1-sources.jar $DIR/twitter4j-http2-support/
+cp twitter4j-http2-support/target/twitter4j-http2-support-$1.jar $DIR/twitter4j-http2-support/
+mkdir $DIR/twitter4j-http2-support/javadoc/
+unzip twitter4j-http2-support/target/twitter4j-http2-support-$1-javadoc.jar -d $DIR/twitter4j-http2-support/javadoc/
+
 
 cd $DIR/
 find . -name ".svn" -print -exec rm -rf {} ";"
@@ -34,9 +34,11 @@ import twitter4j.http.Authorization;
 import twitter4j.http.RequestToken;
 import twitter4j.internal.async.DispatcherFactory;
 import twitter4j.internal.async.Dispatcher;
+import twitter4j.internal.async.TwitterMethodTask;
 
 import java.io.File;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import static twitter4j.TwitterMethod.*;
 
 /**
@@ -1689,6 +1691,54 @@ public class AsyncTwitter extends TwitterOAuthSupportBase
         });
     }
 
+    /* Futures */
+
+    /**
+     * Makes the call asynchronously and returns a future of the result, instead of notifying the TwitterListener.<br>
+     * Any method of Twitter can be called, for example:<br>
+     * <pre>
+     * TwitterFuture&lt;ResponseList&lt;Status&gt;&gt; future = asyncTwitter.submit(HOME_TIMELINE, new TwitterCallable&lt;ResponseList&lt;Status&gt;&gt;() {
+     *     public ResponseList&lt;Status&gt; call(Twitter twitter) throws TwitterException {
+     *         return twitter.getHomeTimeline();
+     *     }
+     * });
+     * </pre>
+     * Cancelling the future before the call is started skips the call, and cancelling it afterwards aborts the request in flight.
+     *
+     * @param method   API method to be called
+     * @param callable makes the call
+     * @return future of the result
+     * @since Twitter4J 2.1.7
+     */
+    public <V> TwitterFuture<V> submit(TwitterMethod method, final TwitterCallable<V> callable) {
+        final TwitterFuture<V> future = new TwitterFuture<V>(method);
+        getDispatcher().invokeLater(new TwitterMethodTask() {
+            public TwitterMethod getMethod() {
+                return future.getMethod();
+            }
+
+            public void run() {
+                future.run(twitter, callable);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Makes the call asynchronously and returns a future of the result, which fails unless the call completes within the timeout.
+     *
+     * @param method   API method to be called
+     * @param callable makes the call
+     * @param timeout  timeout, including the time waiting for a dispatcher thread
+     * @param unit     unit of the timeout
+     * @return future of the result
+     * @see #submit(TwitterMethod, TwitterCallable)
+     * @since Twitter4J 2.1.7
+     */
+    public <V> TwitterFuture<V> submit(TwitterMethod method, TwitterCallable<V> callable, long timeout, TimeUnit unit) {
+        return submit(method, callable).timeout(timeout, unit);
+    }
+
     private static transient Dispatcher dispatcher;
     private boolean shutdown = false;
 
@@ -1708,7 +1758,14 @@ public class AsyncTwitter extends TwitterOAuthSupportBase
             shutdown = true;
         }
     }
-    private Dispatcher getDispatcher(){
+    /**
+     * Returns the dispatcher shared by AsyncTwitter instances, for instance to monitor PriorityDispatcher.
+     *
+     * @return the dispatcher
+     * @throws IllegalStateException if this instance has been shut down
+     * @since Twitter4J 2.1.7
+     */
+    public Dispatcher getDispatcher(){
         if(shutdown){
             throw new IllegalStateException("Already shut down");
         }
@@ -1822,7 +1879,7 @@ public class AsyncTwitter extends TwitterOAuthSupportBase
         twitter.setOAuthAccessToken(token, tokenSecret);
     }
 
-    abstract class AsyncTask implements Runnable {
+    abstract class AsyncTask implements TwitterMethodTask {
         TwitterListener listener;
         TwitterMethod method;
         AsyncTask(TwitterMethod method, TwitterListener listener) {
@@ -1830,6 +1887,10 @@ public class AsyncTwitter extends TwitterOAuthSupportBase
             this.listener = listener;
         }
 
+        public TwitterMethod getMethod() {
+            return method;
+        }
+
         abstract void invoke(TwitterListener listener) throws TwitterException;
 
         public void run() {
@@ -0,0 +1,747 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes Status, User, Tweet and DirectMessage objects into a compact binary form, and decodes them back.<br>
+ * An encoded message starts with a magic number and the format version, followed by the objects.
+ * Each object is written as a bit-mask of the fields present, followed by the values of those fields only.
+ * Numbers are written as zigzag varints, and short strings repeated within a message, such as screen names and sources, are written once and referred by index afterwards.<br>
+ * A projection limits the fields written to the given ones, named after the corresponding JSON properties (e.g. "id", "text", "user", "screen_name"). Fields left out decode to null, 0 or false.<br>
+ * Only objects created by Twitter4J can be encoded. Instances of this class are thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class BinaryCodec {
+    /**
+     * The format version written by this codec. Messages of this or older versions can be decoded.
+     */
+    public static final int VERSION = 1;
+
+    private static final byte MAGIC_0 = 'T';
+    private static final byte MAGIC_1 = '4';
+
+    private static final byte STATUS = 1;
+    private static final byte USER = 2;
+    private static final byte TWEET = 3;
+    private static final byte DIRECT_MESSAGE = 4;
+
+    /**
+     * Strings up to this length go to the string table.
+     */
+    private static final int MAX_TABLE_STRING_LENGTH = 64;
+
+    private final Set<String> projection;
+
+    /**
+     * Creates a codec writing all fields.
+     */
+    public BinaryCodec() {
+        this.projection = null;
+    }
+
+    /**
+     * Creates a codec writing the given fields only.
+     *
+     * @param fields names of the fields to be written
+     */
+    public BinaryCodec(String... fields) {
+        Set<String> set = new HashSet<String>();
+        Collections.addAll(set, fields);
+        this.projection = set;
+    }
+
+    /**
+     * Encodes a single object.
+     *
+     * @param obj Status, User, Tweet or DirectMessage
+     * @return a buffer containing the encoded form, ready to be read
+     * @throws IllegalArgumentException when the object is not supported
+     */
+    public ByteBuffer encode(Object obj) {
+        return encodeAll(Collections.singletonList(obj));
+    }
+
+    /**
+     * Encodes a list of objects into one message. Strings repeated among the objects are written only once.
+     *
+     * @param objects list of Status, User, Tweet or DirectMessage
+     * @return a buffer containing the encoded form, ready to be read
+     * @throws IllegalArgumentException when any of the objects is not supported
+     */
+    public ByteBuffer encodeAll(List<?> objects) {
+        Writer out = new Writer(ByteBuffer.allocate(256 + objects.size() * 256), true, projection);
+        out.writeMessage(objects);
+        ByteBuffer buf = out.buf;
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Encodes a list of objects into the given buffer, starting at its current position.
+     *
+     * @param objects list of Status, User, Tweet or DirectMessage
+     * @param dst     the destination buffer
+     * @throws IllegalArgumentException when any of the objects is not supported
+     * @throws java.nio.BufferOverflowException when the buffer is too small
+     */
+    public void encodeAll(List<?> objects, ByteBuffer dst) {
+        new Writer(dst, false, projection).writeMessage(objects);
+    }
+
+    /**
+     * Decodes a message containing a single object, starting at the current position of the buffer.
+     *
+     * @param src  the encoded form
+     * @param type expected type, e.g. Status.class
+     * @return the decoded object
+     * @throws TwitterException when the message is malformed, or contains an object of another type
+     */
+    public <T> T decode(ByteBuffer src, Class<T> type) throws TwitterException {
+        List<T> list = decodeAll(src, type);
+        if (1 != list.size()) {
+            throw new TwitterException("expected one object, but the message contains " + list.size());
+        }
+        return list.get(0);
+    }
+
+    /**
+     * Decodes a message, starting at the current position of the buffer.
+     *
+     * @param src  the encoded form
+     * @param type expected type of the elements, e.g. Status.class
+     * @return the decoded objects
+     * @throws TwitterException when the message is malformed, or contains an object of another type
+     */
+    public <T> List<T> decodeAll(ByteBuffer src, Class<T> type) throws TwitterException {
+        try {
+            return new Reader(src).readMessage(type);
+        } catch (BufferUnderflowException bue) {
+            throw new TwitterException("truncated message", bue);
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Writes the binary form. Data objects write their own fields through this class.
+     */
+    /*package*/ static final class Writer {
+        private ByteBuffer buf;
+        private final boolean growable;
+        private final Set<String> projection;
+        private final Map<String[], boolean[]> includes = new IdentityHashMap<String[], boolean[]>();
+        private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+        private int depth = 0;
+        private boolean[][] included = new boolean[8][];
+        private int[] maskPositions = new int[8];
+        private long[] masks = new long[8];
+
+        Writer(ByteBuffer buf, boolean growable, Set<String> projection) {
+            this.buf = buf;
+            this.growable = growable;
+            this.projection = projection;
+        }
+
+        private void writeMessage(List<?> objects) {
+            ensure(3);
+            buf.put(MAGIC_0);
+            buf.put(MAGIC_1);
+            buf.put((byte) VERSION);
+            putVarInt(objects.size());
+            for (Object obj : objects) {
+                ensure(1);
+                if (obj instanceof StatusJSONImpl) {
+                    buf.put(STATUS);
+                    ((StatusJSONImpl) obj).writeTo(this);
+                } else if (obj instanceof UserJSONImpl) {
+                    buf.put(USER);
+                    ((UserJSONImpl) obj).writeTo(this);
+                } else if (obj instanceof TweetJSONImpl) {
+                    buf.put(TWEET);
+                    ((TweetJSONImpl) obj).writeTo(this);
+                } else if (obj instanceof DirectMessageJSONImpl) {
+                    buf.put(DIRECT_MESSAGE);
+                    ((DirectMessageJSONImpl) obj).writeTo(this);
+                } else {
+                    throw unsupported(obj);
+                }
+            }
+        }
+
+        /**
+         * Starts an object. The fields must be written in the order of the schema.
+         *
+         * @param schema field names of the object
+         */
+        void beginObject(String[] schema) {
+            boolean[] include = includes.get(schema);
+            if (null == include) {
+                include = new boolean[schema.length];
+                for (int i = 0; i < schema.length; i++) {
+                    include[i] = null == projection || projection.contains(schema[i]);
+                }
+                includes.put(schema, include);
+            }
+            if (depth == masks.length) {
+                boolean[][] grownIncluded = new boolean[depth << 1][];
+                System.arraycopy(included, 0, grownIncluded, 0, depth);
+                included = grownIncluded;
+                int[] grownPositions = new int[depth << 1];
+                System.arraycopy(maskPositions, 0, grownPositions, 0, depth);
+                maskPositions = grownPositions;
+                long[] grownMasks = new long[depth << 1];
+                System.arraycopy(masks, 0, grownMasks, 0, depth);
+                masks = grownMasks;
+            }
+            int maskBytes = (schema.length + 7) >>> 3;
+            ensure(1 + maskBytes);
+            buf.put((byte) maskBytes);
+            included[depth] = include;
+            maskPositions[depth] = buf.position();
+            masks[depth] = 0L;
+            depth++;
+            buf.position(buf.position() + maskBytes);
+        }
+
+        void endObject() {
+            depth--;
+            long mask = masks[depth];
+            int position = maskPositions[depth];
+            int maskBytes = buf.get(position - 1);
+            for (int i = 0; i < maskBytes; i++) {
+                buf.put(position + i, (byte) (mask >>> (i << 3)));
+            }
+        }
+
+        private boolean present(int field) {
+            if (!included[depth - 1][field]) {
+                return false;
+            }
+            masks[depth - 1] |= 1L << field;
+            return true;
+        }
+
+        void writeBoolean(int field, boolean value) {
+            if (value) {
+                present(field);
+            }
+        }
+
+        void writeInt(int field, int value) {
+            if (0 != value && present(field)) {
+                putVarInt(zigzag(value));
+            }
+        }
+
+        void writeLong(int field, long value) {
+            if (0 != value && present(field)) {
+                putVarLong(zigzag(value));
+            }
+        }
+
+        void writeString(int field, String value) {
+            if (null != value && present(field)) {
+                putString(value);
+            }
+        }
+
+        void writeDate(int field, Date value) {
+            if (null != value && present(field)) {
+                putVarLong(zigzag(value.getTime()));
+            }
+        }
+
+        void writeStrings(int field, String[] values) {
+            if (null != values && present(field)) {
+                putVarInt(values.length);
+                for (String value : values) {
+                    putString(value);
+                }
+            }
+        }
+
+        void writeURLs(int field, URL[] values) {
+            if (null != values && present(field)) {
+                putVarInt(values.length);
+                for (URL value : values) {
+                    putString(null == value ? null : value.toString());
+                }
+            }
+        }
+
+        void writeGeoLocation(int field, GeoLocation value) {
+            if (null != value && present(field)) {
+                putGeoLocation(value);
+            }
+        }
+
+        void writeGeoLocations(int field, GeoLocation[][] values) {
+            if (null != values && present(field)) {
+                putVarInt(values.length);
+                for (GeoLocation[] row : values) {
+                    putVarInt(row.length);
+                    for (GeoLocation value : row) {
+                        putGeoLocation(value);
+                    }
+                }
+            }
+        }
+
+        void writeAnnotations(int field, Annotations value) {
+            if (null != value && null != value.getAnnotations() && present(field)) {
+                List<Annotation> list = value.getAnnotations();
+                putVarInt(list.size());
+                for (Annotation annotation : list) {
+                    putString(annotation.getType());
+                    Map<String, String> attributes = annotation.getAttributes();
+                    putVarInt(null == attributes ? 0 : attributes.size());
+                    if (null != attributes) {
+                        for (Map.Entry<String, String> entry : attributes.entrySet()) {
+                            putString(entry.getKey());
+                            putString(entry.getValue());
+                        }
+                    }
+                }
+            }
+        }
+
+        void writeUser(int field, User value) {
+            if (null != value && present(field)) {
+                toImpl(value).writeTo(this);
+            }
+        }
+
+        void writeUsers(int field, User[] values) {
+            if (null != values && present(field)) {
+                putVarInt(values.length);
+                for (User value : values) {
+                    toImpl(value).writeTo(this);
+                }
+            }
+        }
+
+        void writeStatus(int field, Status value) {
+            if (null != value && present(field)) {
+                if (!(value instanceof StatusJSONImpl)) {
+                    throw unsupported(value);
+                }
+                ((StatusJSONImpl) value).writeTo(this);
+            }
+        }
+
+        void writePlace(int field, Place value) {
+            if (null != value && present(field)) {
+                toImpl(value).writeTo(this);
+            }
+        }
+
+        void writePlaces(int field, Place[] values) {
+            if (null != values && present(field)) {
+                putVarInt(values.length);
+                for (Place value : values) {
+                    toImpl(value).writeTo(this);
+                }
+            }
+        }
+
+        private UserJSONImpl toImpl(User user) {
+            if (!(user instanceof UserJSONImpl)) {
+                throw unsupported(user);
+            }
+            return (UserJSONImpl) user;
+        }
+
+        private PlaceJSONImpl toImpl(Place place) {
+            if (!(place instanceof PlaceJSONImpl)) {
+                throw unsupported(place);
+            }
+            return (PlaceJSONImpl) place;
+        }
+
+        private IllegalArgumentException unsupported(Object obj) {
+            return new IllegalArgumentException("unsupported object: " + (null == obj ? null : obj.getClass().getName()));
+        }
+
+        private void putGeoLocation(GeoLocation value) {
+            ensure(16);
+            buf.putDouble(value.getLatitude());
+            buf.putDouble(value.getLongitude());
+        }
+
+        /**
+         * Writes 0 for null, 1 followed by the UTF-8 form for a new string, or the index in the string table plus 2.
+         */
+        private void putString(String value) {
+            if (null == value) {
+                putVarInt(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (null != index) {
+                putVarInt(index + 2);
+                return;
+            }
+            if (value.length() <= MAX_TABLE_STRING_LENGTH) {
+                strings.put(value, strings.size());
+            }
+            byte[] bytes;
+            try {
+                bytes = value.getBytes("UTF-8");
+            } catch (UnsupportedEncodingException neverHappen) {
+                throw new AssertionError(neverHappen);
+            }
+            putVarInt(1);
+            putVarInt(bytes.length);
+            ensure(bytes.length);
+            buf.put(bytes);
+        }
+
+        private void putVarInt(int value) {
+            putVarLong(value & 0xffffffffL);
+        }
+
+        private void putVarLong(long value) {
+            ensure(10);
+            while (0 != (value & ~0x7fL)) {
+                buf.put((byte) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            buf.put((byte) value);
+        }
+
+        private void ensure(int length) {
+            if (growable && buf.remaining() < length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buf.capacity() << 1, buf.position() + length));
+                buf.flip();
+                grown.put(buf);
+                buf = grown;
+            }
+        }
+    }
+
+    /**
+     * Reads the binary form. Data objects read their own fields through this class.
+     */
+    /*package*/ static final class Reader {
+        private final ByteBuffer buf;
+        private final List<String> strings = new ArrayList<String>();
+
+        private int depth = 0;
+        private long[] masks = new long[8];
+
+        Reader(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        private <T> List<T> readMessage(Class<T> type) throws TwitterException {
+            if (MAGIC_0 != buf.get() || MAGIC_1 != buf.get()) {
+                throw new TwitterException("not an encoded message");
+            }
+            int version = buf.get();
+            if (version < 1 || VERSION < version) {
+                throw new TwitterException("unsupported version: " + version);
+            }
+            int size = getVarInt();
+            List<T> list = new ArrayList<T>(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                Object obj;
+                byte kind = buf.get();
+                switch (kind) {
+                    case STATUS:
+                        obj = new StatusJSONImpl(this);
+                        break;
+                    case USER:
+                        obj = new UserJSONImpl(this);
+                        break;
+                    case TWEET:
+                        obj = new TweetJSONImpl(this);
+                        break;
+                    case DIRECT_MESSAGE:
+                        obj = new DirectMessageJSONImpl(this);
+                        break;
+                    default:
+                        throw new TwitterException("unknown object type: " + kind);
+                }
+                if (!type.isInstance(obj)) {
+                    throw new TwitterException("expected " + type.getName() + ", but found " + obj.getClass().getName());
+                }
+                list.add(type.cast(obj));
+            }
+            return list;
+        }
+
+        /**
+         * Starts an object. The fields must be read in the order of the schema.
+         *
+         * @param schema field names of the object
+         * @throws TwitterException when the object contains fields unknown to the schema
+         */
+        void beginObject(String[] schema) throws TwitterException {
+            int maskBytes = buf.get();
+            if (maskBytes < 0 || 8 < maskBytes) {
+                throw new TwitterException("malformed field mask");
+            }
+            long mask = 0L;
+            for (int i = 0; i < maskBytes; i++) {
+                mask |= (buf.get() & 0xffL) << (i << 3);
+            }
+            if (schema.length < 64 && 0 != (mask >>> schema.length)) {
+                throw new TwitterException("unknown fields found. the message might be encoded by a newer version.");
+            }
+            if (depth == masks.length) {
+                long[] grown = new long[depth << 1];
+                System.arraycopy(masks, 0, grown, 0, depth);
+                masks = grown;
+            }
+            masks[depth++] = mask;
+        }
+
+        void endObject() {
+            depth--;
+        }
+
+        private boolean present(int field) {
+            return 0 != (masks[depth - 1] & (1L << field));
+        }
+
+        boolean readBoolean(int field) {
+            return present(field);
+        }
+
+        int readInt(int field) {
+            if (!present(field)) {
+                return 0;
+            }
+            int value = getVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readLong(int field) {
+            if (!present(field)) {
+                return 0L;
+            }
+            long value = getVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString(int field) throws TwitterException {
+            return present(field) ? getString() : null;
+        }
+
+        Date readDate(int field) {
+            if (!present(field)) {
+                return null;
+            }
+            long value = getVarLong();
+            return new Date((value >>> 1) ^ -(value & 1));
+        }
+
+        String[] readStrings(int field) throws TwitterException {
+            if (!present(field)) {
+                return null;
+            }
+            String[] values = new String[getLength()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = getString();
+            }
+            return values;
+        }
+
+        URL[] readURLs(int field) throws TwitterException {
+            if (!present(field)) {
+                return null;
+            }
+            URL[] values = new URL[getLength()];
+            for (int i = 0; i < values.length; i++) {
+                String url = getString();
+                try {
+                    values[i] = null == url ? null : new URL(url);
+                } catch (MalformedURLException e) {
+                    values[i] = null;
+                }
+            }
+            return values;
+        }
+
+        GeoLocation readGeoLocation(int field) {
+            return present(field) ? getGeoLocation() : null;
+        }
+
+        GeoLocation[][] readGeoLocations(int field) throws TwitterException {
+            if (!present(field)) {
+                return null;
+            }
+            GeoLocation[][] values = new GeoLocation[getLength()][];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new GeoLocation[getLength()];
+                for (int j = 0; j < values[i].length; j++) {
+                    values[i][j] = getGeoLocation();
+                }
+            }
+            return values;
+        }
+
+        Annotations readAnnotations(int field) throws TwitterException {
+            if (!present(field)) {
+                return null;
+            }
+            int size = getLength();
+            List<Annotation> list = new ArrayList<Annotation>(size);
+            for (int i = 0; i < size; i++) {
+                Annotation annotation = new Annotation(getString());
+                int attributes = getLength();
+                for (int j = 0; j < attributes; j++) {
+                    annotation.addAttribute(getString(), getString());
+                }
+                list.add(annotation);
+            }
+            return new Annotations(list);
+        }
+
+        User readUser(int field) throws TwitterException {
+            return present(field) ? new UserJSONImpl(this) : null;
+        }
+
+        User[] readUsers(int field) throws TwitterException {
+            if (!present(field)) {
+                return null;
+            }
+            User[] values = new User[getLength()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new UserJSONImpl(this);
+            }
+            return values;
+        }
+
+        Status readStatus(int field) throws TwitterException {
+            return present(field) ? new StatusJSONImpl(this) : null;
+        }
+
+        Place readPlace(int field) throws TwitterException {
+            return present(field) ? new PlaceJSONImpl(this) : null;
+        }
+
+        Place[] readPlaces(int field) throws TwitterException {
+            if (!present(field)) {
+                return null;
+            }
+            Place[] values = new Place[getLength()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new PlaceJSONImpl(this);
+            }
+            return values;
+        }
+
+        private GeoLocation getGeoLocation() {
+            double latitude = buf.getDouble();
+            return new GeoLocation(latitude, buf.getDouble());
+        }
+
+        private String getString() throws TwitterException {
+            int ref = getVarInt();
+            if (0 == ref) {
+                return null;
+            }
+            if (1 < ref) {
+                if (strings.size() < ref - 1) {
+                    throw new TwitterException("malformed string reference: " + ref);
+                }
+                return strings.get(ref - 2);
+            }
+            int length = getLength();
+            if (buf.remaining() < length) {
+                throw new BufferUnderflowException();
+            }
+            String value;
+            try {
+                if (buf.hasArray()) {
+                    value = new String(buf.array(), buf.arrayOffset() + buf.position(), length, "UTF-8");
+                    buf.position(buf.position() + length);
+                } else {
+                    byte[] bytes = new byte[length];
+                    buf.get(bytes);
+                    value = new String(bytes, "UTF-8");
+                }
+            } catch (UnsupportedEncodingException neverHappen) {
+                throw new AssertionError(neverHappen);
+            }
+            if (value.length() <= MAX_TABLE_STRING_LENGTH) {
+                strings.add(value);
+            }
+            return value;
+        }
+
+        private int getLength() throws TwitterException {
+            int length = getVarInt();
+            if (length < 0 || buf.remaining() < length) {
+                // every element takes at least one byte
+                throw new TwitterException("malformed length: " + length);
+            }
+            return length;
+        }
+
+        private int getVarInt() {
+            return (int) getVarLong();
+        }
+
+        private long getVarLong() {
+            long value = 0L;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf.get();
+                value |= (long) (b & 0x7f) << shift;
+                if (0 == (b & 0x80)) {
+                    return value;
+                }
+            }
+            return value;
+        }
+    }
+}
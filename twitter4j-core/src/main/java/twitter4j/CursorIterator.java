@@ -0,0 +1,287 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walks the pages of a cursored API, fetching the following pages in the background while the caller processes the
+ * current one.<br>
+ * Works with any cursored endpoint, e.g. {@link Twitter#getFollowersStatuses(String, long)},
+ * {@link Twitter#getUserLists(String, long)}, {@link Twitter#getUserListMembers(String, int, long)} or
+ * {@link Twitter#getFollowersIDs(String, long)}:
+ * <pre>
+ * CursorIterator&lt;PagableResponseList&lt;User&gt;&gt; pages = new CursorIterator&lt;PagableResponseList&lt;User&gt;&gt;(
+ *         new CursorIterator.Fetcher&lt;PagableResponseList&lt;User&gt;&gt;() {
+ *             public PagableResponseList&lt;User&gt; fetch(long cursor) throws TwitterException {
+ *                 return twitter.getFollowersStatuses("twit4j", cursor);
+ *             }
+ *         });
+ * while (pages.hasNext()) {
+ *     for (User user : pages.next()) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * Pages are fetched by a daemon thread started on the first call to hasNext() or next(). It stays at most
+ * prefetchDepth pages ahead of the caller, and stops after pageBudget pages, after the last page, or when
+ * {@link #cancel()} is called. When the caller has not taken a page for a minute, the thread exits so that an
+ * abandoned iterator does not keep it, and a new one resumes from the next cursor once pages are taken again.<br>
+ * When a page reports that the remaining rate limit has reached the reserve, the thread waits for the rate limit
+ * to reset before fetching the next page.<br>
+ * A TwitterException or RuntimeException thrown while fetching is thrown from next(), and ends the iteration.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class CursorIterator<T extends CursorSupport & TwitterResponse> {
+    private static final Object END = new Object();
+    static final long IDLE_TIMEOUT_MILLIS = 60 * 1000;
+
+    private final Fetcher<T> fetcher;
+    private final int pageBudget;
+    private final Semaphore room;
+    private final BlockingQueue<Object> pages = new LinkedBlockingQueue<Object>();
+    private volatile int rateLimitReserve = 0;
+    private volatile int fetchedPageCount = 0;
+    private volatile boolean cancelled = false;
+    private volatile Thread prefetcher;
+    // guards starting and retiring the prefetcher
+    private final Object prefetcherLock = new Object();
+    /*package*/ long idleTimeoutMillis = IDLE_TIMEOUT_MILLIS;
+    // the cursor of the next page to fetch. only touched by the prefetcher
+    private volatile long cursor = -1;
+    private Object head;
+    private boolean ended = false;
+
+    /**
+     * Fetches the pages of a cursored API.
+     *
+     * @since Twitter4J 2.1.7
+     */
+    public interface Fetcher<T> {
+        /**
+         * @param cursor the cursor to fetch, -1 for the first page
+         * @return the page
+         * @throws TwitterException when the request failed
+         */
+        T fetch(long cursor) throws TwitterException;
+    }
+
+    /**
+     * Creates an iterator prefetching one page, without a page budget.
+     *
+     * @param fetcher fetches a page
+     */
+    public CursorIterator(Fetcher<T> fetcher) {
+        this(fetcher, 1, -1);
+    }
+
+    /**
+     * @param fetcher       fetches a page
+     * @param prefetchDepth the number of pages fetched ahead of the caller, at least 1
+     * @param pageBudget    the maximum number of pages to fetch, or -1 for unlimited
+     */
+    public CursorIterator(Fetcher<T> fetcher, int prefetchDepth, int pageBudget) {
+        if (null == fetcher) {
+            throw new NullPointerException("fetcher");
+        }
+        if (prefetchDepth < 1) {
+            throw new IllegalArgumentException("prefetchDepth must be at least 1: " + prefetchDepth);
+        }
+        this.fetcher = fetcher;
+        this.pageBudget = pageBudget;
+        this.room = new Semaphore(prefetchDepth);
+    }
+
+    /**
+     * Sets the number of rate limited calls to leave untouched. When a page reports this many or fewer remaining
+     * hits, the next page is fetched only after the rate limit resets. Defaults to 0.
+     *
+     * @param rateLimitReserve the number of remaining hits to keep
+     */
+    public void setRateLimitReserve(int rateLimitReserve) {
+        this.rateLimitReserve = rateLimitReserve;
+    }
+
+    /**
+     * @return true if another page (or the exception raised while fetching it) is available
+     */
+    public synchronized boolean hasNext() {
+        if (ended || cancelled) {
+            return false;
+        }
+        if (null == head) {
+            start();
+            try {
+                head = pages.take();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (cancelled) {
+                head = null;
+                return false;
+            }
+        }
+        if (END == head) {
+            ended = true;
+            head = null;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next page, waiting for it to be fetched if necessary.
+     *
+     * @return the next page
+     * @throws TwitterException when fetching the page failed
+     * @throws NoSuchElementException when there are no more pages
+     * @throws RuntimeException when the fetcher threw it
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T next() throws TwitterException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object page = head;
+        head = null;
+        room.release();
+        if (page instanceof TwitterException) {
+            ended = true;
+            throw (TwitterException) page;
+        }
+        if (page instanceof RuntimeException) {
+            ended = true;
+            throw (RuntimeException) page;
+        }
+        return (T) page;
+    }
+
+    /**
+     * Stops fetching pages. Pages already fetched are discarded and hasNext() returns false from now on.
+     */
+    public void cancel() {
+        cancelled = true;
+        Thread prefetcher = this.prefetcher;
+        if (null != prefetcher) {
+            prefetcher.interrupt();
+        }
+        pages.clear();
+        // END queued by the prefetcher may have been cleared. wakes up a caller blocked in hasNext()
+        pages.add(END);
+    }
+
+    /**
+     * @return the number of pages fetched so far, including those not yet returned by next()
+     */
+    public int getFetchedPageCount() {
+        return fetchedPageCount;
+    }
+
+    private void start() {
+        synchronized (prefetcherLock) {
+            if (null != prefetcher || cancelled) {
+                return;
+            }
+            prefetcher = new Thread("Twitter4J Cursor Prefetcher") {
+                public void run() {
+                    prefetch();
+                }
+            };
+            prefetcher.setDaemon(true);
+            prefetcher.start();
+        }
+    }
+
+    /**
+     * Waits for room for another page.
+     *
+     * @return false if the caller has not taken a page within the idle timeout, and the prefetcher has been retired
+     */
+    private boolean awaitRoom() throws InterruptedException {
+        if (room.tryAcquire(idleTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        synchronized (prefetcherLock) {
+            // start() is called after taking a page, which makes room. checked again under the lock not to miss it
+            if (room.tryAcquire()) {
+                return true;
+            }
+            prefetcher = null;
+            return false;
+        }
+    }
+
+    private void prefetch() {
+        boolean retired = false;
+        try {
+            while (!cancelled && (pageBudget < 0 || fetchedPageCount < pageBudget)) {
+                if (!awaitRoom()) {
+                    // idle. resumed from the cursor by the next call to hasNext()
+                    retired = true;
+                    return;
+                }
+                T page;
+                try {
+                    page = fetcher.fetch(cursor);
+                } catch (TwitterException te) {
+                    pages.add(te);
+                    break;
+                } catch (RuntimeException re) {
+                    pages.add(re);
+                    break;
+                }
+                fetchedPageCount++;
+                pages.add(page);
+                if (!page.hasNext()) {
+                    break;
+                }
+                cursor = page.getNextCursor();
+                pace(page.getRateLimitStatus());
+            }
+        } catch (InterruptedException ignore) {
+            // cancelled
+        } finally {
+            if (!retired) {
+                pages.add(END);
+            }
+        }
+    }
+
+    private void pace(RateLimitStatus status) throws InterruptedException {
+        if (null != status && status.getRemainingHits() <= rateLimitReserve
+                && status.getSecondsUntilReset() > 0) {
+            Thread.sleep(status.getSecondsUntilReset() * 1000L);
+        }
+    }
+}
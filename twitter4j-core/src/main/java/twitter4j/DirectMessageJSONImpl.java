@@ -47,15 +47,54 @@ import static twitter4j.internal.util.ParseUtil.*;
     private String recipientScreenName;
     private static final long serialVersionUID = -3253021825891789737L;
 
+    /**
+     * field names in the order of the binary form. new fields must be appended.
+     */
+    /*package*/ static final String[] BINARY_SCHEMA = {"id", "text", "sender_id", "recipient_id", "created_at"
+            , "sender_screen_name", "recipient_screen_name", "sender", "recipient"};
+
 
     /*package*/DirectMessageJSONImpl(HttpResponse res) throws TwitterException {
         super(res);
         init(res.asJSONObject());
+        if (null != res.getEntityCache()) {
+            res.getEntityCache().cache(this);
+        }
     }
     /*package*/DirectMessageJSONImpl(JSONObject json) throws TwitterException {
         init(json);
     }
+    /*package*/ DirectMessageJSONImpl(BinaryCodec.Reader in) throws TwitterException {
+        super();
+        in.beginObject(BINARY_SCHEMA);
+        id = in.readInt(0);
+        text = in.readString(1);
+        senderId = in.readInt(2);
+        recipientId = in.readInt(3);
+        createdAt = in.readDate(4);
+        senderScreenName = in.readString(5);
+        recipientScreenName = in.readString(6);
+        sender = in.readUser(7);
+        recipient = in.readUser(8);
+        in.endObject();
+    }
+
+    /*package*/ void writeTo(BinaryCodec.Writer out) {
+        out.beginObject(BINARY_SCHEMA);
+        out.writeInt(0, id);
+        out.writeString(1, text);
+        out.writeInt(2, senderId);
+        out.writeInt(3, recipientId);
+        out.writeDate(4, createdAt);
+        out.writeString(5, senderScreenName);
+        out.writeString(6, recipientScreenName);
+        out.writeUser(7, sender);
+        out.writeUser(8, recipient);
+        out.endObject();
+    }
+
     private void init(JSONObject json) throws TwitterException{
+        retainRawJSON(json);
         id = getInt("id", json);
         text = getUnescapedString("text", json);
         senderId = getInt("sender_id", json);
@@ -143,8 +182,13 @@ import static twitter4j.internal.util.ParseUtil.*;
             JSONArray list = res.asJSONArray();
             int size = list.length();
             ResponseList<DirectMessage> directMessages = new ResponseListImpl<DirectMessage>(size, res);
+            EntityCache entityCache = res.getEntityCache();
             for (int i = 0; i < size; i++) {
-                directMessages.add(new DirectMessageJSONImpl(list.getJSONObject(i)));
+                DirectMessage message = new DirectMessageJSONImpl(list.getJSONObject(i));
+                if (null != entityCache) {
+                    entityCache.cache(message);
+                }
+                directMessages.add(message);
             }
             return directMessages;
         } catch (JSONException jsone) {
@@ -0,0 +1,336 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of users and statuses, fed by every status, user and direct message parsed from responses and streams.<br>
+ * Twitter#showUser(), Twitter#showStatus() and Twitter#lookupUsers() are served from the cache while the entries are younger than the time to live.
+ * Entries are evicted in least recently used order once the cache is full, and are striped by id to keep lock contention low.<br>
+ * The cache is enabled with entityCacheSize, and can be shared among Twitter and TwitterStream instances authenticated as the same account.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class EntityCache {
+    private static final int STRIPES = 16;
+
+    private final int maxEntries;
+    private final long ttl;
+    private final Region<Integer, User> usersById;
+    private final Region<String, User> usersByScreenName;
+    private final Region<Long, Status> statuses;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxEntries maximum number of users, and of statuses, to be kept
+     * @param ttlSeconds period in seconds in which cached entities are served
+     */
+    public EntityCache(int maxEntries, int ttlSeconds) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than 0.");
+        }
+        this.maxEntries = maxEntries;
+        this.ttl = ttlSeconds * 1000L;
+        this.usersById = new Region<Integer, User>(maxEntries);
+        this.usersByScreenName = new Region<String, User>(maxEntries);
+        this.statuses = new Region<Long, Status>(maxEntries);
+    }
+
+    /**
+     * @param id user id
+     * @return the cached user, or null if not cached or expired
+     */
+    public User getUser(int id) {
+        return count(usersById.get(id));
+    }
+
+    /**
+     * @param screenName screen name, case insensitive
+     * @return the cached user, or null if not cached or expired
+     */
+    public User getUser(String screenName) {
+        return count(usersByScreenName.get(screenName.toLowerCase()));
+    }
+
+    /**
+     * @param id status id
+     * @return the cached status, or null if not cached or expired
+     */
+    public Status getStatus(long id) {
+        return count(statuses.get(id));
+    }
+
+    private <T> T count(T value) {
+        if (null == value) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    public void invalidateUser(int id) {
+        User user = usersById.remove(id);
+        if (null != user && null != user.getScreenName()) {
+            usersByScreenName.remove(user.getScreenName().toLowerCase());
+        }
+    }
+
+    public void invalidateStatus(long id) {
+        statuses.remove(id);
+    }
+
+    public void clear() {
+        usersById.clear();
+        usersByScreenName.clear();
+        statuses.clear();
+    }
+
+    /**
+     * Caches the status, its user and the retweeted status.<br>
+     * The user doesn't replace a cached user which includes the latest status, unless the screen name has changed.
+     *
+     * @param status status to be cached
+     */
+    public void cache(Status status) {
+        statuses.put(status.getId(), status);
+        if (null != status.getUser()) {
+            cache(status.getUser(), false);
+        }
+        if (null != status.getRetweetedStatus()) {
+            cache(status.getRetweetedStatus());
+        }
+    }
+
+    /**
+     * Caches the user. The status included in the user is not cached, as it lacks its user.
+     *
+     * @param user user to be cached
+     */
+    public void cache(User user) {
+        cache(user, true);
+    }
+
+    /**
+     * @param user     user to be cached
+     * @param complete false if the user is nested in another entity, and lacks the latest status
+     */
+    private void cache(User user, boolean complete) {
+        User previous = usersById.get(user.getId());
+        if (null != previous) {
+            String previousScreenName = null == previous.getScreenName() ? null : previous.getScreenName().toLowerCase();
+            String screenName = null == user.getScreenName() ? null : user.getScreenName().toLowerCase();
+            if (null != previousScreenName && !previousScreenName.equals(screenName)) {
+                // the screen name has changed, or is taken by someone else
+                User indexed = usersByScreenName.get(previousScreenName);
+                if (null != indexed && indexed.getId() == user.getId()) {
+                    usersByScreenName.remove(previousScreenName);
+                }
+            } else if (!complete && null != previous.getStatus()) {
+                return;
+            }
+        }
+        usersById.put(user.getId(), user);
+        if (null != user.getScreenName()) {
+            usersByScreenName.put(user.getScreenName().toLowerCase(), user);
+        }
+    }
+
+    /**
+     * Caches the sender and the recipient of the message, which don't replace cached users including the latest status.
+     *
+     * @param message direct message
+     */
+    public void cache(DirectMessage message) {
+        if (null != message.getSender()) {
+            cache(message.getSender(), false);
+        }
+        if (null != message.getRecipient()) {
+            cache(message.getRecipient(), false);
+        }
+    }
+
+    /*package*/ void cacheObject(Object obj) {
+        if (obj instanceof Status) {
+            cache((Status) obj);
+        } else if (obj instanceof User) {
+            cache((User) obj);
+        } else if (obj instanceof DirectMessage) {
+            cache((DirectMessage) obj);
+        }
+    }
+
+    /**
+     * @return number of cached users and statuses
+     */
+    public int size() {
+        return usersById.size() + statuses.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of entries evicted to keep the cache within the size, excluding expired ones
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return 0 == total ? 0d : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityCache{" +
+                "maxEntries=" + maxEntries +
+                ", ttl=" + ttl +
+                ", size=" + size() +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+
+    private static final class CacheEntry<V> {
+        final V value;
+        final long cachedAt;
+
+        CacheEntry(V value, long cachedAt) {
+            this.value = value;
+            this.cachedAt = cachedAt;
+        }
+    }
+
+    /**
+     * Stripes of LRU maps, each locked on its own.
+     */
+    private final class Region<K, V> {
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        Region(int maxEntries) {
+            int perStripe = Math.max(1, (maxEntries + STRIPES - 1) / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(perStripe);
+            }
+        }
+
+        private Stripe stripe(Object key) {
+            int hash = key.hashCode();
+            hash ^= (hash >>> 16);
+            return stripes[hash & (STRIPES - 1)];
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(K key) {
+            Stripe stripe = stripe(key);
+            synchronized (stripe) {
+                CacheEntry<V> entry = (CacheEntry<V>) stripe.get(key);
+                if (null == entry) {
+                    return null;
+                }
+                if (System.currentTimeMillis() - entry.cachedAt > ttl) {
+                    stripe.remove(key);
+                    return null;
+                }
+                return entry.value;
+            }
+        }
+
+        void put(K key, V value) {
+            Stripe stripe = stripe(key);
+            synchronized (stripe) {
+                stripe.put(key, new CacheEntry<V>(value, System.currentTimeMillis()));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        V remove(K key) {
+            Stripe stripe = stripe(key);
+            synchronized (stripe) {
+                CacheEntry<V> entry = (CacheEntry<V>) stripe.remove(key);
+                return null == entry ? null : entry.value;
+            }
+        }
+
+        void clear() {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.clear();
+                }
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.size();
+                }
+            }
+            return size;
+        }
+    }
+
+    private final class Stripe extends LinkedHashMap<Object, CacheEntry<?>> {
+        private final int maxEntries;
+        private static final long serialVersionUID = 3185305768226553171L;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, CacheEntry<?>> eldest) {
+            if (size() > maxEntries) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
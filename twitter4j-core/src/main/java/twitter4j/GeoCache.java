@@ -0,0 +1,612 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of geo API results, keyed by the geohash of the queried location.<br>
+ * Reverse geocode and nearby places results are shared by locations falling in the same geohash cell, whose size is chosen by the accuracy, or by the granularity if no accuracy is given.
+ * Places returned are also kept in an R-tree of their bounding boxes, so that a location can be resolved to a place locally with locate().<br>
+ * The cache is enabled with geoCacheSize. Geo data doesn't depend on the account, so that an instance can be shared among Twitter instances.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class GeoCache {
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    /**
+     * approximate width in meters of geohash cells at the equator, indexed by geohash length
+     */
+    private static final double[] CELL_WIDTH = {40075000, 5009400, 1252300, 156500, 39100, 4900, 1200, 152.9, 38.2, 4.8};
+    private static final String ADMIN = "admin";
+    private static final String COUNTRY = "country";
+
+    private final int maxEntries;
+    private final long ttl;
+    private final Map<String, CacheEntry> results;
+    private final Map<String, Box> indexed;
+    private final PlaceIndex index = new PlaceIndex();
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long locateHitCount = 0;
+    private long locateMissCount = 0;
+
+    /**
+     * @param maxEntries maximum number of query results, and of indexed places, to be kept
+     * @param ttlSeconds period in seconds in which cached results are served
+     */
+    public GeoCache(final int maxEntries, int ttlSeconds) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than 0.");
+        }
+        this.maxEntries = maxEntries;
+        this.ttl = ttlSeconds * 1000L;
+        this.results = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = -1916012519186305924L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.indexed = new LinkedHashMap<String, Box>(16, 0.75f, true) {
+            private static final long serialVersionUID = 6329418766120946785L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Box> eldest) {
+                if (size() > maxEntries) {
+                    index.remove(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the smallest indexed place whose bounding box contains the location.
+     *
+     * @param location location
+     * @return the place, or null if no indexed place contains the location
+     */
+    public synchronized Place locate(GeoLocation location) {
+        List<Place> places = locateAll(location);
+        if (0 == places.size()) {
+            locateMissCount++;
+            return null;
+        }
+        locateHitCount++;
+        return places.get(0);
+    }
+
+    /**
+     * Returns indexed places whose bounding boxes contain the location, from the smallest to the largest.
+     *
+     * @param location location
+     * @return places containing the location
+     */
+    public synchronized List<Place> locateAll(GeoLocation location) {
+        List<Box> found = new ArrayList<Box>();
+        index.search(location.getLatitude(), location.getLongitude(), found);
+        Collections.sort(found, BY_AREA);
+        List<Place> places = new ArrayList<Place>(found.size());
+        for (Box box : found) {
+            places.add(box.place);
+        }
+        return places;
+    }
+
+    /**
+     * Adds the place to the index, if it has a bounding box.
+     *
+     * @param place place to be indexed
+     */
+    public synchronized void index(Place place) {
+        if (null == place.getId() || indexed.containsKey(place.getId())) {
+            return;
+        }
+        GeoLocation[][] coordinates = place.getBoundingBoxCoordinates();
+        if (null == coordinates) {
+            return;
+        }
+        Box box = null;
+        for (GeoLocation[] ring : coordinates) {
+            for (GeoLocation point : ring) {
+                // bounding box coordinates are kept in the GeoJSON order, longitude first
+                double latitude = point.getLongitude();
+                double longitude = point.getLatitude();
+                if (null == box) {
+                    box = new Box(latitude, longitude, latitude, longitude);
+                } else {
+                    box.include(latitude, longitude, latitude, longitude);
+                }
+            }
+        }
+        if (null != box) {
+            box.place = place;
+            index.insert(box);
+            indexed.put(place.getId(), box);
+        }
+    }
+
+    /*package*/ synchronized ResponseList<Place> getPlaces(TwitterMethod method, GeoQuery query) {
+        String key = key(method, query);
+        return null == key ? null : get(key);
+    }
+
+    /*package*/ synchronized void cache(TwitterMethod method, GeoQuery query, List<Place> places) {
+        String key = key(method, query);
+        if (null != key) {
+            put(key, places);
+        }
+    }
+
+    /*package*/ synchronized Place getGeoDetails(String id) {
+        ResponseList<Place> places = get(TwitterMethod.GEO_DETAILS.name() + ':' + id);
+        return null == places || 0 == places.size() ? null : places.get(0);
+    }
+
+    /*package*/ synchronized void cacheGeoDetails(Place place) {
+        List<Place> places = new ArrayList<Place>(1);
+        places.add(place);
+        put(TwitterMethod.GEO_DETAILS.name() + ':' + place.getId(), places);
+    }
+
+    private ResponseList<Place> get(String key) {
+        CacheEntry entry = results.get(key);
+        if (null != entry && System.currentTimeMillis() - entry.cachedAt > ttl) {
+            results.remove(key);
+            entry = null;
+        }
+        if (null == entry) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        ResponseList<Place> places = new ResponseListImpl<Place>(entry.places.length, null);
+        for (Place place : entry.places) {
+            places.add(place);
+        }
+        return places;
+    }
+
+    private void put(String key, List<Place> places) {
+        results.put(key, new CacheEntry(places.toArray(new Place[places.size()])));
+        for (Place place : places) {
+            index(place);
+        }
+    }
+
+    /**
+     * @return the cache key, or null if the query is not cacheable
+     */
+    private static String key(TwitterMethod method, GeoQuery query) {
+        StringBuffer buf = new StringBuffer(32);
+        buf.append(method.name()).append(':');
+        if (null != query.getLocation()) {
+            GeoLocation location = query.getLocation();
+            buf.append(geohash(location.getLatitude(), location.getLongitude()
+                    , precision(query.getAccuracy(), query.getGranularity())));
+        } else if (null != query.getIp()) {
+            buf.append(query.getIp());
+        } else {
+            return null;
+        }
+        return buf.append(':').append(query.getGranularity())
+                .append(':').append(query.getMaxResults()).toString();
+    }
+
+    /**
+     * Returns the length of geohash whose cells are not smaller than the region to be searched.
+     *
+     * @param accuracy    radius in meters, or in feet with "ft" suffix
+     * @param granularity granularity
+     * @return geohash length
+     */
+    /*package*/ static int precision(String accuracy, String granularity) {
+        double radius = 0;
+        if (null != accuracy) {
+            try {
+                if (accuracy.endsWith("ft")) {
+                    radius = Double.parseDouble(accuracy.substring(0, accuracy.length() - 2).trim()) * 0.3048;
+                } else if (accuracy.endsWith("m")) {
+                    radius = Double.parseDouble(accuracy.substring(0, accuracy.length() - 1).trim());
+                } else {
+                    radius = Double.parseDouble(accuracy.trim());
+                }
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        if (radius <= 0) {
+            if (GeoQuery.CITY.equals(granularity)) {
+                radius = 4900;
+            } else if (ADMIN.equals(granularity)) {
+                radius = 39100;
+            } else if (COUNTRY.equals(granularity)) {
+                radius = 1252300;
+            } else {
+                // neighborhood
+                radius = 152.9;
+            }
+        }
+        int precision = 1;
+        while (precision + 1 < CELL_WIDTH.length && CELL_WIDTH[precision + 1] >= radius) {
+            precision++;
+        }
+        return precision;
+    }
+
+    /*package*/ static String geohash(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        char[] hash = new char[precision];
+        boolean even = true;
+        for (int i = 0; i < precision; i++) {
+            int ch = 0;
+            for (int bit = 4; bit >= 0; bit--) {
+                if (even) {
+                    double mid = (minLng + maxLng) / 2;
+                    if (longitude >= mid) {
+                        ch |= 1 << bit;
+                        minLng = mid;
+                    } else {
+                        maxLng = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        ch |= 1 << bit;
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                even = !even;
+            }
+            hash[i] = BASE32[ch];
+        }
+        return new String(hash);
+    }
+
+    public synchronized void clear() {
+        results.clear();
+        indexed.clear();
+        index.clear();
+    }
+
+    /**
+     * @return number of cached query results
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * @return number of places in the index
+     */
+    public synchronized int getIndexedPlaceCount() {
+        return indexed.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized double getHitRatio() {
+        long total = hitCount + missCount;
+        return 0 == total ? 0d : (double) hitCount / total;
+    }
+
+    public synchronized long getLocateHitCount() {
+        return locateHitCount;
+    }
+
+    public synchronized long getLocateMissCount() {
+        return locateMissCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "GeoCache{" +
+                "maxEntries=" + maxEntries +
+                ", ttl=" + ttl +
+                ", size=" + results.size() +
+                ", indexedPlaces=" + indexed.size() +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", locateHitCount=" + locateHitCount +
+                ", locateMissCount=" + locateMissCount +
+                '}';
+    }
+
+    private static final class CacheEntry {
+        final Place[] places;
+        final long cachedAt = System.currentTimeMillis();
+
+        CacheEntry(Place[] places) {
+            this.places = places;
+        }
+    }
+
+    private static final Comparator<Box> BY_AREA = new Comparator<Box>() {
+        public int compare(Box box1, Box box2) {
+            return Double.compare(box1.area(), box2.area());
+        }
+    };
+
+    /**
+     * A bounding box, either of a place or of an R-tree node.
+     */
+    /*package*/ static class Box {
+        double minLat;
+        double minLng;
+        double maxLat;
+        double maxLng;
+        Node parent;
+        Place place;
+
+        Box(double minLat, double minLng, double maxLat, double maxLng) {
+            this.minLat = minLat;
+            this.minLng = minLng;
+            this.maxLat = maxLat;
+            this.maxLng = maxLng;
+        }
+
+        final double area() {
+            return (maxLat - minLat) * (maxLng - minLng);
+        }
+
+        final double areaWith(Box box) {
+            return (Math.max(maxLat, box.maxLat) - Math.min(minLat, box.minLat))
+                    * (Math.max(maxLng, box.maxLng) - Math.min(minLng, box.minLng));
+        }
+
+        final void include(double minLat, double minLng, double maxLat, double maxLng) {
+            this.minLat = Math.min(this.minLat, minLat);
+            this.minLng = Math.min(this.minLng, minLng);
+            this.maxLat = Math.max(this.maxLat, maxLat);
+            this.maxLng = Math.max(this.maxLng, maxLng);
+        }
+
+        final void include(Box box) {
+            include(box.minLat, box.minLng, box.maxLat, box.maxLng);
+        }
+
+        final boolean contains(double latitude, double longitude) {
+            return minLat <= latitude && latitude <= maxLat && minLng <= longitude && longitude <= maxLng;
+        }
+    }
+
+    /*package*/ static final class Node extends Box {
+        final boolean leaf;
+        final List<Box> children = new ArrayList<Box>(PlaceIndex.MAX_CHILDREN + 1);
+
+        Node(boolean leaf) {
+            super(0, 0, 0, 0);
+            this.leaf = leaf;
+        }
+
+        void add(Box child) {
+            if (children.isEmpty()) {
+                minLat = child.minLat;
+                minLng = child.minLng;
+                maxLat = child.maxLat;
+                maxLng = child.maxLng;
+            } else {
+                include(child);
+            }
+            children.add(child);
+            child.parent = this;
+        }
+
+        void recalculate() {
+            Box first = children.get(0);
+            minLat = first.minLat;
+            minLng = first.minLng;
+            maxLat = first.maxLat;
+            maxLng = first.maxLng;
+            for (Box child : children) {
+                include(child);
+            }
+        }
+    }
+
+    /**
+     * An R-tree of place bounding boxes, split with Guttman's quadratic split.
+     */
+    /*package*/ static final class PlaceIndex {
+        static final int MAX_CHILDREN = 8;
+        static final int MIN_CHILDREN = 3;
+        private Node root = new Node(true);
+
+        void insert(Box box) {
+            Node node = root;
+            while (!node.leaf) {
+                node = chooseSubtree(node, box);
+            }
+            node.add(box);
+            while (null != node) {
+                Node parent = node.parent;
+                if (node.children.size() > MAX_CHILDREN) {
+                    Node sibling = split(node);
+                    if (null == parent) {
+                        root = new Node(false);
+                        root.add(node);
+                        root.add(sibling);
+                        return;
+                    }
+                    parent.add(sibling);
+                }
+                if (null != parent) {
+                    parent.recalculate();
+                }
+                node = parent;
+            }
+        }
+
+        private static Node chooseSubtree(Node node, Box box) {
+            Node chosen = null;
+            double leastEnlargement = Double.MAX_VALUE;
+            for (Box child : node.children) {
+                double enlargement = child.areaWith(box) - child.area();
+                if (enlargement < leastEnlargement
+                        || (enlargement == leastEnlargement && child.area() < chosen.area())) {
+                    chosen = (Node) child;
+                    leastEnlargement = enlargement;
+                }
+            }
+            return chosen;
+        }
+
+        /**
+         * Moves about half of the children to a new sibling node.
+         */
+        private static Node split(Node node) {
+            List<Box> entries = new ArrayList<Box>(node.children);
+            // pick the pair wasting the most area as seeds
+            int seed1 = 0, seed2 = 1;
+            double worst = -Double.MAX_VALUE;
+            for (int i = 0; i < entries.size(); i++) {
+                for (int j = i + 1; j < entries.size(); j++) {
+                    double waste = entries.get(i).areaWith(entries.get(j)) - entries.get(i).area() - entries.get(j).area();
+                    if (waste > worst) {
+                        worst = waste;
+                        seed1 = i;
+                        seed2 = j;
+                    }
+                }
+            }
+            Node group1 = node;
+            Node group2 = new Node(node.leaf);
+            group1.children.clear();
+            Box box2 = entries.remove(seed2);
+            Box box1 = entries.remove(seed1);
+            group1.add(box1);
+            group2.add(box2);
+            while (!entries.isEmpty()) {
+                if (group1.children.size() + entries.size() <= MIN_CHILDREN) {
+                    for (Box entry : entries) {
+                        group1.add(entry);
+                    }
+                    break;
+                }
+                if (group2.children.size() + entries.size() <= MIN_CHILDREN) {
+                    for (Box entry : entries) {
+                        group2.add(entry);
+                    }
+                    break;
+                }
+                // assign the entry with the strongest preference first
+                int next = 0;
+                double maxDifference = -1;
+                for (int i = 0; i < entries.size(); i++) {
+                    Box entry = entries.get(i);
+                    double difference = Math.abs((group1.areaWith(entry) - group1.area())
+                            - (group2.areaWith(entry) - group2.area()));
+                    if (difference > maxDifference) {
+                        maxDifference = difference;
+                        next = i;
+                    }
+                }
+                Box entry = entries.remove(next);
+                double enlargement1 = group1.areaWith(entry) - group1.area();
+                double enlargement2 = group2.areaWith(entry) - group2.area();
+                if (enlargement1 < enlargement2
+                        || (enlargement1 == enlargement2 && group1.area() < group2.area())
+                        || (enlargement1 == enlargement2 && group1.area() == group2.area()
+                        && group1.children.size() <= group2.children.size())) {
+                    group1.add(entry);
+                } else {
+                    group2.add(entry);
+                }
+            }
+            return group2;
+        }
+
+        void remove(Box box) {
+            Node node = box.parent;
+            if (null == node || !node.children.remove(box)) {
+                return;
+            }
+            box.parent = null;
+            // drop emptied nodes, and shrink the bounding boxes of the ancestors
+            while (node != root && node.children.isEmpty()) {
+                Node parent = node.parent;
+                parent.children.remove(node);
+                node = parent;
+            }
+            for (; null != node; node = node.parent) {
+                if (!node.children.isEmpty()) {
+                    node.recalculate();
+                }
+            }
+            if (root.children.isEmpty()) {
+                root = new Node(true);
+            } else if (!root.leaf && 1 == root.children.size()) {
+                root = (Node) root.children.get(0);
+                root.parent = null;
+            }
+        }
+
+        void search(double latitude, double longitude, List<Box> found) {
+            if (!root.children.isEmpty()) {
+                search(root, latitude, longitude, found);
+            }
+        }
+
+        private static void search(Node node, double latitude, double longitude, List<Box> found) {
+            for (Box child : node.children) {
+                if (child.contains(latitude, longitude)) {
+                    if (node.leaf) {
+                        found.add(child);
+                    } else {
+                        search((Node) child, latitude, longitude, found);
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            root = new Node(true);
+        }
+    }
+}
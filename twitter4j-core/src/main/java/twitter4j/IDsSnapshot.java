@@ -0,0 +1,441 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * An immutable, compact snapshot of a set of user ids, such as the followers or friends of an account.<br>
+ * The ids are kept sorted and delta-encoded as variable length integers, which takes one to three bytes per id for
+ * typical follower graphs instead of the tens of bytes a boxed HashSet entry takes. The encoded bytes live in a
+ * ByteBuffer, which may be a direct or memory-mapped buffer held outside of the Java heap (see
+ * {@link IDsSnapshotStore}).<br>
+ * Differences and intersections are computed by a linear merge of two snapshots, without materialising either of
+ * them.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class IDsSnapshot implements java.io.Serializable {
+    private static final long serialVersionUID = 5230471095046387619L;
+    private static final long BASE = Integer.MIN_VALUE - 1L;
+
+    private final int size;
+    private transient ByteBuffer encoded;
+
+    private IDsSnapshot(int size, ByteBuffer encoded) {
+        this.size = size;
+        this.encoded = encoded;
+    }
+
+    /**
+     * Creates a snapshot of the specified ids. Duplicated ids are stored once.
+     *
+     * @param ids the ids, in any order
+     * @return the snapshot
+     */
+    public static IDsSnapshot of(int[] ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        Encoder encoder = new Encoder(sorted.length * 2);
+        for (int id : sorted) {
+            encoder.add(id);
+        }
+        return encoder.toSnapshot();
+    }
+
+    /**
+     * Creates a snapshot from the bytes written by {@link #writeTo(OutputStream)}.<br>
+     * The buffer is used as is, from its position to its limit, and must not be modified afterwards.
+     *
+     * @param buffer the encoded snapshot
+     * @return the snapshot
+     */
+    public static IDsSnapshot readFrom(ByteBuffer buffer) {
+        ByteBuffer slice = buffer.slice();
+        int size = slice.getInt(0);
+        slice.position(4);
+        return new IDsSnapshot(size, slice.slice().asReadOnlyBuffer());
+    }
+
+    /**
+     * Fetches all the pages of a cursored ids API into a snapshot.
+     *
+     * @param fetcher fetches a page of ids
+     * @return the snapshot
+     * @throws TwitterException when a request failed
+     */
+    public static IDsSnapshot fetch(CursorIterator.Fetcher<IDs> fetcher) throws TwitterException {
+        CursorIterator<IDs> pages = new CursorIterator<IDs>(fetcher);
+        int[] ids = new int[0];
+        int count = 0;
+        while (pages.hasNext()) {
+            int[] page = pages.next().getIDs();
+            if (ids.length < count + page.length) {
+                int[] grown = new int[Math.max(ids.length * 2, count + page.length)];
+                System.arraycopy(ids, 0, grown, 0, count);
+                ids = grown;
+            }
+            System.arraycopy(page, 0, ids, count, page.length);
+            count += page.length;
+        }
+        Arrays.sort(ids, 0, count);
+        Encoder encoder = new Encoder(count * 2);
+        for (int i = 0; i < count; i++) {
+            encoder.add(ids[i]);
+        }
+        return encoder.toSnapshot();
+    }
+
+    /**
+     * @return a snapshot of the followers of the specified user
+     * @throws TwitterException when a request failed
+     */
+    public static IDsSnapshot fetchFollowers(final Twitter twitter, final String screenName) throws TwitterException {
+        return fetch(new CursorIterator.Fetcher<IDs>() {
+            public IDs fetch(long cursor) throws TwitterException {
+                return twitter.getFollowersIDs(screenName, cursor);
+            }
+        });
+    }
+
+    /**
+     * @return a snapshot of the followers of the specified user
+     * @throws TwitterException when a request failed
+     */
+    public static IDsSnapshot fetchFollowers(final Twitter twitter, final int userId) throws TwitterException {
+        return fetch(new CursorIterator.Fetcher<IDs>() {
+            public IDs fetch(long cursor) throws TwitterException {
+                return twitter.getFollowersIDs(userId, cursor);
+            }
+        });
+    }
+
+    /**
+     * @return a snapshot of the friends of the specified user
+     * @throws TwitterException when a request failed
+     */
+    public static IDsSnapshot fetchFriends(final Twitter twitter, final String screenName) throws TwitterException {
+        return fetch(new CursorIterator.Fetcher<IDs>() {
+            public IDs fetch(long cursor) throws TwitterException {
+                return twitter.getFriendsIDs(screenName, cursor);
+            }
+        });
+    }
+
+    /**
+     * @return a snapshot of the friends of the specified user
+     * @throws TwitterException when a request failed
+     */
+    public static IDsSnapshot fetchFriends(final Twitter twitter, final int userId) throws TwitterException {
+        return fetch(new CursorIterator.Fetcher<IDs>() {
+            public IDs fetch(long cursor) throws TwitterException {
+                return twitter.getFriendsIDs(userId, cursor);
+            }
+        });
+    }
+
+    /**
+     * @return the number of ids
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes the encoded ids take
+     */
+    public int getEncodedSize() {
+        return encoded.limit();
+    }
+
+    /**
+     * @param id the id
+     * @return true if the snapshot contains the id. This scans the snapshot.
+     */
+    public boolean contains(int id) {
+        Decoder decoder = new Decoder(encoded);
+        while (decoder.hasNext()) {
+            int next = decoder.next();
+            if (next >= id) {
+                return next == id;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the ids in ascending order
+     */
+    public int[] toArray() {
+        int[] ids = new int[size];
+        Decoder decoder = new Decoder(encoded);
+        for (int i = 0; i < size; i++) {
+            ids[i] = decoder.next();
+        }
+        return ids;
+    }
+
+    /**
+     * Computes the ids added and removed between this snapshot and a newer one.
+     *
+     * @param newer the newer snapshot
+     * @return the difference
+     */
+    public Diff diff(IDsSnapshot newer) {
+        Encoder added = new Encoder(16);
+        Encoder removed = new Encoder(16);
+        Decoder olds = new Decoder(encoded);
+        Decoder news = new Decoder(newer.encoded);
+        while (olds.hasNext() && news.hasNext()) {
+            int o = olds.peek();
+            int n = news.peek();
+            if (o == n) {
+                olds.next();
+                news.next();
+            } else if (o < n) {
+                removed.add(olds.next());
+            } else {
+                added.add(news.next());
+            }
+        }
+        while (olds.hasNext()) {
+            removed.add(olds.next());
+        }
+        while (news.hasNext()) {
+            added.add(news.next());
+        }
+        return new Diff(added.toSnapshot(), removed.toSnapshot());
+    }
+
+    /**
+     * Computes the ids contained in both snapshots, e.g. the mutual follows when given the followers and friends of an
+     * account.
+     *
+     * @param other the other snapshot
+     * @return the intersection
+     */
+    public IDsSnapshot intersect(IDsSnapshot other) {
+        Encoder both = new Encoder(16);
+        Decoder d1 = new Decoder(encoded);
+        Decoder d2 = new Decoder(other.encoded);
+        while (d1.hasNext() && d2.hasNext()) {
+            int id1 = d1.peek();
+            int id2 = d2.peek();
+            if (id1 == id2) {
+                both.add(d1.next());
+                d2.next();
+            } else if (id1 < id2) {
+                d1.next();
+            } else {
+                d2.next();
+            }
+        }
+        return both.toSnapshot();
+    }
+
+    /**
+     * Writes the snapshot in the form read by {@link #readFrom(ByteBuffer)}.
+     *
+     * @param out the stream to write to
+     * @throws IOException when writing failed
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(size >>> 24);
+        out.write(size >>> 16);
+        out.write(size >>> 8);
+        out.write(size);
+        ByteBuffer bytes = encoded.duplicate();
+        bytes.rewind();
+        byte[] chunk = new byte[Math.min(8192, Math.max(1, bytes.remaining()))];
+        while (bytes.hasRemaining()) {
+            int length = Math.min(chunk.length, bytes.remaining());
+            bytes.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+        }
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        byte[] bytes = new byte[encoded.limit()];
+        encoded.duplicate().get(bytes);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        encoded = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IDsSnapshot)) return false;
+        IDsSnapshot that = (IDsSnapshot) o;
+        return size == that.size && encoded.equals(that.encoded);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + encoded.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "IDsSnapshot{" +
+                "size=" + size +
+                ", encodedSize=" + encoded.limit() +
+                '}';
+    }
+
+    /**
+     * The ids added to and removed from a snapshot.
+     */
+    public static final class Diff implements java.io.Serializable {
+        private static final long serialVersionUID = -3866291207245614012L;
+        private final IDsSnapshot added;
+        private final IDsSnapshot removed;
+
+        Diff(IDsSnapshot added, IDsSnapshot removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+
+        /**
+         * @return the ids only in the newer snapshot, e.g. new followers
+         */
+        public IDsSnapshot getAdded() {
+            return added;
+        }
+
+        /**
+         * @return the ids only in the older snapshot, e.g. lost followers
+         */
+        public IDsSnapshot getRemoved() {
+            return removed;
+        }
+
+        @Override
+        public String toString() {
+            return "Diff{" +
+                    "added=" + added.size() +
+                    ", removed=" + removed.size() +
+                    '}';
+        }
+    }
+
+    /**
+     * Encodes ascending ids as variable length deltas.
+     */
+    private static final class Encoder {
+        private byte[] bytes;
+        private int length = 0;
+        private int count = 0;
+        private long previous = BASE;
+
+        Encoder(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void add(int id) {
+            if (id == previous) {
+                return;
+            }
+            long delta = id - previous;
+            previous = id;
+            count++;
+            if (bytes.length < length + 5) {
+                byte[] grown = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+            while ((delta & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            bytes[length++] = (byte) delta;
+        }
+
+        IDsSnapshot toSnapshot() {
+            return new IDsSnapshot(count, ByteBuffer.wrap(bytes, 0, length).slice().asReadOnlyBuffer());
+        }
+    }
+
+    /**
+     * Decodes the ids of a snapshot in ascending order.
+     */
+    private static final class Decoder {
+        private final ByteBuffer bytes;
+        private int position = 0;
+        private long previous = BASE;
+        private int peeked;
+        private boolean hasPeeked = false;
+
+        Decoder(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasNext() {
+            return hasPeeked || position < bytes.limit();
+        }
+
+        int peek() {
+            if (!hasPeeked) {
+                peeked = read();
+                hasPeeked = true;
+            }
+            return peeked;
+        }
+
+        int next() {
+            if (hasPeeked) {
+                hasPeeked = false;
+                return peeked;
+            }
+            return read();
+        }
+
+        private int read() {
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes.get(position++);
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += delta;
+            return (int) previous;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+/**
+ * Keeps the latest {@link IDsSnapshot} of each key in a directory.<br>
+ * Loaded snapshots are memory-mapped, so that their ids stay outside of the Java heap.
+ * A mapped file can't be replaced or deleted on some platforms, such as Windows, until the mapping is garbage collected.
+ * Each save therefore writes a new version of the file, "key.ids.N", and deletes the older versions that are no longer mapped.
+ * Versions left behind are deleted by later saves.
+ * <pre>
+ * IDsSnapshotStore store = new IDsSnapshotStore(new File("followers"));
+ * IDsSnapshot.Diff diff = store.update("twit4j", IDsSnapshot.fetchFollowers(twitter, "twit4j"));
+ * int[] newFollowers = diff.getAdded().toArray();
+ * int[] lostFollowers = diff.getRemoved().toArray();
+ * </pre>
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class IDsSnapshotStore {
+    private static final String SUFFIX = ".ids";
+    private final File directory;
+
+    /**
+     * @param directory the directory to keep the snapshots in. It is created if necessary.
+     */
+    public IDsSnapshotStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param key the key, e.g. "followers-twit4j". Must be usable as a file name.
+     * @return the snapshot saved with the key, or null if none
+     * @throws IOException when reading failed
+     */
+    public IDsSnapshot load(String key) throws IOException {
+        long version = latestVersion(key);
+        if (version < 0) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(fileOf(key, version), "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            return IDsSnapshot.readFrom(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Saves the snapshot with the key, replacing the previous one.
+     *
+     * @param key      the key. Must be usable as a file name.
+     * @param snapshot the snapshot
+     * @throws IOException when writing failed
+     */
+    public void save(String key, IDsSnapshot snapshot) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("failed to create " + directory);
+        }
+        long version = latestVersion(key) + 1;
+        File file = fileOf(key, version);
+        File tmp = new File(directory, key + SUFFIX + ".tmp");
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp));
+        try {
+            snapshot.writeTo(out);
+        } finally {
+            out.close();
+        }
+        // a new name, so that no file which might still be mapped is replaced
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("failed to rename " + tmp + " to " + file);
+        }
+        for (long old : versions(key)) {
+            if (old < version) {
+                // fails while the file is mapped on some platforms. deleted by a later save then
+                fileOf(key, old).delete();
+            }
+        }
+    }
+
+    /**
+     * Saves the latest snapshot with the key, and returns the difference from the snapshot previously saved.<br>
+     * When there was no previous snapshot, all the ids are reported as added.
+     *
+     * @param key    the key. Must be usable as a file name.
+     * @param latest the latest snapshot
+     * @return the difference
+     * @throws IOException when reading or writing failed
+     */
+    public IDsSnapshot.Diff update(String key, IDsSnapshot latest) throws IOException {
+        IDsSnapshot previous = load(key);
+        if (null == previous) {
+            previous = IDsSnapshot.of(new int[0]);
+        }
+        IDsSnapshot.Diff diff = previous.diff(latest);
+        save(key, latest);
+        return diff;
+    }
+
+    /**
+     * Deletes the snapshots saved with the key.
+     *
+     * @param key the key
+     * @return true if a snapshot was deleted
+     */
+    public boolean delete(String key) {
+        boolean deleted = false;
+        for (long version : versions(key)) {
+            deleted |= fileOf(key, version).delete();
+        }
+        return deleted;
+    }
+
+    private long latestVersion(String key) {
+        long latest = -1;
+        for (long version : versions(key)) {
+            latest = Math.max(latest, version);
+        }
+        return latest;
+    }
+
+    private long[] versions(String key) {
+        final String prefix = key + SUFFIX + ".";
+        String[] names = directory.list(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && isVersion(name.substring(prefix.length()));
+            }
+        });
+        if (null == names) {
+            return new long[0];
+        }
+        long[] versions = new long[names.length];
+        for (int i = 0; i < names.length; i++) {
+            versions[i] = Long.parseLong(names[i].substring(prefix.length()));
+        }
+        return versions;
+    }
+
+    private static boolean isVersion(String str) {
+        if (0 == str.length() || 18 < str.length()) {
+            return false;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            if (!Character.isDigit(str.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private File fileOf(String key, long version) {
+        return new File(directory, key + SUFFIX + "." + version);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import twitter4j.internal.http.HttpResponse;
+import twitter4j.internal.org.json.JSONArray;
+import twitter4j.internal.org.json.JSONException;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * ResponseList which keeps the parsed JSON elements and creates data objects on access, by the accessing thread.<br>
+ * As a consequence, an element which cannot be turned into a data object doesn't fail the API call returning the list.
+ * Instead, accessing that element throws an IllegalStateException caused by the TwitterException, every time it is accessed.
+ * The other elements remain accessible.<br>
+ * The list can be modified like ArrayList. Modifications, serialization, equals and hashCode materialize the whole list.<br>
+ * Large lists can be materialized ahead of time with {@link #materializeAll(Executor)}, which divides them into one chunk per processor.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+/*package*/ final class LazyResponseList<T> extends AbstractList<T> implements ResponseList<T>, java.io.Serializable {
+    /**
+     * Creates a data object from an element of the response.
+     */
+    /*package*/ interface Factory<T> {
+        T create(JSONObject json) throws TwitterException, JSONException;
+    }
+
+    /**
+     * data objects, and JSONObjects for elements not materialized yet
+     */
+    private final ArrayList<Object> elements;
+    private transient Factory<T> factory;
+    private transient EntityCache entityCache;
+    private transient int unmaterialized;
+    private transient RateLimitStatus rateLimitStatus = null;
+    private transient RateLimitStatus featureSpecificRateLimitStatus = null;
+    private static final long serialVersionUID = -3011916474919826743L;
+    /*package*/ static final int PARALLEL_THRESHOLD = 50;
+    private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    /*package*/ LazyResponseList(JSONArray list, HttpResponse res, Factory<T> factory) throws TwitterException {
+        int size = list.length();
+        this.elements = new ArrayList<Object>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                elements.add(list.getJSONObject(i));
+            }
+        } catch (JSONException jsone) {
+            throw new TwitterException(jsone);
+        }
+        this.factory = factory;
+        this.entityCache = null == res ? null : res.getEntityCache();
+        this.unmaterialized = size;
+        this.rateLimitStatus = RateLimitStatusJSONImpl.createFromResponseHeader(res);
+        this.featureSpecificRateLimitStatus = RateLimitStatusJSONImpl.createFeatureSpecificRateLimitStatusFromResponseHeader(res);
+    }
+
+    private T create(int index, JSONObject json) {
+        try {
+            T element = factory.create(json);
+            if (null != entityCache) {
+                entityCache.cacheObject(element);
+            }
+            return element;
+        } catch (TwitterException te) {
+            throw new IllegalStateException("failed to create element " + index + ": " + te.getMessage(), te);
+        } catch (JSONException jsone) {
+            throw new IllegalStateException("failed to create element " + index + ": " + jsone.getMessage()
+                    , new TwitterException(jsone));
+        }
+    }
+
+    private synchronized void materializeAll() {
+        for (int i = 0; 0 < unmaterialized && i < elements.size(); i++) {
+            Object element = elements.get(i);
+            if (element instanceof JSONObject) {
+                elements.set(i, create(i, (JSONObject) element));
+                unmaterialized--;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void materializeAll(Executor executor) {
+        int size;
+        synchronized (this) {
+            if (0 == unmaterialized) {
+                return;
+            }
+            size = elements.size();
+        }
+        if (size < PARALLEL_THRESHOLD) {
+            return;
+        }
+        int chunkSize = (size + PROCESSORS - 1) / PROCESSORS;
+        // the head of the list is likely to be accessed first by the caller, so it is submitted last
+        for (int end = size; 0 < end; end -= chunkSize) {
+            final int from = Math.max(0, end - chunkSize);
+            final int to = end;
+            try {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        for (int i = from; i < to; i++) {
+                            materialize(i);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException ree) {
+                // the remaining elements are created on access
+                return;
+            }
+        }
+    }
+
+    private void materialize(int index) {
+        Object element;
+        synchronized (this) {
+            if (elements.size() <= index) {
+                return;
+            }
+            element = elements.get(index);
+        }
+        if (!(element instanceof JSONObject)) {
+            return;
+        }
+        T created;
+        try {
+            created = create(index, (JSONObject) element);
+        } catch (IllegalStateException ise) {
+            // thrown again when the element is accessed
+            return;
+        }
+        synchronized (this) {
+            if (index < elements.size() && elements.get(index) == element) {
+                elements.set(index, created);
+                unmaterialized--;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Object element;
+        synchronized (this) {
+            element = elements.get(index);
+        }
+        if (!(element instanceof JSONObject)) {
+            return (T) element;
+        }
+        T created = create(index, (JSONObject) element);
+        synchronized (this) {
+            Object current = elements.get(index);
+            if (current == element) {
+                elements.set(index, created);
+                unmaterialized--;
+                return created;
+            }
+        }
+        // materialized by another thread, or the list has been modified meanwhile
+        return get(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized int size() {
+        return elements.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T set(int index, T element) {
+        materializeAll();
+        return (T) elements.set(index, element);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void add(int index, T element) {
+        materializeAll();
+        modCount++;
+        elements.add(index, element);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T remove(int index) {
+        materializeAll();
+        modCount++;
+        return (T) elements.remove(index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals(Object o) {
+        materializeAll();
+        return super.equals(o);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public int hashCode() {
+        materializeAll();
+        return super.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RateLimitStatus getRateLimitStatus() {
+        return rateLimitStatus;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public RateLimitStatus getFeatureSpecificRateLimitStatus() {
+        return featureSpecificRateLimitStatus;
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        materializeAll();
+        out.defaultWriteObject();
+    }
+}
@@ -56,6 +56,13 @@ final class PlaceJSONImpl extends TwitterResponseImpl implements Place, java.io.
     private Place[] containedWithIn;
     private static final long serialVersionUID = -2873364341474633812L;
 
+    /**
+     * field names in the order of the binary form. new fields must be appended.
+     */
+    /*package*/ static final String[] BINARY_SCHEMA = {"name", "street_address", "country_code", "id", "country"
+            , "place_type", "url", "full_name", "bounding_box_type", "bounding_box"
+            , "geometry_type", "geometry", "contained_within"};
+
     /*package*/ PlaceJSONImpl(HttpResponse res) throws TwitterException {
         super(res);
         init(res.asJSONObject());
@@ -64,6 +71,43 @@ final class PlaceJSONImpl extends TwitterResponseImpl implements Place, java.io.
         super(res);
         init(json);
     }
+    /*package*/ PlaceJSONImpl(BinaryCodec.Reader in) throws TwitterException {
+        super();
+        in.beginObject(BINARY_SCHEMA);
+        name = in.readString(0);
+        streetAddress = in.readString(1);
+        countryCode = in.readString(2);
+        id = in.readString(3);
+        country = in.readString(4);
+        placeType = in.readString(5);
+        url = in.readString(6);
+        fullName = in.readString(7);
+        boundingBoxType = in.readString(8);
+        boundingBoxCoordinates = in.readGeoLocations(9);
+        geometryType = in.readString(10);
+        geometryCoordinates = in.readGeoLocations(11);
+        containedWithIn = in.readPlaces(12);
+        in.endObject();
+    }
+
+    /*package*/ void writeTo(BinaryCodec.Writer out) {
+        out.beginObject(BINARY_SCHEMA);
+        out.writeString(0, name);
+        out.writeString(1, streetAddress);
+        out.writeString(2, countryCode);
+        out.writeString(3, id);
+        out.writeString(4, country);
+        out.writeString(5, placeType);
+        out.writeString(6, url);
+        out.writeString(7, fullName);
+        out.writeString(8, boundingBoxType);
+        out.writeGeoLocations(9, boundingBoxCoordinates);
+        out.writeString(10, geometryType);
+        out.writeGeoLocations(11, geometryCoordinates);
+        out.writePlaces(12, containedWithIn);
+        out.endObject();
+    }
+
     private void init(JSONObject json) throws TwitterException{
         try {
             name = getUnescapedString("name", json);
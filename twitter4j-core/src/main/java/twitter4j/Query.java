@@ -388,6 +388,21 @@ public final class Query implements java.io.Serializable {
         return this;
     }
 
+    /*package*/ Query copy() {
+        Query copy = new Query(query);
+        copy.lang = lang;
+        copy.locale = locale;
+        copy.maxId = maxId;
+        copy.rpp = rpp;
+        copy.page = page;
+        copy.since = since;
+        copy.sinceId = sinceId;
+        copy.geocode = geocode;
+        copy.until = until;
+        copy.resultType = resultType;
+        return copy;
+    }
+
     /*package*/ HttpParameter[] asHttpParameterArray(){
         ArrayList<HttpParameter> params = new ArrayList<HttpParameter>();
         appendParameter("q", query, params);
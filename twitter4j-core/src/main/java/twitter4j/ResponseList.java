@@ -27,10 +27,13 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package twitter4j;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 
 /**
- * List of TwitterResponse.
+ * List of TwitterResponse.<br>
+ * Elements of lists of statuses and users are created on first access. An element which cannot be parsed throws an
+ * IllegalStateException, caused by a TwitterException, when accessed.
  *
  * @author Yusuke Yamamoto - yusuke at mac.com
  */
@@ -52,4 +55,14 @@ public interface ResponseList<T> extends TwitterResponse, List<T> {
      */
     public RateLimitStatus getFeatureSpecificRateLimitStatus();
 
+    /**
+     * Creates the elements not accessed yet ahead of time, in parallel on the specified executor.<br>
+     * Lists shorter than 50 elements are left to be created on access, as dividing them doesn't pay off.
+     * This method doesn't wait for the elements to be created, and an element which cannot be parsed is left to throw on access.
+     *
+     * @param executor executor running the creation
+     * @since Twitter4J 2.1.7
+     */
+    public void materializeAll(Executor executor);
+
 }
@@ -29,6 +29,7 @@ package twitter4j;
 import twitter4j.internal.http.HttpResponse;
 
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -58,4 +59,11 @@ class ResponseListImpl<T> extends ArrayList<T> implements ResponseList<T> {
     public RateLimitStatus getFeatureSpecificRateLimitStatus() {
         return featureSpecificRateLimitStatus;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void materializeAll(Executor executor) {
+        // elements are created on construction
+    }
 }
@@ -0,0 +1,292 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Iterates over all the tweets matching a query, fetching the following result pages in the background.<br>
+ * The max_id of the first page is pinned for the following pages, so that tweets posted in the meantime don't shift
+ * the pages. Tweets already returned by a previous page are skipped. The iteration stops when a page comes back with
+ * fewer tweets than requested, when the query's since_id is reached, or after maxPages pages.<br>
+ * In live mode ({@link #setLive(long, long)}), the iterator then keeps polling for tweets newer than the newest one
+ * seen, just like the refresh_url of the search API does. A poll which finds tweets halves the interval until the
+ * next poll, down to the minimum interval. A quiet poll doubles it, up to the maximum interval. A live iterator runs
+ * until it is cancelled.<br>
+ * A TwitterException thrown while fetching is thrown from next(). It ends the iteration, unless in live mode where
+ * polling carries on. A RuntimeException thrown while fetching is thrown from next(), and always ends the iteration.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class SearchIterator {
+    private static final Object END = new Object();
+    private static final int DEFAULT_RPP = 15;
+
+    private final Twitter twitter;
+    private final Query query;
+    private final int maxPages;
+    private final Semaphore room;
+    private final BlockingQueue<Object> pages = new LinkedBlockingQueue<Object>();
+    private final Set<Long> seen = new HashSet<Long>();
+    private volatile boolean cancelled = false;
+    private volatile Thread prefetcher;
+    private boolean live = false;
+    private long minIntervalMillis;
+    private long maxIntervalMillis;
+    private Iterator<Tweet> current;
+    private Object head;
+    private boolean ended = false;
+
+    /**
+     * Creates an iterator prefetching one page, fetching up to 15 pages.
+     *
+     * @param twitter the Twitter instance to search with
+     * @param query   the query. Its page is ignored
+     */
+    public SearchIterator(Twitter twitter, Query query) {
+        this(twitter, query, 1, 15);
+    }
+
+    /**
+     * @param twitter       the Twitter instance to search with
+     * @param query         the query. Its page is ignored
+     * @param prefetchDepth the number of pages fetched ahead of the caller, at least 1
+     * @param maxPages      the maximum number of pages fetched per walk
+     */
+    public SearchIterator(Twitter twitter, Query query, int prefetchDepth, int maxPages) {
+        if (null == twitter || null == query) {
+            throw new NullPointerException();
+        }
+        if (prefetchDepth < 1) {
+            throw new IllegalArgumentException("prefetchDepth must be at least 1: " + prefetchDepth);
+        }
+        this.twitter = twitter;
+        this.query = query.copy();
+        this.maxPages = maxPages;
+        this.room = new Semaphore(prefetchDepth);
+    }
+
+    /**
+     * Keeps polling for new tweets once all the existing ones have been fetched.<br>
+     * Must be called before the iteration starts.
+     *
+     * @param minIntervalMillis the shortest polling interval
+     * @param maxIntervalMillis the longest polling interval
+     */
+    public synchronized void setLive(long minIntervalMillis, long maxIntervalMillis) {
+        if (minIntervalMillis <= 0 || maxIntervalMillis < minIntervalMillis) {
+            throw new IllegalArgumentException("invalid polling interval: " + minIntervalMillis
+                    + "-" + maxIntervalMillis);
+        }
+        if (null != prefetcher) {
+            throw new IllegalStateException("The iteration has already started.");
+        }
+        this.live = true;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    /**
+     * @return true if another tweet (or the exception raised while fetching) is available
+     */
+    public synchronized boolean hasNext() {
+        while (!ended && !cancelled) {
+            if (null != current && current.hasNext()) {
+                return true;
+            }
+            current = null;
+            if (null != head) {
+                return true;
+            }
+            start();
+            Object page;
+            try {
+                page = pages.take();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (cancelled) {
+                break;
+            }
+            if (END == page) {
+                ended = true;
+            } else if (page instanceof TwitterException || page instanceof RuntimeException) {
+                head = page;
+            } else {
+                room.release();
+                @SuppressWarnings("unchecked")
+                List<Tweet> tweets = (List<Tweet>) page;
+                current = tweets.iterator();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the next tweet, waiting for it to be fetched if necessary.
+     *
+     * @return the next tweet
+     * @throws TwitterException when fetching a page failed
+     * @throws NoSuchElementException when there are no more tweets
+     * @throws RuntimeException when fetching a page failed unexpectedly
+     */
+    public synchronized Tweet next() throws TwitterException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (head instanceof RuntimeException) {
+            RuntimeException re = (RuntimeException) head;
+            head = null;
+            ended = true;
+            throw re;
+        }
+        if (null != head) {
+            TwitterException te = (TwitterException) head;
+            head = null;
+            room.release();
+            if (!live) {
+                ended = true;
+            }
+            throw te;
+        }
+        return current.next();
+    }
+
+    /**
+     * Stops fetching. Tweets already fetched are discarded and hasNext() returns false from now on.
+     */
+    public void cancel() {
+        cancelled = true;
+        Thread prefetcher = this.prefetcher;
+        if (null != prefetcher) {
+            prefetcher.interrupt();
+        }
+        pages.clear();
+        // END queued by the prefetcher may have been cleared. wakes up a caller blocked in hasNext()
+        pages.add(END);
+    }
+
+    private synchronized void start() {
+        if (null != prefetcher) {
+            return;
+        }
+        prefetcher = new Thread("Twitter4J Search Prefetcher") {
+            public void run() {
+                prefetch();
+            }
+        };
+        prefetcher.setDaemon(true);
+        prefetcher.start();
+    }
+
+    private void prefetch() {
+        try {
+            long newest;
+            try {
+                newest = walk(query.getSinceId());
+            } catch (TwitterException te) {
+                pages.add(te);
+                return;
+            }
+            long interval = minIntervalMillis;
+            while (live && !cancelled) {
+                Thread.sleep(interval);
+                if (0 < newest) {
+                    // tweets up to newest are excluded by since_id from now on
+                    seen.clear();
+                }
+                try {
+                    long polled = walk(newest);
+                    interval = polled > newest ? Math.max(minIntervalMillis, interval / 2)
+                            : Math.min(maxIntervalMillis, interval * 2);
+                    newest = Math.max(newest, polled);
+                } catch (TwitterException te) {
+                    pages.add(te);
+                    interval = Math.min(maxIntervalMillis, interval * 2);
+                }
+            }
+        } catch (InterruptedException ignore) {
+            // cancelled
+        } catch (RuntimeException re) {
+            pages.add(re);
+        } finally {
+            pages.add(END);
+        }
+    }
+
+    /**
+     * Fetches the pages of tweets newer than sinceId.
+     *
+     * @return the id of the newest tweet seen, or sinceId if none
+     */
+    private long walk(long sinceId) throws TwitterException, InterruptedException {
+        int rpp = 0 < query.getRpp() ? query.getRpp() : DEFAULT_RPP;
+        long maxId = query.getMaxId();
+        long newest = sinceId;
+        for (int page = 1; page <= maxPages && !cancelled; page++) {
+            room.acquire();
+            Query pageQuery = query.copy();
+            pageQuery.setPage(page);
+            pageQuery.setSinceId(sinceId);
+            pageQuery.setMaxId(maxId);
+            QueryResult result = twitter.search(pageQuery);
+            if (maxId <= 0 && 0 < result.getMaxId()) {
+                maxId = result.getMaxId();
+            }
+            List<Tweet> tweets = result.getTweets();
+            List<Tweet> fresh = new ArrayList<Tweet>(tweets.size());
+            boolean reachedSinceId = false;
+            for (Tweet tweet : tweets) {
+                if (0 < sinceId && tweet.getId() <= sinceId) {
+                    reachedSinceId = true;
+                } else if (seen.add(tweet.getId())) {
+                    fresh.add(tweet);
+                    newest = Math.max(newest, tweet.getId());
+                }
+            }
+            if (0 < fresh.size()) {
+                pages.add(fresh);
+            } else {
+                room.release();
+            }
+            if (tweets.size() < rpp || reachedSinceId) {
+                break;
+            }
+        }
+        return newest;
+    }
+}
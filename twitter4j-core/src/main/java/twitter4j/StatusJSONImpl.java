@@ -74,9 +74,20 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
 
     private static final long serialVersionUID = 1608000492860584608L;
 
+    /**
+     * field names in the order of the binary form. new fields must be appended.
+     */
+    /*package*/ static final String[] BINARY_SCHEMA = {"id", "text", "source", "created_at", "truncated"
+            , "in_reply_to_status_id", "in_reply_to_user_id", "favorited", "in_reply_to_screen_name", "geo"
+            , "place", "retweet_count", "retweeted", "contributors", "annotations"
+            , "retweeted_status", "user_mentions", "urls", "hashtags", "user"};
+
     /*package*/StatusJSONImpl(HttpResponse res) throws TwitterException {
         super(res);
         init(res.asJSONObject());
+        if (null != res.getEntityCache()) {
+            res.getEntityCache().cache(this);
+        }
     }
 
     /*package*/ StatusJSONImpl(JSONObject json) throws TwitterException, JSONException {
@@ -84,7 +95,59 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
         init(json);
     }
 
+    /*package*/ StatusJSONImpl(BinaryCodec.Reader in) throws TwitterException {
+        super();
+        in.beginObject(BINARY_SCHEMA);
+        id = in.readLong(0);
+        text = in.readString(1);
+        source = in.readString(2);
+        createdAt = in.readDate(3);
+        isTruncated = in.readBoolean(4);
+        inReplyToStatusId = in.readLong(5);
+        inReplyToUserId = in.readInt(6);
+        isFavorited = in.readBoolean(7);
+        inReplyToScreenName = in.readString(8);
+        geoLocation = in.readGeoLocation(9);
+        place = in.readPlace(10);
+        retweetCount = in.readLong(11);
+        wasRetweetedByMe = in.readBoolean(12);
+        contributors = in.readStrings(13);
+        annotations = in.readAnnotations(14);
+        retweetedStatus = in.readStatus(15);
+        userMentions = in.readUsers(16);
+        urls = in.readURLs(17);
+        hashtags = in.readStrings(18);
+        user = in.readUser(19);
+        in.endObject();
+    }
+
+    /*package*/ void writeTo(BinaryCodec.Writer out) {
+        out.beginObject(BINARY_SCHEMA);
+        out.writeLong(0, id);
+        out.writeString(1, text);
+        out.writeString(2, source);
+        out.writeDate(3, createdAt);
+        out.writeBoolean(4, isTruncated);
+        out.writeLong(5, inReplyToStatusId);
+        out.writeInt(6, inReplyToUserId);
+        out.writeBoolean(7, isFavorited);
+        out.writeString(8, inReplyToScreenName);
+        out.writeGeoLocation(9, geoLocation);
+        out.writePlace(10, place);
+        out.writeLong(11, retweetCount);
+        out.writeBoolean(12, wasRetweetedByMe);
+        out.writeStrings(13, contributors);
+        out.writeAnnotations(14, annotations);
+        out.writeStatus(15, retweetedStatus);
+        out.writeUsers(16, userMentions);
+        out.writeURLs(17, urls);
+        out.writeStrings(18, hashtags);
+        out.writeUser(19, user);
+        out.endObject();
+    }
+
     private void init(JSONObject json) throws TwitterException {
+        retainRawJSON(json);
         id = getLong("id", json);
         text = getUnescapedString("text", json);
         source = getUnescapedString("source", json);
@@ -335,21 +398,15 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
     }
 
     /*package*/ static ResponseList<Status> createStatusList(HttpResponse res) throws TwitterException {
-        try {
-            JSONArray list = res.asJSONArray();
-            int size = list.length();
-            ResponseList<Status> statuses = new ResponseListImpl<Status>(size, res);
-            for (int i = 0; i < size; i++) {
-                statuses.add(new StatusJSONImpl(list.getJSONObject(i)));
-            }
-            return statuses;
-        } catch (JSONException jsone) {
-            throw new TwitterException(jsone);
-        } catch (TwitterException te) {
-            throw te;
-        }
+        return new LazyResponseList<Status>(res.asJSONArray(), res, FACTORY);
     }
 
+    private static final LazyResponseList.Factory<Status> FACTORY = new LazyResponseList.Factory<Status>() {
+        public Status create(JSONObject json) throws TwitterException, JSONException {
+            return new StatusJSONImpl(json);
+        }
+    };
+
     @Override
     public int hashCode() {
         return (int) id;
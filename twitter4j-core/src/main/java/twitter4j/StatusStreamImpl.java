@@ -27,11 +27,11 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package twitter4j;
 
 import twitter4j.internal.http.HttpResponse;
-import twitter4j.internal.json.DataObjectFactoryUtil;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
+import twitter4j.internal.org.json.JSONTokener;
 import twitter4j.internal.util.ParseUtil;
 
 import java.io.BufferedReader;
@@ -53,6 +53,7 @@ class StatusStreamImpl implements StatusStream, UserStream {
     private BufferedReader br;
     private InputStream is;
     private HttpResponse response;
+    private EntityCache entityCache = null;
 
     /*package*/
 
@@ -65,6 +66,7 @@ class StatusStreamImpl implements StatusStream, UserStream {
     StatusStreamImpl(HttpResponse response) throws IOException {
         this(response.asStream());
         this.response = response;
+        this.entityCache = response.getEntityCache();
     }
 
     /**
@@ -85,6 +87,10 @@ class StatusStreamImpl implements StatusStream, UserStream {
         handleNextElement(list);
     }
 
+    /*package*/ void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
     void next(List<StatusListener> listeners) throws TwitterException {
         handleNextElement(listeners);
     }
@@ -101,29 +107,38 @@ class StatusStreamImpl implements StatusStream, UserStream {
                 throw new IOException("the end of the stream has been reached");
             }
             if (line.length() > 0) {
-                DataObjectFactoryUtil.clearThreadLocalMap();
                 logger.debug("received:", line);
                 try {
-                    JSONObject json = new JSONObject(line);
+                    JSONTokener tokener = new JSONTokener(line);
+                    // a line is retained as is, without copying, so raw JSON forms are always available
+                    tokener.setRetainRawJSON(true);
+                    JSONObject json = new JSONObject(tokener);
                     if (!json.isNull ("sender")) {
+                        DirectMessage directMessage = cache(new DirectMessageJSONImpl(json));
                         for (StatusListener listener : listeners) {
                             if (listener instanceof UserStreamListener) {
-                                ((UserStreamListener) listener).onDirectMessage(new DirectMessageJSONImpl(json));
+                                ((UserStreamListener) listener).onDirectMessage(directMessage);
                             }
                         }
                     } else if (!json.isNull("text")) {
+                        Status status = cache(new StatusJSONImpl(json));
                         for (StatusListener listener : listeners) {
-                            listener.onStatus(DataObjectFactoryUtil.registerJSONObject(new StatusJSONImpl(json), json));
+                            listener.onStatus(status);
                         }
                     } else if (!json.isNull("direct_message")) {
+                        DirectMessage directMessage = cache(new DirectMessageJSONImpl(json.getJSONObject("direct_message")));
                         for (StatusListener listener : listeners) {
                             if (listener instanceof UserStreamListener) {
-                                ((UserStreamListener) listener).onDirectMessage(new DirectMessageJSONImpl(json.getJSONObject("direct_message")));
+                                ((UserStreamListener) listener).onDirectMessage(directMessage);
                             }
                         }
                     } else if (!json.isNull("delete")) {
+                        StatusDeletionNotice deletionNotice = new StatusDeletionNoticeImpl(json);
+                        if (null != entityCache) {
+                            entityCache.invalidateStatus(deletionNotice.getStatusId());
+                        }
                         for (StatusListener listener : listeners) {
-                            listener.onDeletionNotice(new StatusDeletionNoticeImpl(json));
+                            listener.onDeletionNotice(deletionNotice);
                         }
                     }
                     else if (!json.isNull("limit")) {
@@ -146,18 +161,18 @@ class StatusStreamImpl implements StatusStream, UserStream {
                         }
                     } else if (!json.isNull("event")) {
                         String event = json.getString("event");
-                        User source = new UserJSONImpl(json.getJSONObject("source"));
-                        User target = new UserJSONImpl(json.getJSONObject("target"));
+                        User source = cache(new UserJSONImpl(json.getJSONObject("source")));
+                        User target = cache(new UserJSONImpl(json.getJSONObject("target")));
 
                         if ("favorite".equals(event)) {
-                            Status targetObject = new StatusJSONImpl(json.getJSONObject("target_object"));
+                            Status targetObject = cache(new StatusJSONImpl(json.getJSONObject("target_object")));
                             for (StatusListener listener : listeners) {
                                 if (listener instanceof UserStreamListener) {
                                     ((UserStreamListener) listener).onFavorite(source, target, targetObject);
                                 }
                             }
                         } else if ("unfavorite".equals(event)) {
-                            Status targetObject = new StatusJSONImpl(json.getJSONObject("target_object"));
+                            Status targetObject = cache(new StatusJSONImpl(json.getJSONObject("target_object")));
                             for (StatusListener listener : listeners) {
                                 if (listener instanceof UserStreamListener) {
                                     ((UserStreamListener) listener).onUnfavorite(source, target, targetObject);
@@ -165,7 +180,7 @@ class StatusStreamImpl implements StatusStream, UserStream {
                             }
                         } else if ("retweet".equals(event)) {
                             // note: retweet events also show up as statuses
-                            Status targetObject = new StatusJSONImpl(json.getJSONObject("target_object"));
+                            Status targetObject = cache(new StatusJSONImpl(json.getJSONObject("target_object")));
                             for (StatusListener listener : listeners) {
                                 if (listener instanceof UserStreamListener) {
                                     ((UserStreamListener) listener).onRetweet(source, target, targetObject);
@@ -249,6 +264,13 @@ class StatusStreamImpl implements StatusStream, UserStream {
         }
     }
 
+    private <T> T cache(T entity) {
+        if (null != entityCache) {
+            entityCache.cacheObject(entity);
+        }
+        return entity;
+    }
+
     /**
      * {@inheritDoc}
      */
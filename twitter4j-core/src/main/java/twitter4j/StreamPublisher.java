@@ -0,0 +1,596 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import twitter4j.internal.logging.Logger;
+
+import java.io.IOException;
+import java.util.LinkedList;
+
+/**
+ * A demand-driven, unicast publisher of stream elements following the Reactive Streams protocol.<br>
+ * Elements are handed to the subscriber on the thread reading the stream as long as there is outstanding demand. Elements arriving without demand are kept in a bounded buffer and drained on the thread calling {@link Subscription#request(long)}. When the buffer is full, the overflow strategy decides whether the oldest element, the newest element or the whole connection is dropped.<br>
+ * Malformed elements and dropped connections, which the stream recovers from by skipping the element or reconnecting, are not signalled to the subscriber. Once the buffered elements are delivered, the subscriber is signalled onError when the stream fails for good, like on an authentication failure or a connection which cannot be reestablished, and onComplete when the stream is cleaned up or shut down. The publisher is detached from the stream either way.<br>
+ * {@link Subscriber} and {@link Subscription} mirror org.reactivestreams.Subscriber and org.reactivestreams.Subscription so that an adapter is a one-liner.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see TwitterStream#getStatusPublisher(int, int)
+ * @see TwitterStream#getUserStreamEventPublisher(int, int)
+ * @since Twitter4J 2.1.7
+ */
+public final class StreamPublisher<T> {
+    private static final Logger logger = Logger.getLogger(StreamPublisher.class);
+
+    /**
+     * drops the element buffered for the longest time to make room for the new one
+     */
+    public static final int DROP_OLDEST = 0;
+    /**
+     * drops the element that does not fit into the buffer
+     */
+    public static final int DROP_NEWEST = 1;
+    /**
+     * disconnects the stream and signals onError to the subscriber
+     */
+    public static final int DISCONNECT = 2;
+
+    public static final int DEFAULT_BUFFER_SIZE = 1000;
+
+    /**
+     * Receives elements from a {@link StreamPublisher}. Signals are never delivered concurrently.
+     */
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T element);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * Links a {@link Subscriber} to its {@link StreamPublisher}.
+     */
+    public interface Subscription {
+        /**
+         * Adds n to the number of elements the subscriber is ready to receive.
+         * @param n number of elements, must be positive
+         */
+        void request(long n);
+
+        /**
+         * Stops delivery and detaches the publisher from the stream.
+         */
+        void cancel();
+    }
+
+    private final int bufferSize;
+    private final int overflowStrategy;
+    private final LinkedList<T> buffer = new LinkedList<T>();
+    private Subscriber<? super T> subscriber = null;
+    private long demand = 0;
+    private boolean draining = false;
+    private boolean done = false;
+    private boolean terminated = false;
+    private boolean cancelled = false;
+    private boolean overflowed = false;
+    private Throwable error = null;
+    private long deliveredCount = 0;
+    private long droppedCount = 0;
+    private Runnable detachAction = null;
+
+    /*package*/ StreamPublisher(int bufferSize, int overflowStrategy) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        if (DROP_OLDEST != overflowStrategy && DROP_NEWEST != overflowStrategy
+                && DISCONNECT != overflowStrategy) {
+            throw new IllegalArgumentException("unknown overflow strategy: " + overflowStrategy);
+        }
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    /**
+     * Returns a publisher of statuses read from the given stream. The stream is only read while the subscriber has outstanding demand or the buffer has room, so a slow subscriber pushes back on the connection instead of dropping elements.
+     *
+     * @param stream     stream to be read
+     * @param bufferSize number of elements read ahead of demand
+     * @return publisher
+     */
+    public static StreamPublisher<Status> getStatusPublisher(final StatusStream stream, int bufferSize) {
+        StreamPublisher<Status> publisher = new StreamPublisher<Status>(bufferSize, DROP_NEWEST);
+        publisher.startReading(stream, new StatusPublishingListener(publisher));
+        return publisher;
+    }
+
+    /**
+     * Returns a publisher of typed events read from the given user stream. The stream is only read while the subscriber has outstanding demand or the buffer has room.
+     *
+     * @param stream     stream to be read
+     * @param bufferSize number of elements read ahead of demand
+     * @return publisher
+     */
+    public static StreamPublisher<UserStreamEvent> getUserStreamEventPublisher(final UserStream stream, int bufferSize) {
+        StreamPublisher<UserStreamEvent> publisher = new StreamPublisher<UserStreamEvent>(bufferSize, DROP_NEWEST);
+        publisher.startReading(stream, new UserStreamEventPublishingListener(publisher));
+        return publisher;
+    }
+
+    private void startReading(final StatusStream stream, final UserStreamListener listener) {
+        setDetachAction(new Runnable() {
+            public void run() {
+                try {
+                    stream.close();
+                } catch (IOException ignore) {
+                }
+            }
+        });
+        Thread reader = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    while (awaitRoom()) {
+                        stream.next(listener);
+                    }
+                } catch (IllegalStateException closed) {
+                    complete();
+                } catch (TwitterException te) {
+                    error(te);
+                }
+            }
+        }, "Twitter Stream Publisher");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private synchronized boolean awaitRoom() {
+        while (!cancelled && !done && buffer.size() >= bufferSize) {
+            try {
+                wait();
+            } catch (InterruptedException ie) {
+                return false;
+            }
+        }
+        return !cancelled && !done;
+    }
+
+    /**
+     * Subscribes to this publisher. Only one subscriber is accepted; later ones are signalled onError.
+     *
+     * @param subscriber subscriber
+     */
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (null == subscriber) {
+            throw new NullPointerException("subscriber must not be null");
+        }
+        boolean accepted;
+        synchronized (this) {
+            accepted = null == this.subscriber;
+            if (accepted) {
+                this.subscriber = subscriber;
+            }
+        }
+        if (!accepted) {
+            subscriber.onSubscribe(new Subscription() {
+                public void request(long n) {
+                }
+
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("StreamPublisher allows only one subscriber."));
+            return;
+        }
+        subscriber.onSubscribe(new Subscription() {
+            public void request(long n) {
+                StreamPublisher.this.request(n);
+            }
+
+            public void cancel() {
+                StreamPublisher.this.cancel();
+            }
+        });
+        drain();
+    }
+
+    private void request(long n) {
+        boolean invalid = false;
+        synchronized (this) {
+            if (cancelled || terminated) {
+                return;
+            }
+            if (n <= 0) {
+                invalid = !done;
+                done = true;
+                error = new IllegalArgumentException("non-positive request: " + n);
+                buffer.clear();
+            } else {
+                demand += n;
+                if (demand < 0) {
+                    demand = Long.MAX_VALUE;
+                }
+            }
+            notifyAll();
+        }
+        drain();
+        if (invalid) {
+            detach();
+        }
+    }
+
+    private void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            buffer.clear();
+            notifyAll();
+        }
+        detach();
+    }
+
+    /**
+     * Publishes an element.
+     *
+     * @param element element
+     * @return false if the element was dropped
+     */
+    /*package*/ boolean offer(T element) {
+        boolean accepted = true;
+        synchronized (this) {
+            if (done || cancelled) {
+                return false;
+            }
+            if (buffer.size() - demand >= bufferSize) {
+                droppedCount++;
+                switch (overflowStrategy) {
+                    case DROP_OLDEST:
+                        buffer.removeFirst();
+                        buffer.addLast(element);
+                        break;
+                    case DROP_NEWEST:
+                        return false;
+                    default:
+                        accepted = false;
+                        overflowed = true;
+                        done = true;
+                        error = new TwitterException("Subscriber could not keep up with the stream. "
+                                + bufferSize + " elements buffered, disconnecting.");
+                        buffer.clear();
+                }
+            } else {
+                buffer.addLast(element);
+            }
+        }
+        drain();
+        if (!accepted) {
+            logger.warn("Buffer overflow, disconnecting the stream.");
+            detach();
+        }
+        return accepted;
+    }
+
+    /**
+     * Signals onComplete once the buffered elements are delivered, and detaches the publisher from the stream.
+     */
+    /*package*/ void complete() {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            notifyAll();
+        }
+        drain();
+        detach();
+    }
+
+    /**
+     * Signals onError once the buffered elements are delivered, and detaches the publisher from the stream.
+     *
+     * @param throwable cause
+     */
+    /*package*/ void error(Throwable throwable) {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            error = throwable;
+            notifyAll();
+        }
+        drain();
+        detach();
+    }
+
+    /**
+     * Handles an exception reported to the stream listeners. Errors which reconnecting won't fix signal onError, and the others are only logged.
+     *
+     * @param ex exception reported by the stream
+     */
+    /*package*/ void onStreamException(Exception ex) {
+        if (ex instanceof TwitterException && isUnrecoverable(((TwitterException) ex).getStatusCode())) {
+            error(ex);
+        } else {
+            logger.debug("Exception in the stream, waiting for it to recover: ", String.valueOf(ex.getMessage()));
+        }
+    }
+
+    private static boolean isUnrecoverable(int statusCode) {
+        return TwitterException.UNAUTHORIZED == statusCode || TwitterException.FORBIDDEN == statusCode
+                || TwitterException.NOT_FOUND == statusCode || TwitterException.NOT_ACCEPTABLE == statusCode;
+    }
+
+    /*package*/ void setDetachAction(Runnable detachAction) {
+        this.detachAction = detachAction;
+    }
+
+    private void detach() {
+        Runnable action = detachAction;
+        if (null != action) {
+            action.run();
+        }
+    }
+
+    /**
+     * Delivers buffered elements and terminal signals while there is demand. Only one thread drains at a time; others leave their work to it.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            Subscriber<? super T> s;
+            T element = null;
+            Throwable throwable = null;
+            synchronized (this) {
+                s = subscriber;
+                if (null == s || cancelled || terminated) {
+                    draining = false;
+                    return;
+                }
+                if (done && null != error && buffer.isEmpty()) {
+                    terminated = true;
+                    throwable = error;
+                } else if (demand > 0 && !buffer.isEmpty()) {
+                    element = buffer.removeFirst();
+                    if (Long.MAX_VALUE != demand) {
+                        demand--;
+                    }
+                    deliveredCount++;
+                    notifyAll();
+                } else if (done && buffer.isEmpty()) {
+                    terminated = true;
+                } else {
+                    draining = false;
+                    return;
+                }
+            }
+            try {
+                if (null != element) {
+                    s.onNext(element);
+                } else if (null != throwable) {
+                    s.onError(throwable);
+                } else {
+                    s.onComplete();
+                }
+            } catch (RuntimeException re) {
+                logger.warn("Subscriber threw an exception: " + re.getMessage());
+                cancel();
+            }
+        }
+    }
+
+    /**
+     * @return number of elements requested but not yet delivered
+     */
+    public synchronized long getDemand() {
+        return demand;
+    }
+
+    /**
+     * @return number of elements waiting in the buffer
+     */
+    public synchronized int getBufferedCount() {
+        return buffer.size();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getOverflowStrategy() {
+        return overflowStrategy;
+    }
+
+    public synchronized long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * @return number of elements dropped because the buffer was full
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /*package*/ synchronized boolean isOverflowed() {
+        return overflowed;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Forwards statuses to a publisher.
+     */
+    /*package*/ static class StatusPublishingListener implements UserStreamListener {
+        private final StreamPublisher<Status> publisher;
+
+        StatusPublishingListener(StreamPublisher<Status> publisher) {
+            this.publisher = publisher;
+        }
+
+        public void onStatus(Status status) {
+            publisher.offer(status);
+        }
+
+        public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+        }
+
+        public void onTrackLimitationNotice(int numberOfLimitedStatuses) {
+        }
+
+        public void onException(Exception ex) {
+            publisher.onStreamException(ex);
+        }
+
+        public void onFriendList(int[] friendIds) {
+        }
+
+        public void onFavorite(User source, User target, Status targetObject) {
+        }
+
+        public void onUnfavorite(User source, User target, Status targetObject) {
+        }
+
+        public void onFollow(User source, User target) {
+        }
+
+        public void onUnfollow(User source, User target) {
+        }
+
+        public void onRetweet(User source, User target, Status targetObject) {
+        }
+
+        public void onDirectMessage(DirectMessage directMessage) {
+        }
+
+        public void onUserListSubscribed(User subscriber, User listOwner, UserList list) {
+        }
+
+        public void onUserListCreated(User listOwner, UserList list) {
+        }
+
+        public void onUserListUpdated(User listOwner, UserList list) {
+        }
+
+        public void onUserListDestroyed(User listOwner, UserList list) {
+        }
+
+        public void onBlock(User source, User target) {
+        }
+
+        public void onUnblock(User source, User target) {
+        }
+    }
+
+    /**
+     * Converts user stream callbacks into {@link UserStreamEvent}s and forwards them to a publisher.
+     */
+    /*package*/ static class UserStreamEventPublishingListener implements UserStreamListener {
+        private final StreamPublisher<UserStreamEvent> publisher;
+
+        UserStreamEventPublishingListener(StreamPublisher<UserStreamEvent> publisher) {
+            this.publisher = publisher;
+        }
+
+        public void onStatus(Status status) {
+            publisher.offer(UserStreamEvent.status(status));
+        }
+
+        public void onDeletionNotice(StatusDeletionNotice statusDeletionNotice) {
+            publisher.offer(UserStreamEvent.deletionNotice(statusDeletionNotice));
+        }
+
+        public void onTrackLimitationNotice(int numberOfLimitedStatuses) {
+            publisher.offer(UserStreamEvent.trackLimitationNotice(numberOfLimitedStatuses));
+        }
+
+        public void onException(Exception ex) {
+            publisher.onStreamException(ex);
+        }
+
+        public void onFriendList(int[] friendIds) {
+            publisher.offer(UserStreamEvent.friendList(friendIds));
+        }
+
+        public void onFavorite(User source, User target, Status targetObject) {
+            publisher.offer(UserStreamEvent.userEvent(UserStreamEvent.FAVORITE, source, target, targetObject));
+        }
+
+        public void onUnfavorite(User source, User target, Status targetObject) {
+            publisher.offer(UserStreamEvent.userEvent(UserStreamEvent.UNFAVORITE, source, target, targetObject));
+        }
+
+        public void onFollow(User source, User target) {
+            publisher.offer(UserStreamEvent.userEvent(UserStreamEvent.FOLLOW, source, target, null));
+        }
+
+        public void onUnfollow(User source, User target) {
+            publisher.offer(UserStreamEvent.userEvent(UserStreamEvent.UNFOLLOW, source, target, null));
+        }
+
+        public void onRetweet(User source, User target, Status targetObject) {
+            publisher.offer(UserStreamEvent.userEvent(UserStreamEvent.RETWEET, source, target, targetObject));
+        }
+
+        public void onDirectMessage(DirectMessage directMessage) {
+            publisher.offer(UserStreamEvent.directMessage(directMessage));
+        }
+
+        public void onUserListSubscribed(User subscriber, User listOwner, UserList list) {
+            publisher.offer(UserStreamEvent.listEvent(UserStreamEvent.USER_LIST_SUBSCRIBED, subscriber, listOwner, list));
+        }
+
+        public void onUserListCreated(User listOwner, UserList list) {
+            publisher.offer(UserStreamEvent.listEvent(UserStreamEvent.USER_LIST_CREATED, listOwner, null, list));
+        }
+
+        public void onUserListUpdated(User listOwner, UserList list) {
+            publisher.offer(UserStreamEvent.listEvent(UserStreamEvent.USER_LIST_UPDATED, listOwner, null, list));
+        }
+
+        public void onUserListDestroyed(User listOwner, UserList list) {
+            publisher.offer(UserStreamEvent.listEvent(UserStreamEvent.USER_LIST_DESTROYED, listOwner, null, list));
+        }
+
+        public void onBlock(User source, User target) {
+            publisher.offer(UserStreamEvent.userEvent(UserStreamEvent.BLOCK, source, target, null));
+        }
+
+        public void onUnblock(User source, User target) {
+            publisher.offer(UserStreamEvent.userEvent(UserStreamEvent.UNBLOCK, source, target, null));
+        }
+    }
+}
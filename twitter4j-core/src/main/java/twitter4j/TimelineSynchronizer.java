@@ -0,0 +1,544 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import twitter4j.internal.logging.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps timelines up to date incrementally.<br>
+ * A high-water mark (the id of the newest status seen) is kept per timeline, and each poll fetches only the statuses
+ * newer than it. When the first page is full, older pages are walked down with max_id until the gap to the
+ * high-water mark is closed, so that no status is missed between two polls. A gap which is still open after
+ * maxBackfillPages pages is recorded, and filled by the following polls.<br>
+ * Timelines registered with {@link #add(Timeline)} are polled in the background. A timeline which had new statuses
+ * is polled twice as often next time, down to the minimum interval. A quiet one is polled half as often, up to the
+ * maximum interval.<br>
+ * When constructed with a checkpoint file, the high-water marks and the open gaps are saved there after every change
+ * and loaded on construction, so that a restarted synchronizer does not fetch statuses again.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class TimelineSynchronizer {
+    private static final Logger logger = Logger.getLogger(TimelineSynchronizer.class);
+    private static final String GAPS_SUFFIX = ".gaps";
+    private final Listener listener;
+    private final File checkpointFile;
+    private final Map<String, Long> checkpoints = new ConcurrentHashMap<String, Long>();
+    /**
+     * open gaps per timeline, newest first. The statuses with sinceId &lt; id &lt; maxId, kept as {sinceId, maxId}, haven't been fetched yet.
+     */
+    private final Map<String, List<long[]>> gaps = new ConcurrentHashMap<String, List<long[]>>();
+    private final Map<String, Poller> pollers = new ConcurrentHashMap<String, Poller>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<String, Object>();
+    private final ScheduledExecutorService executor;
+    private volatile int count = 200;
+    private volatile int maxBackfillPages = 16;
+    private volatile long minIntervalMillis = 30 * 1000;
+    private volatile long maxIntervalMillis = 15 * 60 * 1000;
+
+    private static final Comparator<Status> OLDEST_FIRST = new Comparator<Status>() {
+        public int compare(Status s1, Status s2) {
+            return s1.getId() < s2.getId() ? -1 : (s1.getId() == s2.getId() ? 0 : 1);
+        }
+    };
+
+    /**
+     * A timeline to be synchronized.
+     *
+     * @since Twitter4J 2.1.7
+     */
+    public interface Timeline {
+        /**
+         * @return a key identifying this timeline, used for the checkpoints
+         */
+        String getKey();
+
+        /**
+         * @param paging the paging to fetch
+         * @return the statuses
+         * @throws TwitterException when the request failed
+         */
+        ResponseList<Status> fetch(Paging paging) throws TwitterException;
+    }
+
+    /**
+     * Receives the statuses found by background polls.
+     *
+     * @since Twitter4J 2.1.7
+     */
+    public interface Listener {
+        /**
+         * @param key      the key of the timeline
+         * @param statuses the new statuses, oldest first
+         */
+        void onStatuses(String key, List<Status> statuses);
+
+        /**
+         * @param key the key of the timeline
+         * @param te  the exception raised while polling
+         */
+        void onException(String key, TwitterException te);
+    }
+
+    /**
+     * Creates a synchronizer keeping its checkpoints in memory.
+     *
+     * @param listener receives the statuses found by background polls
+     */
+    public TimelineSynchronizer(Listener listener) {
+        this.listener = listener;
+        this.checkpointFile = null;
+        this.executor = createExecutor();
+    }
+
+    /**
+     * Creates a synchronizer keeping its checkpoints in the specified file.
+     *
+     * @param listener       receives the statuses found by background polls
+     * @param checkpointFile the file the checkpoints are loaded from and saved to
+     * @throws IOException when the existing checkpoint file couldn't be read
+     */
+    public TimelineSynchronizer(Listener listener, File checkpointFile) throws IOException {
+        this.listener = listener;
+        this.checkpointFile = checkpointFile;
+        if (checkpointFile.exists()) {
+            Properties props = new Properties();
+            InputStream is = new FileInputStream(checkpointFile);
+            try {
+                props.load(is);
+            } finally {
+                is.close();
+            }
+            for (Map.Entry<Object, Object> entry : props.entrySet()) {
+                String key = (String) entry.getKey();
+                String value = (String) entry.getValue();
+                if (key.endsWith(GAPS_SUFFIX)) {
+                    List<long[]> gapList = new ArrayList<long[]>();
+                    for (String gap : value.split(",")) {
+                        int separator = gap.indexOf('-');
+                        gapList.add(new long[]{Long.parseLong(gap.substring(0, separator))
+                                , Long.parseLong(gap.substring(separator + 1))});
+                    }
+                    gaps.put(key.substring(0, key.length() - GAPS_SUFFIX.length()), gapList);
+                } else {
+                    checkpoints.put(key, Long.valueOf(value));
+                }
+            }
+        }
+        this.executor = createExecutor();
+    }
+
+    private static ScheduledExecutorService createExecutor() {
+        return new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Twitter4J Timeline Synchronizer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @return the home timeline of the authenticating user
+     */
+    public static Timeline homeTimeline(final Twitter twitter) {
+        return new Timeline() {
+            public String getKey() {
+                return "home";
+            }
+
+            public ResponseList<Status> fetch(Paging paging) throws TwitterException {
+                return twitter.getHomeTimeline(paging);
+            }
+        };
+    }
+
+    /**
+     * @return the mentions of the authenticating user
+     */
+    public static Timeline mentions(final Twitter twitter) {
+        return new Timeline() {
+            public String getKey() {
+                return "mentions";
+            }
+
+            public ResponseList<Status> fetch(Paging paging) throws TwitterException {
+                return twitter.getMentions(paging);
+            }
+        };
+    }
+
+    /**
+     * @return the user timeline of the specified user
+     */
+    public static Timeline userTimeline(final Twitter twitter, final String screenName) {
+        return new Timeline() {
+            public String getKey() {
+                return "user:" + screenName.toLowerCase();
+            }
+
+            public ResponseList<Status> fetch(Paging paging) throws TwitterException {
+                return twitter.getUserTimeline(screenName, paging);
+            }
+        };
+    }
+
+    /**
+     * @return the user timeline of the specified user
+     */
+    public static Timeline userTimeline(final Twitter twitter, final int userId) {
+        return new Timeline() {
+            public String getKey() {
+                return "user:" + userId;
+            }
+
+            public ResponseList<Status> fetch(Paging paging) throws TwitterException {
+                return twitter.getUserTimeline(userId, paging);
+            }
+        };
+    }
+
+    /**
+     * @param count the number of statuses requested per page, 200 by default
+     */
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    /**
+     * @param maxBackfillPages the maximum number of older pages fetched to close a gap, 16 by default
+     */
+    public void setMaxBackfillPages(int maxBackfillPages) {
+        this.maxBackfillPages = maxBackfillPages;
+    }
+
+    /**
+     * @param minIntervalMillis the shortest polling interval, 30 seconds by default
+     * @param maxIntervalMillis the longest polling interval, 15 minutes by default
+     */
+    public void setPollingInterval(long minIntervalMillis, long maxIntervalMillis) {
+        if (minIntervalMillis <= 0 || maxIntervalMillis < minIntervalMillis) {
+            throw new IllegalArgumentException("invalid polling interval: " + minIntervalMillis
+                    + "-" + maxIntervalMillis);
+        }
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    /**
+     * @param key the key of the timeline
+     * @return the id of the newest status seen on the timeline, or 0 if it was never synchronized
+     */
+    public long getSinceId(String key) {
+        Long sinceId = checkpoints.get(key);
+        return null == sinceId ? 0 : sinceId;
+    }
+
+    /**
+     * @param key the key of the timeline
+     * @return true if older statuses newer than a previous high-water mark are still to be fetched
+     */
+    public boolean hasGap(String key) {
+        return gaps.containsKey(key);
+    }
+
+    /**
+     * Starts polling the timeline in the background, beginning now.
+     *
+     * @param timeline the timeline
+     */
+    public void add(Timeline timeline) {
+        Poller poller = new Poller(timeline);
+        Poller previous = pollers.put(timeline.getKey(), poller);
+        if (null != previous) {
+            previous.cancel();
+        }
+        poller.schedule(0);
+    }
+
+    /**
+     * Stops polling the timeline. Its checkpoint is kept.
+     *
+     * @param key the key of the timeline
+     */
+    public void remove(String key) {
+        Poller poller = pollers.remove(key);
+        if (null != poller) {
+            poller.cancel();
+        }
+    }
+
+    /**
+     * Stops polling all timelines.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        pollers.clear();
+    }
+
+    /**
+     * Fetches the statuses newer than the timeline's high-water mark, and advances the mark.<br>
+     * On the first synchronization of a timeline, only the latest page is fetched.<br>
+     * If the gap to the high-water mark is still open after maxBackfillPages older pages, the mark is advanced anyway
+     * and the gap is recorded. The open gaps are filled by the following synchronizations, newest first, within the same
+     * maxBackfillPages pages. Their statuses are therefore returned after newer ones, and no status is returned twice.
+     *
+     * @param timeline the timeline
+     * @return the new statuses, oldest first
+     * @throws TwitterException when a request failed, or the checkpoint couldn't be saved. The high-water mark is left unchanged.
+     */
+    public List<Status> sync(Timeline timeline) throws TwitterException {
+        String key = timeline.getKey();
+        synchronized (lockFor(key)) {
+            long sinceId = getSinceId(key);
+            int count = this.count;
+            Paging paging = new Paging(1, count);
+            if (0 < sinceId) {
+                paging.setSinceId(sinceId);
+            }
+            List<Status> statuses = new ArrayList<Status>(timeline.fetch(paging));
+            // copied, so that the open gaps are left unchanged if a request fails
+            List<long[]> open = new ArrayList<long[]>();
+            List<long[]> previous = gaps.get(key);
+            if (null != previous) {
+                for (long[] gap : previous) {
+                    open.add(new long[]{gap[0], gap[1]});
+                }
+            }
+            if (0 < sinceId && statuses.size() >= count) {
+                // there may be more new statuses than a single page holds
+                open.add(0, new long[]{sinceId, oldestId(statuses)});
+            }
+            int pages = maxBackfillPages;
+            for (Iterator<long[]> iterator = open.iterator(); iterator.hasNext();) {
+                long[] gap = iterator.next();
+                pages -= backfill(timeline, gap, statuses, pages, count);
+                if (gap[1] - gap[0] <= 1) {
+                    iterator.remove();
+                }
+            }
+            Collections.sort(statuses, OLDEST_FIRST);
+            long newest = sinceId;
+            if (0 < statuses.size()) {
+                newest = Math.max(sinceId, statuses.get(statuses.size() - 1).getId());
+            }
+            if (newest > sinceId || !sameGaps(previous, open)) {
+                advance(key, newest, open);
+            }
+            return statuses;
+        }
+    }
+
+    /**
+     * Fetches the statuses in the gap, newest first, for up to the specified number of pages.<br>
+     * The gap is narrowed down to the statuses not fetched yet, and emptied once closed.
+     *
+     * @return the number of pages fetched
+     */
+    private int backfill(Timeline timeline, long[] gap, List<Status> statuses, int maxPages, int count)
+            throws TwitterException {
+        int pages = 0;
+        while (gap[1] - gap[0] > 1 && pages < maxPages) {
+            List<Status> page = timeline.fetch(new Paging(1, count, gap[0], gap[1] - 1));
+            pages++;
+            statuses.addAll(page);
+            // a full page means older statuses may still be missing
+            gap[1] = page.size() < count ? gap[0] : oldestId(page);
+        }
+        return pages;
+    }
+
+    private static long oldestId(List<Status> statuses) {
+        long oldest = Long.MAX_VALUE;
+        for (Status status : statuses) {
+            oldest = Math.min(oldest, status.getId());
+        }
+        return oldest;
+    }
+
+    private static boolean sameGaps(List<long[]> previous, List<long[]> open) {
+        if (null == previous) {
+            return open.isEmpty();
+        }
+        if (previous.size() != open.size()) {
+            return false;
+        }
+        for (int i = 0; i < open.size(); i++) {
+            if (!Arrays.equals(previous.get(i), open.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object lockFor(String key) {
+        Object lock = locks.get(key);
+        if (null == lock) {
+            synchronized (locks) {
+                lock = locks.get(key);
+                if (null == lock) {
+                    lock = new Object();
+                    locks.put(key, lock);
+                }
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Advances the high-water mark and replaces the open gaps, which are restored if the checkpoint couldn't be saved.
+     */
+    private void advance(String key, long newest, List<long[]> open) throws TwitterException {
+        Long previous = checkpoints.put(key, newest);
+        List<long[]> previousGaps = open.isEmpty() ? gaps.remove(key) : gaps.put(key, open);
+        try {
+            saveCheckpoints();
+        } catch (TwitterException te) {
+            if (null == previous) {
+                checkpoints.remove(key);
+            } else {
+                checkpoints.put(key, previous);
+            }
+            if (null == previousGaps) {
+                gaps.remove(key);
+            } else {
+                gaps.put(key, previousGaps);
+            }
+            throw te;
+        }
+    }
+
+    private void saveCheckpoints() throws TwitterException {
+        if (null == checkpointFile) {
+            return;
+        }
+        synchronized (checkpoints) {
+            Properties props = new Properties();
+            for (Map.Entry<String, Long> entry : checkpoints.entrySet()) {
+                props.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+            for (Map.Entry<String, List<long[]>> entry : gaps.entrySet()) {
+                StringBuilder value = new StringBuilder();
+                for (long[] gap : entry.getValue()) {
+                    if (0 < value.length()) {
+                        value.append(',');
+                    }
+                    value.append(gap[0]).append('-').append(gap[1]);
+                }
+                props.setProperty(entry.getKey() + GAPS_SUFFIX, value.toString());
+            }
+            File tmp = new File(checkpointFile.getPath() + ".tmp");
+            try {
+                OutputStream os = new FileOutputStream(tmp);
+                try {
+                    props.store(os, "Twitter4J timeline checkpoints");
+                } finally {
+                    os.close();
+                }
+                if (!tmp.renameTo(checkpointFile)) {
+                    checkpointFile.delete();
+                    if (!tmp.renameTo(checkpointFile)) {
+                        throw new IOException("failed to rename " + tmp + " to " + checkpointFile);
+                    }
+                }
+            } catch (IOException ioe) {
+                throw new TwitterException("failed to save the checkpoints.", ioe);
+            }
+        }
+    }
+
+    /**
+     * Polls a timeline, rescheduling itself after every poll.
+     */
+    private final class Poller implements Runnable {
+        private final Timeline timeline;
+        private long interval = minIntervalMillis;
+        private volatile boolean cancelled = false;
+        private ScheduledFuture<?> future;
+
+        Poller(Timeline timeline) {
+            this.timeline = timeline;
+        }
+
+        synchronized void schedule(long delay) {
+            if (!cancelled && !executor.isShutdown()) {
+                future = executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (null != future) {
+                future.cancel(false);
+            }
+        }
+
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                List<Status> statuses = sync(timeline);
+                if (0 < statuses.size()) {
+                    interval = Math.max(minIntervalMillis, interval / 2);
+                    listener.onStatuses(timeline.getKey(), statuses);
+                } else {
+                    interval = Math.min(maxIntervalMillis, interval * 2);
+                }
+            } catch (TwitterException te) {
+                interval = Math.min(maxIntervalMillis, interval * 2);
+                listener.onException(timeline.getKey(), te);
+            } catch (RuntimeException re) {
+                // keep polling even if the listener failed
+                logger.warn("Exception while polling " + timeline.getKey() + ": ", re.toString());
+            }
+            schedule(interval);
+        }
+    }
+}
@@ -34,6 +34,7 @@ import static twitter4j.internal.util.ParseUtil.getUnescapedString;
 
 import java.util.Date;
 
+import twitter4j.internal.json.RawJSONHolder;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
@@ -43,7 +44,7 @@ import twitter4j.internal.org.json.JSONObject;
  *
  * @author Yusuke Yamamoto - yusuke at mac.com
  */
-/*package*/ final class TweetJSONImpl implements Tweet, java.io.Serializable {
+/*package*/ final class TweetJSONImpl implements Tweet, RawJSONHolder, java.io.Serializable {
     private String text;
     private int toUserId = -1;
     private String toUser = null;
@@ -58,9 +59,18 @@ import twitter4j.internal.org.json.JSONObject;
 
     private GeoLocation geoLocation = null;
     private Annotations annotations = null;
+    private transient CharSequence rawJSON = null;
     private static final long serialVersionUID = 4299736733993211587L;
 
+    /**
+     * field names in the order of the binary form. new fields must be appended.
+     */
+    /*package*/ static final String[] BINARY_SCHEMA = {"text", "to_user_id", "to_user", "from_user", "id"
+            , "from_user_id", "iso_language_code", "source", "profile_image_url", "created_at"
+            , "location", "geo", "annotations"};
+
     /*package*/ TweetJSONImpl(JSONObject tweet) throws TwitterException {
+        rawJSON = tweet.getRawJSON();
         text = getUnescapedString("text", tweet);
         toUserId = getInt("to_user_id", tweet);
         toUser = getRawString("to_user", tweet);
@@ -82,6 +92,42 @@ import twitter4j.internal.org.json.JSONObject;
         }
     }
 
+    /*package*/ TweetJSONImpl(BinaryCodec.Reader in) throws TwitterException {
+        in.beginObject(BINARY_SCHEMA);
+        text = in.readString(0);
+        toUserId = in.readInt(1);
+        toUser = in.readString(2);
+        fromUser = in.readString(3);
+        id = in.readLong(4);
+        fromUserId = in.readInt(5);
+        isoLanguageCode = in.readString(6);
+        source = in.readString(7);
+        profileImageUrl = in.readString(8);
+        createdAt = in.readDate(9);
+        location = in.readString(10);
+        geoLocation = in.readGeoLocation(11);
+        annotations = in.readAnnotations(12);
+        in.endObject();
+    }
+
+    /*package*/ void writeTo(BinaryCodec.Writer out) {
+        out.beginObject(BINARY_SCHEMA);
+        out.writeString(0, text);
+        out.writeInt(1, toUserId);
+        out.writeString(2, toUser);
+        out.writeString(3, fromUser);
+        out.writeLong(4, id);
+        out.writeInt(5, fromUserId);
+        out.writeString(6, isoLanguageCode);
+        out.writeString(7, source);
+        out.writeString(8, profileImageUrl);
+        out.writeDate(9, createdAt);
+        out.writeString(10, location);
+        out.writeGeoLocation(11, geoLocation);
+        out.writeAnnotations(12, annotations);
+        out.endObject();
+    }
+
     public int compareTo(Tweet that) {
         long delta = this.id - that.getId();
         if (delta < Integer.MIN_VALUE) {
@@ -183,6 +229,19 @@ import twitter4j.internal.org.json.JSONObject;
     	return annotations;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public String getRawJSON() {
+        CharSequence raw = rawJSON;
+        if (null == raw || raw instanceof String) {
+            return (String) raw;
+        }
+        String str = raw.toString();
+        rawJSON = str;
+        return str;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
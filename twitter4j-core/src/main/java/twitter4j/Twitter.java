@@ -35,6 +35,7 @@ import twitter4j.internal.http.HttpResponse;
 import twitter4j.internal.org.json.JSONArray;
 import twitter4j.internal.org.json.JSONException;
 
+import static twitter4j.TwitterMethod.*;
 import static twitter4j.internal.http.HttpParameter.*;
 
 import java.io.File;
@@ -43,7 +44,9 @@ import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A java representation of the <a href="http://apiwiki.twitter.com/">Twitter API</a><br>
@@ -75,6 +78,8 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
         GeoMethods,
         HelpMethods {
     private static final long serialVersionUID = -1486360080128882436L;
+    private transient GeoCache geoCache;
+    private transient boolean geoCacheInitialized = false;
 
     Twitter(Configuration conf) {
         super(conf);
@@ -189,7 +194,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public QueryResult search(Query query) throws TwitterException {
         try {
-            return new QueryResultJSONImpl(http.get(conf.getSearchBaseURL() + "search.json", query.asHttpParameterArray(), null));
+            return new QueryResultJSONImpl(http.get(SEARCH, conf.getSearchBaseURL() + "search.json", query.asHttpParameterArray(), null));
         } catch (TwitterException te) {
             if (404 == te.getStatusCode()) {
                 return new QueryResultJSONImpl(query);
@@ -203,21 +208,21 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public Trends getTrends() throws TwitterException {
-        return TrendsJSONImpl.createTrends(http.get(conf.getSearchBaseURL() + "trends.json"));
+        return TrendsJSONImpl.createTrends(http.get(TRENDS, conf.getSearchBaseURL() + "trends.json"));
     }
 
     /**
      * {@inheritDoc}
      */
     public Trends getCurrentTrends() throws TwitterException {
-        return TrendsJSONImpl.createTrendsList(http.get(conf.getSearchBaseURL() + "trends/current.json")).get(0);
+        return TrendsJSONImpl.createTrendsList(http.get(CURRENT_TRENDS, conf.getSearchBaseURL() + "trends/current.json")).get(0);
     }
 
     /**
      * {@inheritDoc}
      */
     public Trends getCurrentTrends(boolean excludeHashTags) throws TwitterException {
-        return TrendsJSONImpl.createTrendsList(http.get(conf.getSearchBaseURL() + "trends/current.json"
+        return TrendsJSONImpl.createTrendsList(http.get(CURRENT_TRENDS, conf.getSearchBaseURL() + "trends/current.json"
                 + (excludeHashTags ? "?exclude=hashtags" : ""))).get(0);
     }
 
@@ -225,14 +230,14 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public List<Trends> getDailyTrends() throws TwitterException {
-        return TrendsJSONImpl.createTrendsList(http.get(conf.getSearchBaseURL() + "trends/daily.json"));
+        return TrendsJSONImpl.createTrendsList(http.get(DAILY_TRENDS, conf.getSearchBaseURL() + "trends/daily.json"));
     }
 
     /**
      * {@inheritDoc}
      */
     public List<Trends> getDailyTrends(Date date, boolean excludeHashTags) throws TwitterException {
-        return TrendsJSONImpl.createTrendsList(http.get(conf.getSearchBaseURL()
+        return TrendsJSONImpl.createTrendsList(http.get(DAILY_TRENDS, conf.getSearchBaseURL()
                 + "trends/daily.json?date=" + toDateStr(date)
                 + (excludeHashTags ? "&exclude=hashtags" : "")));
     }
@@ -249,7 +254,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public List<Trends> getWeeklyTrends() throws TwitterException {
-        return TrendsJSONImpl.createTrendsList(http.get(conf.getSearchBaseURL()
+        return TrendsJSONImpl.createTrendsList(http.get(WEEKLY_TRENDS, conf.getSearchBaseURL()
                 + "trends/weekly.json"));
     }
 
@@ -257,7 +262,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public List<Trends> getWeeklyTrends(Date date, boolean excludeHashTags) throws TwitterException {
-        return TrendsJSONImpl.createTrendsList(http.get(conf.getSearchBaseURL()
+        return TrendsJSONImpl.createTrendsList(http.get(WEEKLY_TRENDS, conf.getSearchBaseURL()
                 + "trends/weekly.json?date=" + toDateStr(date)
                 + (excludeHashTags ? "&exclude=hashtags" : "")));
     }
@@ -269,7 +274,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getPublicTimeline() throws
             TwitterException {
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() +
+        return StatusJSONImpl.createStatusList(http.get(PUBLIC_TIMELINE, conf.getRestBaseURL() +
                 "statuses/public_timeline.json?include_rts=" + conf.isIncludeRTsEnabled(), auth));
     }
 
@@ -279,7 +284,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<Status> getHomeTimeline() throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() + "statuses/home_timeline.json", auth));
+        return StatusJSONImpl.createStatusList(http.get(HOME_TIMELINE, conf.getRestBaseURL() + "statuses/home_timeline.json", auth));
     }
 
     /**
@@ -288,7 +293,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<Status> getHomeTimeline(Paging paging) throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() + "statuses/home_timeline.json", paging.asPostParameterArray(), auth));
+        return StatusJSONImpl.createStatusList(http.get(HOME_TIMELINE, conf.getRestBaseURL() + "statuses/home_timeline.json", paging.asPostParameterArray(), auth));
     }
 
     /**
@@ -297,7 +302,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<Status> getFriendsTimeline() throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() + "statuses/friends_timeline.json?include_rts=" + conf.isIncludeRTsEnabled(), auth));
+        return StatusJSONImpl.createStatusList(http.get(FRIENDS_TIMELINE, conf.getRestBaseURL() + "statuses/friends_timeline.json?include_rts=" + conf.isIncludeRTsEnabled(), auth));
     }
 
     /**
@@ -306,7 +311,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<Status> getFriendsTimeline(Paging paging) throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(FRIENDS_TIMELINE, conf.getRestBaseURL()
                 + "statuses/friends_timeline.json",
                 mergeParameters(new HttpParameter[]{new HttpParameter("include_rts", conf.isIncludeRTsEnabled())}
                         , paging.asPostParameterArray()), auth));
@@ -319,7 +324,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getUserTimeline(String screenName, Paging paging)
             throws TwitterException {
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(USER_TIMELINE, conf.getRestBaseURL()
                 + "statuses/user_timeline.json",
                 mergeParameters(new HttpParameter[]{new HttpParameter("screen_name", screenName)
                         , new HttpParameter("include_rts", conf.isIncludeRTsEnabled())
@@ -332,7 +337,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getUserTimeline(int userId, Paging paging)
             throws TwitterException {
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(USER_TIMELINE, conf.getRestBaseURL()
                 + "statuses/user_timeline.json",
                 mergeParameters(new HttpParameter[]{new HttpParameter("user_id", userId)
                         , new HttpParameter("include_rts", conf.isIncludeRTsEnabled())
@@ -368,7 +373,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<Status> getUserTimeline(Paging paging) throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() +
+        return StatusJSONImpl.createStatusList(http.get(USER_TIMELINE, conf.getRestBaseURL() +
                 "statuses/user_timeline.json",
                 mergeParameters(new HttpParameter[]{new HttpParameter("include_rts", conf.isIncludeRTsEnabled())}
                         , paging.asPostParameterArray()), auth));
@@ -379,7 +384,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getMentions() throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() +
+        return StatusJSONImpl.createStatusList(http.get(MENTIONS, conf.getRestBaseURL() +
                 "statuses/mentions.json?include_rts=" + conf.isIncludeRTsEnabled(), auth));
     }
 
@@ -388,7 +393,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getMentions(Paging paging) throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(MENTIONS, conf.getRestBaseURL()
                 + "statuses/mentions.json",
                 mergeParameters(new HttpParameter[]{new HttpParameter("include_rts", conf.isIncludeRTsEnabled())}
                         , paging.asPostParameterArray()), auth));
@@ -399,7 +404,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getRetweetedByMe() throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(RETWEETED_BY_ME, conf.getRestBaseURL()
                 + "statuses/retweeted_by_me.json", auth));
     }
 
@@ -408,7 +413,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getRetweetedByMe(Paging paging) throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(RETWEETED_BY_ME, conf.getRestBaseURL()
                 + "statuses/retweeted_by_me.json", paging.asPostParameterArray(), auth));
     }
 
@@ -417,7 +422,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getRetweetedToMe() throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(RETWEETED_TO_ME, conf.getRestBaseURL()
                 + "statuses/retweeted_to_me.json", auth));
     }
 
@@ -426,7 +431,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getRetweetedToMe(Paging paging) throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() +
+        return StatusJSONImpl.createStatusList(http.get(RETWEETED_TO_ME, conf.getRestBaseURL() +
                 "statuses/retweeted_to_me.json", paging.asPostParameterArray(), auth));
     }
 
@@ -435,7 +440,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getRetweetsOfMe() throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(RETWEETS_OF_ME, conf.getRestBaseURL()
                 + "statuses/retweets_of_me.json", auth));
     }
 
@@ -444,7 +449,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getRetweetsOfMe(Paging paging) throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(RETWEETS_OF_ME, conf.getRestBaseURL()
                 + "statuses/retweets_of_me.json", paging.asPostParameterArray(), auth));
     }
 
@@ -453,7 +458,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<User> getRetweetedBy(long statusId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return UserJSONImpl.createUserList(http.get(conf.getRestBaseURL()
+        return UserJSONImpl.createUserList(http.get(RETWEETED_BY, conf.getRestBaseURL()
                 + "statuses/" + statusId + "/retweeted_by.json", auth));
     }
 
@@ -462,7 +467,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<User> getRetweetedBy(long statusId, Paging paging) throws TwitterException {
         ensureAuthorizationEnabled();
-        return UserJSONImpl.createUserList(http.get(conf.getRestBaseURL()
+        return UserJSONImpl.createUserList(http.get(RETWEETED_BY, conf.getRestBaseURL()
                 + "statuses/" + statusId + "/retweeted_by.json", paging.asPostParameterArray(), auth));
     }
 
@@ -471,7 +476,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public IDs getRetweetedByIDs(long statusId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return IDsJSONImpl.getBlockIDs(http.get(conf.getRestBaseURL()
+        return IDsJSONImpl.getBlockIDs(http.get(RETWEETED_BY_IDS, conf.getRestBaseURL()
                 + "statuses/" + statusId + "/retweeted_by/ids.json", auth));
     }
 
@@ -480,7 +485,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public IDs getRetweetedByIDs(long statusId, Paging paging) throws TwitterException {
         ensureAuthorizationEnabled();
-        return IDsJSONImpl.getBlockIDs(http.get(conf.getRestBaseURL()
+        return IDsJSONImpl.getBlockIDs(http.get(RETWEETED_BY_IDS, conf.getRestBaseURL()
                 + "statuses/" + statusId + "/retweeted_by/ids.json",paging.asPostParameterArray(), auth));    
     }
 
@@ -488,7 +493,14 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public Status showStatus(long id) throws TwitterException {
-        return new StatusJSONImpl(http.get(conf.getRestBaseURL() + "statuses/show/" + id + ".json",
+        EntityCache entityCache = http.getEntityCache();
+        if (null != entityCache) {
+            Status status = entityCache.getStatus(id);
+            if (null != status) {
+                return status;
+            }
+        }
+        return new StatusJSONImpl(http.get(SHOW_STATUS, conf.getRestBaseURL() + "statuses/show/" + id + ".json",
                 new HttpParameter[] { new HttpParameter("include_entities", "true") },
                 auth));
     }
@@ -498,7 +510,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public Status updateStatus(String status) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL() + "statuses/update.json",
+        return new StatusJSONImpl(http.post(UPDATE_STATUS, conf.getRestBaseURL() + "statuses/update.json",
                 new HttpParameter[]{new HttpParameter("status", status), new HttpParameter("source", conf.getSource())}, auth));
     }
 
@@ -507,7 +519,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public Status updateStatus(String status, GeoLocation location) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL() + "statuses/update.json",
+        return new StatusJSONImpl(http.post(UPDATE_STATUS, conf.getRestBaseURL() + "statuses/update.json",
                 new HttpParameter[]{new HttpParameter("status", status),
                         new HttpParameter("lat", location.getLatitude()),
                         new HttpParameter("long", location.getLongitude()),
@@ -519,7 +531,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public Status updateStatus(String status, long inReplyToStatusId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL() + "statuses/update.json",
+        return new StatusJSONImpl(http.post(UPDATE_STATUS, conf.getRestBaseURL() + "statuses/update.json",
                 new HttpParameter[]{new HttpParameter("status", status), new HttpParameter("in_reply_to_status_id", inReplyToStatusId), new HttpParameter("source", conf.getSource())}, auth));
     }
 
@@ -529,7 +541,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public Status updateStatus(String status, long inReplyToStatusId
             , GeoLocation location) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL() + "statuses/update.json",
+        return new StatusJSONImpl(http.post(UPDATE_STATUS, conf.getRestBaseURL() + "statuses/update.json",
                 new HttpParameter[]{new HttpParameter("status", status),
                         new HttpParameter("lat", location.getLatitude()),
                         new HttpParameter("long", location.getLongitude()),
@@ -546,7 +558,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
         HttpParameter[] combined = new HttpParameter[array.length + 1];
         System.arraycopy(array, 0, combined, 0, array.length);
         combined[combined.length - 1] = new HttpParameter("source", conf.getSource());
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL()
+        return new StatusJSONImpl(http.post(UPDATE_STATUS, conf.getRestBaseURL()
                 + "statuses/update.json", combined, auth));
     }
 
@@ -555,8 +567,12 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public Status destroyStatus(long statusId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL()
+        Status status = new StatusJSONImpl(http.post(DESTROY_STATUS, conf.getRestBaseURL()
                 + "statuses/destroy/" + statusId + ".json", auth));
+        if (null != http.getEntityCache()) {
+            http.getEntityCache().invalidateStatus(statusId);
+        }
+        return status;
     }
 
     /**
@@ -564,7 +580,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public Status retweetStatus(long statusId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL() + "statuses/retweet/" + statusId + ".json",
+        return new StatusJSONImpl(http.post(RETWEET_STATUS, conf.getRestBaseURL() + "statuses/retweet/" + statusId + ".json",
                 new HttpParameter[]{new HttpParameter("source", conf.getSource())}, auth));
     }
 
@@ -573,7 +589,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getRetweets(long statusId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(RETWEETS, conf.getRestBaseURL()
                 + "statuses/retweets/" + statusId + ".json?count=100", auth));
     }
 
@@ -583,7 +599,14 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public User showUser(String screenName) throws TwitterException {
-        return new UserJSONImpl(http.get(conf.getRestBaseURL() + "users/show.json?screen_name="
+        EntityCache entityCache = http.getEntityCache();
+        if (null != entityCache) {
+            User user = entityCache.getUser(screenName);
+            if (null != user) {
+                return user;
+            }
+        }
+        return new UserJSONImpl(http.get(SHOW_USER, conf.getRestBaseURL() + "users/show.json?screen_name="
                 + screenName, auth));
     }
 
@@ -591,7 +614,14 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public User showUser(int userId) throws TwitterException {
-        return new UserJSONImpl(http.get(conf.getRestBaseURL() + "users/show.json?user_id="
+        EntityCache entityCache = http.getEntityCache();
+        if (null != entityCache) {
+            User user = entityCache.getUser(userId);
+            if (null != user) {
+                return user;
+            }
+        }
+        return new UserJSONImpl(http.get(SHOW_USER, conf.getRestBaseURL() + "users/show.json?user_id="
                 + userId, auth));
     }
 
@@ -600,6 +630,10 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<User> lookupUsers(String[] screenNames) throws TwitterException {
         ensureAuthorizationEnabled();
+        EntityCache entityCache = http.getEntityCache();
+        if (null != entityCache) {
+            return lookupUsers(screenNames, entityCache);
+        }
         StringBuffer buf = new StringBuffer(screenNames.length * 8);
         for (String screenName : screenNames) {
             if (buf.length() != 0) {
@@ -607,7 +641,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
             }
             buf.append(screenName);
         }
-        return UserJSONImpl.createUserList(http.get(conf.getRestBaseURL() +
+        return UserJSONImpl.createUserList(http.get(LOOKUP_USERS, conf.getRestBaseURL() +
                 "users/lookup.json", new HttpParameter[]{
                 new HttpParameter("screen_name", buf.toString())}, auth));
     }
@@ -617,6 +651,10 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<User> lookupUsers(int[] ids) throws TwitterException {
         ensureAuthorizationEnabled();
+        EntityCache entityCache = http.getEntityCache();
+        if (null != entityCache) {
+            return lookupUsers(ids, entityCache);
+        }
         StringBuffer buf = new StringBuffer(ids.length * 8);
         for (int id : ids) {
             if (buf.length() != 0) {
@@ -624,17 +662,94 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
             }
             buf.append(id);
         }
-        return UserJSONImpl.createUserList(http.get(conf.getRestBaseURL() +
+        return UserJSONImpl.createUserList(http.get(LOOKUP_USERS, conf.getRestBaseURL() +
                 "users/lookup.json", new HttpParameter[]{
                 new HttpParameter("user_id", buf.toString())}, auth));
     }
 
+    /**
+     * Looks up the users missing in the entity cache, and returns all the users in the requested order.
+     */
+    private ResponseList<User> lookupUsers(String[] screenNames, EntityCache entityCache) throws TwitterException {
+        User[] users = new User[screenNames.length];
+        List<String> misses = new ArrayList<String>();
+        for (int i = 0; i < screenNames.length; i++) {
+            users[i] = entityCache.getUser(screenNames[i]);
+            if (null == users[i]) {
+                misses.add(screenNames[i]);
+            }
+        }
+        HttpResponse res = null;
+        if (0 < misses.size()) {
+            res = http.get(LOOKUP_USERS, conf.getRestBaseURL() + "users/lookup.json", new HttpParameter[]{
+                    new HttpParameter("screen_name", join(misses))}, auth);
+            Map<String, User> fetched = new HashMap<String, User>();
+            for (User user : UserJSONImpl.createUserList(res)) {
+                fetched.put(user.getScreenName().toLowerCase(), user);
+            }
+            for (int i = 0; i < screenNames.length; i++) {
+                if (null == users[i]) {
+                    users[i] = fetched.get(screenNames[i].toLowerCase());
+                }
+            }
+        }
+        return toResponseList(users, res);
+    }
+
+    private ResponseList<User> lookupUsers(int[] ids, EntityCache entityCache) throws TwitterException {
+        User[] users = new User[ids.length];
+        List<Integer> misses = new ArrayList<Integer>();
+        for (int i = 0; i < ids.length; i++) {
+            users[i] = entityCache.getUser(ids[i]);
+            if (null == users[i]) {
+                misses.add(ids[i]);
+            }
+        }
+        HttpResponse res = null;
+        if (0 < misses.size()) {
+            res = http.get(LOOKUP_USERS, conf.getRestBaseURL() + "users/lookup.json", new HttpParameter[]{
+                    new HttpParameter("user_id", join(misses))}, auth);
+            Map<Integer, User> fetched = new HashMap<Integer, User>();
+            for (User user : UserJSONImpl.createUserList(res)) {
+                fetched.put(user.getId(), user);
+            }
+            for (int i = 0; i < ids.length; i++) {
+                if (null == users[i]) {
+                    users[i] = fetched.get(ids[i]);
+                }
+            }
+        }
+        return toResponseList(users, res);
+    }
+
+    private static String join(List<?> values) {
+        StringBuffer buf = new StringBuffer(values.size() * 8);
+        for (Object value : values) {
+            if (buf.length() != 0) {
+                buf.append(",");
+            }
+            buf.append(value);
+        }
+        return buf.toString();
+    }
+
+    private static ResponseList<User> toResponseList(User[] users, HttpResponse res) {
+        ResponseList<User> list = new ResponseListImpl<User>(users.length, res);
+        for (User user : users) {
+            // users not found, suspended for instance, are omitted as users/lookup does
+            if (null != user) {
+                list.add(user);
+            }
+        }
+        return list;
+    }
+
     /**
      * {@inheritDoc}
      */
     public ResponseList<User> searchUsers(String query, int page) throws TwitterException {
         ensureAuthorizationEnabled();
-        return UserJSONImpl.createUserList(http.get(conf.getRestBaseURL() +
+        return UserJSONImpl.createUserList(http.get(SEARCH_USERS, conf.getRestBaseURL() +
                 "users/search.json", new HttpParameter[]{
                 new HttpParameter("q", query),
                 new HttpParameter("per_page", 20),
@@ -645,7 +760,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public ResponseList<Category> getSuggestedUserCategories() throws TwitterException {
-        return CategoryJSONImpl.createCategoriesList(http.get(conf.getRestBaseURL() +
+        return CategoryJSONImpl.createCategoriesList(http.get(SUGGESTED_USER_CATEGORIES, conf.getRestBaseURL() +
                 "users/suggestions.json", auth));
     }
 
@@ -653,7 +768,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public ResponseList<User> getUserSuggestions(String categorySlug) throws TwitterException {
-        HttpResponse res = http.get(conf.getRestBaseURL() + "users/suggestions/"
+        HttpResponse res = http.get(USER_SUGGESTIONS, conf.getRestBaseURL() + "users/suggestions/"
                 + categorySlug + ".json", auth);
         try {
             return UserJSONImpl.createUserList(res.asJSONObject().getJSONArray("users"), res);
@@ -673,7 +788,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public PagableResponseList<User> getFriendsStatuses(long cursor) throws TwitterException {
-        return UserJSONImpl.createPagableUserList(http.get(conf.getRestBaseURL()
+        return UserJSONImpl.createPagableUserList(http.get(FRIENDS_STATUSES, conf.getRestBaseURL()
                 + "statuses/friends.json?cursor=" + cursor, auth));
     }
 
@@ -695,7 +810,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public PagableResponseList<User> getFriendsStatuses(String screenName, long cursor) throws TwitterException {
-        return UserJSONImpl.createPagableUserList(http.get(conf.getRestBaseURL()
+        return UserJSONImpl.createPagableUserList(http.get(FRIENDS_STATUSES, conf.getRestBaseURL()
                 + "statuses/friends.json?screen_name=" + screenName + "&cursor="
                 + cursor, auth));
     }
@@ -704,7 +819,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public PagableResponseList<User> getFriendsStatuses(int userId, long cursor) throws TwitterException {
-        return UserJSONImpl.createPagableUserList(http.get(conf.getRestBaseURL()
+        return UserJSONImpl.createPagableUserList(http.get(FRIENDS_STATUSES, conf.getRestBaseURL()
                 + "statuses/friends.json?user_id=" + userId + "&cursor=" + cursor
                 , null, auth));
     }
@@ -720,7 +835,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public PagableResponseList<User> getFollowersStatuses(long cursor) throws TwitterException {
-        return UserJSONImpl.createPagableUserList(http.get(conf.getRestBaseURL()
+        return UserJSONImpl.createPagableUserList(http.get(FOLLOWERS_STATUSES, conf.getRestBaseURL()
                 + "statuses/followers.json?cursor=" + cursor, auth));
     }
 
@@ -742,7 +857,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public PagableResponseList<User> getFollowersStatuses(String screenName, long cursor) throws TwitterException {
-        return UserJSONImpl.createPagableUserList(http.get(conf.getRestBaseURL()
+        return UserJSONImpl.createPagableUserList(http.get(FOLLOWERS_STATUSES, conf.getRestBaseURL()
                 + "statuses/followers.json?screen_name=" + screenName
                 + "&cursor=" + cursor, auth));
     }
@@ -751,7 +866,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public PagableResponseList<User> getFollowersStatuses(int userId, long cursor) throws TwitterException {
-        return UserJSONImpl.createPagableUserList(http.get(conf.getRestBaseURL()
+        return UserJSONImpl.createPagableUserList(http.get(FOLLOWERS_STATUSES, conf.getRestBaseURL()
                 + "statuses/followers.json?user_id=" + userId + "&cursor=" + cursor, auth));
     }
 
@@ -768,7 +883,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
         if (description != null) {
             httpParams.add(new HttpParameter("description", description));
         }
-        return new UserListJSONImpl(http.post(conf.getRestBaseURL() + getScreenName() +
+        return new UserListJSONImpl(http.post(CREATE_USER_LIST, conf.getRestBaseURL() + getScreenName() +
                 "/lists.json",
                 httpParams.toArray(new HttpParameter[httpParams.size()]),
                 auth));
@@ -787,7 +902,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
         if (newDescription != null) {
             httpParams.add(new HttpParameter("description", newDescription));
         }
-        return new UserListJSONImpl(http.post(conf.getRestBaseURL() + getScreenName() + "/lists/"
+        return new UserListJSONImpl(http.post(UPDATE_USER_LIST, conf.getRestBaseURL() + getScreenName() + "/lists/"
                 + listId + ".json", httpParams.toArray(new HttpParameter[httpParams.size()]), auth));
     }
 
@@ -796,7 +911,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public PagableResponseList<UserList> getUserLists(String listOwnerScreenName, long cursor) throws TwitterException {
         ensureAuthorizationEnabled();
-        return UserListJSONImpl.createUserListList(http.get(conf.getRestBaseURL() +
+        return UserListJSONImpl.createUserListList(http.get(USER_LISTS, conf.getRestBaseURL() +
                 listOwnerScreenName + "/lists.json?cursor=" + cursor, auth));
     }
 
@@ -805,7 +920,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public UserList showUserList(String listOwnerScreenName, int id) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserListJSONImpl(http.get(conf.getRestBaseURL() + listOwnerScreenName + "/lists/"
+        return new UserListJSONImpl(http.get(SHOW_USER_LIST, conf.getRestBaseURL() + listOwnerScreenName + "/lists/"
                 + id + ".json", auth));
     }
 
@@ -814,7 +929,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public UserList destroyUserList(int listId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserListJSONImpl(http.delete(conf.getRestBaseURL() + getScreenName() +
+        return new UserListJSONImpl(http.delete(DESTROY_USER_LIST, conf.getRestBaseURL() + getScreenName() +
                 "/lists/" + listId + ".json", auth));
     }
 
@@ -822,7 +937,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public ResponseList<Status> getUserListStatuses(String listOwnerScreenName, int id, Paging paging) throws TwitterException {
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() + listOwnerScreenName +
+        return StatusJSONImpl.createStatusList(http.get(USER_LIST_STATUSES, conf.getRestBaseURL() + listOwnerScreenName +
                 "/lists/" + id + "/statuses.json", paging.asPostParameterArray(Paging.SMCP, Paging.PER_PAGE), auth));
     }
 
@@ -831,7 +946,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public PagableResponseList<UserList> getUserListMemberships(String listOwnerScreenName, long cursor) throws TwitterException {
         ensureAuthorizationEnabled();
-        return UserListJSONImpl.createUserListList(http.get(conf.getRestBaseURL() +
+        return UserListJSONImpl.createUserListList(http.get(USER_LIST_MEMBERSHIPS, conf.getRestBaseURL() +
                 listOwnerScreenName + "/lists/memberships.json?cursor=" + cursor, auth));
     }
 
@@ -840,7 +955,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public PagableResponseList<UserList> getUserListSubscriptions(String listOwnerScreenName, long cursor) throws TwitterException {
         ensureAuthorizationEnabled();
-        return UserListJSONImpl.createUserListList(http.get(conf.getRestBaseURL() +
+        return UserListJSONImpl.createUserListList(http.get(USER_LIST_SUBSCRIPTIONS, conf.getRestBaseURL() +
                 listOwnerScreenName + "/lists/subscriptions.json?cursor=" + cursor, auth));
     }
 
@@ -852,7 +967,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public PagableResponseList<User> getUserListMembers(String listOwnerScreenName, int listId
             , long cursor) throws TwitterException {
         ensureAuthorizationEnabled();
-        return UserJSONImpl.createPagableUserList(http.get(conf.getRestBaseURL() +
+        return UserJSONImpl.createPagableUserList(http.get(LIST_MEMBERS, conf.getRestBaseURL() +
                 listOwnerScreenName + "/" + listId + "/members.json?cursor=" + cursor, auth));
     }
 
@@ -861,7 +976,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public UserList addUserListMember(int listId, int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserListJSONImpl(http.post(conf.getRestBaseURL() + getScreenName() +
+        return new UserListJSONImpl(http.post(ADD_LIST_MEMBER, conf.getRestBaseURL() + getScreenName() +
                 "/" + listId + "/members.json?id=" + userId, auth));
     }
 
@@ -870,7 +985,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public UserList deleteUserListMember(int listId, int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserListJSONImpl(http.delete(conf.getRestBaseURL() + getScreenName() +
+        return new UserListJSONImpl(http.delete(DELETE_LIST_MEMBER, conf.getRestBaseURL() + getScreenName() +
                 "/" + listId + "/members.json?id=" + userId, auth));
     }
 
@@ -879,7 +994,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User checkUserListMembership(String listOwnerScreenName, int listId, int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.get(conf.getRestBaseURL() + listOwnerScreenName + "/" + listId
+        return new UserJSONImpl(http.get(CHECK_LIST_MEMBERSHIP, conf.getRestBaseURL() + listOwnerScreenName + "/" + listId
                 + "/members/" + userId + ".json", auth));
     }
 
@@ -891,7 +1006,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public PagableResponseList<User> getUserListSubscribers(String listOwnerScreenName
             , int listId, long cursor) throws TwitterException {
         ensureAuthorizationEnabled();
-        return UserJSONImpl.createPagableUserList(http.get(conf.getRestBaseURL() +
+        return UserJSONImpl.createPagableUserList(http.get(LIST_SUBSCRIBERS, conf.getRestBaseURL() +
                 listOwnerScreenName + "/" + listId + "/subscribers.json?cursor=" + cursor, auth));
     }
 
@@ -900,7 +1015,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public UserList subscribeUserList(String listOwnerScreenName, int listId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserListJSONImpl(http.post(conf.getRestBaseURL() + listOwnerScreenName +
+        return new UserListJSONImpl(http.post(SUBSCRIBE_LIST, conf.getRestBaseURL() + listOwnerScreenName +
                 "/" + listId + "/subscribers.json", auth));
     }
 
@@ -909,7 +1024,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public UserList unsubscribeUserList(String listOwnerScreenName, int listId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserListJSONImpl(http.delete(conf.getRestBaseURL() + listOwnerScreenName +
+        return new UserListJSONImpl(http.delete(UNSUBSCRIBE_LIST, conf.getRestBaseURL() + listOwnerScreenName +
                 "/" + listId + "/subscribers.json?id=" + verifyCredentials().getId(), auth));
     }
 
@@ -918,7 +1033,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User checkUserListSubscription(String listOwnerScreenName, int listId, int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.get(conf.getRestBaseURL() + listOwnerScreenName + "/" + listId
+        return new UserJSONImpl(http.get(CHECK_LIST_SUBSCRIPTION, conf.getRestBaseURL() + listOwnerScreenName + "/" + listId
                 + "/subscribers/" + userId + ".json", auth));
     }
 
@@ -929,7 +1044,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<DirectMessage> getDirectMessages() throws TwitterException {
         ensureAuthorizationEnabled();
-        return DirectMessageJSONImpl.createDirectMessageList(http.get(conf.getRestBaseURL() + "direct_messages.json", auth));
+        return DirectMessageJSONImpl.createDirectMessageList(http.get(DIRECT_MESSAGES, conf.getRestBaseURL() + "direct_messages.json", auth));
     }
 
     /**
@@ -937,7 +1052,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<DirectMessage> getDirectMessages(Paging paging) throws TwitterException {
         ensureAuthorizationEnabled();
-        return DirectMessageJSONImpl.createDirectMessageList(http.get(conf.getRestBaseURL()
+        return DirectMessageJSONImpl.createDirectMessageList(http.get(DIRECT_MESSAGES, conf.getRestBaseURL()
                 + "direct_messages.json", paging.asPostParameterArray(), auth));
     }
 
@@ -947,7 +1062,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<DirectMessage> getSentDirectMessages() throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return DirectMessageJSONImpl.createDirectMessageList(http.get(conf.getRestBaseURL() +
+        return DirectMessageJSONImpl.createDirectMessageList(http.get(SENT_DIRECT_MESSAGES, conf.getRestBaseURL() +
                 "direct_messages/sent.json", auth));
     }
 
@@ -957,7 +1072,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<DirectMessage> getSentDirectMessages(Paging paging) throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return DirectMessageJSONImpl.createDirectMessageList(http.get(conf.getRestBaseURL() +
+        return DirectMessageJSONImpl.createDirectMessageList(http.get(SENT_DIRECT_MESSAGES, conf.getRestBaseURL() +
                 "direct_messages/sent.json", paging.asPostParameterArray(), auth));
     }
 
@@ -966,7 +1081,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public DirectMessage sendDirectMessage(String screenName, String text) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new DirectMessageJSONImpl(http.post(conf.getRestBaseURL() + "direct_messages/new.json",
+        return new DirectMessageJSONImpl(http.post(SEND_DIRECT_MESSAGE, conf.getRestBaseURL() + "direct_messages/new.json",
                 new HttpParameter[]{new HttpParameter("screen_name", screenName),
                         new HttpParameter("text", text)}, auth));
     }
@@ -977,7 +1092,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public DirectMessage sendDirectMessage(int userId, String text)
             throws TwitterException {
         ensureAuthorizationEnabled();
-        return new DirectMessageJSONImpl(http.post(conf.getRestBaseURL() + "direct_messages/new.json",
+        return new DirectMessageJSONImpl(http.post(SEND_DIRECT_MESSAGE, conf.getRestBaseURL() + "direct_messages/new.json",
                 new HttpParameter[]{new HttpParameter("user_id", userId),
                         new HttpParameter("text", text)}, auth));
     }
@@ -988,7 +1103,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public DirectMessage destroyDirectMessage(int id) throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return new DirectMessageJSONImpl(http.post(conf.getRestBaseURL() +
+        return new DirectMessageJSONImpl(http.post(DESTROY_DIRECT_MESSAGES, conf.getRestBaseURL() +
                 "direct_messages/destroy/" + id + ".json", auth));
     }
 
@@ -997,7 +1112,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User createFriendship(String screenName) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "friendships/create.json?screen_name=" + screenName, auth));
+        return new UserJSONImpl(http.post(CREATE_FRIENDSHIP, conf.getRestBaseURL() + "friendships/create.json?screen_name=" + screenName, auth));
     }
 
     /**
@@ -1005,7 +1120,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User createFriendship(int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "friendships/create.json?user_id=" + userId, auth));
+        return new UserJSONImpl(http.post(CREATE_FRIENDSHIP, conf.getRestBaseURL() + "friendships/create.json?user_id=" + userId, auth));
     }
 
     /**
@@ -1013,7 +1128,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User createFriendship(String screenName, boolean follow) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "friendships/create.json?screen_name=" + screenName
+        return new UserJSONImpl(http.post(CREATE_FRIENDSHIP, conf.getRestBaseURL() + "friendships/create.json?screen_name=" + screenName
                 + "&follow=" + follow, auth));
     }
 
@@ -1022,7 +1137,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User createFriendship(int userId, boolean follow) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "friendships/create.json?user_id=" + userId
+        return new UserJSONImpl(http.post(CREATE_FRIENDSHIP, conf.getRestBaseURL() + "friendships/create.json?user_id=" + userId
                 + "&follow=" + follow, auth));
     }
 
@@ -1031,7 +1146,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User destroyFriendship(String screenName) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "friendships/destroy.json?screen_name="
+        return new UserJSONImpl(http.post(DESTROY_FRIENDSHIP, conf.getRestBaseURL() + "friendships/destroy.json?screen_name="
                 + screenName, auth));
     }
 
@@ -1040,7 +1155,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User destroyFriendship(int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "friendships/destroy.json?user_id="
+        return new UserJSONImpl(http.post(DESTROY_FRIENDSHIP, conf.getRestBaseURL() + "friendships/destroy.json?user_id="
                 + userId, auth));
     }
 
@@ -1048,7 +1163,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public boolean existsFriendship(String userA, String userB) throws TwitterException {
-        return -1 != http.get(conf.getRestBaseURL() + "friendships/exists.json",
+        return -1 != http.get(EXISTS_FRIENDSHIP, conf.getRestBaseURL() + "friendships/exists.json",
                 getParameterArray("user_a", userA, "user_b", userB), auth).
                 asString().indexOf("true");
     }
@@ -1057,7 +1172,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public Relationship showFriendship(String sourceScreenName, String targetScreenName) throws TwitterException {
-        return new RelationshipJSONImpl(http.get(conf.getRestBaseURL() + "friendships/show.json",
+        return new RelationshipJSONImpl(http.get(SHOW_FRIENDSHIP, conf.getRestBaseURL() + "friendships/show.json",
                 getParameterArray("source_screen_name", sourceScreenName,
                         "target_screen_name", targetScreenName), auth));
     }
@@ -1066,7 +1181,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public Relationship showFriendship(int sourceId, int targetId) throws TwitterException {
-        return new RelationshipJSONImpl(http.get(conf.getRestBaseURL() + "friendships/show.json",
+        return new RelationshipJSONImpl(http.get(SHOW_FRIENDSHIP, conf.getRestBaseURL() + "friendships/show.json",
                 getParameterArray("source_id", sourceId, "target_id", targetId), auth));
     }
 
@@ -1075,7 +1190,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public IDs getIncomingFriendships(long cursor) throws TwitterException {
         ensureAuthorizationEnabled();
-        return IDsJSONImpl.getFriendsIDs(http.get(conf.getRestBaseURL() + "friendships/incoming.json?cursor=" + cursor, auth));
+        return IDsJSONImpl.getFriendsIDs(http.get(INCOMING_FRIENDSHIPS, conf.getRestBaseURL() + "friendships/incoming.json?cursor=" + cursor, auth));
     }
 
     /**
@@ -1083,7 +1198,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public IDs getOutgoingFriendships(long cursor) throws TwitterException {
         ensureAuthorizationEnabled();
-        return IDsJSONImpl.getFriendsIDs(http.get(conf.getRestBaseURL() + "friendships/outgoing.json?cursor=" + cursor, auth));
+        return IDsJSONImpl.getFriendsIDs(http.get(OUTGOING_FRIENDSHIPS, conf.getRestBaseURL() + "friendships/outgoing.json?cursor=" + cursor, auth));
     }
 
     /* Social Graph Methods */
@@ -1099,7 +1214,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public IDs getFriendsIDs(long cursor) throws TwitterException {
-        return IDsJSONImpl.getFriendsIDs(http.get(conf.getRestBaseURL() + "friends/ids.json?cursor=" + cursor, auth));
+        return IDsJSONImpl.getFriendsIDs(http.get(FRIENDS_IDS, conf.getRestBaseURL() + "friends/ids.json?cursor=" + cursor, auth));
     }
 
     /**
@@ -1113,7 +1228,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public IDs getFriendsIDs(int userId, long cursor) throws TwitterException {
-        return IDsJSONImpl.getFriendsIDs(http.get(conf.getRestBaseURL() + "friends/ids.json?user_id=" + userId +
+        return IDsJSONImpl.getFriendsIDs(http.get(FRIENDS_IDS, conf.getRestBaseURL() + "friends/ids.json?user_id=" + userId +
                 "&cursor=" + cursor, auth));
     }
 
@@ -1128,7 +1243,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public IDs getFriendsIDs(String screenName, long cursor) throws TwitterException {
-        return IDsJSONImpl.getFriendsIDs(http.get(conf.getRestBaseURL() + "friends/ids.json?screen_name=" + screenName
+        return IDsJSONImpl.getFriendsIDs(http.get(FRIENDS_IDS, conf.getRestBaseURL() + "friends/ids.json?screen_name=" + screenName
                 + "&cursor=" + cursor, auth));
     }
 
@@ -1143,7 +1258,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public IDs getFollowersIDs(long cursor) throws TwitterException {
-        return IDsJSONImpl.getFriendsIDs(http.get(conf.getRestBaseURL() + "followers/ids.json?cursor=" + cursor
+        return IDsJSONImpl.getFriendsIDs(http.get(FOLLOWERS_IDS, conf.getRestBaseURL() + "followers/ids.json?cursor=" + cursor
                 , auth));
     }
 
@@ -1158,7 +1273,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public IDs getFollowersIDs(int userId, long cursor) throws TwitterException {
-        return IDsJSONImpl.getFriendsIDs(http.get(conf.getRestBaseURL() + "followers/ids.json?user_id=" + userId
+        return IDsJSONImpl.getFriendsIDs(http.get(FOLLOWERS_IDS, conf.getRestBaseURL() + "followers/ids.json?user_id=" + userId
                 + "&cursor=" + cursor, auth));
     }
 
@@ -1173,7 +1288,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public IDs getFollowersIDs(String screenName, long cursor) throws TwitterException {
-        return IDsJSONImpl.getFriendsIDs(http.get(conf.getRestBaseURL() + "followers/ids.json?screen_name="
+        return IDsJSONImpl.getFriendsIDs(http.get(FOLLOWERS_IDS, conf.getRestBaseURL() + "followers/ids.json?screen_name="
                 + screenName + "&cursor=" + cursor, auth));
     }
 
@@ -1181,7 +1296,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public User verifyCredentials() throws TwitterException {
-        User user = new UserJSONImpl(http.get(conf.getRestBaseURL() + "account/verify_credentials.json"
+        User user = new UserJSONImpl(http.get(VERIFY_CREDENTIALS, conf.getRestBaseURL() + "account/verify_credentials.json"
                 , auth));
         this.screenName = user.getScreenName();
         this.id = user.getId();
@@ -1200,7 +1315,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
         addParameterToList(profile, "url", url);
         addParameterToList(profile, "location", location);
         addParameterToList(profile, "description", description);
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "account/update_profile.json"
+        return new UserJSONImpl(http.post(UPDATE_PROFILE, conf.getRestBaseURL() + "account/update_profile.json"
                 , profile.toArray(new HttpParameter[profile.size()]), auth));
     }
 
@@ -1208,7 +1323,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public RateLimitStatus getRateLimitStatus() throws TwitterException {
-        return RateLimitStatusJSONImpl.createFromJSONResponse(http.get(conf.getRestBaseURL() + "account/rate_limit_status.json", auth));
+        return RateLimitStatusJSONImpl.createFromJSONResponse(http.get(RATE_LIMIT_STATUS, conf.getRestBaseURL() + "account/rate_limit_status.json", auth));
     }
 
     /**
@@ -1216,7 +1331,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User updateDeliveryDevice(Device device) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "account/update_delivery_device.json", new HttpParameter[]{new HttpParameter("device", device.getName())}, auth));
+        return new UserJSONImpl(http.post(UPDATE_DELIVERY_DEVICE, conf.getRestBaseURL() + "account/update_delivery_device.json", new HttpParameter[]{new HttpParameter("device", device.getName())}, auth));
     }
 
 
@@ -1242,7 +1357,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
                 , profileSidebarFillColor);
         addParameterToList(colors, "profile_sidebar_border_color"
                 , profileSidebarBorderColor);
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() +
+        return new UserJSONImpl(http.post(UPDATE_PROFILE_COLORS, conf.getRestBaseURL() +
                 "account/update_profile_colors.json",
                 colors.toArray(new HttpParameter[colors.size()]), auth));
     }
@@ -1260,7 +1375,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public User updateProfileImage(File image) throws TwitterException {
         checkFileValidity(image);
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL()
+        return new UserJSONImpl(http.post(UPDATE_PROFILE_IMAGE, conf.getRestBaseURL()
                 + "account/update_profile_image.json",
                 new HttpParameter[]{new HttpParameter("image", image)}, auth));
     }
@@ -1272,7 +1387,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
             throws TwitterException {
         ensureAuthorizationEnabled();
         checkFileValidity(image);
-        return new UserJSONImpl(http.post(conf.getRestBaseURL()
+        return new UserJSONImpl(http.post(UPDATE_PROFILE_BACKGROUND_IMAGE, conf.getRestBaseURL()
                 + "account/update_profile_background_image.json",
                 new HttpParameter[]{new HttpParameter("image", image),
                         new HttpParameter("tile", tile)}, auth));
@@ -1301,7 +1416,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getFavorites() throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL()
+        return StatusJSONImpl.createStatusList(http.get(FAVORITES, conf.getRestBaseURL()
                 + "favorites.json", auth));
     }
 
@@ -1310,7 +1425,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getFavorites(int page) throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() + "favorites.json"
+        return StatusJSONImpl.createStatusList(http.get(FAVORITES, conf.getRestBaseURL() + "favorites.json"
                 , new HttpParameter[]{new HttpParameter("page", page)}, auth));
     }
 
@@ -1319,7 +1434,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getFavorites(String id) throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() +
+        return StatusJSONImpl.createStatusList(http.get(FAVORITES, conf.getRestBaseURL() +
                 "favorites/" + id + ".json", auth));
     }
 
@@ -1328,7 +1443,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public ResponseList<Status> getFavorites(String id, int page) throws TwitterException {
         ensureAuthorizationEnabled();
-        return StatusJSONImpl.createStatusList(http.get(conf.getRestBaseURL() + "favorites/" + id + ".json",
+        return StatusJSONImpl.createStatusList(http.get(FAVORITES, conf.getRestBaseURL() + "favorites/" + id + ".json",
                 getParameterArray("page", page), auth));
     }
 
@@ -1337,7 +1452,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public Status createFavorite(long id) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL() + "favorites/create/" + id + ".json", auth));
+        return new StatusJSONImpl(http.post(CREATE_FAVORITE, conf.getRestBaseURL() + "favorites/create/" + id + ".json", auth));
     }
 
     /**
@@ -1345,7 +1460,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public Status destroyFavorite(long id) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new StatusJSONImpl(http.post(conf.getRestBaseURL() + "favorites/destroy/" + id + ".json", auth));
+        return new StatusJSONImpl(http.post(DESTROY_FAVORITE, conf.getRestBaseURL() + "favorites/destroy/" + id + ".json", auth));
     }
 
     /**
@@ -1353,7 +1468,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User enableNotification(String screenName) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "notifications/follow.json?screen_name=" + screenName, auth));
+        return new UserJSONImpl(http.post(ENABLE_NOTIFICATION, conf.getRestBaseURL() + "notifications/follow.json?screen_name=" + screenName, auth));
     }
 
     /**
@@ -1361,7 +1476,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User enableNotification(int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "notifications/follow.json?userId=" + userId, auth));
+        return new UserJSONImpl(http.post(ENABLE_NOTIFICATION, conf.getRestBaseURL() + "notifications/follow.json?userId=" + userId, auth));
     }
 
     /**
@@ -1369,7 +1484,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User disableNotification(String screenName) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "notifications/leave.json?screen_name=" + screenName, auth));
+        return new UserJSONImpl(http.post(DISABLE_NOTIFICATION, conf.getRestBaseURL() + "notifications/leave.json?screen_name=" + screenName, auth));
     }
 
     /**
@@ -1377,7 +1492,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User disableNotification(int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "notifications/leave.json?user_id=" + userId, auth));
+        return new UserJSONImpl(http.post(DISABLE_NOTIFICATION, conf.getRestBaseURL() + "notifications/leave.json?user_id=" + userId, auth));
     }
 
     /* Block Methods */
@@ -1387,7 +1502,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User createBlock(String screenName) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "blocks/create.json?screen_name=" + screenName, auth));
+        return new UserJSONImpl(http.post(CREATE_BLOCK, conf.getRestBaseURL() + "blocks/create.json?screen_name=" + screenName, auth));
     }
 
     /**
@@ -1395,7 +1510,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User createBlock(int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "blocks/create.json?user_id=" + userId, auth));
+        return new UserJSONImpl(http.post(CREATE_BLOCK, conf.getRestBaseURL() + "blocks/create.json?user_id=" + userId, auth));
     }
 
     /**
@@ -1403,7 +1518,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User destroyBlock(String screen_name) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "blocks/destroy.json?screen_name=" + screen_name, auth));
+        return new UserJSONImpl(http.post(DESTROY_BLOCK, conf.getRestBaseURL() + "blocks/destroy.json?screen_name=" + screen_name, auth));
     }
 
     /**
@@ -1411,7 +1526,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User destroyBlock(int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "blocks/destroy.json?user_id=" + userId, auth));
+        return new UserJSONImpl(http.post(DESTROY_BLOCK, conf.getRestBaseURL() + "blocks/destroy.json?user_id=" + userId, auth));
     }
 
     /**
@@ -1421,7 +1536,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
         ensureAuthorizationEnabled();
         try {
             // @todo this method looks to be always returning false as it's expecting an XML format.
-            return -1 == http.get(conf.getRestBaseURL() + "blocks/exists.json?screen_name=" + screenName, auth).
+            return -1 == http.get(EXISTS_BLOCK, conf.getRestBaseURL() + "blocks/exists.json?screen_name=" + screenName, auth).
                     asString().indexOf("<error>You are not blocking this user.</error>");
         } catch (TwitterException te) {
             if (te.getStatusCode() == 404) {
@@ -1437,7 +1552,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public boolean existsBlock(int userId) throws TwitterException {
         ensureAuthorizationEnabled();
         try {
-            return -1 == http.get(conf.getRestBaseURL() + "blocks/exists.json?user_id=" + userId, auth).
+            return -1 == http.get(EXISTS_BLOCK, conf.getRestBaseURL() + "blocks/exists.json?user_id=" + userId, auth).
                     asString().indexOf("<error>You are not blocking this user.</error>");
         } catch (TwitterException te) {
             if (te.getStatusCode() == 404) {
@@ -1453,7 +1568,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<User> getBlockingUsers() throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return UserJSONImpl.createUserList(http.get(conf.getRestBaseURL() +
+        return UserJSONImpl.createUserList(http.get(BLOCKING_USERS, conf.getRestBaseURL() +
                 "blocks/blocking.json", auth));
     }
 
@@ -1463,7 +1578,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
     public ResponseList<User> getBlockingUsers(int page) throws
             TwitterException {
         ensureAuthorizationEnabled();
-        return UserJSONImpl.createUserList(http.get(conf.getRestBaseURL() +
+        return UserJSONImpl.createUserList(http.get(BLOCKING_USERS, conf.getRestBaseURL() +
                 "blocks/blocking.json?page=" + page, auth));
     }
 
@@ -1472,7 +1587,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public IDs getBlockingUsersIDs() throws TwitterException {
         ensureAuthorizationEnabled();
-        return IDsJSONImpl.getBlockIDs(http.get(conf.getRestBaseURL() + "blocks/blocking/ids.json", auth));
+        return IDsJSONImpl.getBlockIDs(http.get(BLOCKING_USERS_IDS, conf.getRestBaseURL() + "blocks/blocking/ids.json", auth));
     }
 
     /* Spam Reporting Methods */
@@ -1482,7 +1597,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User reportSpam(int userId) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "report_spam.json?user_id=" + userId, auth));
+        return new UserJSONImpl(http.post(REPORT_SPAM, conf.getRestBaseURL() + "report_spam.json?user_id=" + userId, auth));
     }
 
     /**
@@ -1490,7 +1605,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public User reportSpam(String screenName) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new UserJSONImpl(http.post(conf.getRestBaseURL() + "report_spam.json?screen_name=" + screenName, auth));
+        return new UserJSONImpl(http.post(REPORT_SPAM, conf.getRestBaseURL() + "report_spam.json?screen_name=" + screenName, auth));
     }
 
     /* Saved Searches Methods */
@@ -1500,7 +1615,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public List<SavedSearch> getSavedSearches() throws TwitterException {
         ensureAuthorizationEnabled();
-        return SavedSearchJSONImpl.createSavedSearchList(http.get(conf.getRestBaseURL() + "saved_searches.json", auth));
+        return SavedSearchJSONImpl.createSavedSearchList(http.get(SAVED_SEARCHES, conf.getRestBaseURL() + "saved_searches.json", auth));
     }
 
     /**
@@ -1508,7 +1623,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public SavedSearch showSavedSearch(int id) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new SavedSearchJSONImpl(http.get(conf.getRestBaseURL() + "saved_searches/show/" + id
+        return new SavedSearchJSONImpl(http.get(SHOW_SAVED_SEARCH, conf.getRestBaseURL() + "saved_searches/show/" + id
                 + ".json", auth));
     }
 
@@ -1517,7 +1632,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public SavedSearch createSavedSearch(String query) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new SavedSearchJSONImpl(http.post(conf.getRestBaseURL() + "saved_searches/create.json"
+        return new SavedSearchJSONImpl(http.post(CREATE_SAVED_SEARCH, conf.getRestBaseURL() + "saved_searches/create.json"
                 , new HttpParameter[]{new HttpParameter("query", query)}, auth));
     }
 
@@ -1526,7 +1641,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public SavedSearch destroySavedSearch(int id) throws TwitterException {
         ensureAuthorizationEnabled();
-        return new SavedSearchJSONImpl(http.post(conf.getRestBaseURL()
+        return new SavedSearchJSONImpl(http.post(DESTROY_SAVED_SEARCH, conf.getRestBaseURL()
                 + "saved_searches/destroy/" + id + ".json", auth));
     }
     /* Local Trends Methods */
@@ -1535,7 +1650,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public ResponseList<Location> getAvailableTrends() throws TwitterException {
-        return LocationJSONImpl.createLocationList(http.get(conf.getRestBaseURL()
+        return LocationJSONImpl.createLocationList(http.get(AVAILABLE_TRENDS, conf.getRestBaseURL()
                 + "trends/available.json", auth));
     }
 
@@ -1543,7 +1658,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public ResponseList<Location> getAvailableTrends(GeoLocation location) throws TwitterException {
-        return LocationJSONImpl.createLocationList(http.get(conf.getRestBaseURL()
+        return LocationJSONImpl.createLocationList(http.get(AVAILABLE_TRENDS, conf.getRestBaseURL()
                 + "trends/available.json",
                 new HttpParameter[]{new HttpParameter("lat", location.getLatitude())
                         ,new HttpParameter("long", location.getLongitude())
@@ -1555,7 +1670,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      */
     public Trends getLocationTrends(int woeid) throws TwitterException {
         try {
-            HttpResponse res = http.get(conf.getRestBaseURL()
+            HttpResponse res = http.get(LOCATION_TRENDS, conf.getRestBaseURL()
                     + "trends/" + woeid + ".json", auth);
             JSONArray array = res.asJSONArray();
             if (array.length() > 0) {
@@ -1576,40 +1691,99 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public ResponseList<Place> getNearbyPlaces(GeoQuery query) throws TwitterException {
+        GeoCache geoCache = getGeoCache();
+        if (null != geoCache) {
+            ResponseList<Place> places = geoCache.getPlaces(NEAR_BY_PLACES, query);
+            if (null != places) {
+                return places;
+            }
+        }
+        ResponseList<Place> places;
         try{
-            return PlaceJSONImpl.createPlaceList(http.get(conf.getRestBaseURL()
+            places = PlaceJSONImpl.createPlaceList(http.get(NEAR_BY_PLACES, conf.getRestBaseURL()
                     + "geo/nearby_places.json", query.asHttpParameterArray(), auth));
         }catch(TwitterException te){
             if(te.getStatusCode() == 404){
-                return new ResponseListImpl<Place>(0, null);
+                places = new ResponseListImpl<Place>(0, null);
             }else{
                 throw te;
             }
         }
+        if (null != geoCache) {
+            geoCache.cache(NEAR_BY_PLACES, query, places);
+        }
+        return places;
     }
 
     /**
      * {@inheritDoc}
      */
     public ResponseList<Place> reverseGeoCode(GeoQuery query) throws TwitterException {
+        GeoCache geoCache = getGeoCache();
+        if (null != geoCache) {
+            ResponseList<Place> places = geoCache.getPlaces(REVERSE_GEO_CODE, query);
+            if (null != places) {
+                return places;
+            }
+        }
+        ResponseList<Place> places;
         try{
-            return PlaceJSONImpl.createPlaceList(http.get(conf.getRestBaseURL()
+            places = PlaceJSONImpl.createPlaceList(http.get(REVERSE_GEO_CODE, conf.getRestBaseURL()
                     + "geo/reverse_geocode.json", query.asHttpParameterArray(), auth));
         }catch(TwitterException te){
             if(te.getStatusCode() == 404){
-                return new ResponseListImpl<Place>(0, null);
+                places = new ResponseListImpl<Place>(0, null);
             }else{
                 throw te;
             }
         }
+        if (null != geoCache) {
+            geoCache.cache(REVERSE_GEO_CODE, query, places);
+        }
+        return places;
     }
 
     /**
      * {@inheritDoc}
      */
     public Place getGeoDetails(String id) throws TwitterException {
-        return new PlaceJSONImpl(http.get(conf.getRestBaseURL() + "geo/id/" + id
-                + ".json", auth));
+        GeoCache geoCache = getGeoCache();
+        Place place = null == geoCache ? null : geoCache.getGeoDetails(id);
+        if (null == place) {
+            place = new PlaceJSONImpl(http.get(GEO_DETAILS, conf.getRestBaseURL() + "geo/id/" + id
+                    + ".json", auth));
+            if (null != geoCache) {
+                geoCache.cacheGeoDetails(place);
+            }
+        }
+        return place;
+    }
+
+    /**
+     * Returns the cache of geo API results, enabled with geoCacheSize.
+     *
+     * @return the geo cache, or null if the cache is disabled
+     * @since Twitter4J 2.1.7
+     */
+    public synchronized GeoCache getGeoCache() {
+        if (!geoCacheInitialized) {
+            if (0 < conf.getGeoCacheSize()) {
+                geoCache = new GeoCache(conf.getGeoCacheSize(), conf.getGeoCacheTTLSeconds());
+            }
+            geoCacheInitialized = true;
+        }
+        return geoCache;
+    }
+
+    /**
+     * Sets the cache of geo API results, in order to share one among instances.
+     *
+     * @param geoCache geo cache, or null to disable the cache
+     * @since Twitter4J 2.1.7
+     */
+    public synchronized void setGeoCache(GeoCache geoCache) {
+        this.geoCache = geoCache;
+        geoCacheInitialized = true;
     }
 
     /* Help Methods */
@@ -1618,7 +1792,7 @@ public class Twitter extends TwitterOAuthSupportBaseImpl
      * {@inheritDoc}
      */
     public boolean test() throws TwitterException {
-        return -1 != http.get(conf.getRestBaseURL() + "help/test.json").
+        return -1 != http.get(TEST, conf.getRestBaseURL() + "help/test.json").
                 asString().indexOf("ok");
     }
 
@@ -0,0 +1,458 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import twitter4j.internal.http.HttpCancellation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The result of an asynchronous call, returned by {@link AsyncTwitter#submit(TwitterMethod, TwitterCallable)}.<br>
+ * Besides blocking with get(), listeners can be notified on completion, and calls can be chained with then() or fanned out with allOf() without blocking any thread while waiting.<br>
+ * Cancelling the future, or letting it time out, aborts the HTTP request in flight.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class TwitterFuture<V> implements Future<V> {
+    private static final int PENDING = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELLED = 3;
+
+    private static ScheduledExecutorService timer;
+
+    private final TwitterMethod method;
+    private final HttpCancellation cancellation = new HttpCancellation();
+    private int state = PENDING;
+    private Thread runner = null;
+    private V value;
+    private TwitterException exception;
+    private List<Listener<? super V>> listeners = new ArrayList<Listener<? super V>>(2);
+
+    /**
+     * Notified when the future completes.
+     */
+    public interface Listener<V> {
+        /**
+         * Called once the future completed, on the thread completing it, or on the calling thread if it has completed already.
+         *
+         * @param future completed future
+         */
+        void onComplete(TwitterFuture<? extends V> future);
+    }
+
+    /**
+     * Starts a dependent call with the result of a future.
+     */
+    public interface Continuation<V, U> {
+        /**
+         * @param value result of the preceding call
+         * @return future of the dependent call
+         * @throws TwitterException to fail the dependent call
+         */
+        TwitterFuture<U> apply(V value) throws TwitterException;
+    }
+
+    /**
+     * @param method API method called, or null if unknown
+     */
+    public TwitterFuture(TwitterMethod method) {
+        this.method = method;
+    }
+
+    /**
+     * @param value value
+     * @return a future succeeded with the value
+     */
+    public static <V> TwitterFuture<V> completed(V value) {
+        TwitterFuture<V> future = new TwitterFuture<V>(null);
+        future.complete(value);
+        return future;
+    }
+
+    /**
+     * @param te exception
+     * @return a future failed with the exception
+     */
+    public static <V> TwitterFuture<V> failed(TwitterException te) {
+        TwitterFuture<V> future = new TwitterFuture<V>(null);
+        future.fail(te);
+        return future;
+    }
+
+    /**
+     * Returns a future of the results of all the futures, in the same order.<br>
+     * The future fails as soon as one of the futures fails, and cancelling it cancels all the futures.
+     *
+     * @param futures futures
+     * @return future of all the results
+     */
+    public static <V> TwitterFuture<List<V>> allOf(final List<? extends TwitterFuture<? extends V>> futures) {
+        final TwitterFuture<List<V>> all = new TwitterFuture<List<V>>(null) {
+            @Override
+            protected void onCancel() {
+                for (TwitterFuture<? extends V> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        };
+        if (futures.isEmpty()) {
+            all.complete(new ArrayList<V>(0));
+            return all;
+        }
+        final AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (TwitterFuture<? extends V> future : futures) {
+            future.addListener(new Listener<V>() {
+                public void onComplete(TwitterFuture<? extends V> future) {
+                    if (future.isFailed()) {
+                        all.fail(future.getException());
+                    } else if (future.isCancelled()) {
+                        all.cancel(true);
+                    } else if (0 == remaining.decrementAndGet()) {
+                        List<V> values = new ArrayList<V>(futures.size());
+                        for (TwitterFuture<? extends V> each : futures) {
+                            values.add(each.getValue());
+                        }
+                        all.complete(values);
+                    }
+                }
+            });
+        }
+        return all;
+    }
+
+    /**
+     * Chains a dependent call to be started once this future succeeded.<br>
+     * The returned future fails if either call fails, and cancelling it cancels the call in progress.
+     *
+     * @param continuation starts the dependent call
+     * @return future of the dependent call
+     */
+    public <U> TwitterFuture<U> then(final Continuation<? super V, U> continuation) {
+        final TwitterFuture<?>[] inProgress = {this};
+        final TwitterFuture<U> chained = new TwitterFuture<U>(null) {
+            @Override
+            protected void onCancel() {
+                synchronized (inProgress) {
+                    inProgress[0].cancel(true);
+                }
+            }
+        };
+        addListener(new Listener<V>() {
+            public void onComplete(TwitterFuture<? extends V> future) {
+                if (future.isFailed()) {
+                    chained.fail(future.getException());
+                    return;
+                } else if (future.isCancelled()) {
+                    chained.cancel(true);
+                    return;
+                }
+                TwitterFuture<U> next;
+                try {
+                    next = continuation.apply(future.getValue());
+                } catch (TwitterException te) {
+                    chained.fail(te);
+                    return;
+                } catch (RuntimeException re) {
+                    chained.fail(new TwitterException(re));
+                    return;
+                }
+                synchronized (inProgress) {
+                    inProgress[0] = next;
+                }
+                if (chained.isCancelled()) {
+                    next.cancel(true);
+                }
+                next.addListener(new Listener<U>() {
+                    public void onComplete(TwitterFuture<? extends U> future) {
+                        if (future.isFailed()) {
+                            chained.fail(future.getException());
+                        } else if (future.isCancelled()) {
+                            chained.cancel(true);
+                        } else {
+                            chained.complete(future.getValue());
+                        }
+                    }
+                });
+            }
+        });
+        return chained;
+    }
+
+    /**
+     * Fails the future with a TwitterException and aborts the request, unless the future completes within the timeout.
+     *
+     * @param timeout timeout
+     * @param unit    unit of the timeout
+     * @return this future
+     */
+    public TwitterFuture<V> timeout(long timeout, TimeUnit unit) {
+        final Future<?> timeoutTask = getTimer().schedule(new Runnable() {
+            public void run() {
+                if (fail(new TwitterException("The call timed out."))) {
+                    abort(true);
+                }
+            }
+        }, timeout, unit);
+        addListener(new Listener<V>() {
+            public void onComplete(TwitterFuture<? extends V> future) {
+                timeoutTask.cancel(false);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Adds a listener to be notified on completion.
+     *
+     * @param listener listener
+     * @return this future
+     */
+    public TwitterFuture<V> addListener(Listener<? super V> listener) {
+        synchronized (this) {
+            if (PENDING == state) {
+                listeners.add(listener);
+                return this;
+            }
+        }
+        listener.onComplete(this);
+        return this;
+    }
+
+    /**
+     * Completes the future successfully, unless it has completed already.
+     *
+     * @param value result
+     * @return true if the future has been completed by this call
+     */
+    public boolean complete(V value) {
+        synchronized (this) {
+            if (PENDING != state) {
+                return false;
+            }
+            this.value = value;
+            state = SUCCEEDED;
+        }
+        fireComplete();
+        return true;
+    }
+
+    /**
+     * Fails the future, unless it has completed already.
+     *
+     * @param te cause of the failure
+     * @return true if the future has been completed by this call
+     */
+    public boolean fail(TwitterException te) {
+        synchronized (this) {
+            if (PENDING != state) {
+                return false;
+            }
+            this.exception = te;
+            state = FAILED;
+        }
+        fireComplete();
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The HTTP request in flight is aborted regardless of mayInterruptIfRunning.
+     */
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (PENDING != state) {
+                return false;
+            }
+            state = CANCELLED;
+        }
+        fireComplete();
+        abort(mayInterruptIfRunning);
+        return true;
+    }
+
+    private void abort(boolean interrupt) {
+        cancellation.cancel();
+        synchronized (this) {
+            // wakes up the thread waiting for the next retry
+            if (interrupt && null != runner) {
+                runner.interrupt();
+            }
+        }
+        onCancel();
+    }
+
+    /**
+     * Called when the future is cancelled or timed out, in order to cancel the underlying work.
+     */
+    protected void onCancel() {
+    }
+
+    private void fireComplete() {
+        List<Listener<? super V>> toBeNotified;
+        synchronized (this) {
+            notifyAll();
+            toBeNotified = listeners;
+            listeners = null;
+        }
+        for (Listener<? super V> listener : toBeNotified) {
+            listener.onComplete(this);
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return CANCELLED == state;
+    }
+
+    public synchronized boolean isDone() {
+        return PENDING != state;
+    }
+
+    /**
+     * @return true if the call failed or timed out
+     */
+    public synchronized boolean isFailed() {
+        return FAILED == state;
+    }
+
+    /**
+     * @return the result, or null if the future didn't succeed
+     */
+    public synchronized V getValue() {
+        return value;
+    }
+
+    /**
+     * @return the cause of the failure, or null if the future didn't fail
+     */
+    public synchronized TwitterException getException() {
+        return exception;
+    }
+
+    /**
+     * @return API method called, or null if unknown
+     */
+    public TwitterMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The cause of ExecutionException is the TwitterException thrown by the call.
+     */
+    public synchronized V get() throws InterruptedException, ExecutionException {
+        while (PENDING == state) {
+            wait();
+        }
+        return result();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (PENDING == state) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return result();
+    }
+
+    private V result() throws ExecutionException {
+        if (CANCELLED == state) {
+            throw new CancellationException();
+        }
+        if (FAILED == state) {
+            throw new ExecutionException(exception);
+        }
+        return value;
+    }
+
+    /**
+     * Runs the call on the current thread, binding the cancellation handle to it so that the requests can be aborted.
+     */
+    /*package*/ void run(Twitter twitter, TwitterCallable<V> callable) {
+        if (isDone()) {
+            return;
+        }
+        synchronized (this) {
+            runner = Thread.currentThread();
+        }
+        HttpCancellation.setCurrent(cancellation);
+        try {
+            complete(callable.call(twitter));
+        } catch (TwitterException te) {
+            fail(te);
+        } catch (RuntimeException re) {
+            fail(new TwitterException(re));
+            throw re;
+        } finally {
+            HttpCancellation.setCurrent(null);
+            synchronized (this) {
+                runner = null;
+            }
+            // not to leak the interruption to the next task of the dispatcher thread
+            Thread.interrupted();
+        }
+    }
+
+    private static synchronized ScheduledExecutorService getTimer() {
+        if (null == timer) {
+            timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Twitter4J Async Timer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return timer;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "TwitterFuture{" +
+                "method=" + (null == method ? null : method.name()) +
+                ", state=" + (PENDING == state ? "pending" : SUCCEEDED == state ? "succeeded" : FAILED == state ? "failed" : "cancelled") +
+                '}';
+    }
+}
@@ -86,7 +86,7 @@ public final class TwitterMethod implements java.io.Serializable {
     }
 
     /*Search API Methods*/
-    public static final TwitterMethod SEARCH = getInstance("SEARCH");
+    public static final TwitterMethod SEARCH = new TwitterMethod("SEARCH");
 
     public static final TwitterMethod TRENDS = new TwitterMethod("TRENDS");
     public static final TwitterMethod CURRENT_TRENDS = new TwitterMethod("CURRENT_TRENDS");
@@ -190,10 +190,10 @@ public final class TwitterMethod implements java.io.Serializable {
     public static final TwitterMethod REPORT_SPAM = new TwitterMethod("REPORT_SPAM");
 
     /*Saved Searches Methods*/
-    //getSavedSearches()
-    //showSavedSearch()
-    //createSavedSearch()
-    //destroySavedSearch()
+    public static final TwitterMethod SAVED_SEARCHES = new TwitterMethod("SAVED_SEARCHES");
+    public static final TwitterMethod SHOW_SAVED_SEARCH = new TwitterMethod("SHOW_SAVED_SEARCH");
+    public static final TwitterMethod CREATE_SAVED_SEARCH = new TwitterMethod("CREATE_SAVED_SEARCH");
+    public static final TwitterMethod DESTROY_SAVED_SEARCH = new TwitterMethod("DESTROY_SAVED_SEARCH");
 
     /*Local Trends Methods*/
     public static final TwitterMethod AVAILABLE_TRENDS = new TwitterMethod("AVAILABLE_TRENDS");
@@ -55,6 +55,72 @@ abstract class TwitterOAuthSupportBase extends TwitterBase implements HttpRespon
       if (http != null) http.shutdown();
     }
 
+    /**
+     * Returns the cache of GET responses, enabled with http.responseCacheSize.
+     *
+     * @return the response cache, or null if the cache is disabled
+     * @since Twitter4J 2.1.7
+     */
+    public HttpResponseCache getResponseCache() {
+        return http.getResponseCache();
+    }
+
+    /**
+     * Returns the cache of users and statuses, enabled with entityCacheSize.
+     *
+     * @return the entity cache, or null if the cache is disabled
+     * @since Twitter4J 2.1.7
+     */
+    public EntityCache getEntityCache() {
+        return http.getEntityCache();
+    }
+
+    /**
+     * Sets the cache of users and statuses, in order to share one among instances authenticated as the same account.
+     *
+     * @param entityCache entity cache, or null to disable the cache
+     * @since Twitter4J 2.1.7
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        http.setEntityCache(entityCache);
+    }
+
+    /**
+     * Sets a listener to be notified of the progress of multipart uploads such as profile images.
+     *
+     * @param listener listener, or null to stop notifying
+     * @since Twitter4J 2.1.7
+     */
+    public void setUploadProgressListener(UploadProgressListener listener) {
+        http.setUploadProgressListener(listener);
+    }
+
+    /**
+     * Adds a listener to be notified with the per-phase timing of each request, such as HttpTimingStatistics.<br>
+     * Timings are recorded only while at least one such listener is registered.
+     *
+     * @param listener listener
+     * @since Twitter4J 2.1.7
+     */
+    public void addHttpTimingListener(HttpResponseListener listener) {
+        http.addHttpTimingListener(listener);
+    }
+
+    public void removeHttpTimingListener(HttpResponseListener listener) {
+        http.removeHttpTimingListener(listener);
+    }
+
+    /**
+     * Sets the retry policy applied to the specified API method.
+     *
+     * @param method      API method
+     * @param retryPolicy retry policy, or null to fall back to the default policy
+     * @since Twitter4J 2.1.7
+     */
+    public void setRetryPolicy(TwitterMethod method, RetryPolicy retryPolicy) {
+        http.setRetryPolicy(method, retryPolicy);
+    }
+
     private void writeObject(java.io.ObjectOutputStream out) throws IOException {
         if (rateLimitStatusListener instanceof java.io.Serializable) {
             out.writeObject(rateLimitStatusListener);
@@ -165,6 +231,10 @@ abstract class TwitterOAuthSupportBase extends TwitterBase implements HttpRespon
     }
 
     public void httpResponseReceived(HttpResponseEvent event) {
+        if (null != http.getHedgingHttpClient()) {
+            http.setRateLimitStatus(event.getRequest()
+                    , RateLimitStatusJSONImpl.createFromResponseHeader(event.getResponse()));
+        }
         if (null != rateLimitStatusListener) {
             HttpResponse res = event.getResponse();
             RateLimitStatus rateLimitStatus = RateLimitStatusJSONImpl.createFromResponseHeader(res);
@@ -27,6 +27,8 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package twitter4j;
 
 import twitter4j.internal.http.HttpResponse;
+import twitter4j.internal.json.RawJSONHolder;
+import twitter4j.internal.org.json.JSONObject;
 
 
 /**
@@ -37,9 +39,10 @@ import twitter4j.internal.http.HttpResponse;
  * @see twitter4j.User
  * @author Yusuke Yamamoto - yusuke at mac.com
  */
-/*package*/ abstract class TwitterResponseImpl implements TwitterResponse, java.io.Serializable {
+/*package*/ abstract class TwitterResponseImpl implements TwitterResponse, RawJSONHolder, java.io.Serializable {
 
     private transient RateLimitStatus rateLimitStatus = null;
+    private transient CharSequence rawJSON = null;
     private static final long serialVersionUID = -7284708239736552059L;
 
     public TwitterResponseImpl() {
@@ -55,4 +58,22 @@ import twitter4j.internal.http.HttpResponse;
     public RateLimitStatus getRateLimitStatus() {
         return rateLimitStatus;
     }
+
+    /*package*/ final void retainRawJSON(JSONObject json) {
+        this.rawJSON = json.getRawJSON();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getRawJSON() {
+        CharSequence raw = rawJSON;
+        if (null == raw || raw instanceof String) {
+            return (String) raw;
+        }
+        // copy the slice once, and stop referring the whole response
+        String str = raw.toString();
+        rawJSON = str;
+        return str;
+    }
 }
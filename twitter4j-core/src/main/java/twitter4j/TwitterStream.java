@@ -38,6 +38,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A java representation of the <a href="http://dev.twitter.com/pages/streaming_api_methods">Streaming API: Methods</a><br>
@@ -50,8 +51,9 @@ public final class TwitterStream extends TwitterOAuthSupportBaseImpl implements
     private final HttpClientWrapper http;
     private static final Logger logger = Logger.getLogger(TwitterStream.class);
 
-    private List<StatusListener> statusListeners = new ArrayList<StatusListener>(0);
+    private List<StatusListener> statusListeners = new CopyOnWriteArrayList<StatusListener>();
     private List<ConnectionLifeCycleListener> lifeCycleListeners = new ArrayList<ConnectionLifeCycleListener>(0);
+    private final List<StreamPublisher<?>> publishers = new CopyOnWriteArrayList<StreamPublisher<?>>();
     private StreamHandlingThread handler = null;
 
     private static final long serialVersionUID = -762817147320767897L;
@@ -103,6 +105,22 @@ public final class TwitterStream extends TwitterOAuthSupportBaseImpl implements
         http = new HttpClientWrapper(new StreamingReadTimeoutConfiguration(conf));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public EntityCache getEntityCache() {
+        return http.getEntityCache();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEntityCache(EntityCache entityCache) {
+        http.setEntityCache(entityCache);
+    }
+
     /* Streaming API */
 
     /**
@@ -389,8 +407,8 @@ public final class TwitterStream extends TwitterOAuthSupportBaseImpl implements
     }
 
 
-    private synchronized void startHandler(StreamHandlingThread handler) {
-        cleanUp();
+    /*package*/ synchronized void startHandler(StreamHandlingThread handler) {
+        closeHandler();
         if (null == statusListeners) {
             throw new IllegalStateException("StatusListener is not set.");
         }
@@ -399,7 +417,7 @@ public final class TwitterStream extends TwitterOAuthSupportBaseImpl implements
     }
 
     private synchronized void startUserStreamHandler(StreamHandlingThread handler) {
-        cleanUp();
+        closeHandler();
         if (null == statusListeners) {
             throw new IllegalStateException("UserStreamListener is not set.");
         }
@@ -411,10 +429,17 @@ public final class TwitterStream extends TwitterOAuthSupportBaseImpl implements
     }
 
     /**
-     * shutdown internal stream consuming thread
+     * shutdown internal stream consuming thread, and completes the publishers
      * @since Twitter4J 2.1.7
      */
     public synchronized void cleanUp(){
+        closeHandler();
+        for (StreamPublisher<?> publisher : publishers) {
+            publisher.complete();
+        }
+    }
+
+    private synchronized void closeHandler() {
         if (null != handler) {
             try {
                 handler.close();
@@ -423,6 +448,15 @@ public final class TwitterStream extends TwitterOAuthSupportBaseImpl implements
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void shutdown() {
+        cleanUp();
+        super.shutdown();
+    }
+
     /**
      * @deprecated use #cleanUp instead
      */
@@ -477,6 +511,49 @@ public final class TwitterStream extends TwitterOAuthSupportBaseImpl implements
         this.statusListeners.add(userStreamListener);
     }
 
+    /**
+     * Returns a publisher of the statuses received by the stream started with this instance. Statuses are delivered on the stream handling thread while the subscriber has outstanding demand and buffered otherwise.
+     *
+     * @param bufferSize       maximum number of statuses kept while the subscriber has no demand
+     * @param overflowStrategy one of {@link StreamPublisher#DROP_OLDEST}, {@link StreamPublisher#DROP_NEWEST} or {@link StreamPublisher#DISCONNECT}
+     * @return publisher
+     * @since Twitter4J 2.1.7
+     */
+    public StreamPublisher<Status> getStatusPublisher(int bufferSize, int overflowStrategy) {
+        StreamPublisher<Status> publisher = new StreamPublisher<Status>(bufferSize, overflowStrategy);
+        attach(publisher, new StreamPublisher.StatusPublishingListener(publisher));
+        return publisher;
+    }
+
+    /**
+     * Returns a publisher of the typed events received by the user stream started with this instance.
+     *
+     * @param bufferSize       maximum number of events kept while the subscriber has no demand
+     * @param overflowStrategy one of {@link StreamPublisher#DROP_OLDEST}, {@link StreamPublisher#DROP_NEWEST} or {@link StreamPublisher#DISCONNECT}
+     * @return publisher
+     * @see #user()
+     * @since Twitter4J 2.1.7
+     */
+    public StreamPublisher<UserStreamEvent> getUserStreamEventPublisher(int bufferSize, int overflowStrategy) {
+        StreamPublisher<UserStreamEvent> publisher = new StreamPublisher<UserStreamEvent>(bufferSize, overflowStrategy);
+        attach(publisher, new StreamPublisher.UserStreamEventPublishingListener(publisher));
+        return publisher;
+    }
+
+    private void attach(final StreamPublisher<?> publisher, final UserStreamListener listener) {
+        publisher.setDetachAction(new Runnable() {
+            public void run() {
+                statusListeners.remove(listener);
+                publishers.remove(publisher);
+                if (publisher.isOverflowed()) {
+                    cleanUp();
+                }
+            }
+        });
+        publishers.add(publisher);
+        addUserStreamListener(listener);
+    }
+
     /*
      http://apiwiki.twitter.com/Streaming-API-Documentation#Connecting
      When a network error (TCP/IP level) is encountered, back off linearly. Perhaps start at 250 milliseconds, double, and cap at 16 seconds
@@ -666,6 +743,42 @@ class StreamingReadTimeoutConfiguration implements HttpClientWrapperConfiguratio
       return nestedConf.getHttpDefaultMaxPerRoute();
     }
 
+    public String getHttpClientImpl() {
+        return nestedConf.getHttpClientImpl();
+    }
+
+    public int getHttpResponseCacheSize() {
+        return 0;
+    }
+
+    public int getHttpResponseCacheTTLSeconds() {
+        return 0;
+    }
+
+    public boolean isHttpHedgingEnabled() {
+        return false;
+    }
+
+    public boolean isHttpCoalescingEnabled() {
+        return false;
+    }
+
+    public boolean isJSONStoreEnabled() {
+        return nestedConf.isJSONStoreEnabled();
+    }
+
+    public int getEntityCacheSize() {
+        return nestedConf.getEntityCacheSize();
+    }
+
+    public int getEntityCacheTTLSeconds() {
+        return nestedConf.getEntityCacheTTLSeconds();
+    }
+
+    public boolean isMethodStatisticsEnabled() {
+        return nestedConf.isMethodStatisticsEnabled();
+    }
+
     public Map<String, String> getRequestHeaders() {
         return nestedConf.getRequestHeaders();
     }
@@ -76,9 +76,22 @@ import static twitter4j.internal.util.ParseUtil.*;
     private boolean isFollowRequestSent;
     private static final long serialVersionUID = -6345893237975349030L;
 
+    /**
+     * field names in the order of the binary form. new fields must be appended.
+     */
+    /*package*/ static final String[] BINARY_SCHEMA = {"id", "name", "screen_name", "location", "description"
+            , "contributors_enabled", "profile_image_url", "url", "protected", "followers_count"
+            , "status", "profile_background_color", "profile_text_color", "profile_link_color", "profile_sidebar_fill_color"
+            , "profile_sidebar_border_color", "friends_count", "created_at", "favourites_count", "utc_offset"
+            , "time_zone", "profile_background_image_url", "profile_background_tile", "lang", "statuses_count"
+            , "geo_enabled", "verified", "listed_count", "follow_request_sent"};
+
     /*package*/UserJSONImpl(HttpResponse res) throws TwitterException {
         super(res);
         init(res.asJSONObject());
+        if (null != res.getEntityCache()) {
+            res.getEntityCache().cache(this);
+        }
     }
 
     /*package*/UserJSONImpl(JSONObject json) throws TwitterException {
@@ -86,7 +99,77 @@ import static twitter4j.internal.util.ParseUtil.*;
         init(json);
     }
 
+    /*package*/ UserJSONImpl(BinaryCodec.Reader in) throws TwitterException {
+        super();
+        in.beginObject(BINARY_SCHEMA);
+        id = in.readInt(0);
+        name = in.readString(1);
+        screenName = in.readString(2);
+        location = in.readString(3);
+        description = in.readString(4);
+        isContributorsEnabled = in.readBoolean(5);
+        profileImageUrl = in.readString(6);
+        url = in.readString(7);
+        isProtected = in.readBoolean(8);
+        followersCount = in.readInt(9);
+        status = in.readStatus(10);
+        profileBackgroundColor = in.readString(11);
+        profileTextColor = in.readString(12);
+        profileLinkColor = in.readString(13);
+        profileSidebarFillColor = in.readString(14);
+        profileSidebarBorderColor = in.readString(15);
+        friendsCount = in.readInt(16);
+        createdAt = in.readDate(17);
+        favouritesCount = in.readInt(18);
+        utcOffset = in.readInt(19);
+        timeZone = in.readString(20);
+        profileBackgroundImageUrl = in.readString(21);
+        profileBackgroundTiled = in.readBoolean(22);
+        lang = in.readString(23);
+        statusesCount = in.readInt(24);
+        isGeoEnabled = in.readBoolean(25);
+        isVerified = in.readBoolean(26);
+        listedCount = in.readInt(27);
+        isFollowRequestSent = in.readBoolean(28);
+        in.endObject();
+    }
+
+    /*package*/ void writeTo(BinaryCodec.Writer out) {
+        out.beginObject(BINARY_SCHEMA);
+        out.writeInt(0, id);
+        out.writeString(1, name);
+        out.writeString(2, screenName);
+        out.writeString(3, location);
+        out.writeString(4, description);
+        out.writeBoolean(5, isContributorsEnabled);
+        out.writeString(6, profileImageUrl);
+        out.writeString(7, url);
+        out.writeBoolean(8, isProtected);
+        out.writeInt(9, followersCount);
+        out.writeStatus(10, status);
+        out.writeString(11, profileBackgroundColor);
+        out.writeString(12, profileTextColor);
+        out.writeString(13, profileLinkColor);
+        out.writeString(14, profileSidebarFillColor);
+        out.writeString(15, profileSidebarBorderColor);
+        out.writeInt(16, friendsCount);
+        out.writeDate(17, createdAt);
+        out.writeInt(18, favouritesCount);
+        out.writeInt(19, utcOffset);
+        out.writeString(20, timeZone);
+        out.writeString(21, profileBackgroundImageUrl);
+        out.writeBoolean(22, profileBackgroundTiled);
+        out.writeString(23, lang);
+        out.writeInt(24, statusesCount);
+        out.writeBoolean(25, isGeoEnabled);
+        out.writeBoolean(26, isVerified);
+        out.writeInt(27, listedCount);
+        out.writeBoolean(28, isFollowRequestSent);
+        out.endObject();
+    }
+
     private void init(JSONObject json) throws TwitterException {
+        retainRawJSON(json);
         try {
             id = getInt("id", json);
             name = getRawString("name", json);
@@ -410,8 +493,13 @@ import static twitter4j.internal.util.ParseUtil.*;
             int size = list.length();
             PagableResponseList<User> users =
                     new PagableResponseListImpl<User>(size, json, res);
+            EntityCache entityCache = res.getEntityCache();
             for (int i = 0; i < size; i++) {
-                users.add(new UserJSONImpl(list.getJSONObject(i)));
+                User user = new UserJSONImpl(list.getJSONObject(i));
+                if (null != entityCache) {
+                    entityCache.cache(user);
+                }
+                users.add(user);
             }
             return users;
         } catch (JSONException jsone) {
@@ -425,21 +513,15 @@ import static twitter4j.internal.util.ParseUtil.*;
     }
 
     /*package*/ static ResponseList<User> createUserList(JSONArray list, HttpResponse res) throws TwitterException {
-        try {
-            int size = list.length();
-            ResponseList<User> users =
-                    new ResponseListImpl<User>(size, res);
-            for (int i = 0; i < size; i++) {
-                users.add(new UserJSONImpl(list.getJSONObject(i)));
-            }
-            return users;
-        } catch (JSONException jsone) {
-            throw new TwitterException(jsone);
-        } catch (TwitterException te) {
-            throw te;
-        }
+        return new LazyResponseList<User>(list, res, FACTORY);
     }
 
+    private static final LazyResponseList.Factory<User> FACTORY = new LazyResponseList.Factory<User>() {
+        public User create(JSONObject json) throws TwitterException {
+            return new UserJSONImpl(json);
+        }
+    };
+
     @Override
     public int hashCode() {
         return id;
@@ -64,6 +64,7 @@ import java.net.URISyntaxException;
     }
 
     private void init(JSONObject json) throws TwitterException {
+        retainRawJSON(json);
             id = getInt("id", json);
             name = getRawString("name", json);
             fullName = getRawString("full_name", json);
@@ -0,0 +1,378 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static twitter4j.TwitterMethod.SHOW_USER;
+
+/**
+ * Loads users one at a time while sending them to Twitter in batches.<br>
+ * Individual lookups by id or screen name arriving within a short window are collected and fetched with a single
+ * {@link Twitter#lookupUsers(int[])} / {@link Twitter#lookupUsers(String[])} call of up to 100 users, then handed
+ * back to each caller. A batch is sent as soon as it is full, or when the window has elapsed since its first lookup.<br>
+ * Users missing from the response are reported individually with a TwitterException carrying status code 404.
+ * If the whole request fails, every lookup in the batch receives that exception.<br>
+ * This class is thread safe.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class UserLoader {
+    /**
+     * the maximum number of users fetched by a single lookupUsers call
+     */
+    public static final int MAX_BATCH_SIZE = 100;
+    private static final int DEFAULT_WINDOW_MILLIS = 10;
+
+    private final Twitter twitter;
+    private final long windowMillis;
+    private final ScheduledExecutorService executor;
+    private final Batch idBatch = new IdBatch();
+    private final Batch screenNameBatch = new ScreenNameBatch();
+
+    /**
+     * Creates a loader collecting lookups for 10 milliseconds.
+     *
+     * @param twitter the Twitter instance to issue lookupUsers calls with
+     */
+    public UserLoader(Twitter twitter) {
+        this(twitter, DEFAULT_WINDOW_MILLIS);
+    }
+
+    /**
+     * @param twitter      the Twitter instance to issue lookupUsers calls with
+     * @param windowMillis how long a batch waits for more lookups after its first one
+     */
+    public UserLoader(Twitter twitter, long windowMillis) {
+        if (null == twitter) {
+            throw new NullPointerException("twitter");
+        }
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("windowMillis must not be negative: " + windowMillis);
+        }
+        this.twitter = twitter;
+        this.windowMillis = windowMillis;
+        this.executor = new ScheduledThreadPoolExecutor(2, new ThreadFactory() {
+            private int count = 0;
+
+            public synchronized Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Twitter4J User Loader[" + count++ + "]");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Returns the user with the specified id, blocking until its batch has been fetched.
+     *
+     * @param userId the id of the user
+     * @return the user
+     * @throws TwitterException when the user was not found, or the batch request failed
+     */
+    public User showUser(int userId) throws TwitterException {
+        return idBatch.enqueue(userId, null).await();
+    }
+
+    /**
+     * Returns the user with the specified screen name, blocking until its batch has been fetched.
+     *
+     * @param screenName the screen name of the user
+     * @return the user
+     * @throws TwitterException when the user was not found, or the batch request failed
+     */
+    public User showUser(String screenName) throws TwitterException {
+        return screenNameBatch.enqueue(key(screenName), null).await();
+    }
+
+    /**
+     * Looks up the user with the specified id asynchronously.<br>
+     * The listener receives {@link TwitterListener#gotUserDetail(User)}, or
+     * {@link TwitterListener#onException(TwitterException, TwitterMethod)} with {@link TwitterMethod#SHOW_USER}.
+     *
+     * @param userId   the id of the user
+     * @param listener listener to be notified
+     */
+    public void showUser(int userId, TwitterListener listener) {
+        idBatch.enqueue(userId, listener);
+    }
+
+    /**
+     * Looks up the user with the specified screen name asynchronously.<br>
+     * The listener receives {@link TwitterListener#gotUserDetail(User)}, or
+     * {@link TwitterListener#onException(TwitterException, TwitterMethod)} with {@link TwitterMethod#SHOW_USER}.
+     *
+     * @param screenName the screen name of the user
+     * @param listener   listener to be notified
+     */
+    public void showUser(String screenName, TwitterListener listener) {
+        screenNameBatch.enqueue(key(screenName), listener);
+    }
+
+    /**
+     * Sends the pending batches, and stops accepting lookups.
+     */
+    public void shutdown() {
+        idBatch.close();
+        screenNameBatch.close();
+        executor.shutdown();
+    }
+
+    private static String key(String screenName) {
+        if (null == screenName) {
+            throw new NullPointerException("screenName");
+        }
+        return screenName.toLowerCase();
+    }
+
+    /**
+     * Collects the lookups of one key type until they are sent.
+     */
+    private abstract class Batch {
+        private Map<Object, Slot> pending = new HashMap<Object, Slot>();
+        private boolean closed = false;
+
+        Slot enqueue(Object key, TwitterListener listener) {
+            Slot slot;
+            Map<Object, Slot> full = null;
+            boolean first;
+            synchronized (this) {
+                // checked under the lock, so that no lookup is left pending once close() has flushed the batch
+                if (closed) {
+                    throw new IllegalStateException("UserLoader has already been shut down.");
+                }
+                first = pending.isEmpty();
+                slot = pending.get(key);
+                if (null == slot) {
+                    slot = new Slot();
+                    pending.put(key, slot);
+                }
+                slot.addListener(listener);
+                if (pending.size() >= MAX_BATCH_SIZE) {
+                    full = pending;
+                    pending = new HashMap<Object, Slot>();
+                }
+            }
+            if (null != full) {
+                send(full);
+            } else if (first) {
+                try {
+                    executor.schedule(new Runnable() {
+                        public void run() {
+                            flush();
+                        }
+                    }, windowMillis, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException shutdown) {
+                    // shut down meanwhile. close() has flushed the batch already
+                    flush();
+                }
+            }
+            return slot;
+        }
+
+        /**
+         * Stops accepting lookups and sends the pending ones.
+         */
+        void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            flush();
+        }
+
+        void flush() {
+            Map<Object, Slot> toBeSent;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                toBeSent = pending;
+                pending = new HashMap<Object, Slot>();
+            }
+            send(toBeSent);
+        }
+
+        private void send(final Map<Object, Slot> slots) {
+            Runnable task = new Runnable() {
+                public void run() {
+                    try {
+                        ResponseList<User> users;
+                        try {
+                            users = lookup(slots.keySet());
+                        } catch (TwitterException te) {
+                            for (Slot slot : slots.values()) {
+                                slot.fail(te);
+                            }
+                            return;
+                        }
+                        for (User user : users) {
+                            Slot slot = slots.remove(keyOf(user));
+                            if (null != slot) {
+                                slot.complete(user);
+                            }
+                        }
+                        for (Map.Entry<Object, Slot> entry : slots.entrySet()) {
+                            entry.getValue().fail(new TwitterException("User not found: " + entry.getKey()
+                                    , null, TwitterException.NOT_FOUND));
+                        }
+                    } catch (Throwable t) {
+                        // callers blocked in showUser() must not wait forever
+                        TwitterException te = t instanceof Exception
+                                ? new TwitterException((Exception) t) : new TwitterException(t.toString());
+                        for (Slot slot : slots.values()) {
+                            slot.fail(te);
+                        }
+                        if (t instanceof Error) {
+                            throw (Error) t;
+                        }
+                    }
+                }
+            };
+            if (executor.isShutdown()) {
+                task.run();
+            } else {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException shutdown) {
+                    task.run();
+                }
+            }
+        }
+
+        abstract ResponseList<User> lookup(Set<Object> keys) throws TwitterException;
+
+        abstract Object keyOf(User user);
+    }
+
+    private final class IdBatch extends Batch {
+        ResponseList<User> lookup(Set<Object> keys) throws TwitterException {
+            int[] ids = new int[keys.size()];
+            int i = 0;
+            for (Object key : keys) {
+                ids[i++] = (Integer) key;
+            }
+            return twitter.lookupUsers(ids);
+        }
+
+        Object keyOf(User user) {
+            return user.getId();
+        }
+    }
+
+    private final class ScreenNameBatch extends Batch {
+        ResponseList<User> lookup(Set<Object> keys) throws TwitterException {
+            return twitter.lookupUsers(keys.toArray(new String[keys.size()]));
+        }
+
+        Object keyOf(User user) {
+            return null == user.getScreenName() ? null : user.getScreenName().toLowerCase();
+        }
+    }
+
+    /**
+     * The outcome of a single key, shared by every lookup of that key within a batch.
+     */
+    private static final class Slot {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final List<TwitterListener> listeners = new ArrayList<TwitterListener>(1);
+        private User user;
+        private TwitterException exception;
+        private boolean finished = false;
+
+        synchronized void addListener(TwitterListener listener) {
+            if (null != listener) {
+                listeners.add(listener);
+            }
+        }
+
+        void complete(User user) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                this.user = user;
+            }
+            done.countDown();
+            for (TwitterListener listener : listeners()) {
+                try {
+                    listener.gotUserDetail(user);
+                } catch (RuntimeException ignore) {
+                    // must not prevent the remaining lookups from completing
+                }
+            }
+        }
+
+        void fail(TwitterException te) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                this.exception = te;
+            }
+            done.countDown();
+            for (TwitterListener listener : listeners()) {
+                try {
+                    listener.onException(te, SHOW_USER);
+                } catch (RuntimeException ignore) {
+                    // must not prevent the remaining lookups from completing
+                }
+            }
+        }
+
+        private synchronized List<TwitterListener> listeners() {
+            return new ArrayList<TwitterListener>(listeners);
+        }
+
+        User await() throws TwitterException {
+            try {
+                done.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new TwitterException("Interrupted while waiting for the user.", ie);
+            }
+            synchronized (this) {
+                if (null != exception) {
+                    throw exception;
+                }
+                return user;
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+/**
+ * A typed representation of a single element delivered on a user stream, as published by {@link StreamPublisher}.<br>
+ * Only the getters relevant to {@link #getType()} return non-null values.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see UserStreamListener
+ * @since Twitter4J 2.1.7
+ */
+public final class UserStreamEvent implements java.io.Serializable {
+    public static final int STATUS = 0;
+    public static final int DELETION_NOTICE = 1;
+    public static final int TRACK_LIMITATION_NOTICE = 2;
+    public static final int FRIEND_LIST = 3;
+    public static final int FAVORITE = 4;
+    public static final int UNFAVORITE = 5;
+    public static final int FOLLOW = 6;
+    public static final int UNFOLLOW = 7;
+    public static final int RETWEET = 8;
+    public static final int DIRECT_MESSAGE = 9;
+    public static final int USER_LIST_SUBSCRIBED = 10;
+    public static final int USER_LIST_CREATED = 11;
+    public static final int USER_LIST_UPDATED = 12;
+    public static final int USER_LIST_DESTROYED = 13;
+    public static final int BLOCK = 14;
+    public static final int UNBLOCK = 15;
+
+    private final int type;
+    private Status status = null;
+    private StatusDeletionNotice deletionNotice = null;
+    private int numberOfLimitedStatuses = 0;
+    private int[] friendIds = null;
+    private User source = null;
+    private User target = null;
+    private DirectMessage directMessage = null;
+    private UserList userList = null;
+    private static final long serialVersionUID = -3197419435281413532L;
+
+    private UserStreamEvent(int type) {
+        this.type = type;
+    }
+
+    /*package*/ static UserStreamEvent status(Status status) {
+        UserStreamEvent event = new UserStreamEvent(STATUS);
+        event.status = status;
+        return event;
+    }
+
+    /*package*/ static UserStreamEvent deletionNotice(StatusDeletionNotice deletionNotice) {
+        UserStreamEvent event = new UserStreamEvent(DELETION_NOTICE);
+        event.deletionNotice = deletionNotice;
+        return event;
+    }
+
+    /*package*/ static UserStreamEvent trackLimitationNotice(int numberOfLimitedStatuses) {
+        UserStreamEvent event = new UserStreamEvent(TRACK_LIMITATION_NOTICE);
+        event.numberOfLimitedStatuses = numberOfLimitedStatuses;
+        return event;
+    }
+
+    /*package*/ static UserStreamEvent friendList(int[] friendIds) {
+        UserStreamEvent event = new UserStreamEvent(FRIEND_LIST);
+        event.friendIds = friendIds;
+        return event;
+    }
+
+    /*package*/ static UserStreamEvent directMessage(DirectMessage directMessage) {
+        UserStreamEvent event = new UserStreamEvent(DIRECT_MESSAGE);
+        event.directMessage = directMessage;
+        return event;
+    }
+
+    /*package*/ static UserStreamEvent userEvent(int type, User source, User target, Status status) {
+        UserStreamEvent event = new UserStreamEvent(type);
+        event.source = source;
+        event.target = target;
+        event.status = status;
+        return event;
+    }
+
+    /*package*/ static UserStreamEvent listEvent(int type, User source, User target, UserList userList) {
+        UserStreamEvent event = new UserStreamEvent(type);
+        event.source = source;
+        event.target = target;
+        event.userList = userList;
+        return event;
+    }
+
+    /**
+     * @return one of the type constants declared in this class
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * @return the status for STATUS, or the target object for FAVORITE, UNFAVORITE and RETWEET
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    public StatusDeletionNotice getDeletionNotice() {
+        return deletionNotice;
+    }
+
+    public int getNumberOfLimitedStatuses() {
+        return numberOfLimitedStatuses;
+    }
+
+    public int[] getFriendIds() {
+        return friendIds;
+    }
+
+    /**
+     * @return the user who performed the action, the subscriber for USER_LIST_SUBSCRIBED
+     */
+    public User getSource() {
+        return source;
+    }
+
+    /**
+     * @return the user the action was performed on, the list owner for USER_LIST_SUBSCRIBED
+     */
+    public User getTarget() {
+        return target;
+    }
+
+    public DirectMessage getDirectMessage() {
+        return directMessage;
+    }
+
+    public UserList getUserList() {
+        return userList;
+    }
+
+    @Override
+    public String toString() {
+        return "UserStreamEvent{" +
+                "type=" + type +
+                ", status=" + status +
+                ", deletionNotice=" + deletionNotice +
+                ", numberOfLimitedStatuses=" + numberOfLimitedStatuses +
+                ", source=" + source +
+                ", target=" + target +
+                ", directMessage=" + directMessage +
+                ", userList=" + userList +
+                '}';
+    }
+}
@@ -81,6 +81,30 @@ public interface Configuration extends HttpClientConfiguration
 
     int getHttpDefaultMaxPerRoute();
 
+    String getHttpClientImpl();
+
+    int getHttpResponseCacheSize();
+
+    int getHttpResponseCacheTTLSeconds();
+
+    boolean isHttpHedgingEnabled();
+
+    boolean isHttpCoalescingEnabled();
+
+    boolean isJSONStoreEnabled();
+
+    int getEntityCacheSize();
+
+    int getEntityCacheTTLSeconds();
+
+    int getGeoCacheSize();
+
+    int getGeoCacheTTLSeconds();
+
+    int getAsyncMaxConcurrency();
+
+    boolean isMethodStatisticsEnabled();
+
     // oauth related setter/getters
 
     String getOAuthConsumerKey();
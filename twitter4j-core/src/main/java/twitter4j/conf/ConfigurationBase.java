@@ -55,6 +55,18 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
     private int httpRetryIntervalSeconds;
     private int maxTotalConnections;
     private int defaultMaxPerRoute;
+    private String httpClientImpl;
+    private int httpResponseCacheSize;
+    private int httpResponseCacheTTLSeconds;
+    private boolean httpHedgingEnabled;
+    private boolean httpCoalescingEnabled;
+    private boolean jsonStoreEnabled;
+    private int entityCacheSize;
+    private int entityCacheTTLSeconds;
+    private int geoCacheSize;
+    private int geoCacheTTLSeconds;
+    private int asyncMaxConcurrency;
+    private boolean methodStatisticsEnabled;
     private String oAuthConsumerKey;
     private String oAuthConsumerSecret;
     private String oAuthAccessToken;
@@ -127,6 +139,18 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         setHttpRetryIntervalSeconds(5);
         setHttpMaxTotalConnections(20);
         setHttpDefaultMaxPerRoute(2);
+        setHttpClientImpl(null);
+        setHttpResponseCacheSize(0);
+        setHttpResponseCacheTTLSeconds(0);
+        setHttpHedgingEnabled(false);
+        setHttpCoalescingEnabled(false);
+        setJSONStoreEnabled(false);
+        setEntityCacheSize(0);
+        setEntityCacheTTLSeconds(60);
+        setGeoCacheSize(0);
+        setGeoCacheTTLSeconds(3600);
+        setAsyncMaxConcurrency(100);
+        setMethodStatisticsEnabled(false);
         setOAuthConsumerKey(null);
         setOAuthConsumerSecret(null);
         setOAuthAccessToken(null);
@@ -327,6 +351,102 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
       this.defaultMaxPerRoute = defaultMaxPerRoute;
     }
 
+    public final String getHttpClientImpl() {
+        return httpClientImpl;
+    }
+
+    protected final void setHttpClientImpl(String httpClientImpl) {
+        this.httpClientImpl = httpClientImpl;
+    }
+
+    public final int getHttpResponseCacheSize() {
+        return httpResponseCacheSize;
+    }
+
+    protected final void setHttpResponseCacheSize(int httpResponseCacheSize) {
+        this.httpResponseCacheSize = httpResponseCacheSize;
+    }
+
+    public final int getHttpResponseCacheTTLSeconds() {
+        return httpResponseCacheTTLSeconds;
+    }
+
+    protected final void setHttpResponseCacheTTLSeconds(int httpResponseCacheTTLSeconds) {
+        this.httpResponseCacheTTLSeconds = httpResponseCacheTTLSeconds;
+    }
+
+    public final boolean isHttpHedgingEnabled() {
+        return httpHedgingEnabled;
+    }
+
+    protected final void setHttpHedgingEnabled(boolean httpHedgingEnabled) {
+        this.httpHedgingEnabled = httpHedgingEnabled;
+    }
+
+    public final boolean isHttpCoalescingEnabled() {
+        return httpCoalescingEnabled;
+    }
+
+    protected final void setHttpCoalescingEnabled(boolean httpCoalescingEnabled) {
+        this.httpCoalescingEnabled = httpCoalescingEnabled;
+    }
+
+    public final boolean isJSONStoreEnabled() {
+        return jsonStoreEnabled;
+    }
+
+    protected final void setJSONStoreEnabled(boolean jsonStoreEnabled) {
+        this.jsonStoreEnabled = jsonStoreEnabled;
+    }
+
+    public final int getEntityCacheSize() {
+        return entityCacheSize;
+    }
+
+    protected final void setEntityCacheSize(int entityCacheSize) {
+        this.entityCacheSize = entityCacheSize;
+    }
+
+    public final int getEntityCacheTTLSeconds() {
+        return entityCacheTTLSeconds;
+    }
+
+    protected final void setEntityCacheTTLSeconds(int entityCacheTTLSeconds) {
+        this.entityCacheTTLSeconds = entityCacheTTLSeconds;
+    }
+
+    public final int getGeoCacheSize() {
+        return geoCacheSize;
+    }
+
+    protected final void setGeoCacheSize(int geoCacheSize) {
+        this.geoCacheSize = geoCacheSize;
+    }
+
+    public final int getGeoCacheTTLSeconds() {
+        return geoCacheTTLSeconds;
+    }
+
+    protected final void setGeoCacheTTLSeconds(int geoCacheTTLSeconds) {
+        this.geoCacheTTLSeconds = geoCacheTTLSeconds;
+    }
+
+    public final int getAsyncMaxConcurrency() {
+        return asyncMaxConcurrency;
+    }
+
+    protected final void setAsyncMaxConcurrency(int asyncMaxConcurrency) {
+        this.asyncMaxConcurrency = asyncMaxConcurrency;
+    }
+
+    public final boolean isMethodStatisticsEnabled() {
+        return methodStatisticsEnabled;
+    }
+
+    protected final void setMethodStatisticsEnabled(boolean methodStatisticsEnabled) {
+        this.methodStatisticsEnabled = methodStatisticsEnabled;
+    }
+
     // oauth related setter/getters
 
     public final String getOAuthConsumerKey() {
@@ -520,6 +640,18 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
         result = 31 * result + httpRetryIntervalSeconds;
         result = 31 * result + maxTotalConnections;
         result = 31 * result + defaultMaxPerRoute;
+        result = 31 * result + (httpClientImpl != null ? httpClientImpl.hashCode() : 0);
+        result = 31 * result + httpResponseCacheSize;
+        result = 31 * result + httpResponseCacheTTLSeconds;
+        result = 31 * result + (httpHedgingEnabled ? 1 : 0);
+        result = 31 * result + (httpCoalescingEnabled ? 1 : 0);
+        result = 31 * result + (jsonStoreEnabled ? 1 : 0);
+        result = 31 * result + entityCacheSize;
+        result = 31 * result + entityCacheTTLSeconds;
+        result = 31 * result + geoCacheSize;
+        result = 31 * result + geoCacheTTLSeconds;
+        result = 31 * result + asyncMaxConcurrency;
+        result = 31 * result + (methodStatisticsEnabled ? 1 : 0);
         result = 31 * result + (oAuthConsumerKey != null ? oAuthConsumerKey.hashCode() : 0);
         result = 31 * result + (oAuthConsumerSecret != null ? oAuthConsumerSecret.hashCode() : 0);
         result = 31 * result + (oAuthAccessToken != null ? oAuthAccessToken.hashCode() : 0);
@@ -563,6 +695,18 @@ class ConfigurationBase implements Configuration, java.io.Serializable {
                 ", httpRetryIntervalSeconds=" + httpRetryIntervalSeconds +
                 ", maxTotalConnections=" + maxTotalConnections +
                 ", defaultMaxPerRoute=" + defaultMaxPerRoute +
+                ", httpClientImpl='" + httpClientImpl + '\'' +
+                ", httpResponseCacheSize=" + httpResponseCacheSize +
+                ", httpResponseCacheTTLSeconds=" + httpResponseCacheTTLSeconds +
+                ", httpHedgingEnabled=" + httpHedgingEnabled +
+                ", httpCoalescingEnabled=" + httpCoalescingEnabled +
+                ", jsonStoreEnabled=" + jsonStoreEnabled +
+                ", entityCacheSize=" + entityCacheSize +
+                ", entityCacheTTLSeconds=" + entityCacheTTLSeconds +
+                ", geoCacheSize=" + geoCacheSize +
+                ", geoCacheTTLSeconds=" + geoCacheTTLSeconds +
+                ", asyncMaxConcurrency=" + asyncMaxConcurrency +
+                ", methodStatisticsEnabled=" + methodStatisticsEnabled +
                 ", oAuthConsumerKey='" + oAuthConsumerKey + '\'' +
                 ", oAuthConsumerSecret='" + oAuthConsumerSecret + '\'' +
                 ", oAuthAccessToken='" + oAuthAccessToken + '\'' +
@@ -135,6 +135,78 @@ public final class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder setHttpClientImpl(String httpClientImpl) {
+        checkNotBuilt();
+        configurationBean.setHttpClientImpl(httpClientImpl);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpResponseCacheSize(int httpResponseCacheSize) {
+        checkNotBuilt();
+        configurationBean.setHttpResponseCacheSize(httpResponseCacheSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpResponseCacheTTLSeconds(int httpResponseCacheTTLSeconds) {
+        checkNotBuilt();
+        configurationBean.setHttpResponseCacheTTLSeconds(httpResponseCacheTTLSeconds);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpHedgingEnabled(boolean httpHedgingEnabled) {
+        checkNotBuilt();
+        configurationBean.setHttpHedgingEnabled(httpHedgingEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setHttpCoalescingEnabled(boolean httpCoalescingEnabled) {
+        checkNotBuilt();
+        configurationBean.setHttpCoalescingEnabled(httpCoalescingEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setJSONStoreEnabled(boolean jsonStoreEnabled) {
+        checkNotBuilt();
+        configurationBean.setJSONStoreEnabled(jsonStoreEnabled);
+        return this;
+    }
+
+    public ConfigurationBuilder setEntityCacheSize(int entityCacheSize) {
+        checkNotBuilt();
+        configurationBean.setEntityCacheSize(entityCacheSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setEntityCacheTTLSeconds(int entityCacheTTLSeconds) {
+        checkNotBuilt();
+        configurationBean.setEntityCacheTTLSeconds(entityCacheTTLSeconds);
+        return this;
+    }
+
+    public ConfigurationBuilder setGeoCacheSize(int geoCacheSize) {
+        checkNotBuilt();
+        configurationBean.setGeoCacheSize(geoCacheSize);
+        return this;
+    }
+
+    public ConfigurationBuilder setGeoCacheTTLSeconds(int geoCacheTTLSeconds) {
+        checkNotBuilt();
+        configurationBean.setGeoCacheTTLSeconds(geoCacheTTLSeconds);
+        return this;
+    }
+
+    public ConfigurationBuilder setAsyncMaxConcurrency(int asyncMaxConcurrency) {
+        checkNotBuilt();
+        configurationBean.setAsyncMaxConcurrency(asyncMaxConcurrency);
+        return this;
+    }
+
+    public ConfigurationBuilder setMethodStatisticsEnabled(boolean methodStatisticsEnabled) {
+        checkNotBuilt();
+        configurationBean.setMethodStatisticsEnabled(methodStatisticsEnabled);
+        return this;
+    }
+
     public ConfigurationBuilder setHttpRetryIntervalSeconds(int httpRetryIntervalSeconds) {
         checkNotBuilt();
         configurationBean.setHttpRetryIntervalSeconds(httpRetryIntervalSeconds);
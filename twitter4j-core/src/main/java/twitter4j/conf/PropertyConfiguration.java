@@ -65,6 +65,18 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
 
     public static final String HTTP_MAX_TOTAL_CONNECTIONS = "http.maxTotalConnections";
     public static final String HTTP_DEFAULT_MAX_PER_ROUTE = "http.defaultMaxPerRoute";
+    public static final String HTTP_CLIENT_IMPL = "http.clientImpl";
+    public static final String HTTP_RESPONSE_CACHE_SIZE = "http.responseCacheSize";
+    public static final String HTTP_RESPONSE_CACHE_TTL_SECS = "http.responseCacheTTLSecs";
+    public static final String HTTP_HEDGING = "http.hedging";
+    public static final String HTTP_COALESCING = "http.coalescing";
+    public static final String JSON_STORE_ENABLED = "jsonStoreEnabled";
+    public static final String ENTITY_CACHE_SIZE = "entityCacheSize";
+    public static final String ENTITY_CACHE_TTL_SECS = "entityCacheTTLSecs";
+    public static final String GEO_CACHE_SIZE = "geoCacheSize";
+    public static final String GEO_CACHE_TTL_SECS = "geoCacheTTLSecs";
+    public static final String ASYNC_MAX_CONCURRENCY = "async.maxConcurrency";
+    public static final String METHOD_STATISTICS_ENABLED = "methodStatisticsEnabled";
 
     public static final String OAUTH_CONSUMER_KEY = "oauth.consumerKey";
     public static final String OAUTH_CONSUMER_SECRET = "oauth.consumerSecret";
@@ -272,6 +284,42 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
         if (notNull(props, prefix, HTTP_DEFAULT_MAX_PER_ROUTE)) {
           setHttpDefaultMaxPerRoute(getIntProperty(props, prefix, HTTP_DEFAULT_MAX_PER_ROUTE));
         }
+        if (notNull(props, prefix, HTTP_CLIENT_IMPL)) {
+            setHttpClientImpl(getString(props, prefix, HTTP_CLIENT_IMPL));
+        }
+        if (notNull(props, prefix, HTTP_RESPONSE_CACHE_SIZE)) {
+            setHttpResponseCacheSize(getIntProperty(props, prefix, HTTP_RESPONSE_CACHE_SIZE));
+        }
+        if (notNull(props, prefix, HTTP_RESPONSE_CACHE_TTL_SECS)) {
+            setHttpResponseCacheTTLSeconds(getIntProperty(props, prefix, HTTP_RESPONSE_CACHE_TTL_SECS));
+        }
+        if (notNull(props, prefix, HTTP_HEDGING)) {
+            setHttpHedgingEnabled(getBoolean(props, prefix, HTTP_HEDGING));
+        }
+        if (notNull(props, prefix, HTTP_COALESCING)) {
+            setHttpCoalescingEnabled(getBoolean(props, prefix, HTTP_COALESCING));
+        }
+        if (notNull(props, prefix, JSON_STORE_ENABLED)) {
+            setJSONStoreEnabled(getBoolean(props, prefix, JSON_STORE_ENABLED));
+        }
+        if (notNull(props, prefix, ENTITY_CACHE_SIZE)) {
+            setEntityCacheSize(getIntProperty(props, prefix, ENTITY_CACHE_SIZE));
+        }
+        if (notNull(props, prefix, ENTITY_CACHE_TTL_SECS)) {
+            setEntityCacheTTLSeconds(getIntProperty(props, prefix, ENTITY_CACHE_TTL_SECS));
+        }
+        if (notNull(props, prefix, GEO_CACHE_SIZE)) {
+            setGeoCacheSize(getIntProperty(props, prefix, GEO_CACHE_SIZE));
+        }
+        if (notNull(props, prefix, GEO_CACHE_TTL_SECS)) {
+            setGeoCacheTTLSeconds(getIntProperty(props, prefix, GEO_CACHE_TTL_SECS));
+        }
+        if (notNull(props, prefix, ASYNC_MAX_CONCURRENCY)) {
+            setAsyncMaxConcurrency(getIntProperty(props, prefix, ASYNC_MAX_CONCURRENCY));
+        }
+        if (notNull(props, prefix, METHOD_STATISTICS_ENABLED)) {
+            setMethodStatisticsEnabled(getBoolean(props, prefix, METHOD_STATISTICS_ENABLED));
+        }
         if (notNull(props, prefix, OAUTH_CONSUMER_KEY)) {
             setOAuthConsumerKey(getString(props, prefix, OAUTH_CONSUMER_KEY));
         }
@@ -288,7 +336,7 @@ public final class PropertyConfiguration extends ConfigurationBase implements ja
             setAsyncNumThreads(getIntProperty(props, prefix, ASYNC_NUM_THREADS));
         }
         if (notNull(props, prefix, ASYNC_DISPATCHER_IMPL)) {
-            setAsyncNumThreads(getIntProperty(props, prefix, ASYNC_DISPATCHER_IMPL));
+            setDispatcherImpl(getString(props, prefix, ASYNC_DISPATCHER_IMPL));
         }
         if (notNull(props, prefix, CLIENT_VERSION)) {
             setClientVersion(getString(props, prefix, CLIENT_VERSION));
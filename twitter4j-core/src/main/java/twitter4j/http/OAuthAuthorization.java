@@ -498,6 +498,17 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
         this.consumerSecret = null != consumerSecret ? consumerSecret : "";
     }
 
+    /**
+     * Identifies the consumer and the token signing requests, without exposing the secrets.<br>
+     * Unlike hashCode(), the value returned is not affected by later changes of the token.
+     *
+     * @return the consumer key and the token, joined with '&amp;'
+     * @since Twitter4J 2.1.7
+     */
+    public String getCredentialId() {
+        return consumerKey + "&" + (null == oauthToken ? "" : oauthToken.getToken());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
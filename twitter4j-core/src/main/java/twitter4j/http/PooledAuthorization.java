@@ -0,0 +1,420 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.http;
+
+import twitter4j.RateLimitStatus;
+import twitter4j.TwitterException;
+import twitter4j.TwitterMethod;
+import twitter4j.internal.http.AuthorizationRouter;
+import twitter4j.internal.http.HttpRequest;
+import twitter4j.internal.http.HttpResponse;
+import twitter4j.internal.http.HttpResponseCode;
+import twitter4j.internal.http.RequestMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An authorization spreading requests over a pool of credentials, meant for read-only crawling.<br>
+ * Only GET requests are spread over the pool. Other requests, which change the state of an account, are always sent
+ * with the primary credential, the first one added, and are neither counted nor sent again on failure.<br>
+ * Each GET request is sent with the credential having the most remaining hits for the API method, according to the rate
+ * limit status (and feature specific rate limit status) of the responses so far. A credential whose budget is still
+ * unknown is preferred, so that every credential gets probed.<br>
+ * When a credential is rejected with 401 Unauthorized or 403 Forbidden, the request is sent again once with another credential.
+ * If that one succeeds, the rejected credential is quarantined. If it is rejected as well, the resource is protected or suspended
+ * rather than the credentials being invalid: no credential is quarantined and the error is thrown. The error is also thrown as is
+ * when no other credential is left to tell. Quarantined credentials are not used until {@link #reinstate(Authorization)} is called.<br>
+ * All the credentials share the connections of the Twitter instance using the pool:
+ * <pre>
+ * PooledAuthorization pool = new PooledAuthorization(oauth1, oauth2, oauth3);
+ * Twitter twitter = new TwitterFactory().getInstance(pool);
+ * </pre>
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class PooledAuthorization implements AuthorizationRouter, java.io.Serializable {
+    private final List<Credential> credentials = new CopyOnWriteArrayList<Credential>();
+    /**
+     * credentials rejected by the requests being sent again with another credential
+     */
+    private transient Map<HttpRequest, Credential> suspects = newSuspects();
+    private static final long serialVersionUID = -3052519358823710236L;
+
+    /**
+     * @param authorizations the credentials
+     */
+    public PooledAuthorization(Authorization... authorizations) {
+        for (Authorization authorization : authorizations) {
+            add(authorization);
+        }
+    }
+
+    /**
+     * Adds a credential to the pool.
+     *
+     * @param authorization the credential
+     */
+    public void add(Authorization authorization) {
+        if (null == authorization) {
+            throw new NullPointerException("authorization");
+        }
+        credentials.add(new Credential(authorization));
+    }
+
+    /**
+     * Lifts the quarantine of a credential.
+     *
+     * @param authorization the credential
+     */
+    public void reinstate(Authorization authorization) {
+        Credential credential = find(authorization);
+        if (null != credential) {
+            credential.quarantined = false;
+        }
+    }
+
+    /**
+     * @return the usage of each credential, in the order they were added
+     */
+    public List<Usage> getUsage() {
+        List<Usage> usage = new ArrayList<Usage>(credentials.size());
+        for (Credential credential : credentials) {
+            usage.add(new Usage(credential));
+        }
+        return usage;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public Authorization select(HttpRequest req) throws TwitterException {
+        if (!isRouted(req)) {
+            return getPrimary();
+        }
+        Credential best = choose(req, suspects.get(req));
+        if (null == best) {
+            suspects.remove(req);
+            throw new TwitterException("No usable credential left in the pool.");
+        }
+        best.requestCount.incrementAndGet();
+        best.inFlight.incrementAndGet();
+        return best.authorization;
+    }
+
+    /**
+     * @param excluded credential not to be chosen, or null
+     * @return the usable credential with the most remaining hits for the request, or null if none is usable
+     */
+    private Credential choose(HttpRequest req, Credential excluded) {
+        Credential best = null;
+        int bestBudget = Integer.MIN_VALUE;
+        for (Credential credential : credentials) {
+            if (credential == excluded || credential.quarantined || !credential.authorization.isEnabled()) {
+                continue;
+            }
+            int budget = credential.getBudget(req.getTwitterMethod());
+            if (null == best || budget > bestBudget
+                    || (budget == bestBudget && credential.requestCount.get() < best.requestCount.get())) {
+                best = credential;
+                bestBudget = budget;
+            }
+        }
+        return best;
+    }
+
+    private Authorization getPrimary() throws TwitterException {
+        if (credentials.isEmpty()) {
+            throw new TwitterException("No credential in the pool.");
+        }
+        return credentials.get(0).authorization;
+    }
+
+    /**
+     * @return true if the request is spread over the pool
+     */
+    private static boolean isRouted(HttpRequest req) {
+        return RequestMethod.GET == req.getMethod();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void succeeded(Authorization authorization, HttpRequest req, HttpResponse res) {
+        if (!isRouted(req)) {
+            return;
+        }
+        Credential suspect = suspects.remove(req);
+        if (null != suspect) {
+            // another credential has been accepted: the rejected one is at fault
+            suspect.quarantined = true;
+        }
+        Credential credential = find(authorization);
+        if (null != credential) {
+            credential.inFlight.decrementAndGet();
+            credential.update(req.getTwitterMethod()
+                    , parse(res, "X-RateLimit-Remaining", "X-RateLimit-Reset")
+                    , parse(res, "X-FeatureRateLimit-Remaining", "X-FeatureRateLimit-Reset"));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean failed(Authorization authorization, HttpRequest req, TwitterException te) {
+        if (!isRouted(req)) {
+            return false;
+        }
+        Credential suspect = suspects.remove(req);
+        Credential credential = find(authorization);
+        if (null == credential) {
+            return false;
+        }
+        credential.inFlight.decrementAndGet();
+        credential.failureCount.incrementAndGet();
+        credential.update(req.getTwitterMethod(), toBudget(te.getRateLimitStatus())
+                , toBudget(te.getFeatureSpecificRateLimitStatus()));
+        if (null != suspect
+                || (HttpResponseCode.UNAUTHORIZED != te.getStatusCode() && HttpResponseCode.FORBIDDEN != te.getStatusCode())) {
+            // failed for another reason, or rejected by a second credential as well: the resource is not accessible
+            return false;
+        }
+        if (null == choose(req, credential)) {
+            // no other credential to tell whether the credential or the resource is at fault
+            return false;
+        }
+        suspects.put(req, credential);
+        return true;
+    }
+
+    /**
+     * Returns the authorization header of the credential which would be selected for the request.<br>
+     * Unlike {@link #select(HttpRequest)}, the request is not counted against the credential.
+     */
+    public String getAuthorizationHeader(HttpRequest req) {
+        Authorization authorization;
+        if (isRouted(req)) {
+            Credential best = choose(req, suspects.get(req));
+            authorization = null == best ? null : best.authorization;
+        } else {
+            authorization = credentials.isEmpty() ? null : credentials.get(0).authorization;
+        }
+        return null == authorization ? null : authorization.getAuthorizationHeader(req);
+    }
+
+    /**
+     * @return true if at least one credential is usable
+     */
+    public boolean isEnabled() {
+        for (Credential credential : credentials) {
+            if (!credential.quarantined && credential.authorization.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<HttpRequest, Credential> newSuspects() {
+        // keyed by identity, as the hash code of a request changes with the access token of its authorization
+        return Collections.synchronizedMap(new IdentityHashMap<HttpRequest, Credential>());
+    }
+
+    private void readObject(java.io.ObjectInputStream stream)
+            throws java.io.IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        suspects = newSuspects();
+    }
+
+    private Credential find(Authorization authorization) {
+        for (Credential credential : credentials) {
+            if (credential.authorization == authorization) {
+                return credential;
+            }
+        }
+        return null;
+    }
+
+    private static Budget parse(HttpResponse res, String remainingHeader, String resetHeader) {
+        String remaining = res.getResponseHeader(remainingHeader);
+        String reset = res.getResponseHeader(resetHeader);
+        if (null == remaining || null == reset) {
+            return null;
+        }
+        try {
+            return new Budget(Integer.parseInt(remaining), Long.parseLong(reset) * 1000);
+        } catch (NumberFormatException nfe) {
+            return null;
+        }
+    }
+
+    private static Budget toBudget(RateLimitStatus status) {
+        if (null == status || null == status.getResetTime()) {
+            return null;
+        }
+        return new Budget(status.getRemainingHits(), status.getResetTime().getTime());
+    }
+
+    @Override
+    public String toString() {
+        return "PooledAuthorization{" +
+                "credentials=" + getUsage() +
+                '}';
+    }
+
+    /**
+     * The remaining hits until a point in time.
+     */
+    private static final class Budget implements java.io.Serializable {
+        private static final long serialVersionUID = 7470211570185693545L;
+        final int remaining;
+        final long resetAt;
+
+        Budget(int remaining, long resetAt) {
+            this.remaining = remaining;
+            this.resetAt = resetAt;
+        }
+
+        /**
+         * @return the remaining hits, or Integer.MAX_VALUE if the rate limit has been reset since
+         */
+        int get(long now) {
+            return now < resetAt ? remaining : Integer.MAX_VALUE;
+        }
+    }
+
+    private static final class Credential implements java.io.Serializable {
+        private static final long serialVersionUID = -8617950567512823690L;
+        final Authorization authorization;
+        final AtomicInteger requestCount = new AtomicInteger();
+        final AtomicInteger failureCount = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final Map<TwitterMethod, Budget> featureBudgets = new ConcurrentHashMap<TwitterMethod, Budget>();
+        volatile Budget accountBudget;
+        volatile boolean quarantined = false;
+
+        Credential(Authorization authorization) {
+            this.authorization = authorization;
+        }
+
+        void update(TwitterMethod method, Budget account, Budget feature) {
+            if (null != account) {
+                accountBudget = account;
+            }
+            if (null != feature && null != method) {
+                featureBudgets.put(method, feature);
+            }
+        }
+
+        /**
+         * @return the hits believed to remain for the method, less the requests in flight
+         */
+        int getBudget(TwitterMethod method) {
+            long now = System.currentTimeMillis();
+            int budget = getRemainingHits(now);
+            if (null != method) {
+                Budget feature = featureBudgets.get(method);
+                if (null != feature) {
+                    budget = Math.min(budget, feature.get(now));
+                }
+            }
+            return Integer.MAX_VALUE == budget ? budget : budget - inFlight.get();
+        }
+
+        int getRemainingHits(long now) {
+            Budget account = accountBudget;
+            return null == account ? Integer.MAX_VALUE : account.get(now);
+        }
+    }
+
+    /**
+     * A snapshot of the usage of a credential.
+     */
+    public static final class Usage implements java.io.Serializable {
+        private static final long serialVersionUID = 2212437512395227207L;
+        private final Authorization authorization;
+        private final int requestCount;
+        private final int failureCount;
+        private final int remainingHits;
+        private final boolean quarantined;
+
+        Usage(Credential credential) {
+            this.authorization = credential.authorization;
+            this.requestCount = credential.requestCount.get();
+            this.failureCount = credential.failureCount.get();
+            int remaining = credential.getRemainingHits(System.currentTimeMillis());
+            this.remainingHits = Integer.MAX_VALUE == remaining ? -1 : remaining;
+            this.quarantined = credential.quarantined;
+        }
+
+        public Authorization getAuthorization() {
+            return authorization;
+        }
+
+        /**
+         * @return the number of requests sent with the credential
+         */
+        public int getRequestCount() {
+            return requestCount;
+        }
+
+        /**
+         * @return the number of requests sent with the credential which failed
+         */
+        public int getFailureCount() {
+            return failureCount;
+        }
+
+        /**
+         * @return the remaining hits of the account rate limit, or -1 if unknown
+         */
+        public int getRemainingHits() {
+            return remainingHits;
+        }
+
+        public boolean isQuarantined() {
+            return quarantined;
+        }
+
+        @Override
+        public String toString() {
+            return "Usage{" +
+                    "authorization=" + authorization +
+                    ", requestCount=" + requestCount +
+                    ", failureCount=" + failureCount +
+                    ", remainingHits=" + remainingHits +
+                    ", quarantined=" + quarantined +
+                    '}';
+        }
+    }
+}
@@ -34,4 +34,6 @@ public interface DispatcherConfiguration {
     int getAsyncNumThreads();
 
     String getDispatcherImpl();
+
+    int getAsyncMaxConcurrency();
 }
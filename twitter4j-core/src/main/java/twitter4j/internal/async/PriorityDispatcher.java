@@ -0,0 +1,296 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.async;
+
+import twitter4j.TwitterMethod;
+import twitter4j.internal.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dispatcher queueing tasks by priority class of the API method called, so that bursts of bulk reads don't delay writes.<br>
+ * Classes are served by smooth weighted round robin: while all the classes have tasks waiting, out of every 13 tasks 8 writes, 4 reads and 1 bulk read are run by default.
+ * A class is never starved as long as its weight is positive.<br>
+ * Tasks not implementing TwitterMethodTask are read tasks. Depth and wait times of each class are exposed for monitoring.<br>
+ * Enabled by setting async.dispatcherImpl to twitter4j.internal.async.PriorityDispatcher. Runs async.numThreads threads like DispatcherImpl.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class PriorityDispatcher implements Dispatcher {
+    private static final Logger logger = Logger.getLogger(PriorityDispatcher.class);
+
+    /**
+     * status updates, direct messages, and other calls changing something
+     */
+    public static final int WRITE = 0;
+    /**
+     * reads which a user is likely to be waiting for, such as timelines
+     */
+    public static final int READ = 1;
+    /**
+     * reads crawling follower ids or members, which are typically issued in bulk
+     */
+    public static final int BULK = 2;
+    private static final String[] CLASS_NAMES = {"write", "read", "bulk"};
+
+    private static final String[] WRITE_PREFIXES = {"UPDATE_", "CREATE_", "DESTROY_", "DELETE_", "SEND_", "ADD_"};
+    private static final Set<TwitterMethod> WRITES = new HashSet<TwitterMethod>();
+    private static final Set<TwitterMethod> BULK_READS = new HashSet<TwitterMethod>();
+
+    static {
+        WRITES.add(TwitterMethod.RETWEET_STATUS);
+        WRITES.add(TwitterMethod.SUBSCRIBE_LIST);
+        WRITES.add(TwitterMethod.UNSUBSCRIBE_LIST);
+        WRITES.add(TwitterMethod.ENABLE_NOTIFICATION);
+        WRITES.add(TwitterMethod.DISABLE_NOTIFICATION);
+        WRITES.add(TwitterMethod.REPORT_SPAM);
+
+        BULK_READS.add(TwitterMethod.FRIENDS_IDS);
+        BULK_READS.add(TwitterMethod.FOLLOWERS_IDS);
+        BULK_READS.add(TwitterMethod.BLOCKING_USERS_IDS);
+        BULK_READS.add(TwitterMethod.RETWEETED_BY_IDS);
+        BULK_READS.add(TwitterMethod.FRIENDS_STATUSES);
+        BULK_READS.add(TwitterMethod.FOLLOWERS_STATUSES);
+        BULK_READS.add(TwitterMethod.LIST_MEMBERS);
+        BULK_READS.add(TwitterMethod.LIST_SUBSCRIBERS);
+        BULK_READS.add(TwitterMethod.USER_LIST_MEMBERSHIPS);
+        BULK_READS.add(TwitterMethod.USER_LIST_SUBSCRIPTIONS);
+        BULK_READS.add(TwitterMethod.INCOMING_FRIENDSHIPS);
+        BULK_READS.add(TwitterMethod.OUTGOING_FRIENDSHIPS);
+        BULK_READS.add(TwitterMethod.BLOCKING_USERS);
+    }
+
+    private final Map<TwitterMethod, Integer> priorityClasses = new ConcurrentHashMap<TwitterMethod, Integer>();
+    private final int[] weights = {8, 4, 1};
+    private final int[] currentWeights = new int[CLASS_NAMES.length];
+    private final List<LinkedList<QueuedTask>> queues;
+
+    private final long[] dispatchedCount = new long[CLASS_NAMES.length];
+    private final long[] totalWaitTime = new long[CLASS_NAMES.length];
+    private final long[] maxWaitTime = new long[CLASS_NAMES.length];
+
+    private final Thread[] threads;
+    private boolean active = true;
+
+    public PriorityDispatcher(DispatcherConfiguration conf) {
+        this(conf.getAsyncNumThreads());
+    }
+
+    /*package*/ PriorityDispatcher(int numThreads) {
+        queues = new ArrayList<LinkedList<QueuedTask>>(CLASS_NAMES.length);
+        for (int i = 0; i < CLASS_NAMES.length; i++) {
+            queues.add(new LinkedList<QueuedTask>());
+        }
+        threads = new Thread[numThreads];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    Runnable task;
+                    while (null != (task = poll())) {
+                        try {
+                            task.run();
+                        } catch (Exception ex) {
+                            logger.warn("Exception in the task: " + ex.getMessage());
+                        }
+                    }
+                }
+            }, "Twitter4J Async Dispatcher[" + i + "]");
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Returns the priority class of the method, WRITE for methods changing something, BULK for ids and members crawling, and READ otherwise unless overridden.
+     *
+     * @param method API method, or null
+     * @return priority class
+     */
+    public int getPriorityClass(TwitterMethod method) {
+        if (null == method) {
+            return READ;
+        }
+        Integer priorityClass = priorityClasses.get(method);
+        if (null != priorityClass) {
+            return priorityClass;
+        }
+        if (WRITES.contains(method)) {
+            return WRITE;
+        }
+        for (String prefix : WRITE_PREFIXES) {
+            if (method.name().startsWith(prefix)) {
+                return WRITE;
+            }
+        }
+        return BULK_READS.contains(method) ? BULK : READ;
+    }
+
+    /**
+     * Overrides the priority class of the method.
+     *
+     * @param method        API method
+     * @param priorityClass WRITE, READ or BULK
+     */
+    public void setPriorityClass(TwitterMethod method, int priorityClass) {
+        checkPriorityClass(priorityClass);
+        priorityClasses.put(method, priorityClass);
+    }
+
+    /**
+     * Sets the share of the threads given to the class while other classes have tasks waiting too.
+     *
+     * @param priorityClass WRITE, READ or BULK
+     * @param weight        weight, 8 for writes, 4 for reads and 1 for bulk reads by default
+     */
+    public synchronized void setWeight(int priorityClass, int weight) {
+        checkPriorityClass(priorityClass);
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be greater than 0.");
+        }
+        weights[priorityClass] = weight;
+    }
+
+    private static void checkPriorityClass(int priorityClass) {
+        if (priorityClass < WRITE || BULK < priorityClass) {
+            throw new IllegalArgumentException("unknown priority class: " + priorityClass);
+        }
+    }
+
+    public synchronized void invokeLater(Runnable task) {
+        if (!active) {
+            throw new IllegalStateException("Already shutdown");
+        }
+        TwitterMethod method = task instanceof TwitterMethodTask ? ((TwitterMethodTask) task).getMethod() : null;
+        queues.get(getPriorityClass(method)).add(new QueuedTask(task));
+        notify();
+    }
+
+    /*package*/ synchronized Runnable poll() {
+        while (active) {
+            int next = -1;
+            int total = 0;
+            for (int i = 0; i < queues.size(); i++) {
+                if (!queues.get(i).isEmpty()) {
+                    currentWeights[i] += weights[i];
+                    total += weights[i];
+                    if (-1 == next || currentWeights[i] > currentWeights[next]) {
+                        next = i;
+                    }
+                }
+            }
+            if (-1 != next) {
+                currentWeights[next] -= total;
+                QueuedTask queued = queues.get(next).removeFirst();
+                if (queues.get(next).isEmpty()) {
+                    // an idle class doesn't build up credit
+                    currentWeights[next] = 0;
+                }
+                long waitTime = (System.nanoTime() - queued.enqueuedAt) / 1000000;
+                dispatchedCount[next]++;
+                totalWaitTime[next] += waitTime;
+                maxWaitTime[next] = Math.max(maxWaitTime[next], waitTime);
+                return queued.task;
+            }
+            try {
+                wait();
+            } catch (InterruptedException ignore) {
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param priorityClass WRITE, READ or BULK
+     * @return number of tasks waiting in the class
+     */
+    public synchronized int getQueueDepth(int priorityClass) {
+        return queues.get(priorityClass).size();
+    }
+
+    /**
+     * @param priorityClass WRITE, READ or BULK
+     * @return number of tasks of the class dispatched so far
+     */
+    public synchronized long getDispatchedCount(int priorityClass) {
+        return dispatchedCount[priorityClass];
+    }
+
+    /**
+     * @param priorityClass WRITE, READ or BULK
+     * @return average time in milliseconds the dispatched tasks of the class waited in the queue
+     */
+    public synchronized double getAverageWaitTime(int priorityClass) {
+        return 0 == dispatchedCount[priorityClass] ? 0d : (double) totalWaitTime[priorityClass] / dispatchedCount[priorityClass];
+    }
+
+    /**
+     * @param priorityClass WRITE, READ or BULK
+     * @return longest time in milliseconds a dispatched task of the class waited in the queue
+     */
+    public synchronized long getMaxWaitTime(int priorityClass) {
+        return maxWaitTime[priorityClass];
+    }
+
+    public synchronized void shutdown() {
+        if (!active) {
+            throw new IllegalStateException("Already shutdown");
+        }
+        active = false;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuffer buf = new StringBuffer("PriorityDispatcher{");
+        for (int i = 0; i < CLASS_NAMES.length; i++) {
+            if (0 < i) {
+                buf.append(", ");
+            }
+            buf.append(CLASS_NAMES[i]).append("={weight=").append(weights[i])
+                    .append(", depth=").append(queues.get(i).size())
+                    .append(", dispatched=").append(dispatchedCount[i])
+                    .append(", maxWaitTime=").append(maxWaitTime[i]).append('}');
+        }
+        return buf.append('}').toString();
+    }
+
+    private static final class QueuedTask {
+        final Runnable task;
+        final long enqueuedAt = System.nanoTime();
+
+        QueuedTask(Runnable task) {
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.async;
+
+import twitter4j.internal.logging.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatcher running each task on its own virtual thread, available on Java 21 or later.<br>
+ * At most async.maxConcurrency tasks run at a time. The others wait on a semaphore, which costs little with virtual threads.<br>
+ * On earlier Java versions, tasks are run by a pool of async.maxConcurrency daemon threads instead.<br>
+ * Enabled by setting async.dispatcherImpl to twitter4j.internal.async.VirtualThreadDispatcher.
+ * TwitterStream keeps consuming streams on a non-daemon platform thread, so that a running stream keeps the JVM alive.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class VirtualThreadDispatcher implements Dispatcher {
+    private static final Logger logger = Logger.getLogger(VirtualThreadDispatcher.class);
+    private static final String NAME = "Twitter4J Async Dispatcher";
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = createVirtualThreadFactory();
+
+    private final Semaphore permits;
+    private final ThreadFactory factory;
+    private final ExecutorService pool;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean active = true;
+
+    public VirtualThreadDispatcher(DispatcherConfiguration conf) {
+        this(conf.getAsyncMaxConcurrency(), VIRTUAL_THREAD_FACTORY);
+    }
+
+    /*package*/ VirtualThreadDispatcher(int maxConcurrency, ThreadFactory virtualThreadFactory) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0.");
+        }
+        this.factory = virtualThreadFactory;
+        if (null != virtualThreadFactory) {
+            permits = new Semaphore(maxConcurrency);
+            pool = null;
+        } else {
+            logger.debug("Virtual threads are not available. Falling back to a thread pool.");
+            permits = null;
+            final AtomicInteger count = new AtomicInteger();
+            pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0, TimeUnit.MILLISECONDS
+                    , new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, NAME + "[" + count.getAndIncrement() + "]");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * @return true if virtual threads are available in this JVM
+     */
+    public static boolean isVirtualThreadAvailable() {
+        return null != VIRTUAL_THREAD_FACTORY;
+    }
+
+    public void invokeLater(final Runnable task) {
+        if (!active) {
+            throw new IllegalStateException("Already shutdown");
+        }
+        if (null != pool) {
+            pool.execute(wrap(task));
+            return;
+        }
+        factory.newThread(new Runnable() {
+            public void run() {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                try {
+                    wrap(task).run();
+                } finally {
+                    permits.release();
+                }
+            }
+        }).start();
+    }
+
+    private Runnable wrap(final Runnable task) {
+        return new Runnable() {
+            public void run() {
+                if (!active) {
+                    return;
+                }
+                running.incrementAndGet();
+                try {
+                    task.run();
+                } catch (Exception ex) {
+                    logger.warn("Exception in the task: " + ex.getMessage());
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return number of tasks running
+     */
+    public int getRunningTaskCount() {
+        return running.get();
+    }
+
+    public synchronized void shutdown() {
+        if (!active) {
+            throw new IllegalStateException("Already shutdown");
+        }
+        active = false;
+        if (null != pool) {
+            pool.shutdown();
+        }
+    }
+
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            // Thread.ofVirtual().name(NAME + "-", 0).factory(), through reflection not to require Java 21 to build
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, NAME + "-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Exception notAvailable) {
+            // earlier Java versions, or virtual threads being a preview feature
+            return null;
+        }
+    }
+}
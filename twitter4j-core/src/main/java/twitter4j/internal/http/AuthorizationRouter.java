@@ -0,0 +1,65 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+import twitter4j.http.Authorization;
+
+/**
+ * An Authorization standing for several credentials, one of which is picked for each request.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see AuthorizationRoutingHttpClient
+ * @since Twitter4J 2.1.7
+ */
+public interface AuthorizationRouter extends Authorization {
+    /**
+     * @param req the request to be sent
+     * @return the credential to send the request with
+     * @throws TwitterException when no credential is usable
+     */
+    Authorization select(HttpRequest req) throws TwitterException;
+
+    /**
+     * Called when the request sent with the credential succeeded.
+     *
+     * @param authorization the credential selected
+     * @param req           the request
+     * @param res           the response
+     */
+    void succeeded(Authorization authorization, HttpRequest req, HttpResponse res);
+
+    /**
+     * Called when the request sent with the credential failed.
+     *
+     * @param authorization the credential selected
+     * @param req           the request
+     * @param te            the exception
+     * @return true to send the request again with another credential
+     */
+    boolean failed(Authorization authorization, HttpRequest req, TwitterException te);
+}
@@ -0,0 +1,85 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+import twitter4j.http.Authorization;
+
+/**
+ * HttpClient decorator sending requests authorized by an {@link AuthorizationRouter} with the credential it selects.<br>
+ * Other requests are passed through as is.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class AuthorizationRoutingHttpClient implements HttpClient, java.io.Serializable {
+    private final HttpClient delegate;
+    private static final long serialVersionUID = 3817519547391024173L;
+
+    public AuthorizationRoutingHttpClient(HttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    public HttpResponse request(HttpRequest req) throws TwitterException {
+        if (!(req.getAuthorization() instanceof AuthorizationRouter)) {
+            return delegate.request(req);
+        }
+        AuthorizationRouter router = (AuthorizationRouter) req.getAuthorization();
+        while (true) {
+            Authorization authorization = router.select(req);
+            HttpRequest routed = new HttpRequest(req.getMethod(), req.getURL(), req.getParameters()
+                    , authorization, req.getRequestHeaders(), req.getTwitterMethod());
+            routed.setRetryPolicy(req.getRetryPolicy());
+            routed.setUploadProgressListener(req.getUploadProgressListener());
+            routed.setTiming(req.getTiming());
+            routed.setCancellation(req.getCancellation());
+            HttpResponse res;
+            boolean reported = false;
+            try {
+                res = delegate.request(routed);
+                reported = true;
+            } catch (TwitterException te) {
+                reported = true;
+                if (router.failed(authorization, req, te)) {
+                    continue;
+                }
+                throw te;
+            } finally {
+                if (!reported) {
+                    // the request neither returned nor failed with a TwitterException
+                    router.failed(authorization, req, new TwitterException("request aborted unexpectedly"));
+                }
+            }
+            router.succeeded(authorization, req, res);
+            return res;
+        }
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.internal.org.json.JSONArray;
+import twitter4j.internal.org.json.JSONException;
+import twitter4j.internal.org.json.JSONObject;
+import twitter4j.internal.org.json.JSONTokener;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A replayable HttpResponse served from the buffered body and headers of a former response.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+final class CachedHttpResponse extends HttpResponse {
+    /**
+     * headers retained with the body
+     */
+    static final String[] RETAINED_HEADERS = {"Content-Type", "Date", "ETag", "Last-Modified"
+            , "X-RateLimit-Limit", "X-RateLimit-Remaining", "X-RateLimit-Reset"
+            , "X-FeatureRateLimit-Limit", "X-FeatureRateLimit-Remaining", "X-FeatureRateLimit-Reset"};
+
+    private final Map<String, String> headers;
+
+    CachedHttpResponse(int statusCode, String body, Map<String, String> headers) {
+        this(statusCode, body, null, headers);
+    }
+
+    /**
+     * @param parsedJSON JSONObject or JSONArray parsed from the body, or null to parse on demand
+     */
+    CachedHttpResponse(int statusCode, String body, Object parsedJSON, Map<String, String> headers) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.responseAsString = body;
+        try {
+            this.is = new ByteArrayInputStream(body.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+        setParsedJSON(parsedJSON);
+    }
+
+    /**
+     * Parses the body once, so that the responses replaying it share the parsed form.<br>
+     * Raw JSON forms are retained for the callers storing them.
+     *
+     * @param body body
+     * @return JSONObject or JSONArray, or null if the body is not well-formed JSON
+     */
+    static Object parseJSON(String body) {
+        String trimmed = body.trim();
+        if (!trimmed.startsWith("{") && !trimmed.startsWith("[")) {
+            return null;
+        }
+        try {
+            JSONTokener tokener = new JSONTokener(body);
+            tokener.setRetainRawJSON(true);
+            return trimmed.startsWith("{") ? new JSONObject(tokener) : new JSONArray(tokener);
+        } catch (JSONException jsone) {
+            // parsed on demand, reporting the error to the caller
+            return null;
+        }
+    }
+
+    /**
+     * Copies the retained headers from the specified response.
+     *
+     * @param res response
+     * @return headers
+     */
+    static Map<String, String> retainHeaders(HttpResponse res) {
+        Map<String, String> headers = new HashMap<String, String>();
+        for (String name : RETAINED_HEADERS) {
+            String value = res.getResponseHeader(name);
+            if (null != value) {
+                headers.put(name, value);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public String getResponseHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void disconnect() {
+    }
+}
@@ -0,0 +1,236 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HttpClient decorator collapsing identical GET requests in flight into a single network call.<br>
+ * A GET request issued while an equal one - same URL, parameters, headers and credentials - is in flight waits for the latter, and all are answered with the same buffered body.
+ * The body is parsed only once. Every caller gets its own response, and still builds its own TwitterResponse carrying the rate limit status of the actual call.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class CoalescingHttpClient implements HttpClient {
+    private final HttpClient delegate;
+    private final ConcurrentMap<RequestKey, Call> inFlight = new ConcurrentHashMap<RequestKey, Call>();
+    private final AtomicInteger coalescedCount = new AtomicInteger(0);
+
+    public CoalescingHttpClient(HttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return number of requests answered without a network call of their own
+     */
+    public int getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public HttpResponse request(HttpRequest req) throws TwitterException {
+        if (RequestMethod.GET != req.getMethod()) {
+            return delegate.request(req);
+        }
+        RequestKey key = new RequestKey(req);
+        while (true) {
+            Call call = new Call();
+            Call existing = inFlight.putIfAbsent(key, call);
+            if (null == existing) {
+                return lead(req, key, call);
+            }
+            if (existing.join()) {
+                coalescedCount.incrementAndGet();
+                HttpResponse res = existing.await(req.getCancellation());
+                if (null != res) {
+                    return res;
+                }
+                // the caller of the leading request cancelled it. issue the request again
+                coalescedCount.decrementAndGet();
+            }
+            // the call completed in the meantime
+        }
+    }
+
+    private HttpResponse lead(HttpRequest req, RequestKey key, Call call) throws TwitterException {
+        HttpResponse res = null;
+        TwitterException failure = null;
+        try {
+            res = delegate.request(req);
+        } catch (TwitterException te) {
+            failure = te;
+        } finally {
+            inFlight.remove(key, call);
+            if (0 < call.seal() && null == failure && null == res) {
+                // unchecked exception. waiters must not hang
+                call.fail(new TwitterException("Coalesced request failed: " + req.getURL()));
+            }
+        }
+        if (!call.hasWaiters()) {
+            if (null != failure) {
+                throw failure;
+            }
+            return res;
+        }
+        if (null != failure) {
+            if (null != req.getCancellation() && req.getCancellation().isCancelled()) {
+                // the failure belongs to the caller who cancelled
+                call.abandon();
+            } else {
+                call.fail(failure);
+            }
+            throw failure;
+        }
+        String body;
+        try {
+            // buffer the body so that the response can be shared
+            body = res.asString();
+        } catch (TwitterException te) {
+            call.fail(te);
+            throw te;
+        }
+        call.complete(res.getStatusCode(), body, CachedHttpResponse.retainHeaders(res));
+        return call.newResponse();
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private static final class Call {
+        private int waiters = 0;
+        private boolean sealed = false;
+        private boolean done = false;
+        private boolean abandoned = false;
+        private int statusCode;
+        private String body;
+        private Object parsedJSON;
+        private Map<String, String> headers;
+        private TwitterException failure;
+
+        synchronized boolean join() {
+            if (sealed) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        /**
+         * Stops accepting waiters.
+         *
+         * @return number of waiters
+         */
+        synchronized int seal() {
+            sealed = true;
+            return waiters;
+        }
+
+        synchronized boolean hasWaiters() {
+            return 0 < waiters && !done;
+        }
+
+        void complete(int statusCode, String body, Map<String, String> headers) {
+            Object parsedJSON = CachedHttpResponse.parseJSON(null == body ? "" : body);
+            synchronized (this) {
+                this.statusCode = statusCode;
+                this.body = null == body ? "" : body;
+                this.parsedJSON = parsedJSON;
+                this.headers = headers;
+                this.done = true;
+                notifyAll();
+            }
+        }
+
+        synchronized void fail(TwitterException failure) {
+            this.failure = failure;
+            this.done = true;
+            notifyAll();
+        }
+
+        synchronized void abandon() {
+            this.abandoned = true;
+            this.done = true;
+            notifyAll();
+        }
+
+        /**
+         * @return a response of its own for each caller, sharing the buffered body and its parsed form
+         */
+        synchronized HttpResponse newResponse() {
+            return new CachedHttpResponse(statusCode, body, parsedJSON, headers);
+        }
+
+        /**
+         * Waits for the leading request.
+         *
+         * @param cancellation cancellation of the waiting caller, or null
+         * @return the response, or null if the leading request has been cancelled by its caller
+         * @throws TwitterException when the leading request failed, or the waiting caller cancelled the request
+         */
+        HttpResponse await(HttpCancellation cancellation) throws TwitterException {
+            if (null != cancellation) {
+                cancellation.setAbortAction(new Runnable() {
+                    public void run() {
+                        synchronized (Call.this) {
+                            Call.this.notifyAll();
+                        }
+                    }
+                });
+            }
+            try {
+                synchronized (this) {
+                    while (!done) {
+                        if (null != cancellation && cancellation.isCancelled()) {
+                            throw new TwitterException("The request has been cancelled.");
+                        }
+                        wait();
+                    }
+                    if (abandoned) {
+                        return null;
+                    }
+                    if (null != failure) {
+                        throw failure;
+                    }
+                    return newResponse();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new TwitterException("Interrupted while waiting for the coalesced request.", ie);
+            } finally {
+                if (null != cancellation) {
+                    cancellation.setAbortAction(null);
+                }
+            }
+        }
+    }
+}
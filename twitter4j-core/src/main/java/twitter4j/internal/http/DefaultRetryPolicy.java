@@ -0,0 +1,281 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default retry policy.<br>
+ * <ul>
+ * <li>waits exponentially longer between attempts, with jitter</li>
+ * <li>honours the Retry-After header, and gives up if the server asks to wait longer than the maximum interval</li>
+ * <li>retries POST requests only when the connection could not be established, as they are not idempotent</li>
+ * <li>draws retries from a budget shared by all clients, so that retries never exceed a fraction of the traffic</li>
+ * <li>fails fast while the circuit breaker of the endpoint is open</li>
+ * </ul>
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class DefaultRetryPolicy implements RetryPolicy, HttpResponseCode, java.io.Serializable {
+    static final long DEFAULT_MAX_INTERVAL_MILLIS = 60 * 1000;
+    static final int FAILURE_THRESHOLD = 5;
+    static final long OPEN_MILLIS = 30 * 1000;
+
+    private static final RetryBudget SHARED_BUDGET = new RetryBudget(10, 0.1);
+    private static final ConcurrentMap<String, CircuitBreaker> SHARED_BREAKERS = new ConcurrentHashMap<String, CircuitBreaker>();
+
+    private final int maxRetries;
+    private final long baseIntervalMillis;
+    private final long maxIntervalMillis;
+    private transient RetryBudget budget;
+    private transient ConcurrentMap<String, CircuitBreaker> breakers;
+    private static final long serialVersionUID = 2897416520914867367L;
+
+    public DefaultRetryPolicy(HttpClientConfiguration conf) {
+        this(conf.getHttpRetryCount(), conf.getHttpRetryIntervalSeconds() * 1000L);
+    }
+
+    /**
+     * @param maxRetries         maximum number of retries
+     * @param baseIntervalMillis interval before the first retry, doubled for each subsequent retry
+     */
+    public DefaultRetryPolicy(int maxRetries, long baseIntervalMillis) {
+        this(maxRetries, baseIntervalMillis, Math.max(baseIntervalMillis, DEFAULT_MAX_INTERVAL_MILLIS));
+    }
+
+    /**
+     * @param maxRetries         maximum number of retries
+     * @param baseIntervalMillis interval before the first retry, doubled for each subsequent retry
+     * @param maxIntervalMillis  upper bound of the interval
+     */
+    public DefaultRetryPolicy(int maxRetries, long baseIntervalMillis, long maxIntervalMillis) {
+        this(maxRetries, baseIntervalMillis, maxIntervalMillis, SHARED_BUDGET, SHARED_BREAKERS);
+    }
+
+    DefaultRetryPolicy(int maxRetries, long baseIntervalMillis, long maxIntervalMillis
+            , RetryBudget budget, ConcurrentMap<String, CircuitBreaker> breakers) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("RetryCount cannot be negative.");
+        }
+        if (baseIntervalMillis < 0 || maxIntervalMillis < baseIntervalMillis) {
+            throw new IllegalArgumentException("RetryInterval cannot be negative.");
+        }
+        this.maxRetries = maxRetries;
+        this.baseIntervalMillis = baseIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.budget = budget;
+        this.breakers = breakers;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getBaseIntervalMillis() {
+        return baseIntervalMillis;
+    }
+
+    public long getMaxIntervalMillis() {
+        return maxIntervalMillis;
+    }
+
+    public void beforeAttempt(HttpRequest req) throws TwitterException {
+        if (!getCircuitBreaker(req).allowRequest(System.currentTimeMillis())) {
+            throw new TwitterException("Circuit breaker for " + endpointOf(req)
+                    + " is open. Not sending the request until the endpoint recovers.");
+        }
+    }
+
+    public long afterAttempt(HttpRequest req, int retriedCount, HttpResponse res, IOException ioe) {
+        if (0 == retriedCount) {
+            budget.deposit();
+        }
+        int statusCode = null == res ? -1 : res.getStatusCode();
+        CircuitBreaker breaker = getCircuitBreaker(req);
+        if (null != ioe || INTERNAL_SERVER_ERROR <= statusCode) {
+            breaker.onFailure(System.currentTimeMillis());
+        } else {
+            breaker.onSuccess();
+        }
+        if (null == ioe && OK <= statusCode && statusCode < MULTIPLE_CHOICES) {
+            return -1;
+        }
+        if (maxRetries <= retriedCount || !isRetriable(req, statusCode, ioe)) {
+            return -1;
+        }
+        long retryAfter = getRetryAfterMillis(res);
+        long interval;
+        if (ENHANCE_YOUR_CLAIM == statusCode || SERVICE_UNAVAILABLE == statusCode) {
+            // rate limited or over capacity. retry only when told when to
+            if (retryAfter < 0) {
+                return -1;
+            }
+            interval = retryAfter;
+        } else {
+            interval = Math.max(getBackoffMillis(retriedCount), retryAfter);
+        }
+        if (maxIntervalMillis < interval || !budget.tryWithdraw()) {
+            return -1;
+        }
+        return interval;
+    }
+
+    public void attemptCancelled(HttpRequest req) {
+        getCircuitBreaker(req).onCancelled();
+    }
+
+    private boolean isRetriable(HttpRequest req, int statusCode, IOException ioe) {
+        if (RequestMethod.POST == req.getMethod()) {
+            // the request may have reached the server already
+            return ioe instanceof ConnectException
+                    || ioe instanceof NoRouteToHostException
+                    || ioe instanceof UnknownHostException;
+        }
+        if (null != ioe) {
+            return true;
+        }
+        switch (statusCode) {
+            case ENHANCE_YOUR_CLAIM:
+            case INTERNAL_SERVER_ERROR:
+            case BAD_GATEWAY:
+            case SERVICE_UNAVAILABLE:
+            case GATEWAY_TIMEOUT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the interval before the next retry: exponentially growing, capped, with equal jitter.
+     *
+     * @param retriedCount number of retries made so far
+     * @return interval in milliseconds
+     */
+    long getBackoffMillis(int retriedCount) {
+        long interval = baseIntervalMillis << Math.min(retriedCount, 30);
+        if (interval < baseIntervalMillis || maxIntervalMillis < interval) {
+            interval = maxIntervalMillis;
+        }
+        long half = interval / 2;
+        return half + (long) (Math.random() * (interval - half + 1));
+    }
+
+    static long getRetryAfterMillis(HttpResponse res) {
+        if (null == res) {
+            return -1;
+        }
+        String retryAfter = res.getResponseHeader("Retry-After");
+        if (null == retryAfter) {
+            return -1;
+        }
+        retryAfter = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(retryAfter) * 1000);
+        } catch (NumberFormatException nfe) {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            try {
+                return Math.max(0, format.parse(retryAfter).getTime() - System.currentTimeMillis());
+            } catch (ParseException pe) {
+                return -1;
+            }
+        }
+    }
+
+    CircuitBreaker getCircuitBreaker(HttpRequest req) {
+        String endpoint = endpointOf(req);
+        CircuitBreaker breaker = breakers.get(endpoint);
+        if (null == breaker) {
+            breaker = new CircuitBreaker(FAILURE_THRESHOLD, OPEN_MILLIS);
+            CircuitBreaker existing = breakers.putIfAbsent(endpoint, breaker);
+            if (null != existing) {
+                breaker = existing;
+            }
+        }
+        return breaker;
+    }
+
+    private static String endpointOf(HttpRequest req) {
+        String url = req.getURL();
+        int start = url.indexOf("://");
+        start = -1 == start ? 0 : start + 3;
+        int end = url.indexOf('/', start);
+        String host = -1 == end ? url.substring(start) : url.substring(start, end);
+        return null == req.getTwitterMethod() ? host : host + " " + req.getTwitterMethod().name();
+    }
+
+    private void readObject(java.io.ObjectInputStream stream)
+            throws java.io.IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        budget = SHARED_BUDGET;
+        breakers = SHARED_BREAKERS;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DefaultRetryPolicy)) return false;
+
+        DefaultRetryPolicy that = (DefaultRetryPolicy) o;
+
+        if (baseIntervalMillis != that.baseIntervalMillis) return false;
+        if (maxIntervalMillis != that.maxIntervalMillis) return false;
+        if (maxRetries != that.maxRetries) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxRetries;
+        result = 31 * result + (int) (baseIntervalMillis ^ (baseIntervalMillis >>> 32));
+        result = 31 * result + (int) (maxIntervalMillis ^ (maxIntervalMillis >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DefaultRetryPolicy{" +
+                "maxRetries=" + maxRetries +
+                ", baseIntervalMillis=" + baseIntervalMillis +
+                ", maxIntervalMillis=" + maxIntervalMillis +
+                '}';
+    }
+}
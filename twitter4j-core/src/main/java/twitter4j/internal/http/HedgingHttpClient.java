@@ -0,0 +1,392 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.RateLimitStatus;
+import twitter4j.TwitterException;
+import twitter4j.internal.logging.Logger;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HttpClient decorator hedging GET requests.<br>
+ * The request is sent from a pooled thread while the calling thread waits. When it has not been answered within the 95th percentile latency of its endpoint,
+ * a duplicate request is sent from another pooled thread. The first successful response is returned right away, and the other request is aborted
+ * without the caller waiting for it to give up, as not all HttpClient implementations can abort a request in flight.<br>
+ * Hedges are limited to a small fraction of the requests, and are not sent while the remaining rate limit of the host is low.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class HedgingHttpClient implements HttpClient {
+    private static final Logger logger = Logger.getLogger(HedgingHttpClient.class);
+    static final int PERCENTILE = 95;
+    static final int MIN_SAMPLES = 20;
+    static final int MIN_REMAINING_HITS = 10;
+    private static final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    private final HttpClient delegate;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final RetryBudget budget;
+    private final ConcurrentMap<String, LatencyTracker> trackers = new ConcurrentHashMap<String, LatencyTracker>();
+    private final ConcurrentMap<String, RateLimitStatus> rateLimitStatuses = new ConcurrentHashMap<String, RateLimitStatus>();
+    private final AtomicInteger hedgeCount = new AtomicInteger(0);
+    private final AtomicInteger hedgeWinCount = new AtomicInteger(0);
+
+    public HedgingHttpClient(HttpClient delegate) {
+        this(delegate, new RetryBudget(10, 0.05));
+    }
+
+    /*package*/ HedgingHttpClient(HttpClient delegate, RetryBudget budget) {
+        this.delegate = delegate;
+        this.budget = budget;
+        ThreadFactory threadFactory = new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Twitter4J Hedged Request-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        this.executor = Executors.newCachedThreadPool(threadFactory);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Updates the rate limit status of the host and account the request was sent to and as.
+     * Requests to them are not hedged while the remaining hits are running low.
+     *
+     * @param req             the request answered with the rate limit status
+     * @param rateLimitStatus the latest rate limit status
+     */
+    public void setRateLimitStatus(HttpRequest req, RateLimitStatus rateLimitStatus) {
+        if (null != rateLimitStatus) {
+            rateLimitStatuses.put(rateLimitKey(req), rateLimitStatus);
+        }
+    }
+
+    /**
+     * @return number of hedged requests sent
+     */
+    public int getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * @return number of hedged requests which were answered before the original ones
+     */
+    public int getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    public HttpResponse request(HttpRequest req) throws TwitterException {
+        if (RequestMethod.GET != req.getMethod()) {
+            return delegate.request(req);
+        }
+        budget.deposit();
+        LatencyTracker tracker = getTracker(req);
+        long delay = tracker.getPercentile(PERCENTILE);
+        if (delay < 0) {
+            // not enough samples to tell a slow response yet
+            long start = System.currentTimeMillis();
+            HttpResponse res = delegate.request(req);
+            tracker.add(System.currentTimeMillis() - start);
+            return res;
+        }
+        Race race = new Race(req, tracker);
+        HttpCancellation cancellation = req.getCancellation();
+        if (null != cancellation) {
+            cancellation.setAbortAction(race);
+        }
+        ScheduledFuture<?> timer;
+        try {
+            timer = scheduler.schedule(race.hedgeLauncher(), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException shutdown) {
+            timer = null;
+        }
+        try {
+            executor.execute(race.primary);
+        } catch (RejectedExecutionException shutdown) {
+            race.primary.run();
+        }
+        try {
+            return race.await();
+        } finally {
+            if (null != timer) {
+                timer.cancel(false);
+            }
+            if (null != cancellation) {
+                cancellation.setAbortAction(null);
+            }
+        }
+    }
+
+    private boolean isRateLimitAvailable(HttpRequest req) {
+        RateLimitStatus status = rateLimitStatuses.get(rateLimitKey(req));
+        if (null == status || status.getResetTime().getTime() < System.currentTimeMillis()) {
+            return true;
+        }
+        return Math.max(MIN_REMAINING_HITS, status.getHourlyLimit() / 10) < status.getRemainingHits();
+    }
+
+    /**
+     * Rate limits are counted per host, such as api.twitter.com and search.twitter.com, and per account or per IP address.
+     */
+    static String rateLimitKey(HttpRequest req) {
+        String url = req.getURL();
+        int start = url.indexOf("://");
+        start = -1 == start ? 0 : start + 3;
+        int end = start;
+        while (end < url.length() && '/' != url.charAt(end) && '?' != url.charAt(end)) {
+            end++;
+        }
+        boolean authenticated = null != req.getAuthorization() && req.getAuthorization().isEnabled();
+        return url.substring(start, end) + (authenticated ? "" : " (unauthenticated)");
+    }
+
+    private LatencyTracker getTracker(HttpRequest req) {
+        String endpoint;
+        if (null != req.getTwitterMethod()) {
+            endpoint = req.getTwitterMethod().name();
+        } else {
+            int index = req.getURL().indexOf('?');
+            endpoint = -1 == index ? req.getURL() : req.getURL().substring(0, index);
+        }
+        LatencyTracker tracker = trackers.get(endpoint);
+        if (null == tracker) {
+            tracker = new LatencyTracker(128);
+            LatencyTracker existing = trackers.putIfAbsent(endpoint, tracker);
+            if (null != existing) {
+                tracker = existing;
+            }
+        }
+        return tracker;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+        delegate.shutdown();
+    }
+
+    /**
+     * The original request and its hedge. Run as the abort action of the caller's cancellation, it aborts both.
+     */
+    private final class Race implements Runnable {
+        private final HttpRequest req;
+        private final LatencyTracker tracker;
+        private final Attempt primary;
+        private final Attempt hedge;
+        private Attempt winner = null;
+        private boolean hedgeStarted = false;
+        // set once the primary has completed or the caller stopped waiting. no hedge is sent afterwards
+        private boolean closed = false;
+
+        Race(HttpRequest req, LatencyTracker tracker) {
+            this.req = req;
+            this.tracker = tracker;
+            this.primary = new Attempt(this, req);
+            this.hedge = new Attempt(this, req);
+        }
+
+        /**
+         * Waits for the first successful response, or for both attempts to fail.
+         */
+        HttpResponse await() throws TwitterException {
+            Attempt won;
+            synchronized (this) {
+                try {
+                    while (null == winner && !(primary.completed && (!hedgeStarted || hedge.completed))) {
+                        wait();
+                    }
+                } catch (InterruptedException ie) {
+                    closed = true;
+                    run();
+                    Thread.currentThread().interrupt();
+                    throw new TwitterException("Interrupted while waiting for the response.", ie);
+                }
+                closed = true;
+                won = winner;
+            }
+            if (null == won) {
+                if (null != primary.unexpected) {
+                    throw primary.unexpected;
+                }
+                throw primary.failure;
+            }
+            if (won == hedge) {
+                hedgeWinCount.incrementAndGet();
+            }
+            if (null != req.getTiming()) {
+                req.getTiming().copyFrom(won.request.getTiming());
+            }
+            return won.response;
+        }
+
+        Runnable hedgeLauncher() {
+            return new Runnable() {
+                public void run() {
+                    synchronized (Race.this) {
+                        if (closed || null != winner || !isRateLimitAvailable(req) || !budget.tryWithdraw()) {
+                            return;
+                        }
+                        hedgeStarted = true;
+                    }
+                    logger.debug("Hedging request: ", req.getURL());
+                    hedgeCount.incrementAndGet();
+                    try {
+                        executor.execute(hedge);
+                    } catch (RejectedExecutionException shutdown) {
+                        complete(hedge, null, new TwitterException("The hedged request has been rejected.", shutdown));
+                    }
+                }
+            };
+        }
+
+        /**
+         * Records the outcome of an attempt. The first successful one wins, and the other one is aborted.
+         */
+        void complete(Attempt attempt, HttpResponse res, TwitterException failure) {
+            Attempt loser = null;
+            boolean lost = false;
+            synchronized (this) {
+                attempt.completed = true;
+                attempt.failure = failure;
+                if (attempt == primary) {
+                    closed = true;
+                }
+                if (null != res) {
+                    if (null == winner) {
+                        winner = attempt;
+                        attempt.response = res;
+                        loser = attempt == primary ? hedge : primary;
+                    } else {
+                        lost = true;
+                    }
+                }
+                notifyAll();
+            }
+            if (null != loser) {
+                // the delegate neither counts the aborted attempt as a failure nor retries it
+                loser.cancellation.cancel();
+            }
+            if (lost) {
+                try {
+                    res.disconnect();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+
+        /**
+         * Aborts both attempts, as the caller has cancelled the request.
+         */
+        public void run() {
+            primary.cancellation.cancel();
+            hedge.cancellation.cancel();
+        }
+    }
+
+    /**
+     * A copy of the request with its own timing and cancellation.
+     */
+    private final class Attempt implements Runnable {
+        private final Race race;
+        private final HttpRequest request;
+        private final HttpCancellation cancellation = new HttpCancellation();
+        private boolean completed = false;
+        private HttpResponse response = null;
+        private TwitterException failure = null;
+        private RuntimeException unexpected = null;
+
+        Attempt(Race race, HttpRequest req) {
+            this.race = race;
+            this.request = new HttpRequest(req.getMethod(), req.getURL(), req.getParameters()
+                    , req.getAuthorization(), req.getRequestHeaders(), req.getTwitterMethod());
+            request.setRetryPolicy(req.getRetryPolicy());
+            request.setTiming(null == req.getTiming() ? null : new HttpTiming());
+            request.setCancellation(cancellation);
+        }
+
+        public void run() {
+            long start = System.currentTimeMillis();
+            try {
+                HttpResponse res = delegate.request(request);
+                race.tracker.add(System.currentTimeMillis() - start);
+                race.complete(this, res, null);
+            } catch (TwitterException te) {
+                race.complete(this, null, te);
+            } catch (RuntimeException re) {
+                unexpected = re;
+                race.complete(this, null, new TwitterException(re));
+            }
+        }
+    }
+
+    /**
+     * Keeps recent latencies of an endpoint.
+     */
+    static final class LatencyTracker {
+        private final long[] samples;
+        private int count = 0;
+
+        LatencyTracker(int size) {
+            samples = new long[size];
+        }
+
+        synchronized void add(long latency) {
+            samples[count % samples.length] = latency;
+            count++;
+        }
+
+        /**
+         * @param percentile percentile
+         * @return latency in milliseconds at the specified percentile, or -1 if not enough samples have been collected
+         */
+        synchronized long getPercentile(int percentile) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+            int size = Math.min(count, samples.length);
+            long[] sorted = new long[size];
+            System.arraycopy(samples, 0, sorted, 0, size);
+            Arrays.sort(sorted);
+            return sorted[Math.min(size - 1, size * percentile / 100)];
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+/**
+ * A handle to abort the requests made on behalf of an asynchronous call.<br>
+ * The handle is bound to the thread executing the call, and attached by HttpClientWrapper to every request the call makes.
+ * HttpClient implementations register an abort action while a request is in flight, such as disconnecting the connection, and don't retry requests once cancelled.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class HttpCancellation {
+    private static final ThreadLocal<HttpCancellation> current = new ThreadLocal<HttpCancellation>();
+
+    private boolean cancelled = false;
+    private Runnable abortAction = null;
+
+    /**
+     * @return the handle bound to the current thread, or null
+     */
+    public static HttpCancellation getCurrent() {
+        return current.get();
+    }
+
+    /**
+     * Binds the handle to the current thread.
+     *
+     * @param cancellation handle, or null to unbind
+     */
+    public static void setCurrent(HttpCancellation cancellation) {
+        if (null == cancellation) {
+            current.remove();
+        } else {
+            current.set(cancellation);
+        }
+    }
+
+    /**
+     * Cancels the call, aborting the request in flight if any.
+     */
+    public void cancel() {
+        Runnable action;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            action = abortAction;
+            abortAction = null;
+            // wakes up the threads waiting for the next retry
+            notifyAll();
+        }
+        if (null != action) {
+            action.run();
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Waits for the specified time, returning early once the call has been cancelled.
+     *
+     * @param millis milliseconds to wait
+     * @return true if the call has been cancelled
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public synchronized boolean await(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        long remaining = millis;
+        while (!cancelled && 0 < remaining) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return cancelled;
+    }
+
+    /**
+     * Registers the action aborting the request in flight. The action is run immediately if the call has been cancelled already.
+     *
+     * @param abortAction action, or null to clear
+     */
+    public void setAbortAction(Runnable abortAction) {
+        synchronized (this) {
+            if (!cancelled) {
+                this.abortAction = abortAction;
+                return;
+            }
+        }
+        if (null != abortAction) {
+            abortAction.run();
+        }
+    }
+}
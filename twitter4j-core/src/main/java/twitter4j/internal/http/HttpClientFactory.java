@@ -30,28 +30,39 @@ import twitter4j.internal.logging.Logger;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
  * @since Twitter4J 2.1.2
  */
 public final class HttpClientFactory {
-    private static final Constructor HTTP_CLIENT_CONSTRUCTOR;
+    private static final Constructor<?> HTTP_CLIENT_CONSTRUCTOR;
+    private static final Map<String, Constructor<?>> CONFIGURED_CONSTRUCTORS
+            = new ConcurrentHashMap<String, Constructor<?>>();
     private static final Logger logger = Logger.getLogger(HttpClientFactory.class);
 
+    /**
+     * implementations to be detected in the classpath, in order of preference
+     */
+    private static final String[] IMPLEMENTATIONS = {
+            "twitter4j.internal.http.alternative.HttpClientImpl",
+            "twitter4j.internal.http.http2.HttpClientImpl",
+            "twitter4j.internal.http.HttpClientImpl"};
+
     static {
-        Class clazz = null;
-        try {
-            clazz = Class.forName("twitter4j.internal.http.alternative.HttpClientImpl");
-        } catch (ClassNotFoundException ignore) {
-        }
-        if (null == clazz) {
+        Class<?> clazz = null;
+        for (String implementation : IMPLEMENTATIONS) {
             try {
-                clazz = Class.forName("twitter4j.internal.http.HttpClientImpl");
-            } catch (ClassNotFoundException cnfe) {
-                throw new AssertionError(cnfe);
+                clazz = Class.forName(implementation);
+                break;
+            } catch (ClassNotFoundException ignore) {
             }
         }
+        if (null == clazz) {
+            throw new AssertionError("No HttpClient implementation found.");
+        }
         logger.info("Will use " + clazz.getName() + " as HttpClient implementation.");
         try {
             HTTP_CLIENT_CONSTRUCTOR = clazz.getConstructor(HttpClientConfiguration.class);
@@ -62,7 +73,7 @@ public final class HttpClientFactory {
 
     public static HttpClient getInstance(HttpClientConfiguration conf) {
         try {
-            return (HttpClient) HTTP_CLIENT_CONSTRUCTOR.newInstance(conf);
+            return (HttpClient) getConstructor(conf).newInstance(conf);
         } catch (InstantiationException e) {
             throw new AssertionError(e);
         } catch (IllegalAccessException e) {
@@ -71,4 +82,25 @@ public final class HttpClientFactory {
             throw new AssertionError(e);
         }
     }
+
+    private static Constructor<?> getConstructor(HttpClientConfiguration conf) {
+        String className = conf.getHttpClientImpl();
+        if (null == className) {
+            return HTTP_CLIENT_CONSTRUCTOR;
+        }
+        Constructor<?> constructor = CONFIGURED_CONSTRUCTORS.get(className);
+        if (null == constructor) {
+            try {
+                constructor = Class.forName(className)
+                        .getConstructor(HttpClientConfiguration.class);
+            } catch (ClassNotFoundException cnfe) {
+                throw new AssertionError(cnfe);
+            } catch (NoSuchMethodException nsme) {
+                throw new AssertionError(nsme);
+            }
+            logger.info("Will use " + className + " as HttpClient implementation.");
+            CONFIGURED_CONSTRUCTORS.put(className, constructor);
+        }
+        return constructor;
+    }
 }
@@ -31,18 +31,18 @@ import twitter4j.conf.ConfigurationContext;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.util.StringUtil;
 
-import java.io.BufferedInputStream;
-import java.io.DataOutputStream;
-import java.io.FileInputStream;
+import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.Authenticator;
 import java.net.HttpURLConnection;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.PasswordAuthentication;
 import java.net.Proxy;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.net.UnknownHostException;
 import java.security.AccessControlException;
 import java.util.HashMap;
 import java.util.List;
@@ -64,7 +64,8 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
     private int connectionTimeout = 20000;
     private int readTimeout = 120000;
     private int retryCount = 0;
-    private int retryIntervalSeconds = 5 * 1000;
+    private int retryIntervalSeconds = 5;
+    private RetryPolicy retryPolicy = new DefaultRetryPolicy(retryCount, retryIntervalSeconds * 1000L);
     private static boolean isJDK14orEarlier = false;
     private static final long serialVersionUID = -8819171414069621503L;
 
@@ -200,6 +201,7 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
     public void setRetryCount(int retryCount) {
         if (retryCount >= 0) {
             this.retryCount = retryCount;
+            this.retryPolicy = new DefaultRetryPolicy(retryCount, retryIntervalSeconds * 1000L);
         } else {
             throw new IllegalArgumentException("RetryCount cannot be negative.");
         }
@@ -208,6 +210,7 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
     public void setRetryIntervalSeconds(int retryIntervalSeconds) {
         if (retryIntervalSeconds >= 0) {
             this.retryIntervalSeconds = retryIntervalSeconds;
+            this.retryPolicy = new DefaultRetryPolicy(retryCount, retryIntervalSeconds * 1000L);
         } else {
             throw new IllegalArgumentException(
                     "RetryInterval cannot be negative.");
@@ -223,126 +226,169 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
         return request(new HttpRequest(RequestMethod.POST, url, params, null, null));
     }
 
+    /**
+     * Sets the retry policy applied to requests that do not specify their own.
+     *
+     * @param retryPolicy retry policy
+     * @since Twitter4J 2.1.7
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (null == retryPolicy) {
+            throw new NullPointerException("RetryPolicy cannot be null.");
+        }
+        this.retryPolicy = retryPolicy;
+    }
+
     public HttpResponse request(HttpRequest req) throws TwitterException {
-        int retriedCount;
-        int retry = retryCount + 1;
-        HttpResponse res = null;
-        for (retriedCount = 0; retriedCount < retry; retriedCount++) {
-            int responseCode = -1;
+        RetryPolicy policy = null != req.getRetryPolicy() ? req.getRetryPolicy() : retryPolicy;
+        HttpCancellation cancellation = req.getCancellation();
+        for (int retriedCount = 0; ; retriedCount++) {
+            if (null != cancellation && cancellation.isCancelled()) {
+                throw new TwitterException("The request has been cancelled.");
+            }
+            policy.beforeAttempt(req);
+            HttpResponse res = null;
+            IOException ioe = null;
             try {
-                HttpURLConnection con = null;
-                OutputStream os = null;
+                res = send(req);
+            } catch (IOException e) {
+                // connection timeout or read timeout
+                ioe = e;
+            } catch (RuntimeException re) {
+                // let the policy release what beforeAttempt() reserved, such as the trial request of a half-open circuit breaker
+                IOException failure = new IOException(re.toString());
+                failure.initCause(re);
+                policy.afterAttempt(req, retriedCount, null, failure);
+                throw re;
+            }
+            if (null != cancellation && cancellation.isCancelled()) {
+                // aborted on purpose: neither a failure of the endpoint nor worth a retry
+                policy.attemptCancelled(req);
+                if (null != res) {
+                    try {
+                        res.disconnect();
+                    } catch (IOException ignore) {
+                    }
+                }
+                throw new TwitterException("The request has been cancelled.", ioe);
+            }
+            long interval = policy.afterAttempt(req, retriedCount, res, ioe);
+            if (null != res && OK <= res.getStatusCode() && res.getStatusCode() < MULTIPLE_CHOICES) {
+                return res;
+            }
+            if (interval < 0) {
+                if (null != ioe) {
+                    throw new TwitterException(ioe.getMessage(), ioe, null == res ? -1 : res.getStatusCode());
+                }
+                throw new TwitterException(res.asString(), res);
+            }
+            if (null != res) {
+                // consume the body so that the connection can be reused
                 try {
-                    con = getConnection(req.getURL());
-                    con.setDoInput(true);
-                    setHeaders(req, con);
-                    con.setRequestMethod(req.getMethod().name());
-                    if (req.getMethod() == POST) {
-                        if (HttpParameter.containsFile(req.getParameters())) {
-                            String boundary = "----Twitter4J-upload" + System.currentTimeMillis();
-                            con.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-                            boundary = "--" + boundary;
-                            con.setDoOutput(true);
-                            os = con.getOutputStream();
-                            DataOutputStream out = new DataOutputStream(os);
-                            for (HttpParameter param : req.getParameters()) {
-                                if (param.isFile()) {
-                                    write(out, boundary + "\r\n");
-                                    write(out, "Content-Disposition: form-data; name=\"" + param.getName() + "\"; filename=\"" + param.getFile().getName() + "\"\r\n");
-                                    write(out, "Content-Type: " + param.getContentType() + "\r\n\r\n");
-                                    BufferedInputStream in = new BufferedInputStream(
-                                    		param.hasFileBody() ? param.getFileBody() :new FileInputStream(param.getFile())
-                                    		);
-                                    int buff = 0;
-                                    while ((buff = in.read()) != -1) {
-                                        out.write(buff);
-                                    }
-                                    write(out, "\r\n");
-                                    in.close();
-                                } else {
-                                    write(out, boundary + "\r\n");
-                                    write(out, "Content-Disposition: form-data; name=\"" + param.getName() + "\"\r\n");
-                                    write(out, "Content-Type: text/plain; charset=UTF-8\r\n\r\n");
-                                    logger.debug(param.getValue());
-//                                    out.write(encode(param.getValue()).getBytes("UTF-8"));
-                                    out.write(param.getValue().getBytes("UTF-8"));
-                                    write(out, "\r\n");
-                                }
-                            }
-                            write(out, boundary + "--\r\n");
-                            write(out, "\r\n");
+                    res.asString();
+                } catch (TwitterException ignore) {
+                }
+            }
+            logger.debug("Sleeping " + interval + " milliseconds until the next retry.");
+            try {
+                if (null == cancellation) {
+                    Thread.sleep(interval);
+                } else if (cancellation.await(interval)) {
+                    throw new TwitterException("The request has been cancelled.");
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new TwitterException("Interrupted while waiting for the next retry.", ie);
+            }
+        }
+    }
 
-                        } else {
-                            con.setRequestProperty("Content-Type",
-                                    "application/x-www-form-urlencoded");
-                            String postParam = HttpParameter.encodeParameters(req.getParameters());
-                            logger.debug("Post Params: ", postParam);
-                            byte[] bytes = postParam.getBytes("UTF-8");
-                            con.setRequestProperty("Content-Length",
-                                    Integer.toString(bytes.length));
-                            con.setDoOutput(true);
-                            os = con.getOutputStream();
-                            os.write(bytes);
-                        }
-                        os.flush();
-                        os.close();
-                    }
-                    res = new HttpResponseImpl(con);
-                    responseCode = con.getResponseCode();
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("Response: ");
-                        Map<String, List<String>> responseHeaders = con.getHeaderFields();
-                        for (String key : responseHeaders.keySet()) {
-                            List<String> values = responseHeaders.get(key);
-                            for (String value : values) {
-                                if (null != key) {
-                                    logger.debug(key + ": " + value);
-                                } else {
-                                    logger.debug(value);
-                                }
-                            }
-                        }
+    /*package*/ HttpResponse send(HttpRequest req) throws IOException {
+        OutputStream os = null;
+        try {
+            HttpTiming timing = req.getTiming();
+            final HttpURLConnection con = getConnection(req.getURL());
+            if (null != req.getCancellation()) {
+                // disconnecting unblocks the thread connecting, writing or reading the response
+                req.getCancellation().setAbortAction(new Runnable() {
+                    public void run() {
+                        con.disconnect();
                     }
-                    if (responseCode < OK || MULTIPLE_CHOICES <= responseCode) {
-                        if (responseCode == ENHANCE_YOUR_CLAIM ||
-                                responseCode == SERVICE_UNAVAILABLE ||
-                                responseCode == BAD_REQUEST ||
-                                responseCode < INTERNAL_SERVER_ERROR ||
-                                retriedCount == retryCount) {
-                            throw new TwitterException(res.asString(), res);
-                        }
-                        // will retry if the status code is INTERNAL_SERVER_ERROR
+                });
+            }
+            if (null != timing) {
+                prepareTiming(con, timing);
+            }
+            con.setDoInput(true);
+            setHeaders(req, con);
+            con.setRequestMethod(req.getMethod().name());
+            if (req.getMethod() == POST) {
+                if (HttpParameter.containsFile(req.getParameters())) {
+                    String boundary = "----Twitter4J-upload" + System.currentTimeMillis();
+                    con.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+                    MultipartBody body = new MultipartBody(boundary, req.getParameters());
+                    // stream the body instead of letting HttpURLConnection buffer it entirely
+                    long contentLength = body.getContentLength();
+                    if (0 <= contentLength && contentLength <= Integer.MAX_VALUE) {
+                        con.setFixedLengthStreamingMode((int) contentLength);
                     } else {
-                        break;
+                        con.setChunkedStreamingMode(MultipartBody.CHUNK_SIZE);
                     }
-                } finally {
-                    try {
-                        os.close();
-                    } catch (Exception ignore) {
+                    con.setDoOutput(true);
+                    if (null != timing) {
+                        connect(con, timing);
+                        timing.setBytesSent(contentLength);
                     }
+                    os = con.getOutputStream();
+                    body.writeTo(os, req.getUploadProgressListener());
+
+                } else {
+                    con.setRequestProperty("Content-Type",
+                            "application/x-www-form-urlencoded");
+                    String postParam = HttpParameter.encodeParameters(req.getParameters());
+                    logger.debug("Post Params: ", postParam);
+                    byte[] bytes = postParam.getBytes("UTF-8");
+                    con.setRequestProperty("Content-Length",
+                            Integer.toString(bytes.length));
+                    con.setDoOutput(true);
+                    if (null != timing) {
+                        connect(con, timing);
+                        timing.setBytesSent(bytes.length);
+                    }
+                    os = con.getOutputStream();
+                    os.write(bytes);
                 }
-            } catch (IOException ioe) {
-                // connection timeout or read timeout
-                if (retriedCount == retryCount) {
-                    throw new TwitterException(ioe.getMessage(), ioe, responseCode);
+                os.flush();
+                os.close();
+            } else if (null != timing) {
+                connect(con, timing);
+                timing.setBytesSent(0);
+            }
+            HttpResponse res = new HttpResponseImpl(con);
+            if (null != timing) {
+                timing.mark(HttpTiming.TIME_TO_FIRST_BYTE);
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Response: ");
+                Map<String, List<String>> responseHeaders = con.getHeaderFields();
+                for (String key : responseHeaders.keySet()) {
+                    List<String> values = responseHeaders.get(key);
+                    for (String value : values) {
+                        if (null != key) {
+                            logger.debug(key + ": " + value);
+                        } else {
+                            logger.debug(value);
+                        }
+                    }
                 }
             }
+            return res;
+        } finally {
             try {
-                if (logger.isDebugEnabled() && null != res) {
-                    res.asString();
-                }
-                logger.debug("Sleeping " + retryIntervalSeconds + " seconds until the next retry.");
-                Thread.sleep(retryIntervalSeconds * 1000);
-            } catch (InterruptedException ignore) {
-                //nothing to do
+                os.close();
+            } catch (Exception ignore) {
             }
         }
-        return res;
-    }
-
-    private void write(DataOutputStream out, String outStr) throws IOException {
-        out.writeBytes(outStr);
-        logger.debug(outStr);
     }
 
     public static String encode(String str) {
@@ -379,6 +425,42 @@ public class HttpClientImpl implements HttpClient, HttpResponseCode, java.io.Ser
         }
     }
 
+    /**
+     * Resolves the host name to time the lookup, and hooks the TLS handshake.<br>
+     * The lookup is cached by the JVM, so the connection does not resolve the host name again.
+     */
+    private void prepareTiming(HttpURLConnection con, HttpTiming timing) {
+        if (!isProxyConfigured()) {
+            try {
+                InetAddress.getByName(con.getURL().getHost());
+                timing.mark(HttpTiming.DNS_LOOKUP);
+            } catch (UnknownHostException ignore) {
+                // connecting will fail anyway
+            }
+        }
+        if (con instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) con).setSSLSocketFactory(TimingSSLSocketFactory.getInstance());
+        }
+    }
+
+    private static void connect(HttpURLConnection con, HttpTiming timing) throws IOException {
+        TimingSSLSocketFactory.begin(timing);
+        try {
+            con.connect();
+        } finally {
+            TimingSSLSocketFactory.end();
+        }
+        if (!(con instanceof HttpsURLConnection)) {
+            timing.mark(HttpTiming.CONNECT);
+        } else if (timing.isMarked(HttpTiming.CONNECT)) {
+            // the factory marks CONNECT when a new connection is opened and a TLS handshake follows
+            timing.mark(HttpTiming.TLS_HANDSHAKE);
+        } else {
+            // a pooled connection was reused, and the lookup done ahead was not part of the request
+            timing.unmark(HttpTiming.DNS_LOOKUP);
+        }
+    }
+
     private HttpURLConnection getConnection(String url) throws IOException {
         HttpURLConnection con = null;
         if (isProxyConfigured() && !isJDK14orEarlier) {
@@ -26,14 +26,22 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package twitter4j.internal.http;
 
+import twitter4j.EntityCache;
+import twitter4j.RateLimitStatus;
 import twitter4j.TwitterException;
+import twitter4j.TwitterMethod;
+import twitter4j.UploadProgressListener;
 import twitter4j.conf.ConfigurationContext;
 import twitter4j.http.Authorization;
 import twitter4j.internal.http.HttpResponseEvent;
 import twitter4j.internal.http.HttpResponseListener;
+import twitter4j.management.APIStatistics;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static twitter4j.internal.http.RequestMethod.DELETE;
 import static twitter4j.internal.http.RequestMethod.GET;
@@ -49,38 +57,299 @@ import static twitter4j.internal.http.RequestMethod.PUT;
 public final class HttpClientWrapper implements java.io.Serializable {
     private final HttpClientWrapperConfiguration wrapperConf;
     private HttpClient http;
+    private transient HedgingHttpClient hedgingClient;
 
     private final Map<String, String> requestHeaders;
     private static final long serialVersionUID = -6511977105603119379L;
     private HttpResponseListener httpResponseListener;
+    private transient HttpResponseCache responseCache;
+    private transient EntityCache entityCache;
+    private transient UploadProgressListener uploadProgressListener;
+    private transient APIStatistics statistics;
+    private final List<HttpResponseListener> timingListeners = new CopyOnWriteArrayList<HttpResponseListener>();
+    private final Map<TwitterMethod, RetryPolicy> retryPolicies = new ConcurrentHashMap<TwitterMethod, RetryPolicy>();
 
     public HttpClientWrapper(HttpClientWrapperConfiguration wrapperConf) {
         this.wrapperConf = wrapperConf;
         requestHeaders = wrapperConf.getRequestHeaders();
-        http = HttpClientFactory.getInstance(wrapperConf);
+        http = new AuthorizationRoutingHttpClient(HttpClientFactory.getInstance(wrapperConf));
+        initHedging();
+        initCoalescing();
+        initResponseCache();
+        initEntityCache();
     }
     // never used with this project. Just for handiness for those using this class.
     public HttpClientWrapper() {
         this.wrapperConf = ConfigurationContext.getInstance();
         requestHeaders = wrapperConf.getRequestHeaders();
-        http = HttpClientFactory.getInstance(wrapperConf);
+        http = new AuthorizationRoutingHttpClient(HttpClientFactory.getInstance(wrapperConf));
+        initHedging();
+        initCoalescing();
+        initResponseCache();
+        initEntityCache();
     }
+
+    private void initHedging() {
+        if (wrapperConf.isHttpHedgingEnabled()) {
+            hedgingClient = new HedgingHttpClient(http);
+            http = hedgingClient;
+        }
+    }
+
+    private void initCoalescing() {
+        if (wrapperConf.isHttpCoalescingEnabled()) {
+            http = new CoalescingHttpClient(http);
+        }
+    }
+
+    private void initResponseCache() {
+        if (0 < wrapperConf.getHttpResponseCacheSize()) {
+            responseCache = new HttpResponseCache(wrapperConf.getHttpResponseCacheSize()
+                    , wrapperConf.getHttpResponseCacheTTLSeconds());
+        }
+    }
+
+    private void initEntityCache() {
+        if (0 < wrapperConf.getEntityCacheSize()) {
+            entityCache = new EntityCache(wrapperConf.getEntityCacheSize()
+                    , wrapperConf.getEntityCacheTTLSeconds());
+        }
+    }
+
     public void shutdown() {
       http.shutdown();
     }
+
+    /**
+     * Returns the cache of GET responses.
+     *
+     * @return the response cache, or null if the cache is disabled
+     * @since Twitter4J 2.1.7
+     */
+    public HttpResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Returns the cache of users and statuses parsed from responses.
+     *
+     * @return the entity cache, or null if the cache is disabled
+     * @since Twitter4J 2.1.7
+     */
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Sets the cache of users and statuses, in order to share one among instances authenticated as the same account.
+     *
+     * @param entityCache entity cache, or null to disable the cache
+     * @since Twitter4J 2.1.7
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    /**
+     * Returns the client hedging GET requests.
+     *
+     * @return the hedging client, or null if hedging is disabled
+     * @since Twitter4J 2.1.7
+     */
+    public HedgingHttpClient getHedgingHttpClient() {
+        return hedgingClient;
+    }
+
+    /**
+     * Notifies the latest rate limit status of the host the request was sent to,
+     * so that requests to the host are not hedged while the remaining hits are running low.
+     *
+     * @param req             request answered with the rate limit status
+     * @param rateLimitStatus rate limit status
+     * @since Twitter4J 2.1.7
+     */
+    public void setRateLimitStatus(HttpRequest req, RateLimitStatus rateLimitStatus) {
+        if (null != hedgingClient) {
+            hedgingClient.setRateLimitStatus(req, rateLimitStatus);
+        }
+    }
+
     private HttpResponse request(HttpRequest req) throws TwitterException {
-        HttpResponse res = http.request(req);
+        if (null != uploadProgressListener && HttpParameter.containsFile(req.getParameters())) {
+            req.setUploadProgressListener(uploadProgressListener);
+        }
+        if (null == req.getCancellation()) {
+            req.setCancellation(HttpCancellation.getCurrent());
+        }
+        if (null != req.getTwitterMethod() && null == req.getRetryPolicy()) {
+            req.setRetryPolicy(retryPolicies.get(req.getTwitterMethod()));
+        }
+        final APIStatistics statistics = null == req.getTwitterMethod() ? null : getStatistics();
+        HttpTiming timing = null;
+        if (!timingListeners.isEmpty() || null != statistics) {
+            timing = new HttpTiming();
+            req.setTiming(timing);
+        }
+        HttpResponse res;
+        try {
+            if (null != responseCache && GET == req.getMethod()) {
+                res = responseCache.request(http, req);
+            } else {
+                res = http.request(req);
+            }
+        } catch (TwitterException te) {
+            if (null != statistics) {
+                statistics.recordError(req.getTwitterMethod(), te.getStatusCode(), timing.getElapsedNanos());
+            }
+            throw te;
+        } catch (RuntimeException re) {
+            if (null != statistics) {
+                statistics.recordError(req.getTwitterMethod(), -1, timing.getElapsedNanos());
+            }
+            throw re;
+        }
+        final boolean cacheHit = res instanceof CachedHttpResponse
+                && (null == timing || !timing.isMarked(HttpTiming.TIME_TO_FIRST_BYTE));
+        if (null != statistics) {
+            if (cacheHit) {
+                // no round trip of its own to be measured
+                statistics.recordCacheHit(req.getTwitterMethod());
+            } else {
+                statistics.record(req.getTwitterMethod(), timing.getElapsedNanos()
+                        , res instanceof CachedHttpResponse ? timing.getBytesReceived() : -1, -1);
+            }
+        }
+        if (wrapperConf.isJSONStoreEnabled()) {
+            res.setJSONStoreEnabled(true);
+        }
+        res.setEntityCache(entityCache);
         //fire HttpResponseEvent
         if (null != httpResponseListener) {
-            httpResponseListener.httpResponseReceived(new HttpResponseEvent(req, res));
+            httpResponseListener.httpResponseReceived(new HttpResponseEvent(req, res, timing));
+        }
+        if (null != timing) {
+            final HttpResponseEvent event = new HttpResponseEvent(req, res, timing);
+            final HttpResponse response = res;
+            final TwitterMethod method = req.getTwitterMethod();
+            final boolean buffered = res instanceof CachedHttpResponse;
+            if (buffered) {
+                // the body has been read already
+                fireTimingEvent(event);
+            }
+            // buffered responses are parsed without timing, reporting parse failures only
+            res.setTiming(buffered ? null : timing, new Runnable() {
+                public void run() {
+                    if (!buffered) {
+                        fireTimingEvent(event);
+                    }
+                    if (null != statistics && response.isParseFailed()) {
+                        statistics.recordParseError(method, response.getStatusCode());
+                    }
+                }
+            });
         }
         return res;
     }
 
+    private void fireTimingEvent(HttpResponseEvent event) {
+        APIStatistics statistics = null == event.getRequest().getTwitterMethod() ? null : getStatistics();
+        if (null != statistics && !(event.getResponse() instanceof CachedHttpResponse)) {
+            HttpTiming timing = event.getTiming();
+            statistics.recordPayload(event.getRequest().getTwitterMethod()
+                    , timing.getBytesReceived(), timing.getNanos(HttpTiming.PARSE));
+        }
+        for (HttpResponseListener listener : timingListeners) {
+            listener.httpResponseReceived(event);
+        }
+    }
+
+    private APIStatistics getStatistics() {
+        if (null == statistics && wrapperConf.isMethodStatisticsEnabled()) {
+            statistics = APIStatistics.getInstance();
+        }
+        return statistics;
+    }
+
     public void setHttpResponseListener(HttpResponseListener listener) {
         httpResponseListener = listener;
     }
 
+    /**
+     * Adds a listener to be notified with the per-phase timing of each request, once its response body has been read and parsed.<br>
+     * Timings are recorded only while at least one such listener is registered.
+     *
+     * @param listener listener
+     * @see HttpResponseEvent#getTiming()
+     * @since Twitter4J 2.1.7
+     */
+    public void addHttpTimingListener(HttpResponseListener listener) {
+        timingListeners.add(listener);
+    }
+
+    public void removeHttpTimingListener(HttpResponseListener listener) {
+        timingListeners.remove(listener);
+    }
+
+    /**
+     * Sets a listener to be notified of the progress of multipart uploads.
+     *
+     * @param listener listener, or null to stop notifying
+     * @since Twitter4J 2.1.7
+     */
+    public void setUploadProgressListener(UploadProgressListener listener) {
+        uploadProgressListener = listener;
+    }
+
+    /**
+     * Sets the retry policy applied to requests issued for the specified API method.
+     *
+     * @param method      API method
+     * @param retryPolicy retry policy, or null to fall back to the default policy of the HttpClient
+     * @since Twitter4J 2.1.7
+     */
+    public void setRetryPolicy(TwitterMethod method, RetryPolicy retryPolicy) {
+        if (null == retryPolicy) {
+            retryPolicies.remove(method);
+        } else {
+            retryPolicies.put(method, retryPolicy);
+        }
+    }
+
+    public HttpResponse get(TwitterMethod method, String url, HttpParameter[] parameters
+            , Authorization authorization) throws TwitterException {
+        return request(new HttpRequest(GET, url, parameters, authorization, this.requestHeaders, method));
+    }
+
+    public HttpResponse get(TwitterMethod method, String url, HttpParameter[] parameters) throws TwitterException {
+        return request(new HttpRequest(GET, url, parameters, null, this.requestHeaders, method));
+    }
+
+    public HttpResponse get(TwitterMethod method, String url, Authorization authorization) throws TwitterException {
+        return request(new HttpRequest(GET, url, null, authorization, this.requestHeaders, method));
+    }
+
+    public HttpResponse get(TwitterMethod method, String url) throws TwitterException {
+        return request(new HttpRequest(GET, url, null, null, this.requestHeaders, method));
+    }
+
+    public HttpResponse post(TwitterMethod method, String url, HttpParameter[] parameters
+            , Authorization authorization) throws TwitterException {
+        return request(new HttpRequest(POST, url, parameters, authorization, this.requestHeaders, method));
+    }
+
+    public HttpResponse post(TwitterMethod method, String url, Authorization authorization) throws TwitterException {
+        return request(new HttpRequest(POST, url, null, authorization, this.requestHeaders, method));
+    }
+
+    public HttpResponse delete(TwitterMethod method, String url, HttpParameter[] parameters
+            , Authorization authorization) throws TwitterException {
+        return request(new HttpRequest(DELETE, url, parameters, authorization, this.requestHeaders, method));
+    }
+
+    public HttpResponse delete(TwitterMethod method, String url, Authorization authorization) throws TwitterException {
+        return request(new HttpRequest(DELETE, url, null, authorization, this.requestHeaders, method));
+    }
+
     public HttpResponse get(String url, HttpParameter[] parameters
             , Authorization authorization) throws TwitterException{
         return request(new HttpRequest(GET, url, parameters, authorization, this.requestHeaders));
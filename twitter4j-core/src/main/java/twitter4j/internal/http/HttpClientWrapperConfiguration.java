@@ -34,4 +34,20 @@ public interface HttpClientWrapperConfiguration extends HttpClientConfiguration{
      * @return request headers
      */
     Map<String, String> getRequestHeaders();
+
+    int getHttpResponseCacheSize();
+
+    int getHttpResponseCacheTTLSeconds();
+
+    boolean isHttpHedgingEnabled();
+
+    boolean isHttpCoalescingEnabled();
+
+    boolean isJSONStoreEnabled();
+
+    int getEntityCacheSize();
+
+    int getEntityCacheTTLSeconds();
+
+    boolean isMethodStatisticsEnabled();
 }
@@ -26,6 +26,8 @@ SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package twitter4j.internal.http;
 
+import twitter4j.TwitterMethod;
+import twitter4j.UploadProgressListener;
 import twitter4j.http.Authorization;
 
 import java.util.Arrays;
@@ -48,6 +50,16 @@ public final class HttpRequest implements java.io.Serializable {
 
     private Map<String, String> requestHeaders;
 
+    private final TwitterMethod twitterMethod;
+
+    private transient UploadProgressListener uploadProgressListener = null;
+
+    private transient RetryPolicy retryPolicy = null;
+
+    private transient HttpTiming timing = null;
+
+    private transient HttpCancellation cancellation = null;
+
     private static final long serialVersionUID = -3463594029098858381L;
 
 
@@ -62,6 +74,20 @@ public final class HttpRequest implements java.io.Serializable {
      */
     public HttpRequest(RequestMethod method, String url, HttpParameter[] parameters
             , Authorization authorization, Map<String, String> requestHeaders) {
+        this(method, url, parameters, authorization, requestHeaders, null);
+    }
+
+    /**
+     * @param method         Specifies the HTTP method
+     * @param url            the request to request
+     * @param parameters     parameters
+     * @param authorization  Authentication implementation. Currently BasicAuthentication, OAuthAuthentication and NullAuthentication are supported.
+     * @param requestHeaders
+     * @param twitterMethod  the API method this request is issued for, or null
+     * @since Twitter4J 2.1.7
+     */
+    public HttpRequest(RequestMethod method, String url, HttpParameter[] parameters
+            , Authorization authorization, Map<String, String> requestHeaders, TwitterMethod twitterMethod) {
         this.method = method;
         if (method != RequestMethod.POST && null != parameters && parameters.length != 0) {
             this.url = url + "?" + HttpParameter.encodeParameters(parameters);
@@ -72,6 +98,7 @@ public final class HttpRequest implements java.io.Serializable {
         }
         this.authorization = authorization;
         this.requestHeaders = requestHeaders;
+        this.twitterMethod = twitterMethod;
     }
 
     public RequestMethod getMethod() {
@@ -94,6 +121,62 @@ public final class HttpRequest implements java.io.Serializable {
         return requestHeaders;
     }
 
+    /**
+     * @return the API method this request is issued for, or null if unknown
+     * @since Twitter4J 2.1.7
+     */
+    public TwitterMethod getTwitterMethod() {
+        return twitterMethod;
+    }
+
+    public UploadProgressListener getUploadProgressListener() {
+        return uploadProgressListener;
+    }
+
+    /**
+     * @param uploadProgressListener listener to be notified of the progress of the multipart request body
+     * @since Twitter4J 2.1.7
+     */
+    public void setUploadProgressListener(UploadProgressListener uploadProgressListener) {
+        this.uploadProgressListener = uploadProgressListener;
+    }
+
+    /**
+     * @return retry policy to be applied to this request, or null to apply the default policy of the HttpClient
+     * @since Twitter4J 2.1.7
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return the timing to be recorded by the HttpClient, or null if timings are not being collected
+     * @since Twitter4J 2.1.7
+     */
+    public HttpTiming getTiming() {
+        return timing;
+    }
+
+    public void setTiming(HttpTiming timing) {
+        this.timing = timing;
+    }
+
+    /**
+     * @return the handle to abort this request, or null if the request cannot be cancelled
+     * @since Twitter4J 2.1.7
+     */
+    public HttpCancellation getCancellation() {
+        return cancellation;
+    }
+
+    public void setCancellation(HttpCancellation cancellation) {
+        this.cancellation = cancellation;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -132,6 +215,7 @@ public final class HttpRequest implements java.io.Serializable {
                 ", postParams=" + (parameters == null ? null : Arrays.asList(parameters)) +
                 ", authentication=" + authorization +
                 ", requestHeaders=" + requestHeaders +
+                ", twitterMethod=" + twitterMethod +
                 '}';
     }
 }
@@ -35,6 +35,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
 
+import twitter4j.EntityCache;
 import twitter4j.TwitterException;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.org.json.JSONArray;
@@ -65,9 +66,21 @@ public abstract class HttpResponse {
 
     protected int statusCode;
     private Document responseAsDocument = null;
+    private JSONObject responseAsJSONObject = null;
+    private JSONArray responseAsJSONArray = null;
     protected String responseAsString = null;
     protected InputStream is;
     private boolean streamConsumed = false;
+    private ResponseBuffer body = null;
+    // copy of the body kept once the pooled buffer is released, so that asString() still works after parsing
+    private byte[] consumedBody = null;
+    // characters decoded from the body for parsing, kept instead of a copy of the buffer
+    private CharSequence consumedChars = null;
+    private HttpTiming timing = null;
+    private Runnable onConsumed = null;
+    private boolean jsonStoreEnabled = false;
+    private boolean parseFailed = false;
+    private EntityCache entityCache = null;
 
     public final int getStatusCode() {
         return statusCode;
@@ -92,62 +105,117 @@ public abstract class HttpResponse {
         return is;
     }
 
+    /**
+     * Reads the response body into a pooled buffer, unless it has been read already.
+     *
+     * @return the body, or null if the response has no body or has been read as a string already
+     * @throws TwitterException when the body cannot be read
+     */
+    private ResponseBuffer readBody() throws TwitterException {
+        if (null == body && !streamConsumed && null == responseAsString) {
+            InputStream stream = asStream();
+            if (null == stream) {
+                return null;
+            }
+            ResponseBuffer buffer = ResponseBuffer.acquire();
+            try {
+                body = buffer.readFrom(stream);
+                if (null != timing) {
+                    timing.mark(HttpTiming.BODY);
+                    timing.setBytesReceived(body.size());
+                }
+            } catch (IOException ioe) {
+                buffer.release();
+                throw new TwitterException(ioe.getMessage(), ioe);
+            } finally {
+                streamConsumed = true;
+                try {
+                    stream.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+        return body;
+    }
+
     /**
      * Returns the response body as string.<br>
      * Disconnects the internal HttpURLConnection silently.
      * @return response body
      * @throws TwitterException
      */
-    public final String asString() throws TwitterException {
-        if(null == responseAsString){
-            BufferedReader br;
-            InputStream stream = null;
+    public final synchronized String asString() throws TwitterException {
+        if (null == responseAsString) {
             try {
-                stream = asStream();
-                if (null == stream) {
+                ResponseBuffer buffer = readBody();
+                if (null != buffer) {
+                    this.responseAsString = toLines(buffer.toString());
+                    markParsed();
+                } else if (null != consumedChars) {
+                    // the body has been parsed and the buffer released already
+                    this.responseAsString = toLines(consumedChars.toString());
+                    consumedChars = null;
+                } else if (null != consumedBody) {
+                    // the body has been parsed and the buffer released already
+                    this.responseAsString = toLines(new String(consumedBody, "UTF-8"));
+                    consumedBody = null;
+                } else {
                     return null;
                 }
-                br = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
-                StringBuffer buf = new StringBuffer();
-                String line;
-                while (null != (line = br.readLine())) {
-                    buf.append(line).append("\n");
-                }
-                this.responseAsString = buf.toString();
                 logger.debug(responseAsString);
-                stream.close();
-                streamConsumed = true;
-            } catch (NullPointerException npe) {
-                // don't remember in which case npe can be thrown
-                throw new TwitterException(npe.getMessage(), npe);
-            } catch (IOException ioe) {
-                throw new TwitterException(ioe.getMessage(), ioe);
-            }finally{
-                if(null != stream){
-                    try {
-                        stream.close();
-                    } catch (IOException ignore) {
-                    }
-                }
+            } catch (UnsupportedEncodingException neverHappen) {
+                throw new AssertionError("will never happen");
+            } finally {
                 disconnectForcibly();
             }
         }
         return responseAsString;
     }
 
+    /**
+     * Terminates every line with a line feed, as the body used to be read line by line.
+     */
+    private static String toLines(String str) {
+        if (0 == str.length() || (-1 == str.indexOf('\r') && str.endsWith("\n"))) {
+            return str;
+        }
+        StringBuffer buf = new StringBuffer(str.length() + 1);
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if ('\r' == c) {
+                buf.append('\n');
+                if (i + 1 < str.length() && '\n' == str.charAt(i + 1)) {
+                    i++;
+                }
+            } else {
+                buf.append(c);
+            }
+        }
+        if ('\n' != buf.charAt(buf.length() - 1)) {
+            buf.append('\n');
+        }
+        return buf.toString();
+    }
+
     /**
      * Returns the response body as org.w3c.dom.Document.<br>
      * Disconnects the internal HttpURLConnection silently.
      * @return response body as org.w3c.dom.Document
      * @throws TwitterException
      */
-    public final Document asDocument() throws TwitterException {
+    public final synchronized Document asDocument() throws TwitterException {
         if (null == responseAsDocument) {
             try {
-                // it should be faster to read the inputstream directly.
-                // but makes it difficult to troubleshoot
-                this.responseAsDocument = builders.get().parse(new ByteArrayInputStream(asString().getBytes("UTF-8")));
+                ResponseBuffer buffer = readBody();
+                if (null != buffer) {
+                    logDebug();
+                    this.responseAsDocument = builders.get().parse(buffer.asInputStream());
+                    markParsed();
+                } else {
+                    this.responseAsDocument = builders.get().parse(new ByteArrayInputStream(asString().getBytes("UTF-8")));
+                }
             } catch (SAXException saxe) {
+                parseFailed = true;
                 throw new TwitterException("The response body was not well-formed:\n" + responseAsString, saxe);
             } catch (IOException ioe) {
                 throw new TwitterException("There's something with the connection.", ioe);
@@ -164,32 +232,24 @@ public abstract class HttpResponse {
      * @return response body as twitter4j.internal.org.json.JSONObject
      * @throws TwitterException
      */
-    public final JSONObject asJSONObject() throws TwitterException {
-        JSONObject json = null;
-        InputStreamReader reader = null;
+    public final synchronized JSONObject asJSONObject() throws TwitterException {
+        if (null != responseAsJSONObject) {
+            return responseAsJSONObject;
+        }
         try {
-            if (logger.isDebugEnabled()) {
-                json =  new JSONObject(asString());
-            } else {
-                reader = asReader();
-                json = new JSONObject(new JSONTokener(reader));
-            }
+            this.responseAsJSONObject = new JSONObject(asJSONTokener());
+            markParsed();
+            return responseAsJSONObject;
         } catch (JSONException jsone) {
+            parseFailed = true;
             if (logger.isDebugEnabled()) {
                 throw new TwitterException(jsone.getMessage() + ":" + this.responseAsString, jsone);
             } else {
                 throw new TwitterException(jsone.getMessage(), jsone);
             }
         }finally {
-            if(null != reader){
-                try{
-                    reader.close();
-                } catch (IOException ignore) {
-                }
-            }
             disconnectForcibly();
         }
-        return json;
     }
 
     /**
@@ -198,34 +258,87 @@ public abstract class HttpResponse {
      * @return response body as twitter4j.internal.org.json.JSONArray
      * @throws TwitterException
      */
-    public final JSONArray asJSONArray() throws TwitterException {
-        JSONArray json = null;
-        InputStreamReader reader = null;
+    public final synchronized JSONArray asJSONArray() throws TwitterException {
+        if (null != responseAsJSONArray) {
+            return responseAsJSONArray;
+        }
         try {
-            if (logger.isDebugEnabled()) {
-                json = new JSONArray(asString());
-            } else {
-                reader = asReader();
-                json = new JSONArray(new JSONTokener(reader));
-            }
+            this.responseAsJSONArray = new JSONArray(asJSONTokener());
+            markParsed();
+            return responseAsJSONArray;
         } catch (JSONException jsone) {
+            parseFailed = true;
             if (logger.isDebugEnabled()) {
                 throw new TwitterException(jsone.getMessage() + ":" + this.responseAsString, jsone);
             } else {
                 throw new TwitterException(jsone.getMessage(), jsone);
             }
         }finally{
-            if(null != reader){
-                try{
-                    reader.close();
-                } catch (IOException ignore) {
-                }
-            }
             disconnectForcibly();
         }
-        return json;
     }
 
+    /**
+     * Supplies the JSON form of the body parsed beforehand, so that asJSONObject() and asJSONArray() skip parsing.
+     *
+     * @param json JSONObject or JSONArray parsed from the body
+     */
+    /*package*/ synchronized void setParsedJSON(Object json) {
+        if (json instanceof JSONObject) {
+            this.responseAsJSONObject = (JSONObject) json;
+        } else if (json instanceof JSONArray) {
+            this.responseAsJSONArray = (JSONArray) json;
+        }
+    }
+
+    private JSONTokener asJSONTokener() throws TwitterException {
+        ResponseBuffer buffer = readBody();
+        JSONTokener tokener;
+        if (null == buffer) {
+            String str = asString();
+            tokener = new JSONTokener(null == str ? "" : str);
+        } else {
+            logDebug();
+            tokener = buffer.asJSONTokener();
+            consumedChars = tokener.getSource();
+        }
+        tokener.setRetainRawJSON(jsonStoreEnabled);
+        return tokener;
+    }
+
+    /**
+     * Makes JSONObjects parsed from this response keep their raw JSON forms.<br>
+     * Must be called before the response body is parsed.
+     * @param jsonStoreEnabled true to retain raw JSON forms
+     */
+    public void setJSONStoreEnabled(boolean jsonStoreEnabled) {
+        this.jsonStoreEnabled = jsonStoreEnabled;
+    }
+
+    public boolean isJSONStoreEnabled() {
+        return jsonStoreEnabled;
+    }
+
+    /**
+     * Sets the cache to be fed with the users and statuses parsed from this response.
+     *
+     * @param entityCache entity cache, or null not to cache
+     * @since Twitter4J 2.1.7
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    private void logDebug() {
+        if (logger.isDebugEnabled() && null == responseAsString) {
+            this.responseAsString = toLines(body.toString());
+            logger.debug(responseAsString);
+        }
+    }
 
     public final InputStreamReader asReader() {
         try {
@@ -235,11 +348,52 @@ public abstract class HttpResponse {
         }
     }
 
+    /**
+     * Records the phases of reading and parsing the body to the specified timing.
+     *
+     * @param timing     timing of the request
+     * @param onConsumed called once the body has been read and parsed or decoded
+     */
+    /*package*/ synchronized void setTiming(HttpTiming timing, Runnable onConsumed) {
+        this.timing = timing;
+        this.onConsumed = onConsumed;
+    }
+
+    /**
+     * @return true if the body was read but could not be parsed
+     */
+    /*package*/ synchronized boolean isParseFailed() {
+        return parseFailed;
+    }
+
+    private void markParsed() {
+        if (null != timing) {
+            timing.mark(HttpTiming.PARSE);
+        }
+    }
+
+    /**
+     * Disconnects the underlying connection and returns the body buffer to the pool.
+     */
     private void disconnectForcibly() {
+        if (null != body) {
+            if (null == responseAsString && null == consumedChars) {
+                // parsed as XML straight from the buffer
+                consumedBody = body.toByteArray();
+            }
+            // the buffer can be recycled once the body is decoded
+            body.release();
+            body = null;
+        }
         try{
             disconnect();
         }catch(Exception ignore){
         }
+        if (null != onConsumed) {
+            Runnable callback = onConsumed;
+            onConsumed = null;
+            callback.run();
+        }
     }
 
     public abstract void disconnect() throws IOException;
@@ -0,0 +1,257 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An LRU cache of GET responses.<br>
+ * Stale entries are revalidated with conditional requests using the ETag and Last-Modified validators,
+ * and the cached body is served when the server answers 304 Not Modified.<br>
+ * Entries are keyed by the method, URL, parameters and the credentials the request is sent with.
+ * JSON bodies are parsed once when cached, and hits share the parsed form which must not be modified.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class HttpResponseCache {
+    private final int maxEntries;
+    private final long defaultTTL;
+    private final Map<String, Long> endpointTTLs = new LinkedHashMap<String, Long>();
+    private final LinkedHashMap<RequestKey, CacheEntry> entries;
+
+    private long hitCount = 0;
+    private long revalidatedCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    HttpResponseCache(int maxEntries, int defaultTTLSeconds) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than 0.");
+        }
+        this.maxEntries = maxEntries;
+        this.defaultTTL = defaultTTLSeconds * 1000L;
+        this.entries = new LinkedHashMap<RequestKey, CacheEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 6451012368713398232L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RequestKey, CacheEntry> eldest) {
+                if (size() > HttpResponseCache.this.maxEntries) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Sets the period in which cached responses of the endpoint are served without contacting the server.
+     *
+     * @param endpoint   the endpoint URL or its trailing part, e.g. "statuses/home_timeline.json"
+     * @param ttlSeconds time to live in seconds. 0 to revalidate every time.
+     */
+    public synchronized void setTTL(String endpoint, int ttlSeconds) {
+        endpointTTLs.put(endpoint, ttlSeconds * 1000L);
+    }
+
+    /**
+     * Executes the request through the cache.
+     *
+     * @param client client to be used for the actual request
+     * @param req    GET request
+     * @return response
+     * @throws TwitterException when the request failed
+     */
+    HttpResponse request(HttpClient client, HttpRequest req) throws TwitterException {
+        long now = System.currentTimeMillis();
+        RequestKey key = new RequestKey(req);
+        CacheEntry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (null != entry && now < entry.expires) {
+                hitCount++;
+                return entry.newResponse();
+            }
+        }
+        HttpRequest actualRequest = req;
+        if (null != entry) {
+            actualRequest = entry.conditionalRequest(req);
+        }
+        HttpResponse res;
+        try {
+            res = client.request(actualRequest);
+        } catch (TwitterException te) {
+            if (null != entry && HttpResponseCode.NOT_MODIFIED == te.getStatusCode()) {
+                synchronized (this) {
+                    revalidatedCount++;
+                    entry.expires = System.currentTimeMillis() + getTTL(req.getURL());
+                    // the entry might have been evicted meanwhile
+                    entries.put(key, entry);
+                }
+                return entry.newResponse();
+            }
+            throw te;
+        }
+        synchronized (this) {
+            missCount++;
+        }
+        long ttl = getTTL(req.getURL());
+        String eTag = res.getResponseHeader("ETag");
+        String lastModified = res.getResponseHeader("Last-Modified");
+        if (0 == ttl && null == eTag && null == lastModified) {
+            // nothing to gain from caching
+            synchronized (this) {
+                entries.remove(key);
+            }
+            return res;
+        }
+        CacheEntry newEntry = new CacheEntry(res.getStatusCode(), res.asString(), CachedHttpResponse.retainHeaders(res)
+                , System.currentTimeMillis() + ttl);
+        synchronized (this) {
+            entries.put(key, newEntry);
+        }
+        return newEntry.newResponse();
+    }
+
+    private synchronized long getTTL(String url) {
+        int index = url.indexOf('?');
+        String endpoint = -1 == index ? url : url.substring(0, index);
+        for (Map.Entry<String, Long> ttl : endpointTTLs.entrySet()) {
+            if (endpoint.endsWith(ttl.getKey())) {
+                return ttl.getValue();
+            }
+        }
+        return defaultTTL;
+    }
+
+    /**
+     * Discards all cached responses.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return number of responses served from the cache without contacting the server
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of responses served from the cache after the server answered 304 Not Modified
+     */
+    public synchronized long getRevalidatedCount() {
+        return revalidatedCount;
+    }
+
+    /**
+     * @return number of responses fetched from the server
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return ratio of the requests served from the cache
+     */
+    public synchronized double getHitRatio() {
+        long total = hitCount + revalidatedCount + missCount;
+        return 0 == total ? 0d : (double) (hitCount + revalidatedCount) / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "HttpResponseCache{" +
+                "size=" + entries.size() +
+                ", maxEntries=" + maxEntries +
+                ", hitCount=" + hitCount +
+                ", revalidatedCount=" + revalidatedCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+
+    private static final class CacheEntry {
+        private final int statusCode;
+        private final String body;
+        private final Object parsedJSON;
+        private final Map<String, String> headers;
+        private long expires;
+
+        CacheEntry(int statusCode, String body, Map<String, String> headers, long expires) {
+            this.statusCode = statusCode;
+            this.body = null == body ? "" : body;
+            this.parsedJSON = CachedHttpResponse.parseJSON(this.body);
+            this.headers = headers;
+            this.expires = expires;
+        }
+
+        HttpResponse newResponse() {
+            return new CachedHttpResponse(statusCode, body, parsedJSON, headers);
+        }
+
+        HttpRequest conditionalRequest(HttpRequest req) {
+            String eTag = headers.get("ETag");
+            String lastModified = headers.get("Last-Modified");
+            if (null == eTag && null == lastModified) {
+                return req;
+            }
+            Map<String, String> requestHeaders = new java.util.HashMap<String, String>();
+            if (null != req.getRequestHeaders()) {
+                requestHeaders.putAll(req.getRequestHeaders());
+            }
+            if (null != eTag) {
+                requestHeaders.put("If-None-Match", eTag);
+            }
+            if (null != lastModified) {
+                requestHeaders.put("If-Modified-Since", lastModified);
+            }
+            HttpRequest conditionalRequest = new HttpRequest(req.getMethod(), req.getURL(), req.getParameters()
+                    , req.getAuthorization(), requestHeaders, req.getTwitterMethod());
+            conditionalRequest.setRetryPolicy(req.getRetryPolicy());
+            conditionalRequest.setTiming(req.getTiming());
+            return conditionalRequest;
+        }
+    }
+}
@@ -46,4 +46,5 @@ public interface HttpResponseCode {
     int INTERNAL_SERVER_ERROR = 500;// Internal Server Error: Something is broken. Please post to the group so the Twitter team can investigate.
     int BAD_GATEWAY = 502;// Bad Gateway: Twitter is down or being upgraded.
     int SERVICE_UNAVAILABLE = 503;// Service Unavailable: The Twitter servers are up, but overloaded with requests. Try again later. The search and trend methods use this to indicate when you are being rate limited.
+    int GATEWAY_TIMEOUT = 504;// Gateway Timeout: The front end servers did not receive a response from the back end in time.
 }
@@ -36,9 +36,22 @@ public final class HttpResponseEvent {
 
     private HttpResponse response;
 
+    private HttpTiming timing;
+
     public HttpResponseEvent(HttpRequest request, HttpResponse response) {
+        this(request, response, null);
+    }
+
+    /**
+     * @param request  request
+     * @param response response
+     * @param timing   timing of the request, or null if not recorded
+     * @since Twitter4J 2.1.7
+     */
+    public HttpResponseEvent(HttpRequest request, HttpResponse response, HttpTiming timing) {
         this.request = request;
         this.response = response;
+        this.timing = timing;
     }
 
     /**
@@ -57,6 +70,15 @@ public final class HttpResponseEvent {
         return response;
     }
 
+    /**
+     * returns the per-phase timing of the request
+     * @return the timing, or null if timings are not being collected
+     * @since Twitter4J 2.1.7
+     */
+    public HttpTiming getTiming() {
+        return timing;
+    }
+
     public boolean isAuthenticated() {
         return request.getAuthorization().isEnabled();
     }
@@ -88,6 +110,7 @@ public final class HttpResponseEvent {
         return "HttpResponseEvent{" +
                 "request=" + request +
                 ", response=" + response +
+                ", timing=" + timing +
                 '}';
     }
 }
@@ -0,0 +1,175 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import java.util.Arrays;
+
+/**
+ * Monotonic timestamps of the phases of a request, and the number of bytes sent and received.<br>
+ * Phases are consecutive: each one lasts from the end of the latest preceding phase recorded, or from the start of the request, to its own end.
+ * Phases which were not recorded, for instance the TLS handshake of a plain HTTP request or any of the connection phases when a pooled connection was reused, are reported as -1.<br>
+ * HttpURLConnection tells a reused connection apart only for HTTPS, so the built-in client reports the connection phases of every plain HTTP request.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class HttpTiming implements java.io.Serializable {
+    /**
+     * resolving the host name
+     */
+    public static final int DNS_LOOKUP = 0;
+    /**
+     * establishing the TCP connection
+     */
+    public static final int CONNECT = 1;
+    public static final int TLS_HANDSHAKE = 2;
+    /**
+     * sending the request and waiting for the status line and headers
+     */
+    public static final int TIME_TO_FIRST_BYTE = 3;
+    /**
+     * reading the response body
+     */
+    public static final int BODY = 4;
+    /**
+     * decoding and parsing the response body
+     */
+    public static final int PARSE = 5;
+    static final String[] PHASE_NAMES = {"dns", "connect", "tls", "ttfb", "body", "parse"};
+
+    private static final long NOT_RECORDED = Long.MIN_VALUE;
+    private final long start;
+    private final long[] ends = new long[PHASE_NAMES.length];
+    private long bytesSent = -1;
+    private long bytesReceived = -1;
+    private static final long serialVersionUID = 1948672531066420935L;
+
+    public HttpTiming() {
+        Arrays.fill(ends, NOT_RECORDED);
+        start = System.nanoTime();
+    }
+
+    /**
+     * Records the end of the specified phase. Meant to be called by HttpClient implementations.
+     *
+     * @param phase phase
+     */
+    public void mark(int phase) {
+        ends[phase] = System.nanoTime();
+    }
+
+    /*package*/ void unmark(int phase) {
+        ends[phase] = NOT_RECORDED;
+    }
+
+    /*package*/ boolean isMarked(int phase) {
+        return NOT_RECORDED != ends[phase];
+    }
+
+    /**
+     * @param phase phase
+     * @return duration of the phase in nanoseconds, or -1 if not recorded
+     */
+    public long getNanos(int phase) {
+        if (NOT_RECORDED == ends[phase]) {
+            return -1;
+        }
+        long from = start;
+        for (int i = phase - 1; 0 <= i; i--) {
+            if (NOT_RECORDED != ends[i]) {
+                from = ends[i];
+                break;
+            }
+        }
+        return ends[phase] - from;
+    }
+
+    /**
+     * @return nanoseconds from the start of the request to the end of the latest phase recorded
+     */
+    public long getTotalNanos() {
+        for (int i = ends.length - 1; 0 <= i; i--) {
+            if (NOT_RECORDED != ends[i]) {
+                return ends[i] - start;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return nanoseconds from the start of the request to now
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Takes over the phases and sizes recorded by the specified timing, such as the one of a hedged request which won the race.
+     * The phases keep being measured from the start of this timing.
+     *
+     * @param timing timing to be copied
+     */
+    /*package*/ void copyFrom(HttpTiming timing) {
+        System.arraycopy(timing.ends, 0, ends, 0, ends.length);
+        bytesSent = timing.bytesSent;
+        bytesReceived = timing.bytesReceived;
+    }
+
+    /**
+     * @return bytes of the request body, or -1 if unknown
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public void setBytesSent(long bytesSent) {
+        this.bytesSent = bytesSent;
+    }
+
+    /**
+     * @return bytes of the response body after decompression, or -1 if unknown
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public void setBytesReceived(long bytesReceived) {
+        this.bytesReceived = bytesReceived;
+    }
+
+    @Override
+    public String toString() {
+        StringBuffer buf = new StringBuffer("HttpTiming{");
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            buf.append(PHASE_NAMES[i]).append("=").append(getNanos(i)).append(", ");
+        }
+        return buf.append("total=").append(getTotalNanos())
+                .append(", bytesSent=").append(bytesSent)
+                .append(", bytesReceived=").append(bytesReceived)
+                .append('}').toString();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * HttpResponseListener aggregating the per-phase timings of requests into percentile histograms per endpoint.<br>
+ * Register it with Twitter#addHttpTimingListener(). Endpoints are identified by the API method name, or by the URL without query string when unknown.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class HttpTimingStatistics implements HttpResponseListener {
+    /**
+     * pseudo phase covering the whole request
+     */
+    public static final int TOTAL = HttpTiming.PHASE_NAMES.length;
+    private final ConcurrentMap<String, LatencyHistogram[]> histograms
+            = new ConcurrentHashMap<String, LatencyHistogram[]>();
+
+    public void httpResponseReceived(HttpResponseEvent event) {
+        HttpTiming timing = event.getTiming();
+        if (null == timing) {
+            return;
+        }
+        LatencyHistogram[] phases = getHistograms(endpointOf(event.getRequest()));
+        for (int phase = 0; phase < TOTAL; phase++) {
+            phases[phase].record(timing.getNanos(phase));
+        }
+        phases[TOTAL].record(timing.getTotalNanos());
+    }
+
+    /**
+     * @return endpoints requested so far
+     */
+    public List<String> getEndpoints() {
+        List<String> endpoints = new ArrayList<String>(histograms.keySet());
+        Collections.sort(endpoints);
+        return endpoints;
+    }
+
+    /**
+     * @param endpoint endpoint
+     * @return number of requests recorded for the endpoint
+     */
+    public long getCount(String endpoint) {
+        LatencyHistogram[] phases = histograms.get(endpoint);
+        return null == phases ? 0 : phases[TOTAL].getCount();
+    }
+
+    /**
+     * @param endpoint   endpoint
+     * @param phase      one of the phases defined in HttpTiming, or TOTAL
+     * @param percentile percentile, between 0 and 100
+     * @return duration in nanoseconds, or -1 if the phase has not been recorded for the endpoint
+     */
+    public long getPercentileNanos(String endpoint, int phase, double percentile) {
+        LatencyHistogram[] phases = histograms.get(endpoint);
+        return null == phases ? -1 : phases[phase].getPercentile(percentile);
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    private LatencyHistogram[] getHistograms(String endpoint) {
+        LatencyHistogram[] phases = histograms.get(endpoint);
+        if (null == phases) {
+            phases = new LatencyHistogram[TOTAL + 1];
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+            LatencyHistogram[] existing = histograms.putIfAbsent(endpoint, phases);
+            if (null != existing) {
+                phases = existing;
+            }
+        }
+        return phases;
+    }
+
+    private static String endpointOf(HttpRequest req) {
+        if (null != req.getTwitterMethod()) {
+            return req.getTwitterMethod().name();
+        }
+        int index = req.getURL().indexOf('?');
+        return -1 == index ? req.getURL() : req.getURL().substring(0, index);
+    }
+
+    /**
+     * @return p50/p90/p99 in milliseconds of each phase, per endpoint
+     */
+    @Override
+    public String toString() {
+        StringBuffer buf = new StringBuffer("endpoint\tcount");
+        for (String name : HttpTiming.PHASE_NAMES) {
+            buf.append('\t').append(name);
+        }
+        buf.append("\ttotal\n");
+        for (String endpoint : getEndpoints()) {
+            buf.append(endpoint).append('\t').append(getCount(endpoint));
+            for (int phase = 0; phase <= TOTAL; phase++) {
+                buf.append('\t').append(millis(getPercentileNanos(endpoint, phase, 50)))
+                        .append('/').append(millis(getPercentileNanos(endpoint, phase, 90)))
+                        .append('/').append(millis(getPercentileNanos(endpoint, phase, 99)));
+            }
+            buf.append('\n');
+        }
+        return buf.toString();
+    }
+
+    private static String millis(long nanos) {
+        return -1 == nanos ? "-" : String.valueOf(Math.round(nanos / 100000d) / 10d);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.UploadProgressListener;
+import twitter4j.internal.logging.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A multipart/form-data request body streamed straight to the connection.<br>
+ * The content length is known in advance unless a part is backed by an InputStream,
+ * so that the body doesn't have to be buffered before sending.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+final class MultipartBody {
+    private static final Logger logger = Logger.getLogger(MultipartBody.class);
+    /**
+     * size of the chunks transferred at once, and the chunk length in chunked streaming mode
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private final List<Part> parts = new ArrayList<Part>();
+    private final byte[] closeDelimiter;
+    private final long contentLength;
+
+    /**
+     * @param boundary boundary, without the leading "--"
+     * @param params   parameters
+     */
+    MultipartBody(String boundary, HttpParameter[] params) {
+        String delimiter = "--" + boundary;
+        long length = 0;
+        for (HttpParameter param : params) {
+            Part part;
+            if (param.isFile()) {
+                part = new Part(delimiter + "\r\n"
+                        + "Content-Disposition: form-data; name=\"" + param.getName() + "\"; filename=\"" + param.getFile().getName() + "\"\r\n"
+                        + "Content-Type: " + param.getContentType() + "\r\n\r\n"
+                        , param.hasFileBody() ? null : param.getFile(), param.getFileBody(), null);
+            } else {
+                part = new Part(delimiter + "\r\n"
+                        + "Content-Disposition: form-data; name=\"" + param.getName() + "\"\r\n"
+                        + "Content-Type: text/plain; charset=UTF-8\r\n\r\n"
+                        , null, null, getBytes(param.getValue()));
+            }
+            parts.add(part);
+            long partLength = part.length();
+            length = (-1 == length || -1 == partLength) ? -1 : length + partLength;
+        }
+        closeDelimiter = getBytes(delimiter + "--\r\n\r\n");
+        this.contentLength = -1 == length ? -1 : length + closeDelimiter.length;
+    }
+
+    /**
+     * @return length of the body, or -1 if a part is backed by an InputStream
+     */
+    long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Writes the body to the stream.
+     *
+     * @param os       stream to write to
+     * @param listener listener to be notified of the progress, or null
+     * @throws IOException when failed to read the files or write to the stream
+     */
+    void writeTo(OutputStream os, UploadProgressListener listener) throws IOException {
+        Progress progress = new Progress(listener, contentLength);
+        WritableByteChannel channel = null;
+        byte[] buf = null;
+        for (Part part : parts) {
+            logger.debug(part.head);
+            os.write(part.headBytes);
+            progress.add(part.headBytes.length);
+            if (null != part.file) {
+                if (null == channel) {
+                    channel = Channels.newChannel(os);
+                }
+                transfer(part.file, channel, progress);
+            } else if (null != part.stream) {
+                if (null == buf) {
+                    buf = new byte[CHUNK_SIZE];
+                }
+                InputStream is = part.stream;
+                try {
+                    int count;
+                    while (-1 != (count = is.read(buf))) {
+                        os.write(buf, 0, count);
+                        progress.add(count);
+                    }
+                } finally {
+                    is.close();
+                }
+            } else {
+                os.write(part.value);
+                progress.add(part.value.length);
+            }
+            os.write(Part.CRLF);
+            progress.add(Part.CRLF.length);
+        }
+        os.write(closeDelimiter);
+        progress.add(closeDelimiter.length);
+    }
+
+    private static void transfer(File file, WritableByteChannel channel, Progress progress) throws IOException {
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel fileChannel = fis.getChannel();
+            long size = fileChannel.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = fileChannel.transferTo(position, Math.min(CHUNK_SIZE, size - position), channel);
+                if (transferred <= 0) {
+                    throw new IOException("Failed to transfer " + file + " at " + position + "/" + size);
+                }
+                position += transferred;
+                progress.add(transferred);
+            }
+        } finally {
+            fis.close();
+        }
+    }
+
+    private static byte[] getBytes(String str) {
+        try {
+            return str.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+    }
+
+    private static final class Part {
+        static final byte[] CRLF = {'\r', '\n'};
+        private final String head;
+        private final byte[] headBytes;
+        private final File file;
+        private final InputStream stream;
+        private final byte[] value;
+
+        Part(String head, File file, InputStream stream, byte[] value) {
+            this.head = head;
+            this.headBytes = getBytes(head);
+            this.file = file;
+            this.stream = stream;
+            this.value = value;
+        }
+
+        long length() {
+            long bodyLength;
+            if (null != file) {
+                bodyLength = file.length();
+            } else if (null != stream) {
+                return -1;
+            } else {
+                bodyLength = value.length;
+            }
+            return headBytes.length + bodyLength + CRLF.length;
+        }
+    }
+
+    private static final class Progress {
+        private final UploadProgressListener listener;
+        private final long contentLength;
+        private long bytesWritten = 0;
+
+        Progress(UploadProgressListener listener, long contentLength) {
+            this.listener = listener;
+            this.contentLength = contentLength;
+        }
+
+        void add(long count) {
+            bytesWritten += count;
+            if (null != listener) {
+                listener.onProgress(bytesWritten, contentLength);
+            }
+        }
+    }
+}
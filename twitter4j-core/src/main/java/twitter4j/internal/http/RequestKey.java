@@ -0,0 +1,179 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.http.Authorization;
+import twitter4j.http.BasicAuthorization;
+import twitter4j.http.OAuthAuthorization;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable key identifying a request by its method, URL, parameters, headers and the account it is sent as.<br>
+ * HttpRequest itself is not suitable as a map key, as its hash code changes when the access token of its authorization is set.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+final class RequestKey {
+    private final RequestMethod method;
+    private final String url;
+    private final String parameters;
+    private final Map<String, String> headers;
+    private final Object credential;
+    private final int hashCode;
+
+    RequestKey(HttpRequest req) {
+        this.method = req.getMethod();
+        this.url = req.getURL();
+        this.parameters = toString(req.getParameters());
+        this.headers = null == req.getRequestHeaders() ? new HashMap<String, String>()
+                : new HashMap<String, String>(req.getRequestHeaders());
+        this.credential = credentialOf(req.getAuthorization());
+        int result = method.hashCode();
+        result = 31 * result + url.hashCode();
+        result = 31 * result + parameters.hashCode();
+        result = 31 * result + headers.hashCode();
+        result = 31 * result + (null != credential ? credential.hashCode() : 0);
+        this.hashCode = result;
+    }
+
+    private static String toString(HttpParameter[] params) {
+        if (null == params || 0 == params.length) {
+            return "";
+        }
+        StringBuffer buf = new StringBuffer();
+        for (HttpParameter param : params) {
+            appendLengthPrefixed(buf, param.getName());
+            appendLengthPrefixed(buf, param.isFile() ? String.valueOf(param.getFile()) : param.getValue());
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Appends the value prefixed with its length, so that no value can be mistaken for a delimiter.
+     */
+    private static void appendLengthPrefixed(StringBuffer buf, String value) {
+        if (null == value) {
+            buf.append("-1:");
+        } else {
+            buf.append(value.length()).append(':').append(value);
+        }
+    }
+
+    /**
+     * @param values user id, password and the like
+     * @return hex encoded SHA-256 digest of the length prefixed values, telling apart the secrets without retaining them
+     */
+    private static String digest(String... values) {
+        StringBuffer buf = new StringBuffer();
+        for (String value : values) {
+            appendLengthPrefixed(buf, value);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(buf.toString().getBytes("UTF-8"));
+            StringBuffer hex = new StringBuffer(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException neverHappen) {
+            throw new AssertionError("will never happen");
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+    }
+
+    private static Object credentialOf(Authorization auth) {
+        if (null == auth || !auth.isEnabled()) {
+            return null;
+        }
+        if (auth instanceof OAuthAuthorization) {
+            return "oauth:" + ((OAuthAuthorization) auth).getCredentialId();
+        }
+        if (auth instanceof BasicAuthorization) {
+            BasicAuthorization basic = (BasicAuthorization) auth;
+            return "basic:" + digest(basic.getUserId(), basic.getPassword());
+        }
+        if (auth instanceof XAuthAuthorization) {
+            XAuthAuthorization xauth = (XAuthAuthorization) auth;
+            return "xauth:" + digest(xauth.getConsumerKey(), xauth.getUserId(), xauth.getPassword());
+        }
+        // unknown credentials are told apart by identity
+        return new IdentityCredential(auth);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RequestKey)) return false;
+
+        RequestKey that = (RequestKey) o;
+        return hashCode == that.hashCode
+                && method.equals(that.method)
+                && url.equals(that.url)
+                && parameters.equals(that.parameters)
+                && headers.equals(that.headers)
+                && (null != credential ? credential.equals(that.credential) : null == that.credential);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestKey{" +
+                "method=" + method +
+                ", url='" + url + '\'' +
+                ", parameters='" + parameters + '\'' +
+                '}';
+    }
+
+    private static final class IdentityCredential {
+        private final Authorization auth;
+
+        IdentityCredential(Authorization auth) {
+            this.auth = auth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityCredential && auth == ((IdentityCredential) o).auth;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(auth);
+        }
+    }
+}
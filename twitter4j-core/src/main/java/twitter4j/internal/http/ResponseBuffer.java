@@ -0,0 +1,143 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.internal.org.json.JSONTokener;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Growable byte buffer holding a response body, backed by arrays recycled across responses.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+final class ResponseBuffer {
+    static final int INITIAL_SIZE = 8 * 1024;
+    /**
+     * arrays larger than this are left to the garbage collector
+     */
+    static final int MAX_POOLED_SIZE = 1024 * 1024;
+    static final int MAX_POOLED_COUNT = 16;
+
+    private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<byte[]>();
+    private static final AtomicInteger pooledCount = new AtomicInteger(0);
+
+    private byte[] buf;
+    private int count = 0;
+
+    private ResponseBuffer(byte[] buf) {
+        this.buf = buf;
+    }
+
+    static ResponseBuffer acquire() {
+        byte[] buf = pool.poll();
+        if (null == buf) {
+            buf = new byte[INITIAL_SIZE];
+        } else {
+            pooledCount.decrementAndGet();
+        }
+        return new ResponseBuffer(buf);
+    }
+
+    /**
+     * Reads the stream to the end.
+     *
+     * @param is stream
+     * @return this buffer
+     * @throws IOException when the stream cannot be read
+     */
+    ResponseBuffer readFrom(InputStream is) throws IOException {
+        int read;
+        while (true) {
+            if (count == buf.length) {
+                byte[] newBuf = new byte[buf.length << 1];
+                System.arraycopy(buf, 0, newBuf, 0, count);
+                buf = newBuf;
+            }
+            if (-1 == (read = is.read(buf, count, buf.length - count))) {
+                break;
+            }
+            count += read;
+        }
+        return this;
+    }
+
+    int size() {
+        return count;
+    }
+
+    InputStream asInputStream() {
+        return new ByteArrayInputStream(buf, 0, count);
+    }
+
+    JSONTokener asJSONTokener() {
+        return new JSONTokener(buf, 0, count);
+    }
+
+    byte[] toByteArray() {
+        byte[] bytes = new byte[count];
+        System.arraycopy(buf, 0, bytes, 0, count);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return new String(buf, 0, count, "UTF-8");
+        } catch (UnsupportedEncodingException neverHappen) {
+            throw new AssertionError("will never happen");
+        }
+    }
+
+    /**
+     * Returns the backing array to the pool. The buffer must not be used afterwards.
+     */
+    void release() {
+        byte[] toBePooled = buf;
+        buf = null;
+        count = 0;
+        if (null == toBePooled || MAX_POOLED_SIZE < toBePooled.length) {
+            return;
+        }
+        if (pooledCount.incrementAndGet() <= MAX_POOLED_COUNT) {
+            pool.offer(toBePooled);
+        } else {
+            pooledCount.decrementAndGet();
+        }
+    }
+
+    static int getPooledCount() {
+        return pooledCount.get();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+import java.io.IOException;
+
+/**
+ * Decides whether, and after how long, a failed request should be retried.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public interface RetryPolicy {
+    /**
+     * Called before each attempt, including the first one.
+     *
+     * @param req the request about to be sent
+     * @throws TwitterException to fail fast without sending the request
+     */
+    void beforeAttempt(HttpRequest req) throws TwitterException;
+
+    /**
+     * Called after each attempt.
+     *
+     * @param req          the request
+     * @param retriedCount number of retries made so far, 0 for the first attempt
+     * @param res          the response, or null if no response was received
+     * @param ioe          the exception raised by the attempt, or null
+     * @return milliseconds to wait before the next attempt, or a negative value not to retry
+     */
+    long afterAttempt(HttpRequest req, int retriedCount, HttpResponse res, IOException ioe);
+
+    /**
+     * Called instead of afterAttempt() when the attempt was aborted by cancelling the call.<br>
+     * The attempt tells nothing about the health of the endpoint: implementations should release what beforeAttempt() reserved without counting it as a failure.
+     *
+     * @param req the request
+     */
+    void attemptCancelled(HttpRequest req);
+}
@@ -28,10 +28,14 @@ import java.io.IOException;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.TreeSet;
 
 /**
@@ -130,6 +134,11 @@ public class JSONObject {
      */
     private Map map;
 
+    /**
+     * The slice of the source this JSONObject was parsed from, if retained.
+     */
+    private CharSequence rawJSON;
+
 
     /**
      * It is sometimes more convenient and less ambiguous to have a
@@ -144,7 +153,7 @@ public class JSONObject {
      * Construct an empty JSONObject.
      */
     public JSONObject() {
-        this.map = new HashMap();
+        this.map = new CompactMap();
     }
 
 
@@ -172,12 +181,21 @@ public class JSONObject {
      */
     public JSONObject(JSONTokener x) throws JSONException {
         this();
-        char c;
-        String key;
-
         if (x.nextClean() != '{') {
             throw x.syntaxError("A JSONObject text must begin with '{'");
         }
+        int start = x.position() - 1;
+        parseMembers(x);
+        if (x.isRetainRawJSON()) {
+            rawJSON = x.slice(start);
+        }
+    }
+
+
+    private void parseMembers(JSONTokener x) throws JSONException {
+        char c;
+        String key;
+
         for (;;) {
             c = x.nextClean();
             switch (c) {
@@ -225,6 +243,18 @@ public class JSONObject {
     }
 
 
+    /**
+     * Returns the source text this JSONObject was parsed from. The text is
+     * only retained when the tokener was asked to.
+     *
+     * @return the raw JSON form, or null if not retained
+     * @see JSONTokener#setRetainRawJSON(boolean)
+     */
+    public CharSequence getRawJSON() {
+        return rawJSON;
+    }
+
+
     /**
      * Construct a JSONObject from a Map.
      * 
@@ -244,7 +274,7 @@ public class JSONObject {
      * @param includeSuperClass - Tell whether to include the super class properties.
      */
     public JSONObject(Map map, boolean includeSuperClass) {
-       	this.map = new HashMap();
+       	this.map = new CompactMap();
        	if (map != null){
             for (Iterator i = map.entrySet().iterator(); i.hasNext(); ) {
                 Map.Entry e = (Map.Entry)i.next();
@@ -1547,4 +1577,202 @@ public class JSONObject {
             throw new JSONException(e);
         }
      }
-}
\ No newline at end of file
+
+    /**
+     * A map keeping up to 16 entries in parallel arrays, in insertion order.
+     * Most JSON objects are small, and scanning a few cached key hashes is
+     * cheaper than allocating a HashMap and an entry per key. Larger maps
+     * move to a HashMap.
+     */
+    private static final class CompactMap extends AbstractMap<Object, Object> {
+        private static final int MAX_COMPACT_SIZE = 16;
+        private int[] hashes = new int[4];
+        private Object[] keys = new Object[4];
+        private Object[] values = new Object[4];
+        private int size = 0;
+        private HashMap<Object, Object> large;
+
+        private int indexOf(Object key) {
+            int hash = key.hashCode();
+            for (int i = 0; i < size; i++) {
+                if (hashes[i] == hash && key.equals(keys[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public int size() {
+            return null != large ? large.size() : size;
+        }
+
+        public boolean containsKey(Object key) {
+            if (null != large) {
+                return large.containsKey(key);
+            }
+            return null != key && 0 <= indexOf(key);
+        }
+
+        public Object get(Object key) {
+            if (null != large) {
+                return large.get(key);
+            }
+            if (null == key) {
+                return null;
+            }
+            int i = indexOf(key);
+            return 0 <= i ? values[i] : null;
+        }
+
+        public Object put(Object key, Object value) {
+            if (null != large) {
+                return large.put(key, value);
+            }
+            int i = indexOf(key);
+            if (0 <= i) {
+                Object previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            if (size == MAX_COMPACT_SIZE) {
+                large = new HashMap<Object, Object>(MAX_COMPACT_SIZE * 4);
+                for (int j = 0; j < size; j++) {
+                    large.put(keys[j], values[j]);
+                }
+                hashes = null;
+                keys = null;
+                values = null;
+                size = 0;
+                return large.put(key, value);
+            }
+            if (size == keys.length) {
+                int length = size << 1;
+                int[] newHashes = new int[length];
+                Object[] newKeys = new Object[length];
+                Object[] newValues = new Object[length];
+                System.arraycopy(hashes, 0, newHashes, 0, size);
+                System.arraycopy(keys, 0, newKeys, 0, size);
+                System.arraycopy(values, 0, newValues, 0, size);
+                hashes = newHashes;
+                keys = newKeys;
+                values = newValues;
+            }
+            hashes[size] = key.hashCode();
+            keys[size] = key;
+            values[size] = value;
+            size++;
+            return null;
+        }
+
+        public Object remove(Object key) {
+            if (null != large) {
+                return large.remove(key);
+            }
+            if (null == key) {
+                return null;
+            }
+            int i = indexOf(key);
+            if (i < 0) {
+                return null;
+            }
+            Object previous = values[i];
+            removeAt(i);
+            return previous;
+        }
+
+        private void removeAt(int i) {
+            int moved = size - i - 1;
+            System.arraycopy(hashes, i + 1, hashes, i, moved);
+            System.arraycopy(keys, i + 1, keys, i, moved);
+            System.arraycopy(values, i + 1, values, i, moved);
+            size--;
+            keys[size] = null;
+            values[size] = null;
+        }
+
+        public void clear() {
+            if (null != large) {
+                large.clear();
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                keys[i] = null;
+                values[i] = null;
+            }
+            size = 0;
+        }
+
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            if (null != large) {
+                return large.entrySet();
+            }
+            return new AbstractSet<Map.Entry<Object, Object>>() {
+                public int size() {
+                    return CompactMap.this.size();
+                }
+
+                public Iterator<Map.Entry<Object, Object>> iterator() {
+                    if (null != large) {
+                        return large.entrySet().iterator();
+                    }
+                    return new Iterator<Map.Entry<Object, Object>>() {
+                        private int next = 0;
+                        private int last = -1;
+
+                        public boolean hasNext() {
+                            return next < size;
+                        }
+
+                        public Map.Entry<Object, Object> next() {
+                            if (next >= size) {
+                                throw new NoSuchElementException();
+                            }
+                            last = next++;
+                            final int index = last;
+                            final Object key = keys[index];
+                            return new Map.Entry<Object, Object>() {
+                                public Object getKey() {
+                                    return key;
+                                }
+
+                                public Object getValue() {
+                                    return values[index];
+                                }
+
+                                public Object setValue(Object value) {
+                                    Object previous = values[index];
+                                    values[index] = value;
+                                    return previous;
+                                }
+
+                                public boolean equals(Object o) {
+                                    if (!(o instanceof Map.Entry)) {
+                                        return false;
+                                    }
+                                    Map.Entry e = (Map.Entry) o;
+                                    Object value = getValue();
+                                    return key.equals(e.getKey())
+                                            && (null == value ? null == e.getValue() : value.equals(e.getValue()));
+                                }
+
+                                public int hashCode() {
+                                    Object value = getValue();
+                                    return key.hashCode() ^ (null == value ? 0 : value.hashCode());
+                                }
+                            };
+                        }
+
+                        public void remove() {
+                            if (last < 0) {
+                                throw new IllegalStateException();
+                            }
+                            removeAt(last);
+                            next = last;
+                            last = -1;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
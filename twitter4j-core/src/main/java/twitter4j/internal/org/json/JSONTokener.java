@@ -1,9 +1,12 @@
 package twitter4j.internal.org.json;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 
 /*
 Copyright (c) 2002 JSON.org
@@ -33,27 +36,52 @@ SOFTWARE.
  * A JSONTokener takes a source string and extracts characters and tokens from
  * it. It is used by the JSONObject and JSONArray constructors to parse
  * JSON source strings.
+ * <p>
+ * The source is held in a char array and scanned by index. Strings without
+ * escapes and plain integers are taken directly from the array, without
+ * intermediate buffers.
  * @author JSON.org
  * @version 2008-09-18
  */
 public class JSONTokener {
 
-    private int index;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final ThreadLocal<CharsetDecoder> DECODER = new ThreadLocal<CharsetDecoder>() {
+        protected CharsetDecoder initialValue() {
+            return UTF8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+    };
+
+    /**
+     * Scratch space for strings containing escape sequences.
+     */
+    private static final ThreadLocal<char[]> SCRATCH = new ThreadLocal<char[]>() {
+        protected char[] initialValue() {
+            return new char[256];
+        }
+    };
+
     private Reader reader;
-    private char lastChar;
-    private boolean useLastChar;
+    private char[] buf;
+    private int begin;
+    private int pos;
+    private int end;
+    private boolean pastEnd;
+    private String source;
+    private boolean retainRawJSON;
 
 
     /**
-     * Construct a JSONTokener from a string.
+     * Construct a JSONTokener from a reader. The reader is read to the end
+     * on the first access.
      *
      * @param reader     A reader.
      */
     public JSONTokener(Reader reader) {
-        this.reader = reader.markSupported() ? 
-        		reader : new BufferedReader(reader);
-        this.useLastChar = false;
-        this.index = 0;
+        this.reader = reader;
     }
 
 
@@ -63,7 +91,128 @@ public class JSONTokener {
      * @param s     A source string.
      */
     public JSONTokener(String s) {
-        this(new StringReader(s));
+        this(s.toCharArray(), 0, s.length());
+        this.source = s;
+    }
+
+
+    /**
+     * Construct a JSONTokener from a part of a char array. The array is not
+     * copied, and must not be modified while the tokener is in use.
+     *
+     * @param chars  The source characters.
+     * @param offset The index of the first character.
+     * @param length The number of characters.
+     */
+    public JSONTokener(char[] chars, int offset, int length) {
+        this.buf = chars;
+        this.begin = offset;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+
+    /**
+     * Construct a JSONTokener from a part of a UTF-8 encoded byte array.
+     *
+     * @param bytes  The UTF-8 encoded source.
+     * @param offset The index of the first byte.
+     * @param length The number of bytes.
+     */
+    public JSONTokener(byte[] bytes, int offset, int length) {
+        CharsetDecoder decoder = DECODER.get();
+        decoder.reset();
+        // UTF-8 never decodes to more chars than it has bytes
+        CharBuffer out = CharBuffer.allocate(length);
+        decoder.decode(ByteBuffer.wrap(bytes, offset, length), out, true);
+        decoder.flush(out);
+        this.buf = out.array();
+        this.begin = 0;
+        this.pos = 0;
+        this.end = out.position();
+    }
+
+
+    private void fill() throws JSONException {
+        if (null == reader) {
+            return;
+        }
+        char[] chars = new char[1024];
+        int length = 0;
+        try {
+            int read;
+            while (-1 != (read = reader.read(chars, length, chars.length - length))) {
+                length += read;
+                if (length == chars.length) {
+                    char[] grown = new char[chars.length << 1];
+                    System.arraycopy(chars, 0, grown, 0, length);
+                    chars = grown;
+                }
+            }
+        } catch (IOException exc) {
+            throw new JSONException(exc);
+        }
+        reader = null;
+        buf = chars;
+        begin = 0;
+        pos = 0;
+        end = length;
+    }
+
+
+    /**
+     * Makes JSONObjects parsed by this tokener keep a reference to the slice
+     * of the source they were parsed from.
+     *
+     * @param retainRawJSON true to retain raw JSON forms
+     * @see JSONObject#getRawJSON()
+     */
+    public void setRetainRawJSON(boolean retainRawJSON) {
+        this.retainRawJSON = retainRawJSON;
+    }
+
+
+    /**
+     * @return whether JSONObjects parsed by this tokener retain raw JSON forms
+     */
+    public boolean isRetainRawJSON() {
+        return retainRawJSON;
+    }
+
+
+    /**
+     * Returns the whole source without copying. The source must have been
+     * given as a string or an array.
+     *
+     * @return the source
+     */
+    public CharSequence getSource() {
+        if (null != source) {
+            return source;
+        }
+        return CharBuffer.wrap(buf, begin, end - begin);
+    }
+
+
+    /**
+     * @return the index of the next character to be consumed
+     */
+    int position() throws JSONException {
+        fill();
+        return pos;
+    }
+
+
+    /**
+     * Returns the source from the given index up to the current position,
+     * without copying. The whole source string is returned as is when the
+     * slice covers it.
+     */
+    CharSequence slice(int from) {
+        if (null != source && from == begin && pos == end) {
+            return source;
+        }
+        return CharBuffer.wrap(buf, from, pos - from);
     }
 
 
@@ -73,11 +222,15 @@ public class JSONTokener {
      * the next number or identifier.
      */
     public void back() throws JSONException {
-        if (useLastChar || index <= 0) {
+        if (pastEnd) {
+            // next() returned 0 without consuming anything
+            pastEnd = false;
+            return;
+        }
+        if (null != reader || pos <= begin) {
             throw new JSONException("Stepping back two steps is not supported");
         }
-        index -= 1;
-        useLastChar = true;
+        pos -= 1;
     }
 
 
@@ -123,27 +276,13 @@ public class JSONTokener {
      * @return The next character, or 0 if past the end of the source string.
      */
     public char next() throws JSONException {
-        if (this.useLastChar) {
-        	this.useLastChar = false;
-            if (this.lastChar != 0) {
-            	this.index += 1;
-            }
-            return this.lastChar;
-        } 
-        int c;
-        try {
-            c = this.reader.read();
-        } catch (IOException exc) {
-            throw new JSONException(exc);
+        fill();
+        if (pos < end) {
+            pastEnd = false;
+            return buf[pos++];
         }
-
-        if (c <= 0) { // End of stream
-        	this.lastChar = 0;
-            return 0;
-        } 
-    	this.index += 1;
-    	this.lastChar = (char) c;
-        return this.lastChar;
+        pastEnd = true;
+        return 0;
     }
 
 
@@ -177,32 +316,15 @@ public class JSONTokener {
          if (n == 0) {
              return "";
          }
-
-         char[] buffer = new char[n];
-         int pos = 0;
-
-         if (this.useLastChar) {
-        	 this.useLastChar = false;
-             buffer[0] = this.lastChar;
-             pos = 1;
-         }
-
-         try {
-             int len;
-             while ((pos < n) && ((len = reader.read(buffer, pos, n - pos)) != -1)) {
-                 pos += len;
-             }
-         } catch (IOException exc) {
-             throw new JSONException(exc);
-         }
-         this.index += pos;
-
-         if (pos < n) {
+         fill();
+         pastEnd = false;
+         if (end - pos < n) {
+             pos = end;
              throw syntaxError("Substring bounds error");
          }
-
-         this.lastChar = buffer[n - 1];
-         return new String(buffer);
+         String s = new String(buf, pos, n);
+         pos += n;
+         return s;
      }
 
 
@@ -212,12 +334,20 @@ public class JSONTokener {
      * @return  A character, or 0 if there are no more characters.
      */
     public char nextClean() throws JSONException {
-        for (;;) {
-            char c = next();
-            if (c == 0 || c > ' ') {
+        fill();
+        while (pos < end) {
+            char c = buf[pos++];
+            if (c > ' ') {
+                pastEnd = false;
+                return c;
+            }
+            if (c == 0) {
+                pastEnd = false;
                 return c;
             }
         }
+        pastEnd = true;
+        return 0;
     }
 
 
@@ -233,52 +363,102 @@ public class JSONTokener {
      * @throws JSONException Unterminated string.
      */
     public String nextString(char quote) throws JSONException {
-        char c;
-        StringBuffer sb = new StringBuffer();
+        fill();
+        pastEnd = false;
+        int start = pos;
+        // fast path: no escape sequence
+        while (pos < end) {
+            char c = buf[pos];
+            if (c == quote) {
+                pos++;
+                return new String(buf, start, pos - 1 - start);
+            }
+            if (c == '\\' || c == '\n' || c == '\r' || c == 0) {
+                break;
+            }
+            pos++;
+        }
+        char[] scratch = SCRATCH.get();
+        int length = pos - start;
+        if (scratch.length < length + 16) {
+            scratch = grow(scratch, length + 16);
+        }
+        System.arraycopy(buf, start, scratch, 0, length);
         for (;;) {
-            c = next();
+            if (pos >= end) {
+                throw syntaxError("Unterminated string");
+            }
+            char c = buf[pos++];
             switch (c) {
             case 0:
             case '\n':
             case '\r':
                 throw syntaxError("Unterminated string");
             case '\\':
-                c = next();
+                if (pos >= end) {
+                    throw syntaxError("Unterminated string");
+                }
+                c = buf[pos++];
                 switch (c) {
                 case 'b':
-                    sb.append('\b');
+                    c = '\b';
                     break;
                 case 't':
-                    sb.append('\t');
+                    c = '\t';
                     break;
                 case 'n':
-                    sb.append('\n');
+                    c = '\n';
                     break;
                 case 'f':
-                    sb.append('\f');
+                    c = '\f';
                     break;
                 case 'r':
-                    sb.append('\r');
+                    c = '\r';
                     break;
                 case 'u':
-                    sb.append((char)Integer.parseInt(next(4), 16));
+                    c = nextHex(4);
                     break;
                 case 'x' :
-                    sb.append((char) Integer.parseInt(next(2), 16));
+                    c = nextHex(2);
                     break;
                 default:
-                    sb.append(c);
                 }
                 break;
             default:
                 if (c == quote) {
-                    return sb.toString();
+                    return new String(scratch, 0, length);
                 }
-                sb.append(c);
             }
+            if (length == scratch.length) {
+                scratch = grow(scratch, length + 1);
+            }
+            scratch[length++] = c;
         }
     }
 
+    private static char[] grow(char[] scratch, int minLength) {
+        char[] grown = new char[Math.max(scratch.length << 1, minLength)];
+        System.arraycopy(scratch, 0, grown, 0, scratch.length);
+        SCRATCH.set(grown);
+        return grown;
+    }
+
+    private char nextHex(int digits) throws JSONException {
+        if (end - pos < digits) {
+            pos = end;
+            throw syntaxError("Substring bounds error");
+        }
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            int digit = dehexchar(buf[pos++]);
+            if (digit < 0) {
+                throw syntaxError("Illegal escape.");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
 
     /**
      * Get the text up but not including the specified character or the
@@ -333,7 +513,6 @@ public class JSONTokener {
      */
     public Object nextValue() throws JSONException {
         char c = nextClean();
-        String s;
 
         switch (c) {
             case '"':
@@ -346,6 +525,8 @@ public class JSONTokener {
             case '(':
                 back();
                 return new JSONArray(this);
+            case 0:
+                throw syntaxError("Missing value");
         }
 
         /*
@@ -357,18 +538,93 @@ public class JSONTokener {
          * formatting character.
          */
 
-        StringBuffer sb = new StringBuffer();
-        while (c >= ' ' && ",:]}/\\\"[{;=#".indexOf(c) < 0) {
-            sb.append(c);
-            c = next();
+        if (!isUnquotedTextChar(c)) {
+            back();
+            throw syntaxError("Missing value");
         }
-        back();
-
-        s = sb.toString().trim();
-        if (s.equals("")) {
+        int start = pos - 1;
+        while (pos < end && isUnquotedTextChar(buf[pos])) {
+            pos++;
+        }
+        pastEnd = false;
+        int stop = pos;
+        while (start < stop && buf[start] <= ' ') {
+            start++;
+        }
+        while (stop > start && buf[stop - 1] <= ' ') {
+            stop--;
+        }
+        if (start == stop) {
             throw syntaxError("Missing value");
         }
-        return JSONObject.stringToValue(s);
+        return toValue(start, stop);
+    }
+
+    private static boolean isUnquotedTextChar(char c) {
+        if (c < ' ') {
+            return false;
+        }
+        switch (c) {
+            case ',':
+            case ':':
+            case ']':
+            case '}':
+            case '/':
+            case '\\':
+            case '"':
+            case '[':
+            case '{':
+            case ';':
+            case '=':
+            case '#':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Converts unquoted text to a value, the way {@link JSONObject#stringToValue(String)} does.
+     * Plain decimal integers and lower case literals are converted without creating a String.
+     */
+    private Object toValue(int start, int stop) {
+        int length = stop - start;
+        char b = buf[start];
+        if (b == '-' || (b >= '0' && b <= '9')) {
+            boolean negative = b == '-';
+            int i = negative ? start + 1 : start;
+            int digits = stop - i;
+            // leading zeros denote octal, and more than 18 digits may overflow
+            if (0 < digits && digits <= 18 && !(buf[i] == '0' && 1 < digits)) {
+                long value = 0;
+                for (; i < stop; i++) {
+                    char d = buf[i];
+                    if (d < '0' || d > '9') {
+                        break;
+                    }
+                    value = value * 10 + (d - '0');
+                }
+                if (i == stop) {
+                    if (negative) {
+                        value = -value;
+                    }
+                    if (Integer.MIN_VALUE <= value && value <= Integer.MAX_VALUE) {
+                        return Integer.valueOf((int) value);
+                    }
+                    return Long.valueOf(value);
+                }
+            }
+        } else if (length == 4 && b == 't' && buf[start + 1] == 'r' && buf[start + 2] == 'u'
+                && buf[start + 3] == 'e') {
+            return Boolean.TRUE;
+        } else if (length == 4 && b == 'n' && buf[start + 1] == 'u' && buf[start + 2] == 'l'
+                && buf[start + 3] == 'l') {
+            return JSONObject.NULL;
+        } else if (length == 5 && b == 'f' && buf[start + 1] == 'a' && buf[start + 2] == 'l'
+                && buf[start + 3] == 's' && buf[start + 4] == 'e') {
+            return Boolean.FALSE;
+        }
+        return JSONObject.stringToValue(new String(buf, start, length));
     }
 
 
@@ -380,24 +636,15 @@ public class JSONTokener {
      * is not found.
      */
     public char skipTo(char to) throws JSONException {
-        char c;
-        try {
-            int startIndex = this.index;
-            reader.mark(Integer.MAX_VALUE);
-            do {
-                c = next();
-                if (c == 0) {
-                    reader.reset();
-                    this.index = startIndex;
-                    return c;
-                }
-            } while (c != to);
-        } catch (IOException exc) {
-            throw new JSONException(exc);
+        fill();
+        for (int i = pos; i < end; i++) {
+            if (buf[i] == to) {
+                pos = i;
+                pastEnd = false;
+                return to;
+            }
         }
-
-        back();
-        return c;
+        return 0;
     }
 
     /**
@@ -417,6 +664,6 @@ public class JSONTokener {
      * @return " at character [this.index]"
      */
     public String toString() {
-        return " at character " + index;
+        return " at character " + (pos - begin);
     }
-}
\ No newline at end of file
+}
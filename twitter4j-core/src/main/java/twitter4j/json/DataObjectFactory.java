@@ -28,14 +28,12 @@ package twitter4j.json;
 
 import twitter4j.Status;
 import twitter4j.TwitterException;
+import twitter4j.internal.json.RawJSONHolder;
 import twitter4j.internal.org.json.JSONException;
 import twitter4j.internal.org.json.JSONObject;
 
-import java.lang.Object;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -59,30 +57,24 @@ public final class DataObjectFactory {
         }
     }
 
-    private static ThreadLocal<Map> rawJsonMap = new ThreadLocal<Map>() {
-        @Override
-        protected Map initialValue() {
-            return new HashMap();
-        }
-    };
-
     /**
      * Returns a raw JSON form of the provided object.<br>
-     * Note that raw JSON forms can be retrieved only from the same thread invoked the last method call and will become inaccessible once another method call
+     * Raw JSON forms of objects received from TwitterStream are always retained. Those of objects obtained from Twitter are retained only when jsonStoreEnabled is set to true in its configuration.
      *
-     * @param obj
-     * @return
+     * @param obj data object obtained from Twitter or TwitterStream
+     * @return raw JSON form
+     * @throws IllegalStateException when the raw JSON form is not retained
+     * @see twitter4j.conf.ConfigurationBuilder#setJSONStoreEnabled(boolean)
      */
     public static String getRawJSON(Object obj) {
-        Object json = rawJsonMap.get().get(obj);
-        if (json instanceof String) {
-            return (String) json;
-        } else if (null == json) {
-            throw new IllegalStateException("raw JSON not found in this context.");
-        } else {
-            // object must be instance of JSONObject
-            return json.toString();
+        String json = null;
+        if (obj instanceof RawJSONHolder) {
+            json = ((RawJSONHolder) obj).getRawJSON();
+        }
+        if (null == json) {
+            throw new IllegalStateException("raw JSON not found. make sure jsonStoreEnabled is set to true.");
         }
+        return json;
     }
 
     /**
@@ -105,21 +97,4 @@ public final class DataObjectFactory {
             throw new TwitterException(e);
         }
     }
-
-    /**
-     * clear raw JSON forms associated with the current thread.<br>
-     * Currently this method is called indirectly by twitter4j.internal.util.DataObjectFactoryUtil, and should be called directly once *JSONImpl classes are migrated to twitter4j.json.* package.
-     */
-    static void clearThreadLocalMap() {
-        rawJsonMap.get().clear();
-    }
-
-    /**
-     * associate a raw JSON form to the current thread<br>
-     * Currently this method is called indirectly by twitter4j.internal.util.DataObjectFactoryUtil, and should be called directly once *JSONImpl classes are migrated to twitter4j.json.* package.
-     */
-    static <T> T registerJSONObject(T key, Object json) {
-        rawJsonMap.get().put(key, json);
-        return key;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,213 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.management;
+
+import twitter4j.TwitterMethod;
+import twitter4j.internal.logging.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Statistics of the API calls, recorded per {@link TwitterMethod}.<br>
+ * Twitter and AsyncTwitter instances record into {@link #getInstance()} when methodStatisticsEnabled is set to true in the configuration. The shared instance is registered with the platform MBeanServer as "twitter4j.management:type=APIStatistics", along with a "twitter4j.management:type=MethodStatistics,name=&lt;method&gt;" MBean for each method invoked.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class APIStatistics implements APIStatisticsMBean {
+    private static final Logger logger = Logger.getLogger(APIStatistics.class);
+    private static final String DOMAIN = "twitter4j.management";
+    private static APIStatistics instance = null;
+
+    private final ConcurrentMap<TwitterMethod, MethodStatistics> methods
+            = new ConcurrentHashMap<TwitterMethod, MethodStatistics>();
+    private volatile boolean registered = false;
+
+    /**
+     * Creates statistics which are neither shared nor registered with the MBeanServer.
+     */
+    public APIStatistics() {
+    }
+
+    /**
+     * @return the statistics shared by all instances, registered with the platform MBeanServer
+     */
+    public static synchronized APIStatistics getInstance() {
+        if (null == instance) {
+            instance = new APIStatistics();
+            instance.registered = instance.register(DOMAIN + ":type=APIStatistics", instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Records a successful call.
+     *
+     * @param method        API method
+     * @param latencyNanos  nanoseconds from sending the request to receiving the response
+     * @param responseBytes bytes of the response body, or -1 if unknown
+     * @param parseNanos    nanoseconds spent parsing the response body, or -1 if unknown
+     */
+    public void record(TwitterMethod method, long latencyNanos, long responseBytes, long parseNanos) {
+        getMethodStatistics(method).record(latencyNanos, responseBytes, parseNanos);
+    }
+
+    /**
+     * Records the size and parse time of a response body consumed after the call itself was recorded.
+     *
+     * @param method        API method
+     * @param responseBytes bytes of the response body, or -1 if unknown
+     * @param parseNanos    nanoseconds spent parsing the response body, or -1 if unknown
+     */
+    public void recordPayload(TwitterMethod method, long responseBytes, long parseNanos) {
+        getMethodStatistics(method).recordPayload(responseBytes, parseNanos);
+    }
+
+    /**
+     * Records a call served from the response cache without a round trip of its own. No latency is recorded.
+     *
+     * @param method API method
+     */
+    public void recordCacheHit(TwitterMethod method) {
+        getMethodStatistics(method).recordCacheHit();
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * @param method       API method
+     * @param statusCode   HTTP status code, or -1 if no response was received
+     * @param latencyNanos nanoseconds from sending the request to the failure
+     */
+    public void recordError(TwitterMethod method, int statusCode, long latencyNanos) {
+        getMethodStatistics(method).recordError(statusCode, latencyNanos);
+    }
+
+    /**
+     * Records a response whose body could not be parsed, as an error of a call recorded already.
+     *
+     * @param method     API method
+     * @param statusCode HTTP status code of the response
+     */
+    public void recordParseError(TwitterMethod method, int statusCode) {
+        getMethodStatistics(method).recordParseError(statusCode);
+    }
+
+    /**
+     * @param method API method
+     * @return statistics of the method
+     */
+    public MethodStatistics getMethodStatistics(TwitterMethod method) {
+        MethodStatistics statistics = methods.get(method);
+        if (null == statistics) {
+            statistics = new MethodStatistics(method);
+            MethodStatistics existing = methods.putIfAbsent(method, statistics);
+            if (null != existing) {
+                return existing;
+            }
+            if (registered) {
+                register(DOMAIN + ":type=MethodStatistics,name=" + method.name(), statistics);
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return immutable copies of the statistics of the methods invoked so far, in alphabetical order
+     */
+    public List<MethodStatisticsSnapshot> getSnapshot() {
+        List<MethodStatisticsSnapshot> snapshot = new ArrayList<MethodStatisticsSnapshot>(methods.size());
+        for (MethodStatistics statistics : methods.values()) {
+            snapshot.add(statistics.getSnapshot());
+        }
+        Collections.sort(snapshot, new Comparator<MethodStatisticsSnapshot>() {
+            public int compare(MethodStatisticsSnapshot o1, MethodStatisticsSnapshot o2) {
+                return o1.getMethod().compareTo(o2.getMethod());
+            }
+        });
+        return snapshot;
+    }
+
+    public long getCallCount() {
+        long count = 0;
+        for (MethodStatistics statistics : methods.values()) {
+            count += statistics.getCallCount();
+        }
+        return count;
+    }
+
+    public long getErrorCount() {
+        long count = 0;
+        for (MethodStatistics statistics : methods.values()) {
+            count += statistics.getErrorCount();
+        }
+        return count;
+    }
+
+    public String[] getInvokedMethods() {
+        List<String> names = new ArrayList<String>();
+        for (TwitterMethod method : methods.keySet()) {
+            names.add(method.name());
+        }
+        Collections.sort(names);
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * Clears the values recorded. MBeans stay registered.
+     */
+    public void reset() {
+        for (MethodStatistics statistics : methods.values()) {
+            statistics.reset();
+        }
+    }
+
+    private boolean register(String name, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to register " + name + ": " + e.getMessage());
+        } catch (LinkageError e) {
+            // java.lang.management is not available on some platforms, e.g. Google App Engine
+            logger.warn("JMX is not available: " + e.getMessage());
+        }
+        return false;
+    }
+}
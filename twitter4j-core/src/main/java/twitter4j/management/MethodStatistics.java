@@ -0,0 +1,229 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.management;
+
+import twitter4j.TwitterMethod;
+import twitter4j.internal.http.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Calls, errors, latency, response bytes and parse time recorded for a single API method.<br>
+ * Calls served from the response cache without a round trip of their own are counted as cache hits, and kept out of the latency figures.
+ * Responses whose body could not be parsed are counted as errors, keyed by their status code.<br>
+ * Recording is lock-free; the values read are not guaranteed to be consistent with each other while calls are in flight.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see APIStatistics#getMethodStatistics(TwitterMethod)
+ * @since Twitter4J 2.1.7
+ */
+public final class MethodStatistics implements MethodStatisticsMBean {
+    private final TwitterMethod method;
+    private final StripedCounter calls = new StripedCounter();
+    private final StripedCounter cacheHits = new StripedCounter();
+    private final StripedCounter errors = new StripedCounter();
+    private final ConcurrentMap<Integer, StripedCounter> errorsByStatus
+            = new ConcurrentHashMap<Integer, StripedCounter>();
+    private final StripedCounter latencyNanos = new StripedCounter();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final StripedCounter responseBytes = new StripedCounter();
+    private final StripedCounter parsed = new StripedCounter();
+    private final StripedCounter parseNanos = new StripedCounter();
+
+    /*package*/ MethodStatistics(TwitterMethod method) {
+        this.method = method;
+    }
+
+    /*package*/ void record(long latencyNanos, long responseBytes, long parseNanos) {
+        calls.increment();
+        recordLatency(latencyNanos);
+        recordPayload(responseBytes, parseNanos);
+    }
+
+    /*package*/ void recordPayload(long responseBytes, long parseNanos) {
+        if (0 < responseBytes) {
+            this.responseBytes.add(responseBytes);
+        }
+        if (0 <= parseNanos) {
+            parsed.increment();
+            this.parseNanos.add(parseNanos);
+        }
+    }
+
+    /*package*/ void recordCacheHit() {
+        calls.increment();
+        cacheHits.increment();
+    }
+
+    /*package*/ void recordError(int statusCode, long latencyNanos) {
+        calls.increment();
+        countError(statusCode);
+        recordLatency(latencyNanos);
+    }
+
+    /*package*/ void recordParseError(int statusCode) {
+        countError(statusCode);
+    }
+
+    private void countError(int statusCode) {
+        errors.increment();
+        Integer key = statusCode;
+        StripedCounter counter = errorsByStatus.get(key);
+        if (null == counter) {
+            counter = new StripedCounter();
+            StripedCounter existing = errorsByStatus.putIfAbsent(key, counter);
+            if (null != existing) {
+                counter = existing;
+            }
+        }
+        counter.increment();
+    }
+
+    private void recordLatency(long nanos) {
+        if (0 <= nanos) {
+            latencyNanos.add(nanos);
+            latency.record(nanos);
+        }
+    }
+
+    public TwitterMethod getTwitterMethod() {
+        return method;
+    }
+
+    public String getMethod() {
+        return method.name();
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * @return error counts keyed by HTTP status code, in ascending order of the code
+     */
+    public Map<Integer, Long> getErrorCounts() {
+        List<Integer> statusCodes = new ArrayList<Integer>(errorsByStatus.keySet());
+        Collections.sort(statusCodes);
+        Map<Integer, Long> counts = new LinkedHashMap<Integer, Long>();
+        for (Integer statusCode : statusCodes) {
+            counts.put(statusCode, errorsByStatus.get(statusCode).sum());
+        }
+        return counts;
+    }
+
+    public String getErrorCountsByStatus() {
+        String counts = getErrorCounts().toString();
+        return counts.substring(1, counts.length() - 1);
+    }
+
+    /**
+     * @param percentile percentile, between 0 and 100
+     * @return latency in nanoseconds, or -1 if nothing has been recorded
+     */
+    public long getLatencyPercentileNanos(double percentile) {
+        return latency.getPercentile(percentile);
+    }
+
+    public double getAverageLatencyMillis() {
+        long count = latency.getCount();
+        return 0 == count ? 0 : millis(latencyNanos.sum() / count);
+    }
+
+    public double getLatency50thPercentileMillis() {
+        return millis(latency.getPercentile(50));
+    }
+
+    public double getLatency90thPercentileMillis() {
+        return millis(latency.getPercentile(90));
+    }
+
+    public double getLatency99thPercentileMillis() {
+        return millis(latency.getPercentile(99));
+    }
+
+    public double getMaxLatencyMillis() {
+        return millis(latency.getMax());
+    }
+
+    public long getResponseBytes() {
+        return responseBytes.sum();
+    }
+
+    public double getAverageParseTimeMillis() {
+        long count = parsed.sum();
+        return 0 == count ? 0 : millis(parseNanos.sum() / count);
+    }
+
+    /**
+     * @return an immutable copy of the current values
+     */
+    public MethodStatisticsSnapshot getSnapshot() {
+        return new MethodStatisticsSnapshot(this);
+    }
+
+    public void reset() {
+        calls.reset();
+        cacheHits.reset();
+        errors.reset();
+        errorsByStatus.clear();
+        latencyNanos.reset();
+        latency.reset();
+        responseBytes.reset();
+        parsed.reset();
+        parseNanos.reset();
+    }
+
+    private static double millis(long nanos) {
+        return nanos < 0 ? -1 : nanos / 1000000d;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodStatistics{" +
+                "method=" + method.name() +
+                ", callCount=" + getCallCount() +
+                ", cacheHitCount=" + getCacheHitCount() +
+                ", errorCount=" + getErrorCount() +
+                ", averageLatencyMillis=" + getAverageLatencyMillis() +
+                ", responseBytes=" + getResponseBytes() +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.management;
+
+/**
+ * Management interface of the statistics recorded for a single API method.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see MethodStatistics
+ * @since Twitter4J 2.1.7
+ */
+public interface MethodStatisticsMBean {
+    String getMethod();
+
+    long getCallCount();
+
+    /**
+     * @return number of calls served from the response cache without a round trip of their own
+     */
+    long getCacheHitCount();
+
+    long getErrorCount();
+
+    /**
+     * @return error counts by HTTP status code, e.g. "404=2, 503=1". -1 denotes errors without response, and a 2xx code a response whose body could not be parsed.
+     */
+    String getErrorCountsByStatus();
+
+    double getAverageLatencyMillis();
+
+    double getLatency50thPercentileMillis();
+
+    double getLatency90thPercentileMillis();
+
+    double getLatency99thPercentileMillis();
+
+    double getMaxLatencyMillis();
+
+    long getResponseBytes();
+
+    double getAverageParseTimeMillis();
+
+    void reset();
+}
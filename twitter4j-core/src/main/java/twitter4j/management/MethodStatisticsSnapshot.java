@@ -0,0 +1,137 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.management;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable copy of the statistics recorded for a single API method.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @see MethodStatistics#getSnapshot()
+ * @since Twitter4J 2.1.7
+ */
+public final class MethodStatisticsSnapshot implements java.io.Serializable {
+    private final String method;
+    private final long callCount;
+    private final long cacheHitCount;
+    private final long errorCount;
+    private final Map<Integer, Long> errorCounts;
+    private final double averageLatencyMillis;
+    private final double latency50thPercentileMillis;
+    private final double latency90thPercentileMillis;
+    private final double latency99thPercentileMillis;
+    private final double maxLatencyMillis;
+    private final long responseBytes;
+    private final double averageParseTimeMillis;
+    private static final long serialVersionUID = 4126530217750463891L;
+
+    /*package*/ MethodStatisticsSnapshot(MethodStatistics statistics) {
+        method = statistics.getMethod();
+        callCount = statistics.getCallCount();
+        cacheHitCount = statistics.getCacheHitCount();
+        errorCount = statistics.getErrorCount();
+        errorCounts = Collections.unmodifiableMap(statistics.getErrorCounts());
+        averageLatencyMillis = statistics.getAverageLatencyMillis();
+        latency50thPercentileMillis = statistics.getLatency50thPercentileMillis();
+        latency90thPercentileMillis = statistics.getLatency90thPercentileMillis();
+        latency99thPercentileMillis = statistics.getLatency99thPercentileMillis();
+        maxLatencyMillis = statistics.getMaxLatencyMillis();
+        responseBytes = statistics.getResponseBytes();
+        averageParseTimeMillis = statistics.getAverageParseTimeMillis();
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getCallCount() {
+        return callCount;
+    }
+
+    public long getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return error counts keyed by HTTP status code. -1 denotes errors without response, and a 2xx code a response whose body could not be parsed.
+     */
+    public Map<Integer, Long> getErrorCounts() {
+        return errorCounts;
+    }
+
+    public double getAverageLatencyMillis() {
+        return averageLatencyMillis;
+    }
+
+    public double getLatency50thPercentileMillis() {
+        return latency50thPercentileMillis;
+    }
+
+    public double getLatency90thPercentileMillis() {
+        return latency90thPercentileMillis;
+    }
+
+    public double getLatency99thPercentileMillis() {
+        return latency99thPercentileMillis;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    public double getAverageParseTimeMillis() {
+        return averageParseTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodStatisticsSnapshot{" +
+                "method='" + method + '\'' +
+                ", callCount=" + callCount +
+                ", cacheHitCount=" + cacheHitCount +
+                ", errorCount=" + errorCount +
+                ", errorCounts=" + errorCounts +
+                ", averageLatencyMillis=" + averageLatencyMillis +
+                ", latency50thPercentileMillis=" + latency50thPercentileMillis +
+                ", latency90thPercentileMillis=" + latency90thPercentileMillis +
+                ", latency99thPercentileMillis=" + latency99thPercentileMillis +
+                ", maxLatencyMillis=" + maxLatencyMillis +
+                ", responseBytes=" + responseBytes +
+                ", averageParseTimeMillis=" + averageParseTimeMillis +
+                '}';
+    }
+}
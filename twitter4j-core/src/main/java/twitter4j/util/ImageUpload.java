@@ -36,6 +36,7 @@ import java.util.Map;
 
 import twitter4j.Twitter;
 import twitter4j.TwitterException;
+import twitter4j.UploadProgressListener;
 import twitter4j.http.Authorization;
 import twitter4j.http.BasicAuthorization;
 import twitter4j.http.OAuthAuthorization;
@@ -51,6 +52,7 @@ import twitter4j.internal.org.json.JSONObject;
  */
 public abstract class ImageUpload {
     public static String DEFAULT_TWITPIC_API_KEY = null;
+    private UploadProgressListener uploadProgressListener = null;
 
 
     public abstract String upload(File image) throws TwitterException;
@@ -61,6 +63,21 @@ public abstract class ImageUpload {
 
     public abstract String upload(String imageFileName, InputStream imageBody, String message) throws TwitterException;
 
+    /**
+     * Sets a listener to be notified of the progress of the upload.
+     *
+     * @param listener listener, or null to stop notifying
+     * @since Twitter4J 2.1.7
+     */
+    public void setUploadProgressListener(UploadProgressListener listener) {
+        this.uploadProgressListener = listener;
+    }
+
+    HttpClientWrapper createHttpClientWrapper() {
+        HttpClientWrapper client = new HttpClientWrapper();
+        client.setUploadProgressListener(uploadProgressListener);
+        return client;
+    }
 
     /**
      * Returns an image uploader to Twitpic. Handles both BasicAuth and OAuth.
@@ -204,7 +221,7 @@ public abstract class ImageUpload {
             params = appendHttpParameters(params, additionalParams);
 
             // step 3 - upload the file
-            HttpClientWrapper client = new HttpClientWrapper();
+            HttpClientWrapper client = createHttpClientWrapper();
             HttpResponse httpResponse = client.post(YFROG_UPLOAD_URL, params);
 
             // step 4 - check the response
@@ -290,7 +307,7 @@ public abstract class ImageUpload {
             params = appendHttpParameters(params, additionalParams);
 
             // step 2 - upload the file
-            HttpClientWrapper client = new HttpClientWrapper();
+            HttpClientWrapper client = createHttpClientWrapper();
             HttpResponse httpResponse = client.post(YFROG_UPLOAD_URL, params);
 
             // step 3 - check the response
@@ -376,7 +393,7 @@ public abstract class ImageUpload {
             params = appendHttpParameters(params, additionalParams);
 
             // step 3 - upload the file
-            HttpClientWrapper client = new HttpClientWrapper();
+            HttpClientWrapper client = createHttpClientWrapper();
             HttpResponse httpResponse = client.post(TWITPIC_UPLOAD_URL, params, headers);
 
             // step 4 - check the response
@@ -453,7 +470,7 @@ public abstract class ImageUpload {
             params = appendHttpParameters(params, additionalParams);
 
             // step 2 - upload the file
-            HttpClientWrapper client = new HttpClientWrapper();
+            HttpClientWrapper client = createHttpClientWrapper();
             HttpResponse httpResponse = client.post(TWITPIC_UPLOAD_URL, params);
 
             // step 3 - check the response
@@ -540,7 +557,7 @@ public abstract class ImageUpload {
             params = appendHttpParameters(params, additionalParams);
 
             // step 3 - upload the file
-            HttpClientWrapper client = new HttpClientWrapper();
+            HttpClientWrapper client = createHttpClientWrapper();
             HttpResponse httpResponse = client.post(TWEETPHOTO_UPLOAD_URL, params, headers);
 
             // step 4 - check the response
@@ -631,7 +648,7 @@ public abstract class ImageUpload {
             params = appendHttpParameters(params, additionalParams);
 
             // step 3 - upload the file
-            HttpClientWrapper client = new HttpClientWrapper ();
+            HttpClientWrapper client = createHttpClientWrapper();
             HttpResponse httpResponse = client.post (IMGLY_UPLOAD_URL, params, headers);
             
             // step 4 - check the response
@@ -725,7 +742,7 @@ public abstract class ImageUpload {
             params = appendHttpParameters(params, additionalParams);
 
             // step 3 - upload the file
-            HttpClientWrapper client = new HttpClientWrapper ();
+            HttpClientWrapper client = createHttpClientWrapper();
             HttpResponse httpResponse = client.post (TWITGOO_UPLOAD_URL, params, headers);
             
             // step 4 - check the response
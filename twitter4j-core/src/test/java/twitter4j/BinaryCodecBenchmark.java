@@ -0,0 +1,167 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import twitter4j.internal.org.json.JSONArray;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares BinaryCodec against Java serialization and re-parsing retained raw JSON, for a home timeline sized list of statuses.<br>
+ * Usage: BinaryCodecBenchmark [statuses] [iterations]
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class BinaryCodecBenchmark {
+    private BinaryCodecBenchmark() {
+        throw new AssertionError();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        String json = timeline(count);
+        List<Status> statuses = parse(json);
+        BinaryCodec codec = new BinaryCodec();
+        BinaryCodec projected = new BinaryCodec("id", "text", "created_at", "user", "screen_name", "profile_image_url");
+
+        System.out.println("statuses: " + count + ", iterations: " + iterations);
+        System.out.println("mode\tbytes\tencode ms\tdecode ms");
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up
+            long[] serialization = new long[3];
+            long[] jsonReparse = new long[3];
+            long[] binary = new long[3];
+            long[] projection = new long[3];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                byte[] serialized = serialize(statuses);
+                long encoded = System.nanoTime();
+                deserialize(serialized);
+                add(serialization, serialized.length, encoded - start, System.nanoTime() - encoded);
+
+                start = System.nanoTime();
+                byte[] raw = json.getBytes("UTF-8");
+                encoded = System.nanoTime();
+                parse(new String(raw, "UTF-8"));
+                add(jsonReparse, raw.length, encoded - start, System.nanoTime() - encoded);
+
+                start = System.nanoTime();
+                ByteBuffer buf = codec.encodeAll(statuses);
+                encoded = System.nanoTime();
+                int length = buf.remaining();
+                codec.decodeAll(buf, Status.class);
+                add(binary, length, encoded - start, System.nanoTime() - encoded);
+
+                start = System.nanoTime();
+                buf = projected.encodeAll(statuses);
+                encoded = System.nanoTime();
+                length = buf.remaining();
+                projected.decodeAll(buf, Status.class);
+                add(projection, length, encoded - start, System.nanoTime() - encoded);
+            }
+            if (1 == round) {
+                print("Serializable", serialization, iterations);
+                print("raw JSON", jsonReparse, iterations);
+                print("BinaryCodec", binary, iterations);
+                print("projected", projection, iterations);
+            }
+        }
+    }
+
+    private static void add(long[] stats, int length, long encode, long decode) {
+        stats[0] = length;
+        stats[1] += encode;
+        stats[2] += decode;
+    }
+
+    private static void print(String mode, long[] stats, int iterations) {
+        System.out.println(mode + "\t" + stats[0] + "\t" + Math.round(stats[1] / 1000d / iterations) / 1000d
+                + "\t" + Math.round(stats[2] / 1000d / iterations) / 1000d);
+    }
+
+    private static List<Status> parse(String json) throws Exception {
+        JSONArray array = new JSONArray(json);
+        List<Status> statuses = new ArrayList<Status>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            statuses.add(new StatusJSONImpl(array.getJSONObject(i)));
+        }
+        return statuses;
+    }
+
+    private static byte[] serialize(List<Status> statuses) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(new ArrayList<Status>(statuses));
+        oos.close();
+        return baos.toByteArray();
+    }
+
+    private static Object deserialize(byte[] serialized) throws Exception {
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized));
+        try {
+            return ois.readObject();
+        } finally {
+            ois.close();
+        }
+    }
+
+    private static String timeline(int count) {
+        StringBuffer buf = new StringBuffer("[");
+        for (int i = 0; i < count; i++) {
+            if (0 != i) {
+                buf.append(",");
+            }
+            buf.append("{\"coordinates\":null,\"favorited\":false,\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\"")
+                    .append(",\"truncated\":false,\"text\":\"status #").append(i)
+                    .append(" \\u3042\\u3044\\u3046 http://t.co/abcdefg #twitter4j @twitter4j\"")
+                    .append(",\"contributors\":null,\"id\":").append(2900000000L + i)
+                    .append(",\"geo\":null,\"in_reply_to_user_id\":null,\"place\":null")
+                    .append(",\"source\":\"<a href=\\\"http://twitter4j.org/\\\" rel=\\\"nofollow\\\">Twitter4J</a>\"")
+                    .append(",\"in_reply_to_screen_name\":null,\"in_reply_to_status_id\":null")
+                    .append(",\"user\":{\"profile_background_color\":\"9ae4e8\",\"description\":\"Java library for the Twitter API\"")
+                    .append(",\"verified\":false,\"followers_count\":").append(1000 + i)
+                    .append(",\"profile_text_color\":\"000000\",\"url\":\"http://twitter4j.org/\",\"following\":true")
+                    .append(",\"profile_background_image_url\":\"http://s.twimg.com/a/1289003935/images/themes/theme1/bg.png\"")
+                    .append(",\"profile_image_url\":\"http://a1.twimg.com/profile_images/1/t4j_normal.png\"")
+                    .append(",\"statuses_count\":").append(5000 + i)
+                    .append(",\"friends_count\":100,\"created_at\":\"Sat Mar 28 03:26:52 +0000 2009\"")
+                    .append(",\"favourites_count\":0,\"utc_offset\":32400,\"time_zone\":\"Tokyo\"")
+                    .append(",\"screen_name\":\"twit4j").append(i % 10)
+                    .append("\",\"location\":\"Tokyo\",\"lang\":\"en\",\"protected\":false,\"id\":").append(6377362 + i % 10)
+                    .append(",\"name\":\"Twitter4J\"}}");
+        }
+        return buf.append("]").toString();
+    }
+}
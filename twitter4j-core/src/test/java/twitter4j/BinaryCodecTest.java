@@ -0,0 +1,270 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.org.json.JSONArray;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class BinaryCodecTest extends TestCase {
+    public BinaryCodecTest(String name) {
+        super(name);
+    }
+
+    private static final String USER = "{\"id\":6358482,\"name\":\"Twitter4J\",\"screen_name\":\"twit4j\",\"location\":\"Tokyo\""
+            + ",\"utc_offset\":-18000,\"protected\":true,\"followers_count\":3,\"created_at\":\"Sat Jun 02 04:56:11 +0000 2007\"}";
+
+    private static final String STATUS = "{\"id\":29000000001,\"text\":\"hello @twit4j http://twitter4j.org/ #t4j\\u3042\",\"source\":\"web\""
+            + ",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\",\"favorited\":true,\"in_reply_to_status_id\":29000000000"
+            + ",\"in_reply_to_user_id\":6358482,\"in_reply_to_screen_name\":\"twit4j\",\"retweet_count\":5"
+            + ",\"geo\":{\"type\":\"Point\",\"coordinates\":[35.6,139.7]},\"contributors\":[\"1\",\"2\"]"
+            + ",\"annotations\":[{\"review\":{\"rating\":\"5\",\"title\":\"great\"}}]"
+            + ",\"entities\":{\"user_mentions\":[" + USER + "],\"urls\":[{\"url\":\"http://twitter4j.org/\"}],\"hashtags\":[{\"text\":\"t4j\"}]}"
+            + ",\"retweeted_status\":{\"id\":28000000000,\"text\":\"original\",\"source\":\"web\",\"created_at\":\"Mon Nov 08 01:23:45 +0000 2010\",\"user\":" + USER + "}"
+            + ",\"user\":" + USER + "}";
+
+    public void testStatusRoundTrip() throws Exception {
+        JSONObject json = new JSONObject(STATUS);
+        json.put("place", new JSONObject(readResource("/3c6797665e2d42eb.json")));
+        Status status = new StatusJSONImpl(json);
+        assertNotNull(status.getPlace());
+        assertNotNull(status.getAnnotations());
+
+        BinaryCodec codec = new BinaryCodec();
+        ByteBuffer buf = codec.encode(status);
+        Status decoded = codec.decode(buf, Status.class);
+        assertFalse(buf.hasRemaining());
+        assertEquals(status.getId(), decoded.getId());
+        assertEquals(status.getText(), decoded.getText());
+        assertEquals(status.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(status.getInReplyToStatusId(), decoded.getInReplyToStatusId());
+        assertEquals(status.getRetweetCount(), decoded.getRetweetCount());
+        assertTrue(decoded.isFavorited());
+        assertEquals(status.getGeoLocation(), decoded.getGeoLocation());
+        assertEquals(status.getAnnotations(), decoded.getAnnotations());
+        assertTrue(Arrays.equals(status.getContributors(), decoded.getContributors()));
+        assertEquals(status.getUser().toString(), decoded.getUser().toString());
+        assertEquals(-18000, decoded.getUser().getUtcOffset());
+        assertTrue(Arrays.equals(status.getURLs(), decoded.getURLs()));
+        assertTrue(Arrays.equals(status.getHashtags(), decoded.getHashtags()));
+        assertEquals(status.getUserMentions()[0].toString(), decoded.getUserMentions()[0].toString());
+        Place place = decoded.getPlace();
+        assertEquals(status.getPlace().getFullName(), place.getFullName());
+        assertEquals(status.getPlace().getGeometryType(), place.getGeometryType());
+        assertTrue(Arrays.deepEquals(status.getPlace().getBoundingBoxCoordinates(), place.getBoundingBoxCoordinates()));
+        assertTrue(Arrays.deepEquals(status.getPlace().getGeometryCoordinates(), place.getGeometryCoordinates()));
+        assertEquals(status.getPlace().getContainedWithIn()[0].getName(), place.getContainedWithIn()[0].getName());
+        assertEquals(status.getRetweetedStatus().toString(), decoded.getRetweetedStatus().toString());
+    }
+
+    public void testDeeplyNested() throws Exception {
+        // every retweet nests two objects, a status and its user, deeper than the initial 8 levels
+        String json = "{\"id\":1,\"text\":\"0\",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\",\"user\":" + USER + "}";
+        for (int i = 1; i < 10; i++) {
+            json = "{\"id\":" + (i + 1) + ",\"text\":\"" + i + "\",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\""
+                    + ",\"retweeted_status\":" + json + ",\"user\":" + USER + "}";
+        }
+        Status status = new StatusJSONImpl(new JSONObject(json));
+
+        BinaryCodec codec = new BinaryCodec();
+        ByteBuffer buf = codec.encode(status);
+        Status decoded = codec.decode(buf, Status.class);
+        assertFalse(buf.hasRemaining());
+        for (int i = 9; i >= 0; i--) {
+            assertEquals(i + 1, decoded.getId());
+            assertEquals(String.valueOf(i), decoded.getText());
+            assertEquals(status.getCreatedAt(), decoded.getCreatedAt());
+            assertEquals(6358482, decoded.getUser().getId());
+            assertEquals("twit4j", decoded.getUser().getScreenName());
+            assertEquals(0 == i, null == decoded.getRetweetedStatus());
+            decoded = decoded.getRetweetedStatus();
+        }
+    }
+
+    public void testOtherTypes() throws Exception {
+        User user = new UserJSONImpl(new JSONObject(readResource("/24696018620.json")));
+        DirectMessage message = new DirectMessageJSONImpl(new JSONObject("{\"id\":1,\"text\":\"hi\",\"sender_id\":6358482,\"recipient_id\":6377362"
+                + ",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\",\"sender_screen_name\":\"twit4j\",\"recipient_screen_name\":\"twit4j2\""
+                + ",\"sender\":" + USER + ",\"recipient\":" + USER + "}"));
+        Tweet tweet = new TweetJSONImpl(new JSONObject("{\"id\":29000000001,\"text\":\"search hit\",\"from_user\":\"twit4j\",\"from_user_id\":1"
+                + ",\"to_user_id\":null,\"iso_language_code\":\"en\",\"source\":\"web\",\"created_at\":\"Tue, 09 Nov 2010 01:23:45 +0000\"}"));
+
+        BinaryCodec codec = new BinaryCodec();
+        List<Object> objects = new ArrayList<Object>();
+        objects.add(user);
+        objects.add(message);
+        objects.add(tweet);
+        List<Object> decoded = codec.decodeAll(codec.encodeAll(objects), Object.class);
+        assertEquals(3, decoded.size());
+        assertEquals(user.toString(), decoded.get(0).toString());
+        DirectMessage decodedMessage = (DirectMessage) decoded.get(1);
+        assertEquals(message.toString(), decodedMessage.toString());
+        assertEquals(message.getSender().toString(), decodedMessage.getSender().toString());
+        Tweet decodedTweet = (Tweet) decoded.get(2);
+        assertEquals(tweet.toString(), decodedTweet.toString());
+        assertEquals(-1, decodedTweet.getToUserId());
+
+        try {
+            codec.decodeAll(codec.encodeAll(objects), Status.class);
+            fail("TwitterException expected");
+        } catch (TwitterException expected) {
+        }
+    }
+
+    public void testStringTable() throws Exception {
+        BinaryCodec codec = new BinaryCodec();
+        Status status = new StatusJSONImpl(new JSONObject(STATUS));
+        int one = codec.encode(status).remaining();
+        List<Status> statuses = new ArrayList<Status>();
+        for (int i = 0; i < 10; i++) {
+            statuses.add(status);
+        }
+        ByteBuffer buf = codec.encodeAll(statuses);
+        // texts are written every time, screen names and sources only once
+        assertTrue(buf.remaining() < one * 10 * 2 / 3);
+        List<Status> decoded = codec.decodeAll(buf, Status.class);
+        assertEquals(10, decoded.size());
+        for (Status each : decoded) {
+            assertEquals(status.toString(), each.toString());
+        }
+    }
+
+    public void testProjection() throws Exception {
+        Status status = new StatusJSONImpl(new JSONObject(STATUS));
+        BinaryCodec codec = new BinaryCodec("id", "text", "user", "screen_name");
+        ByteBuffer buf = codec.encode(status);
+        assertTrue(buf.remaining() < new BinaryCodec().encode(status).remaining() / 3);
+        Status decoded = new BinaryCodec().decode(buf, Status.class);
+        assertEquals(status.getId(), decoded.getId());
+        assertEquals(status.getText(), decoded.getText());
+        assertEquals("twit4j", decoded.getUser().getScreenName());
+        assertEquals(6358482, decoded.getUser().getId());
+        assertNull(decoded.getUser().getName());
+        assertNull(decoded.getSource());
+        assertNull(decoded.getCreatedAt());
+        assertFalse(decoded.isFavorited());
+        assertNull(decoded.getRetweetedStatus());
+        assertNull(decoded.getUserMentions());
+    }
+
+    public void testBuffers() throws Exception {
+        Status status = new StatusJSONImpl(new JSONObject(STATUS));
+        BinaryCodec codec = new BinaryCodec();
+        List<Status> list = new ArrayList<Status>();
+        list.add(status);
+        ByteBuffer direct = ByteBuffer.allocateDirect(4096);
+        direct.put((byte) 42);
+        codec.encodeAll(list, direct);
+        direct.flip();
+        assertEquals(42, direct.get());
+        assertEquals(status.toString(), codec.decode(direct, Status.class).toString());
+
+        try {
+            codec.encodeAll(list, ByteBuffer.allocate(16));
+            fail("BufferOverflowException expected");
+        } catch (BufferOverflowException expected) {
+        }
+        try {
+            codec.encode("not supported");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testMalformed() throws Exception {
+        BinaryCodec codec = new BinaryCodec();
+        ByteBuffer buf = codec.encode(new StatusJSONImpl(new JSONObject(STATUS)));
+        ByteBuffer truncated = ByteBuffer.allocate(buf.remaining() / 2);
+        buf.limit(truncated.capacity());
+        truncated.put(buf).flip();
+        try {
+            codec.decode(truncated, Status.class);
+            fail("TwitterException expected");
+        } catch (TwitterException expected) {
+        }
+
+        ByteBuffer newer = codec.encode(new StatusJSONImpl(new JSONObject(STATUS)));
+        newer.put(2, (byte) (BinaryCodec.VERSION + 1));
+        try {
+            codec.decode(newer, Status.class);
+            fail("TwitterException expected");
+        } catch (TwitterException expected) {
+            assertTrue(expected.getMessage().contains("version"));
+        }
+        try {
+            codec.decode(ByteBuffer.wrap("{\"id\":1}".getBytes("UTF-8")), Status.class);
+            fail("TwitterException expected");
+        } catch (TwitterException expected) {
+        }
+    }
+
+    public void testStream() throws Exception {
+        List<Status> statuses = new ArrayList<Status>();
+        JSONArray lines = new JSONArray();
+        BufferedReader br = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream("/streamingapi-testcase.json"), "UTF-8"));
+        String line;
+        while (null != (line = br.readLine())) {
+            JSONObject json = new JSONObject(line);
+            if (!json.isNull("text")) {
+                statuses.add(new StatusJSONImpl(json));
+                lines.put(json);
+            }
+        }
+        br.close();
+        assertTrue(1 < statuses.size());
+        BinaryCodec codec = new BinaryCodec();
+        ByteBuffer buf = codec.encodeAll(statuses);
+        assertTrue(buf.remaining() < lines.toString().getBytes("UTF-8").length / 2);
+        List<Status> decoded = codec.decodeAll(buf, Status.class);
+        for (int i = 0; i < statuses.size(); i++) {
+            assertEquals(statuses.get(i).toString(), decoded.get(i).toString());
+        }
+    }
+
+    private String readResource(String path) throws Exception {
+        BufferedReader br = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream(path), "UTF-8"));
+        StringBuffer buf = new StringBuffer();
+        String line;
+        while (null != (line = br.readLine())) {
+            buf.append(line);
+        }
+        br.close();
+        return buf.toString();
+    }
+}
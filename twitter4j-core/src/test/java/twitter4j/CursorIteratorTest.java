@@ -0,0 +1,226 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class CursorIteratorTest extends TestCase {
+    public CursorIteratorTest(String name) {
+        super(name);
+    }
+
+    public void testIteration() throws Exception {
+        PageFetcher fetcher = new PageFetcher(5);
+        CursorIterator<Page> pages = new CursorIterator<Page>(fetcher);
+        int count = 0;
+        while (pages.hasNext()) {
+            Page page = pages.next();
+            assertEquals(count, page.index);
+            if (count < 4) {
+                // the following page is being fetched in the background
+                waitFor(fetcher.calls, count + 2);
+            }
+            Thread.sleep(10);
+            // but no further than the prefetch depth
+            assertEquals(Math.min(5, count + 2), fetcher.calls.get());
+            count++;
+        }
+        assertEquals(5, count);
+        assertEquals(5, pages.getFetchedPageCount());
+        try {
+            pages.next();
+            fail("expecting NoSuchElementException");
+        } catch (NoSuchElementException expected) {
+        }
+    }
+
+    public void testBudgetAndCancel() throws Exception {
+        CursorIterator<Page> pages = new CursorIterator<Page>(new PageFetcher(10), 3, 4);
+        int count = 0;
+        while (pages.hasNext()) {
+            pages.next();
+            count++;
+        }
+        assertEquals(4, count);
+
+        PageFetcher fetcher = new PageFetcher(10);
+        pages = new CursorIterator<Page>(fetcher, 2, -1);
+        assertTrue(pages.hasNext());
+        pages.next();
+        pages.cancel();
+        assertFalse(pages.hasNext());
+        Thread.sleep(50);
+        assertTrue(fetcher.calls.get() <= 3);
+    }
+
+    public void testException() throws Exception {
+        PageFetcher fetcher = new PageFetcher(10);
+        fetcher.failAt = 1;
+        CursorIterator<Page> pages = new CursorIterator<Page>(fetcher);
+        assertEquals(0, pages.next().index);
+        assertTrue(pages.hasNext());
+        try {
+            pages.next();
+            fail("expecting TwitterException");
+        } catch (TwitterException te) {
+            assertEquals(503, te.getStatusCode());
+        }
+        assertFalse(pages.hasNext());
+    }
+
+    public void testRuntimeException() throws Exception {
+        PageFetcher fetcher = new PageFetcher(10);
+        fetcher.failAt = 1;
+        fetcher.unchecked = true;
+        CursorIterator<Page> pages = new CursorIterator<Page>(fetcher);
+        assertEquals(0, pages.next().index);
+        try {
+            pages.next();
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+        assertFalse(pages.hasNext());
+    }
+
+    public void testCancelWakesUpWaitingCaller() throws Exception {
+        PageFetcher fetcher = new PageFetcher(10);
+        fetcher.delayMillis = 5000;
+        final CursorIterator<Page> pages = new CursorIterator<Page>(fetcher);
+        final AtomicBoolean hasNext = new AtomicBoolean(true);
+        Thread caller = new Thread() {
+            public void run() {
+                hasNext.set(pages.hasNext());
+            }
+        };
+        caller.start();
+        waitFor(fetcher.calls, 1);
+        pages.cancel();
+        caller.join(1000);
+        assertFalse(caller.isAlive());
+        assertFalse(hasNext.get());
+    }
+
+    public void testIdlePrefetcherIsRetired() throws Exception {
+        PageFetcher fetcher = new PageFetcher(5);
+        CursorIterator<Page> pages = new CursorIterator<Page>(fetcher);
+        pages.idleTimeoutMillis = 50;
+        assertEquals(0, pages.next().index);
+        // the prefetcher gives up waiting for room and exits
+        Thread.sleep(300);
+        assertEquals(2, fetcher.calls.get());
+        int count = 1;
+        while (pages.hasNext()) {
+            assertEquals(count++, pages.next().index);
+            Thread.sleep(100);
+        }
+        assertEquals(5, count);
+        // resumed by new threads
+        assertTrue(1 < fetcher.threads.size());
+    }
+
+    private static void waitFor(AtomicInteger value, int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && value.get() < expected; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    static class PageFetcher implements CursorIterator.Fetcher<Page> {
+        final AtomicInteger calls = new AtomicInteger();
+        final Set<Thread> threads = new HashSet<Thread>();
+        private final int size;
+        int failAt = -1;
+        boolean unchecked = false;
+        long delayMillis = 0;
+
+        PageFetcher(int size) {
+            this.size = size;
+        }
+
+        public Page fetch(long cursor) throws TwitterException {
+            int index = -1 == cursor ? 0 : (int) cursor;
+            assertEquals(index, calls.getAndIncrement());
+            synchronized (threads) {
+                threads.add(Thread.currentThread());
+            }
+            if (0 < delayMillis) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException ie) {
+                    throw new TwitterException(ie);
+                }
+            }
+            if (index == failAt) {
+                if (unchecked) {
+                    throw new IllegalStateException("malformed page");
+                }
+                throw new TwitterException("over capacity", null, 503);
+            }
+            return new Page(index, index + 1 < size);
+        }
+    }
+
+    static class Page implements CursorSupport, TwitterResponse {
+        private static final long serialVersionUID = 1L;
+        final int index;
+        private final boolean hasNext;
+
+        Page(int index, boolean hasNext) {
+            this.index = index;
+            this.hasNext = hasNext;
+        }
+
+        public boolean hasPrevious() {
+            return 0 < index;
+        }
+
+        public long getPreviousCursor() {
+            return index - 1;
+        }
+
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        public long getNextCursor() {
+            return hasNext ? index + 1 : 0;
+        }
+
+        public RateLimitStatus getRateLimitStatus() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.org.json.JSONArray;
+import twitter4j.internal.org.json.JSONTokener;
+import twitter4j.json.DataObjectFactory;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class DataObjectFactoryTest extends TestCase {
+    private static final String USER = "{\"id\":6358482,\"screen_name\":\"twit4j\",\"created_at\":\"Sat Jun 02 04:56:11 +0000 2007\"}";
+    private static final String STATUS1 = "{\"id\":1,\"text\":\"first\",\"created_at\":\"Sat Dec 19 16:01:35 +0000 2009\",\"user\":" + USER + "}";
+    private static final String STATUS2 = "{\"id\":2, \"text\":\"second \\u00e9\",\"created_at\":\"Sat Dec 19 16:01:36 +0000 2009\"}";
+
+    public DataObjectFactoryTest(String name) {
+        super(name);
+    }
+
+    public void testArraySlices() throws Exception {
+        JSONTokener tokener = new JSONTokener("[ " + STATUS1 + " ,\n" + STATUS2 + "]");
+        tokener.setRetainRawJSON(true);
+        JSONArray array = new JSONArray(tokener);
+        Status status1 = new StatusJSONImpl(array.getJSONObject(0));
+        Status status2 = new StatusJSONImpl(array.getJSONObject(1));
+        assertEquals(STATUS1, DataObjectFactory.getRawJSON(status1));
+        assertEquals(STATUS2, DataObjectFactory.getRawJSON(status2));
+        assertEquals(USER, DataObjectFactory.getRawJSON(status1.getUser()));
+        // the copy is made only once
+        assertSame(DataObjectFactory.getRawJSON(status1), DataObjectFactory.getRawJSON(status1));
+
+        Status fromJSON = DataObjectFactory.createStatus(DataObjectFactory.getRawJSON(status2));
+        assertEquals(status2, fromJSON);
+        assertEquals("second \u00e9", fromJSON.getText());
+    }
+
+    public void testNotRetainedByDefault() throws Exception {
+        Status status = new StatusJSONImpl(new JSONArray(new JSONTokener("[" + STATUS1 + "]")).getJSONObject(0));
+        try {
+            DataObjectFactory.getRawJSON(status);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            DataObjectFactory.getRawJSON("not a data object");
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testStream() throws Exception {
+        String lines = STATUS1 + "\n" + STATUS2 + "\n";
+        final Status[] received = new Status[1];
+        StatusListener listener = new StatusAdapter() {
+            public void onStatus(Status status) {
+                received[0] = status;
+            }
+        };
+
+        // streams retain raw JSON forms whatever the configuration says
+        StatusStreamImpl stream = new StatusStreamImpl(new ByteArrayInputStream(lines.getBytes("UTF-8")));
+        stream.next(listener);
+        assertEquals(STATUS1, DataObjectFactory.getRawJSON(received[0]));
+        assertEquals(USER, DataObjectFactory.getRawJSON(received[0].getUser()));
+        stream.next(listener);
+        assertEquals(STATUS2, DataObjectFactory.getRawJSON(received[0]));
+    }
+}
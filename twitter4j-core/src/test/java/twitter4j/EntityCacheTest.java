@@ -0,0 +1,165 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.org.json.JSONException;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class EntityCacheTest extends TestCase {
+    public EntityCacheTest(String name) {
+        super(name);
+    }
+
+    private static String statusJSON(long id, int userId, String screenName) {
+        return "{\"id\":" + id + ",\"text\":\"status " + id + "\",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\""
+                + ",\"user\":{\"id\":" + userId + ",\"screen_name\":\"" + screenName + "\"}}";
+    }
+
+    private static Status status(long id, int userId, String screenName) throws TwitterException, JSONException {
+        return new StatusJSONImpl(new JSONObject(statusJSON(id, userId, screenName)));
+    }
+
+    public void testCache() throws Exception {
+        EntityCache cache = new EntityCache(100, 60);
+        assertNull(cache.getStatus(1000));
+        assertNull(cache.getUser(6358482));
+        assertEquals(2, cache.getMissCount());
+
+        Status status = status(1000, 6358482, "Twit4J");
+        cache.cache(status);
+        assertSame(status, cache.getStatus(1000));
+        assertSame(status.getUser(), cache.getUser(6358482));
+        assertSame(status.getUser(), cache.getUser("twit4j"));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(0.6d, cache.getHitRatio(), 0.001d);
+
+        cache.invalidateStatus(1000);
+        assertNull(cache.getStatus(1000));
+        cache.invalidateUser(6358482);
+        assertNull(cache.getUser(6358482));
+        assertNull(cache.getUser("Twit4J"));
+    }
+
+    public void testRetweetedStatusAndDirectMessage() throws Exception {
+        EntityCache cache = new EntityCache(100, 60);
+        Status retweet = new StatusJSONImpl(new JSONObject("{\"id\":2000,\"text\":\"RT\",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\""
+                + ",\"user\":{\"id\":1,\"screen_name\":\"a\"},\"retweeted_status\":" + statusJSON(1000, 2, "b") + "}"));
+        cache.cache(retweet);
+        assertNotNull(cache.getStatus(2000));
+        assertNotNull(cache.getStatus(1000));
+        assertNotNull(cache.getUser(2));
+
+        DirectMessage message = new DirectMessageJSONImpl(new JSONObject("{\"id\":1,\"text\":\"hi\",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\""
+                + ",\"sender_id\":3,\"recipient_id\":4,\"sender_screen_name\":\"c\",\"recipient_screen_name\":\"d\""
+                + ",\"sender\":{\"id\":3,\"screen_name\":\"c\"},\"recipient\":{\"id\":4,\"screen_name\":\"d\"}}"));
+        cache.cache(message);
+        assertNotNull(cache.getUser("c"));
+        assertNotNull(cache.getUser(4));
+    }
+
+    public void testPartialEntities() throws Exception {
+        EntityCache cache = new EntityCache(100, 60);
+        User user = new UserJSONImpl(new JSONObject("{\"id\":6358482,\"screen_name\":\"twit4j\",\"followers_count\":3"
+                + ",\"status\":{\"id\":999,\"text\":\"latest\",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\"}}"));
+        cache.cache(user);
+        assertSame(user, cache.getUser(6358482));
+        // the status nested in a user lacks its user
+        assertNull(cache.getStatus(999));
+
+        // a user nested in a status lacks the latest status, and doesn't replace the complete one
+        Status status = status(1000, 6358482, "twit4j");
+        cache.cache(status);
+        assertSame(status, cache.getStatus(1000));
+        assertSame(user, cache.getUser(6358482));
+        assertSame(user, cache.getUser("twit4j"));
+
+        // unless the screen name has changed
+        Status renamed = status(1001, 6358482, "twit4j_renamed");
+        cache.cache(renamed);
+        assertSame(renamed.getUser(), cache.getUser(6358482));
+        assertSame(renamed.getUser(), cache.getUser("twit4j_renamed"));
+        assertNull(cache.getUser("twit4j"));
+
+        // a complete user replaces a partial one
+        cache.cache(user);
+        assertSame(user, cache.getUser(6358482));
+        assertSame(user, cache.getUser("twit4j"));
+        assertNull(cache.getUser("twit4j_renamed"));
+    }
+
+    public void testScreenNameTakenOver() throws Exception {
+        EntityCache cache = new EntityCache(100, 60);
+        cache.cache(status(1000, 1, "a"));
+        cache.cache(status(1001, 2, "b"));
+        // 1 renamed itself to "c", and 2 took "a" over
+        cache.cache(status(1002, 2, "a"));
+        cache.cache(status(1003, 1, "c"));
+        assertEquals(2, cache.getUser("a").getId());
+        assertEquals(1, cache.getUser("c").getId());
+        assertNull(cache.getUser("b"));
+    }
+
+    public void testSizeBound() throws Exception {
+        EntityCache cache = new EntityCache(32, 60);
+        for (int i = 0; i < 1000; i++) {
+            cache.cache(status(i, 1, "twit4j"));
+        }
+        assertTrue(cache.size() <= 32 + 1);
+        assertTrue(cache.getEvictionCount() >= 1000 - 32);
+        assertNotNull(cache.getStatus(999));
+        assertNull(cache.getStatus(0));
+    }
+
+    public void testExpiration() throws Exception {
+        EntityCache cache = new EntityCache(100, 1);
+        cache.cache(status(1000, 6358482, "twit4j"));
+        assertNotNull(cache.getStatus(1000));
+        Thread.sleep(1100);
+        assertNull(cache.getStatus(1000));
+        assertNull(cache.getUser(6358482));
+    }
+
+    public void testFedByStream() throws Exception {
+        EntityCache cache = new EntityCache(100, 60);
+        String lines = statusJSON(1000, 6358482, "twit4j") + "\n"
+                + "{\"delete\":{\"status\":{\"id\":1000,\"user_id\":6358482}}}\n";
+        StatusStreamImpl stream = new StatusStreamImpl(new ByteArrayInputStream(lines.getBytes("UTF-8")));
+        stream.setEntityCache(cache);
+        stream.next(new StatusAdapter());
+        assertNotNull(cache.getStatus(1000));
+        assertNotNull(cache.getUser("twit4j"));
+        stream.next(new StatusAdapter());
+        assertNull(cache.getStatus(1000));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class GeoCacheTest extends TestCase {
+    public GeoCacheTest(String name) {
+        super(name);
+    }
+
+    private static Place place(String id, double minLat, double minLng, double maxLat, double maxLng) throws Exception {
+        return new PlaceJSONImpl(new JSONObject("{\"id\":\"" + id + "\",\"name\":\"" + id + "\",\"bounding_box\":{\"type\":\"Polygon\",\"coordinates\":[["
+                + "[" + minLng + "," + minLat + "],[" + maxLng + "," + minLat + "],[" + maxLng + "," + maxLat + "],[" + minLng + "," + maxLat + "]]]}}"), null);
+    }
+
+    public void testGeohash() throws Exception {
+        assertEquals("u4pruydqqvj", GeoCache.geohash(57.64911, 10.40744, 11));
+        assertEquals("9q8yy", GeoCache.geohash(37.7749, -122.4194, 5));
+
+        assertEquals(7, GeoCache.precision(null, null));
+        assertEquals(7, GeoCache.precision(null, GeoQuery.NEIGHBORHOOD));
+        assertEquals(5, GeoCache.precision(null, GeoQuery.CITY));
+        assertEquals(6, GeoCache.precision("1000", null));
+        assertEquals(4, GeoCache.precision("5000m", null));
+        assertEquals(6, GeoCache.precision("1000ft", null));
+        assertEquals(7, GeoCache.precision("foo", null));
+    }
+
+    public void testQueryCache() throws Exception {
+        GeoCache cache = new GeoCache(100, 60);
+        GeoQuery query = new GeoQuery(new GeoLocation(37.78215, -122.40060));
+        assertNull(cache.getPlaces(TwitterMethod.REVERSE_GEO_CODE, query));
+        List<Place> places = new ArrayList<Place>();
+        places.add(place("soma", 37.76893497, -122.42284884, 37.78752897, -122.3964));
+        cache.cache(TwitterMethod.REVERSE_GEO_CODE, query, places);
+
+        // a few meters away, in the same neighborhood sized cell
+        GeoQuery nearby = new GeoQuery(new GeoLocation(37.78216, -122.40061));
+        assertEquals("soma", cache.getPlaces(TwitterMethod.REVERSE_GEO_CODE, nearby).get(0).getId());
+        assertNull(cache.getPlaces(TwitterMethod.NEAR_BY_PLACES, nearby));
+        assertNull(cache.getPlaces(TwitterMethod.REVERSE_GEO_CODE, new GeoQuery(new GeoLocation(37.79, -122.40060))));
+        assertNull(cache.getPlaces(TwitterMethod.REVERSE_GEO_CODE, new GeoQuery(new GeoLocation(37.78216, -122.40061)).granularity(GeoQuery.CITY)));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+
+        assertEquals("soma", cache.locate(new GeoLocation(37.78, -122.41)).getId());
+        assertNull(cache.locate(new GeoLocation(35.68, 139.76)));
+        assertEquals(1, cache.getLocateHitCount());
+        assertEquals(1, cache.getLocateMissCount());
+    }
+
+    public void testExpiration() throws Exception {
+        GeoCache cache = new GeoCache(100, 1);
+        GeoQuery query = new GeoQuery(new GeoLocation(37.78215, -122.40060));
+        cache.cache(TwitterMethod.REVERSE_GEO_CODE, query, new ArrayList<Place>());
+        assertNotNull(cache.getPlaces(TwitterMethod.REVERSE_GEO_CODE, query));
+        Thread.sleep(1100);
+        assertNull(cache.getPlaces(TwitterMethod.REVERSE_GEO_CODE, query));
+    }
+
+    public void testLocateSmallest() throws Exception {
+        GeoCache cache = new GeoCache(100, 60);
+        cache.index(place("san francisco", 37.70813196, -122.51368188, 37.83245301, -122.35845384));
+        cache.index(place("soma", 37.76893497, -122.42284884, 37.78752897, -122.3964));
+        assertEquals("soma", cache.locate(new GeoLocation(37.78, -122.41)).getId());
+        assertEquals("san francisco", cache.locate(new GeoLocation(37.80, -122.45)).getId());
+        assertEquals(2, cache.locateAll(new GeoLocation(37.78, -122.41)).size());
+    }
+
+    public void testIndexAgainstLinearScan() throws Exception {
+        Random random = new Random(1);
+        GeoCache cache = new GeoCache(500, 60);
+        List<Place> places = new ArrayList<Place>();
+        for (int i = 0; i < 2000; i++) {
+            double lat = random.nextDouble() * 170 - 85;
+            double lng = random.nextDouble() * 350 - 175;
+            Place place = place("p" + i, lat, lng, lat + random.nextDouble() * 5, lng + random.nextDouble() * 5);
+            places.add(place);
+            cache.index(place);
+        }
+        assertEquals(500, cache.getIndexedPlaceCount());
+        // only the latest places are kept
+        List<Place> kept = places.subList(1500, 2000);
+        for (int i = 0; i < 1000; i++) {
+            GeoLocation location = new GeoLocation(random.nextDouble() * 170 - 85, random.nextDouble() * 350 - 175);
+            Set<String> expected = new HashSet<String>();
+            for (Place place : kept) {
+                GeoLocation min = place.getBoundingBoxCoordinates()[0][0];
+                GeoLocation max = place.getBoundingBoxCoordinates()[0][2];
+                if (min.getLongitude() <= location.getLatitude() && location.getLatitude() <= max.getLongitude()
+                        && min.getLatitude() <= location.getLongitude() && location.getLongitude() <= max.getLatitude()) {
+                    expected.add(place.getId());
+                }
+            }
+            Set<String> actual = new HashSet<String>();
+            for (Place place : cache.locateAll(location)) {
+                actual.add(place.getId());
+            }
+            assertEquals(expected, actual);
+        }
+        cache.clear();
+        assertEquals(0, cache.getIndexedPlaceCount());
+        assertNull(cache.locate(new GeoLocation(0, 0)));
+    }
+}
@@ -0,0 +1,149 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class IDsSnapshotTest extends TestCase {
+    public IDsSnapshotTest(String name) {
+        super(name);
+    }
+
+    public void testEncoding() throws Exception {
+        IDsSnapshot snapshot = IDsSnapshot.of(new int[]{300, 5, Integer.MAX_VALUE, 5, Integer.MIN_VALUE, 0, 6});
+        assertEquals(6, snapshot.size());
+        assertTrue(Arrays.equals(new int[]{Integer.MIN_VALUE, 0, 5, 6, 300, Integer.MAX_VALUE}, snapshot.toArray()));
+        assertTrue(snapshot.contains(300));
+        assertFalse(snapshot.contains(7));
+
+        int[] ids = new int[100000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 10000000 + i * 37;
+        }
+        snapshot = IDsSnapshot.of(ids);
+        assertTrue(Arrays.equals(ids, snapshot.toArray()));
+        // the first id takes 5 bytes, the following deltas of 37 a single byte each
+        assertEquals(5 + ids.length - 1, snapshot.getEncodedSize());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(snapshot);
+        oos.close();
+        Object read = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+        assertEquals(snapshot, read);
+    }
+
+    public void testDiffAndIntersection() throws Exception {
+        IDsSnapshot older = IDsSnapshot.of(new int[]{1, 2, 3, 10, 20});
+        IDsSnapshot newer = IDsSnapshot.of(new int[]{2, 3, 4, 20, 30, 40});
+        IDsSnapshot.Diff diff = older.diff(newer);
+        assertTrue(Arrays.equals(new int[]{4, 30, 40}, diff.getAdded().toArray()));
+        assertTrue(Arrays.equals(new int[]{1, 10}, diff.getRemoved().toArray()));
+        assertTrue(Arrays.equals(new int[]{2, 3, 20}, older.intersect(newer).toArray()));
+        assertEquals(0, older.diff(older).getAdded().size());
+    }
+
+    public void testFetchAndStore() throws Exception {
+        IDsSnapshot snapshot = IDsSnapshot.fetch(new CursorIterator.Fetcher<IDs>() {
+            public IDs fetch(long cursor) throws TwitterException {
+                if (-1 == cursor) {
+                    return new FakeIDs(new int[]{9, 7, 5}, 2);
+                }
+                return new FakeIDs(new int[]{8, 6}, 0);
+            }
+        });
+        assertTrue(Arrays.equals(new int[]{5, 6, 7, 8, 9}, snapshot.toArray()));
+
+        File directory = File.createTempFile("twitter4j", "");
+        directory.delete();
+        try {
+            IDsSnapshotStore store = new IDsSnapshotStore(directory);
+            assertNull(store.load("followers-twit4j"));
+            IDsSnapshot.Diff diff = store.update("followers-twit4j", snapshot);
+            assertEquals(5, diff.getAdded().size());
+            assertEquals(snapshot, store.load("followers-twit4j"));
+
+            diff = store.update("followers-twit4j", IDsSnapshot.of(new int[]{5, 6, 10}));
+            assertTrue(Arrays.equals(new int[]{10}, diff.getAdded().toArray()));
+            assertTrue(Arrays.equals(new int[]{7, 8, 9}, diff.getRemoved().toArray()));
+            assertTrue(Arrays.equals(new int[]{5, 6, 10}, store.load("followers-twit4j").toArray()));
+            // a new version is written next to the mapped one, which is deleted once it can be
+            assertTrue(Arrays.equals(new String[]{"followers-twit4j.ids.1"}, directory.list()));
+            assertTrue(store.delete("followers-twit4j"));
+            assertNull(store.load("followers-twit4j"));
+            assertEquals(0, directory.list().length);
+        } finally {
+            directory.delete();
+        }
+    }
+
+    static class FakeIDs implements IDs {
+        private static final long serialVersionUID = 1L;
+        private final int[] ids;
+        private final long nextCursor;
+
+        FakeIDs(int[] ids, long nextCursor) {
+            this.ids = ids;
+            this.nextCursor = nextCursor;
+        }
+
+        public int[] getIDs() {
+            return ids;
+        }
+
+        public boolean hasPrevious() {
+            return false;
+        }
+
+        public long getPreviousCursor() {
+            return 0;
+        }
+
+        public boolean hasNext() {
+            return 0 != nextCursor;
+        }
+
+        public long getNextCursor() {
+            return nextCursor;
+        }
+
+        public RateLimitStatus getRateLimitStatus() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.org.json.JSONArray;
+import twitter4j.internal.org.json.JSONException;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class LazyResponseListTest extends TestCase {
+    public LazyResponseListTest(String name) {
+        super(name);
+    }
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final LazyResponseList.Factory<Status> factory = new LazyResponseList.Factory<Status>() {
+        public Status create(JSONObject json) throws TwitterException, JSONException {
+            created.incrementAndGet();
+            return new StatusJSONImpl(json);
+        }
+    };
+
+    private static JSONArray timeline(int count) throws JSONException {
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            array.put(new JSONObject("{\"id\":" + (1000 + i) + ",\"text\":\"status " + i + "\",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\""
+                    + ",\"user\":{\"id\":6358482,\"screen_name\":\"twit4j\"}}"));
+        }
+        return array;
+    }
+
+    public void testMaterializedOnAccess() throws Exception {
+        List<Status> list = new LazyResponseList<Status>(timeline(200), null, factory);
+        assertEquals(200, list.size());
+        assertEquals(0, created.get());
+        assertEquals(1000, list.get(0).getId());
+        assertEquals("status 10", list.get(10).getText());
+        assertSame(list.get(10), list.get(10));
+        assertEquals(2, created.get());
+
+        int i = 0;
+        for (Status status : list) {
+            assertEquals(1000 + i++, status.getId());
+        }
+        assertEquals(200, created.get());
+        assertEquals(200, i);
+    }
+
+    public void testModification() throws Exception {
+        List<Status> list = new LazyResponseList<Status>(timeline(10), null, factory);
+        Status first = list.get(0);
+        Status removed = list.remove(1);
+        assertEquals(1001, removed.getId());
+        assertEquals(9, list.size());
+        list.add(first);
+        assertEquals(10, list.size());
+        assertSame(first, list.get(9));
+        Collections.sort(list, Collections.reverseOrder());
+        assertEquals(1009, list.get(0).getId());
+        Iterator<Status> iterator = list.iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(9, list.size());
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+
+    public void testSerialization() throws Exception {
+        ResponseList<Status> list = new LazyResponseList<Status>(timeline(20), null, factory);
+        list.get(3);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        oos.writeObject(list);
+        oos.close();
+        ResponseList<Status> deserialized = (ResponseList<Status>) new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+        assertEquals(20, deserialized.size());
+        assertEquals(list, deserialized);
+        assertEquals("status 19", deserialized.get(19).getText());
+    }
+
+    public void testMaterializeAll() throws Exception {
+        final AtomicInteger submitted = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        Executor executor = new Executor() {
+            public void execute(Runnable command) {
+                submitted.incrementAndGet();
+                pool.execute(command);
+            }
+        };
+        try {
+            ResponseList<Status> small = new LazyResponseList<Status>(timeline(LazyResponseList.PARALLEL_THRESHOLD - 1), null, factory);
+            small.materializeAll(executor);
+            assertEquals(0, submitted.get());
+            assertEquals(0, created.get());
+
+            JSONArray array = timeline(LazyResponseList.PARALLEL_THRESHOLD * 2);
+            array.put(7, new JSONObject("{\"id\":1,\"user\":\"not an object\"}"));
+            ResponseList<Status> large = new LazyResponseList<Status>(array, null, factory);
+            assertEquals("status 3", large.get(3).getText());
+            large.materializeAll(executor);
+            assertTrue(0 < submitted.get());
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+            // every element is created once, the malformed one included
+            assertEquals(LazyResponseList.PARALLEL_THRESHOLD * 2, created.get());
+            assertEquals(1099, large.get(99).getId());
+            try {
+                large.get(7);
+                fail("IllegalStateException expected");
+            } catch (IllegalStateException expected) {
+                assertTrue(expected.getCause() instanceof TwitterException);
+            }
+            // rejected by the terminated pool, leaving the malformed element to throw on access
+            int before = created.get();
+            large.materializeAll(executor);
+            for (int i = 8; i < large.size(); i++) {
+                large.get(i);
+            }
+            assertEquals(before, created.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    public void testMalformedElement() throws Exception {
+        JSONArray array = timeline(3);
+        array.put(1, new JSONObject("{\"id\":1,\"user\":\"not an object\"}"));
+        List<Status> list = new LazyResponseList<Status>(array, null, factory);
+        assertEquals(1000, list.get(0).getId());
+        try {
+            list.get(1);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getCause() instanceof TwitterException);
+        }
+        assertEquals(1002, list.get(2).getId());
+        // thrown again on every access, including traversals and modifications
+        try {
+            list.get(1);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getCause() instanceof TwitterException);
+        }
+        Iterator<Status> iterator = list.iterator();
+        iterator.next();
+        try {
+            iterator.next();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            list.remove(0);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(3, list.size());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationContext;
+import twitter4j.http.NullAuthorization;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class SearchIteratorTest extends TestCase {
+    public SearchIteratorTest(String name) {
+        super(name);
+    }
+
+    public void testPagingAndDeduplication() throws Exception {
+        SearchingTwitter twitter = new SearchingTwitter();
+        twitter.post(40);
+        // pages after the first one overlap the previous page by one tweet
+        twitter.overlap = true;
+        SearchIterator tweets = new SearchIterator(twitter, new Query("twitter4j").sinceId(5), 2, 15);
+        long expected = 40;
+        while (tweets.hasNext()) {
+            assertEquals(expected--, tweets.next().getId());
+        }
+        assertEquals(5, expected);
+        assertEquals(3, twitter.queries.size());
+        // max_id of the first page is pinned
+        assertEquals(-1, twitter.queries.get(0).getMaxId());
+        assertEquals(40, twitter.queries.get(1).getMaxId());
+        assertEquals(3, twitter.queries.get(2).getPage());
+    }
+
+    public void testLive() throws Exception {
+        SearchingTwitter twitter = new SearchingTwitter();
+        twitter.post(3);
+        SearchIterator tweets = new SearchIterator(twitter, new Query("twitter4j"));
+        tweets.setLive(10, 50);
+        assertEquals(3, tweets.next().getId());
+        assertEquals(2, tweets.next().getId());
+        assertEquals(1, tweets.next().getId());
+        twitter.post(2);
+        assertEquals(5, tweets.next().getId());
+        assertEquals(4, tweets.next().getId());
+        Query poll = twitter.queries.get(twitter.queries.size() - 1);
+        assertEquals(3, poll.getSinceId());
+        tweets.cancel();
+        assertFalse(tweets.hasNext());
+    }
+
+    public void testCancelWakesUpWaitingCaller() throws Exception {
+        SearchingTwitter twitter = new SearchingTwitter();
+        final SearchIterator tweets = new SearchIterator(twitter, new Query("twitter4j"));
+        // nothing to find, the caller keeps waiting
+        tweets.setLive(10, 10);
+        final AtomicBoolean hasNext = new AtomicBoolean(true);
+        Thread caller = new Thread() {
+            public void run() {
+                hasNext.set(tweets.hasNext());
+            }
+        };
+        caller.start();
+        Thread.sleep(100);
+        tweets.cancel();
+        caller.join(1000);
+        assertFalse(caller.isAlive());
+        assertFalse(hasNext.get());
+    }
+
+    public void testRuntimeException() throws Exception {
+        SearchingTwitter twitter = new SearchingTwitter();
+        twitter.unexpected = new IllegalStateException("malformed result");
+        SearchIterator tweets = new SearchIterator(twitter, new Query("twitter4j"));
+        assertTrue(tweets.hasNext());
+        try {
+            tweets.next();
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertSame(twitter.unexpected, expected);
+        }
+        assertFalse(tweets.hasNext());
+    }
+
+    static class SearchingTwitter extends Twitter {
+        private static final long serialVersionUID = 1L;
+        final List<Query> queries = new ArrayList<Query>();
+        private final List<Tweet> tweets = new ArrayList<Tweet>();
+        volatile boolean overlap = false;
+        volatile RuntimeException unexpected = null;
+
+        SearchingTwitter() {
+            super(ConfigurationContext.getInstance(), NullAuthorization.getInstance());
+        }
+
+        synchronized void post(int count) throws Exception {
+            for (int i = 0; i < count; i++) {
+                tweets.add(0, new TweetJSONImpl(new JSONObject("{\"id\":" + (tweets.size() + 1)
+                        + ",\"text\":\"twitter4j\"}")));
+            }
+        }
+
+        public synchronized QueryResult search(Query query) throws TwitterException {
+            queries.add(query);
+            if (null != unexpected) {
+                throw unexpected;
+            }
+            List<Tweet> matched = new ArrayList<Tweet>();
+            for (Tweet tweet : tweets) {
+                if (tweet.getId() > query.getSinceId()
+                        && (query.getMaxId() <= 0 || tweet.getId() <= query.getMaxId())) {
+                    matched.add(tweet);
+                }
+            }
+            int rpp = 0 < query.getRpp() ? query.getRpp() : 15;
+            int from = Math.max(0, (query.getPage() - 1) * rpp - (overlap && 1 < query.getPage() ? 1 : 0));
+            final List<Tweet> page = new ArrayList<Tweet>(
+                    matched.subList(Math.min(from, matched.size()), Math.min(from + rpp, matched.size())));
+            final long maxId = tweets.isEmpty() ? -1 : tweets.get(0).getId();
+            return new QueryResult() {
+                private static final long serialVersionUID = 1L;
+
+                public long getSinceId() {
+                    return 0;
+                }
+
+                public long getMaxId() {
+                    return maxId;
+                }
+
+                public String getRefreshUrl() {
+                    return "?since_id=" + maxId;
+                }
+
+                public int getResultsPerPage() {
+                    return 15;
+                }
+
+                public String getWarning() {
+                    return null;
+                }
+
+                public double getCompletedIn() {
+                    return 0;
+                }
+
+                public int getPage() {
+                    return 1;
+                }
+
+                public String getQuery() {
+                    return "twitter4j";
+                }
+
+                public List<Tweet> getTweets() {
+                    return page;
+                }
+            };
+        }
+    }
+}
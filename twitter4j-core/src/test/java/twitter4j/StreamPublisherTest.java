@@ -0,0 +1,346 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class StreamPublisherTest extends TestCase {
+    public StreamPublisherTest(String name) {
+        super(name);
+    }
+
+    static class RecordingSubscriber<T> implements StreamPublisher.Subscriber<T> {
+        StreamPublisher.Subscription subscription;
+        final List<T> received = new ArrayList<T>();
+        Throwable error = null;
+        boolean completed = false;
+
+        public void onSubscribe(StreamPublisher.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        public synchronized void onNext(T element) {
+            received.add(element);
+            notifyAll();
+        }
+
+        public synchronized void onError(Throwable throwable) {
+            error = throwable;
+            notifyAll();
+        }
+
+        public synchronized void onComplete() {
+            completed = true;
+            notifyAll();
+        }
+
+        synchronized void await(int count) throws InterruptedException {
+            long until = System.currentTimeMillis() + 5000;
+            while (received.size() < count && !completed && null == error
+                    && System.currentTimeMillis() < until) {
+                wait(100);
+            }
+        }
+    }
+
+    public void testDemand() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        publisher.subscribe(subscriber);
+        assertTrue(publisher.offer("a"));
+        assertTrue(publisher.offer("b"));
+        assertEquals(0, subscriber.received.size());
+        assertEquals(2, publisher.getBufferedCount());
+
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.received.size());
+        assertEquals("a", subscriber.received.get(0));
+        assertEquals(0, publisher.getDemand());
+        assertEquals(1, publisher.getBufferedCount());
+
+        subscriber.subscription.request(3);
+        assertEquals(2, publisher.getDemand());
+        // delivered on the calling thread while there is demand
+        publisher.offer("c");
+        assertEquals(3, subscriber.received.size());
+        assertEquals(1, publisher.getDemand());
+        assertEquals(0, publisher.getBufferedCount());
+        assertEquals(3, publisher.getDeliveredCount());
+
+        publisher.complete();
+        assertTrue(subscriber.completed);
+        assertFalse(publisher.offer("d"));
+    }
+
+    public void testCompleteAfterDrain() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        publisher.offer("a");
+        publisher.complete();
+        publisher.subscribe(subscriber);
+        assertFalse(subscriber.completed);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(1, subscriber.received.size());
+        assertTrue(subscriber.completed);
+    }
+
+    public void testReentrantRequest() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>() {
+            public void onSubscribe(StreamPublisher.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(1);
+            }
+
+            public synchronized void onNext(String element) {
+                super.onNext(element);
+                subscription.request(1);
+            }
+        };
+        publisher.subscribe(subscriber);
+        for (int i = 0; i < 5; i++) {
+            publisher.offer(String.valueOf(i));
+        }
+        assertEquals(5, subscriber.received.size());
+        assertEquals(1, publisher.getDemand());
+    }
+
+    public void testDropOldest() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(2, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        publisher.subscribe(subscriber);
+        publisher.offer("a");
+        publisher.offer("b");
+        assertTrue(publisher.offer("c"));
+        assertEquals(2, publisher.getBufferedCount());
+        assertEquals(1, publisher.getDroppedCount());
+        subscriber.subscription.request(10);
+        assertEquals("b", subscriber.received.get(0));
+        assertEquals("c", subscriber.received.get(1));
+    }
+
+    public void testDropNewest() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(2, StreamPublisher.DROP_NEWEST);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        publisher.subscribe(subscriber);
+        publisher.offer("a");
+        publisher.offer("b");
+        assertFalse(publisher.offer("c"));
+        assertEquals(1, publisher.getDroppedCount());
+        subscriber.subscription.request(10);
+        assertEquals("a", subscriber.received.get(0));
+        assertEquals("b", subscriber.received.get(1));
+        assertNull(subscriber.error);
+    }
+
+    public void testDisconnect() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(1, StreamPublisher.DISCONNECT);
+        final boolean[] detached = new boolean[1];
+        publisher.setDetachAction(new Runnable() {
+            public void run() {
+                detached[0] = true;
+            }
+        });
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        publisher.subscribe(subscriber);
+        publisher.offer("a");
+        assertFalse(publisher.offer("b"));
+        assertTrue(detached[0]);
+        assertTrue(publisher.isOverflowed());
+        assertTrue(subscriber.error instanceof TwitterException);
+        assertEquals(0, subscriber.received.size());
+    }
+
+    public void testCancel() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(10, StreamPublisher.DROP_OLDEST);
+        final boolean[] detached = new boolean[1];
+        publisher.setDetachAction(new Runnable() {
+            public void run() {
+                detached[0] = true;
+            }
+        });
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        publisher.subscribe(subscriber);
+        publisher.offer("a");
+        subscriber.subscription.cancel();
+        assertTrue(detached[0]);
+        assertTrue(publisher.isCancelled());
+        subscriber.subscription.request(1);
+        assertEquals(0, subscriber.received.size());
+        assertFalse(publisher.offer("b"));
+    }
+
+    public void testSingleSubscriber() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(10, StreamPublisher.DROP_OLDEST);
+        publisher.subscribe(new RecordingSubscriber<String>());
+        RecordingSubscriber<String> second = new RecordingSubscriber<String>();
+        publisher.subscribe(second);
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    public void testInvalidRequest() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        publisher.subscribe(subscriber);
+        final boolean[] detached = new boolean[1];
+        publisher.setDetachAction(new Runnable() {
+            public void run() {
+                detached[0] = true;
+            }
+        });
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(detached[0]);
+    }
+
+    public void testErrorAfterDrain() throws Exception {
+        StreamPublisher<String> publisher = new StreamPublisher<String>(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+        publisher.subscribe(subscriber);
+        publisher.offer("a");
+        publisher.error(new TwitterException("Stream closed."));
+        assertNull(subscriber.error);
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.received.size());
+        assertTrue(subscriber.error instanceof TwitterException);
+    }
+
+    public void testTwitterStreamReconnects() throws Exception {
+        TwitterStream twitterStream = new TwitterStreamFactory().getInstance();
+        StreamPublisher<Status> publisher = twitterStream.getStatusPublisher(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<Status> subscriber = new RecordingSubscriber<Status>();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(10);
+        final String[] connections = {statusJSON(1) + "\n" + statusJSON(2) + "\n"
+                , statusJSON(3) + "\n{malformed\n" + statusJSON(4) + "\n"};
+        final int[] connected = {0};
+        // each connection is closed by peer, and the second one carries a malformed line
+        twitterStream.startHandler(twitterStream.new StreamHandlingThread() {
+            StatusStream getStream() throws TwitterException {
+                if (connected[0] >= connections.length) {
+                    throw new TwitterException("Connection refused.");
+                }
+                try {
+                    return new StatusStreamImpl(new ByteArrayInputStream(connections[connected[0]++].getBytes("UTF-8")));
+                } catch (IOException ioe) {
+                    throw new TwitterException(ioe);
+                }
+            }
+        });
+        try {
+            subscriber.await(4);
+            assertEquals(4, subscriber.received.size());
+            assertEquals(4, subscriber.received.get(3).getId());
+            assertNull(subscriber.error);
+            assertFalse(subscriber.completed);
+        } finally {
+            twitterStream.cleanUp();
+        }
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    public void testUnrecoverableException() throws Exception {
+        StreamPublisher<Status> publisher = new StreamPublisher<Status>(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<Status> subscriber = new RecordingSubscriber<Status>();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(10);
+        StreamPublisher.StatusPublishingListener listener = new StreamPublisher.StatusPublishingListener(publisher);
+        listener.onException(new TwitterException("Connection reset.", null, -1));
+        listener.onException(new TwitterException("Service Unavailable", null, TwitterException.SERVICE_UNAVAILABLE));
+        assertNull(subscriber.error);
+        listener.onException(new TwitterException("Unauthorized", null, TwitterException.UNAUTHORIZED));
+        assertTrue(subscriber.error instanceof TwitterException);
+        assertEquals(TwitterException.UNAUTHORIZED, ((TwitterException) subscriber.error).getStatusCode());
+    }
+
+    public void testTwitterStreamSignalsComplete() throws Exception {
+        TwitterStream twitterStream = new TwitterStreamFactory().getInstance();
+        StreamPublisher<UserStreamEvent> publisher = twitterStream.getUserStreamEventPublisher(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<UserStreamEvent> subscriber = new RecordingSubscriber<UserStreamEvent>();
+        publisher.subscribe(subscriber);
+        twitterStream.cleanUp();
+        assertTrue(subscriber.completed);
+
+        StreamPublisher<Status> another = twitterStream.getStatusPublisher(10, StreamPublisher.DROP_OLDEST);
+        RecordingSubscriber<Status> anotherSubscriber = new RecordingSubscriber<Status>();
+        another.subscribe(anotherSubscriber);
+        twitterStream.shutdown();
+        assertTrue(anotherSubscriber.completed);
+        assertNull(anotherSubscriber.error);
+    }
+
+    private static String statusJSON(long id) {
+        return "{\"id\":" + id + ",\"text\":\"status " + id + "\",\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\""
+                + ",\"user\":{\"id\":6358482,\"screen_name\":\"twit4j\"}}";
+    }
+
+    public void testStatusStreamPublisher() throws Exception {
+        String lines = statusJSON(1) + "\n" + statusJSON(2) + "\n"
+                + "{\"delete\":{\"status\":{\"id\":1,\"user_id\":6358482}}}\n" + statusJSON(3) + "\n";
+        StatusStream stream = new StatusStreamImpl(new ByteArrayInputStream(lines.getBytes("UTF-8")));
+        StreamPublisher<Status> publisher = StreamPublisher.getStatusPublisher(stream, 1);
+        RecordingSubscriber<Status> subscriber = new RecordingSubscriber<Status>();
+        publisher.subscribe(subscriber);
+        Thread.sleep(200);
+        // reads ahead only as far as the buffer allows
+        assertEquals(1, publisher.getBufferedCount());
+        assertEquals(0, publisher.getDroppedCount());
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.await(3);
+        assertEquals(3, subscriber.received.size());
+        assertEquals(3, subscriber.received.get(2).getId());
+    }
+
+    public void testUserStreamEventPublisher() throws Exception {
+        String lines = statusJSON(1) + "\n"
+                + "{\"delete\":{\"status\":{\"id\":1,\"user_id\":6358482}}}\n"
+                + "{\"friends\":[1,2,3]}\n";
+        UserStream stream = new StatusStreamImpl(new ByteArrayInputStream(lines.getBytes("UTF-8")));
+        StreamPublisher<UserStreamEvent> publisher = StreamPublisher.getUserStreamEventPublisher(stream, 10);
+        RecordingSubscriber<UserStreamEvent> subscriber = new RecordingSubscriber<UserStreamEvent>();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(10);
+        subscriber.await(3);
+        assertEquals(3, subscriber.received.size());
+        assertEquals(UserStreamEvent.STATUS, subscriber.received.get(0).getType());
+        assertEquals(1, subscriber.received.get(0).getStatus().getId());
+        assertEquals(UserStreamEvent.DELETION_NOTICE, subscriber.received.get(1).getType());
+        assertEquals(1, subscriber.received.get(1).getDeletionNotice().getStatusId());
+        assertEquals(UserStreamEvent.FRIEND_LIST, subscriber.received.get(2).getType());
+        assertEquals(3, subscriber.received.get(2).getFriendIds().length);
+    }
+}
@@ -0,0 +1,228 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class TimelineSynchronizerTest extends TestCase {
+    public TimelineSynchronizerTest(String name) {
+        super(name);
+    }
+
+    public void testSyncAndBackfill() throws Exception {
+        File file = File.createTempFile("twitter4j", ".properties");
+        file.delete();
+        try {
+            FakeTimeline timeline = new FakeTimeline();
+            timeline.post(1, 5);
+            TimelineSynchronizer synchronizer = new TimelineSynchronizer(null, file);
+            synchronizer.setCount(3);
+            // first sync fetches the latest page only
+            List<Status> statuses = synchronizer.sync(timeline);
+            assertIds(statuses, 3, 5);
+            assertEquals(5, synchronizer.getSinceId("fake"));
+
+            assertEquals(0, synchronizer.sync(timeline).size());
+            assertEquals(2, timeline.requests.size());
+
+            // 8 new statuses don't fit in a single page of 3
+            timeline.post(6, 13);
+            timeline.requests.clear();
+            statuses = synchronizer.sync(timeline);
+            assertIds(statuses, 6, 13);
+            assertEquals(13, synchronizer.getSinceId("fake"));
+            // the partial third page closes the gap
+            assertEquals(3, timeline.requests.size());
+            assertEquals(5, timeline.requests.get(1).getSinceId());
+            assertEquals(10, timeline.requests.get(1).getMaxId());
+
+            // a restarted synchronizer carries on from the checkpoint
+            timeline.post(14, 14);
+            synchronizer = new TimelineSynchronizer(null, file);
+            assertEquals(13, synchronizer.getSinceId("fake"));
+            assertIds(synchronizer.sync(timeline), 14, 14);
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testGapLeftOpen() throws Exception {
+        File file = File.createTempFile("twitter4j", ".properties");
+        file.delete();
+        try {
+            FakeTimeline timeline = new FakeTimeline();
+            timeline.post(1, 3);
+            TimelineSynchronizer synchronizer = new TimelineSynchronizer(null, file);
+            synchronizer.setCount(3);
+            synchronizer.setMaxBackfillPages(1);
+            synchronizer.sync(timeline);
+            assertEquals(3, synchronizer.getSinceId("fake"));
+
+            // 4 to 9 can't be reached with a single older page
+            timeline.post(4, 15);
+            assertIds(synchronizer.sync(timeline), 10, 15);
+            assertEquals(15, synchronizer.getSinceId("fake"));
+            assertTrue(synchronizer.hasGap("fake"));
+
+            // the gap is filled page by page after the new statuses, which are not returned again
+            timeline.post(16, 16);
+            timeline.requests.clear();
+            List<Status> statuses = synchronizer.sync(timeline);
+            assertEquals(4, statuses.size());
+            assertIds(statuses.subList(0, 3), 7, 9);
+            assertEquals(16, statuses.get(3).getId());
+            assertEquals(15, timeline.requests.get(0).getSinceId());
+            assertEquals(3, timeline.requests.get(1).getSinceId());
+            assertEquals(9, timeline.requests.get(1).getMaxId());
+            assertEquals(2, timeline.requests.size());
+            assertTrue(synchronizer.hasGap("fake"));
+
+            // a restarted synchronizer carries on filling the gap
+            synchronizer = new TimelineSynchronizer(null, file);
+            synchronizer.setCount(3);
+            assertTrue(synchronizer.hasGap("fake"));
+            assertIds(synchronizer.sync(timeline), 4, 6);
+            assertFalse(synchronizer.hasGap("fake"));
+            assertEquals(16, synchronizer.getSinceId("fake"));
+            assertEquals(0, synchronizer.sync(timeline).size());
+            assertFalse(new TimelineSynchronizer(null, file).hasGap("fake"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testCheckpointFailure() throws Exception {
+        File tmp = File.createTempFile("twitter4j", "");
+        tmp.delete();
+        // the directory doesn't exist
+        File file = new File(tmp, "checkpoints.properties");
+        FakeTimeline timeline = new FakeTimeline();
+        timeline.post(1, 2);
+        TimelineSynchronizer synchronizer = new TimelineSynchronizer(null, file);
+        try {
+            synchronizer.sync(timeline);
+            fail("expecting TwitterException");
+        } catch (TwitterException expected) {
+        }
+        // the mark is not advanced past what couldn't be saved
+        assertEquals(0, synchronizer.getSinceId("fake"));
+    }
+
+    public void testPolling() throws Exception {
+        final FakeTimeline timeline = new FakeTimeline();
+        timeline.post(1, 2);
+        final CountDownLatch latch = new CountDownLatch(2);
+        final List<Status> received = new ArrayList<Status>();
+        TimelineSynchronizer synchronizer = new TimelineSynchronizer(new TimelineSynchronizer.Listener() {
+            public void onStatuses(String key, List<Status> statuses) {
+                assertEquals("fake", key);
+                received.addAll(statuses);
+                if (1 == latch.getCount()) {
+                    latch.countDown();
+                } else {
+                    latch.countDown();
+                    timeline.post(3, 4);
+                }
+            }
+
+            public void onException(String key, TwitterException te) {
+                fail(te.getMessage());
+            }
+        });
+        synchronizer.setPollingInterval(10, 100);
+        synchronizer.add(timeline);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        synchronizer.shutdown();
+        assertIds(received, 1, 4);
+    }
+
+    private static void assertIds(List<Status> statuses, long from, long to) {
+        assertEquals(to - from + 1, statuses.size());
+        for (int i = 0; i < statuses.size(); i++) {
+            assertEquals(from + i, statuses.get(i).getId());
+        }
+    }
+
+    static class FakeTimeline implements TimelineSynchronizer.Timeline {
+        private final List<Status> statuses = new ArrayList<Status>();
+        final List<Paging> requests = new ArrayList<Paging>();
+
+        synchronized void post(long from, long to) {
+            try {
+                for (long id = from; id <= to; id++) {
+                    statuses.add(0, new StatusJSONImpl(new JSONObject("{\"id\":" + id
+                            + ",\"text\":\"status " + id + "\"}")));
+                }
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        public String getKey() {
+            return "fake";
+        }
+
+        public synchronized ResponseList<Status> fetch(Paging paging) throws TwitterException {
+            requests.add(paging);
+            StatusList page = new StatusList();
+            for (Status status : statuses) {
+                if (page.size() < paging.getCount() && status.getId() > paging.getSinceId()
+                        && (paging.getMaxId() <= 0 || status.getId() <= paging.getMaxId())) {
+                    page.add(status);
+                }
+            }
+            return page;
+        }
+    }
+
+    static class StatusList extends ArrayList<Status> implements ResponseList<Status> {
+        private static final long serialVersionUID = 1L;
+
+        public RateLimitStatus getRateLimitStatus() {
+            return null;
+        }
+
+        public RateLimitStatus getFeatureSpecificRateLimitStatus() {
+            return null;
+        }
+
+        public void materializeAll(Executor executor) {
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.internal.http.HttpCancellation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class TwitterFutureTest extends TestCase {
+    public TwitterFutureTest(String name) {
+        super(name);
+    }
+
+    /**
+     * Runs the callable on a new thread, like a dispatcher thread would.
+     */
+    private static <V> TwitterFuture<V> start(final TwitterCallable<V> callable) {
+        final TwitterFuture<V> future = new TwitterFuture<V>(TwitterMethod.SHOW_STATUS);
+        new Thread() {
+            public void run() {
+                future.run(null, callable);
+            }
+        }.start();
+        return future;
+    }
+
+    private static <V> TwitterCallable<V> returning(final V value, final long delay) {
+        return new TwitterCallable<V>() {
+            public V call(Twitter twitter) throws TwitterException {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    throw new TwitterException(ie);
+                }
+                return value;
+            }
+        };
+    }
+
+    public void testCompleteAndFail() throws Exception {
+        TwitterFuture<String> future = start(returning("result", 50));
+        assertEquals("result", future.get(5, TimeUnit.SECONDS));
+        assertTrue(future.isDone());
+        assertFalse(future.cancel(true));
+
+        TwitterFuture<String> failure = start(new TwitterCallable<String>() {
+            public String call(Twitter twitter) throws TwitterException {
+                throw new TwitterException("failure");
+            }
+        });
+        try {
+            failure.get();
+            fail("should fail");
+        } catch (ExecutionException expected) {
+            assertEquals("failure", expected.getCause().getMessage());
+        }
+        assertTrue(failure.isFailed());
+
+        try {
+            start(returning("late", 1000)).get(10, TimeUnit.MILLISECONDS);
+            fail("should time out");
+        } catch (TimeoutException expected) {
+        }
+    }
+
+    public void testListener() throws Exception {
+        final List<String> notified = new ArrayList<String>();
+        TwitterFuture<String> future = new TwitterFuture<String>(null);
+        future.addListener(new TwitterFuture.Listener<Object>() {
+            public void onComplete(TwitterFuture<?> future) {
+                notified.add("first:" + future.getValue());
+            }
+        });
+        future.complete("done");
+        future.addListener(new TwitterFuture.Listener<String>() {
+            public void onComplete(TwitterFuture<? extends String> future) {
+                notified.add("late:" + future.getValue());
+            }
+        });
+        assertFalse(future.complete("again"));
+        assertEquals(2, notified.size());
+        assertEquals("first:done", notified.get(0));
+        assertEquals("late:done", notified.get(1));
+    }
+
+    public void testCancelAbortsRequest() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch aborted = new CountDownLatch(1);
+        TwitterFuture<String> future = start(new TwitterCallable<String>() {
+            public String call(Twitter twitter) throws TwitterException {
+                // stands for a request blocked on reading the response
+                HttpCancellation.getCurrent().setAbortAction(new Runnable() {
+                    public void run() {
+                        aborted.countDown();
+                    }
+                });
+                started.countDown();
+                try {
+                    aborted.await();
+                } catch (InterruptedException ignore) {
+                }
+                throw new TwitterException("disconnected");
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(future.cancel(false));
+        assertTrue(aborted.await(5, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+        try {
+            future.get();
+            fail("should be cancelled");
+        } catch (CancellationException expected) {
+        }
+    }
+
+    public void testTimeout() throws Exception {
+        TwitterFuture<String> future = start(returning("late", 5000)).timeout(100, TimeUnit.MILLISECONDS);
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("should time out");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof TwitterException);
+        }
+        assertTrue(future.isFailed());
+
+        TwitterFuture<String> inTime = start(returning("early", 10)).timeout(5, TimeUnit.SECONDS);
+        assertEquals("early", inTime.get());
+    }
+
+    public void testAllOf() throws Exception {
+        List<TwitterFuture<Integer>> futures = new ArrayList<TwitterFuture<Integer>>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(start(returning(i, 100 - i)));
+        }
+        List<Integer> values = TwitterFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+        assertEquals(100, values.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, values.get(i).intValue());
+        }
+
+        futures.add(TwitterFuture.<Integer>failed(new TwitterException("failure")));
+        futures.add(start(returning(0, 5000)));
+        TwitterFuture<List<Integer>> failing = TwitterFuture.allOf(futures);
+        try {
+            failing.get(1, TimeUnit.SECONDS);
+            fail("should fail");
+        } catch (ExecutionException expected) {
+        }
+        failing = TwitterFuture.allOf(futures.subList(100, 102));
+        assertTrue(failing.isFailed());
+
+        assertEquals(0, TwitterFuture.allOf(new ArrayList<TwitterFuture<String>>()).get().size());
+    }
+
+    public void testThen() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        TwitterFuture<String> chained = start(returning(6358482, 10)).then(new TwitterFuture.Continuation<Integer, String>() {
+            public TwitterFuture<String> apply(Integer id) throws TwitterException {
+                calls.incrementAndGet();
+                return start(returning("user " + id, 10));
+            }
+        });
+        assertEquals("user 6358482", chained.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+
+        TwitterFuture<String> skipped = TwitterFuture.<Integer>failed(new TwitterException("failure")).then(new TwitterFuture.Continuation<Integer, String>() {
+            public TwitterFuture<String> apply(Integer id) throws TwitterException {
+                calls.incrementAndGet();
+                return TwitterFuture.completed("never");
+            }
+        });
+        assertTrue(skipped.isFailed());
+        assertEquals(1, calls.get());
+
+        final TwitterFuture<String> second = new TwitterFuture<String>(null);
+        TwitterFuture<String> cancelled = TwitterFuture.completed(1).then(new TwitterFuture.Continuation<Integer, String>() {
+            public TwitterFuture<String> apply(Integer id) throws TwitterException {
+                return second;
+            }
+        });
+        assertTrue(cancelled.cancel(true));
+        assertTrue(second.isCancelled());
+
+        final IllegalStateException unexpected = new IllegalStateException("bug in the continuation");
+        TwitterFuture<String> broken = TwitterFuture.completed(1).then(new TwitterFuture.Continuation<Integer, String>() {
+            public TwitterFuture<String> apply(Integer id) throws TwitterException {
+                throw unexpected;
+            }
+        });
+        assertTrue(broken.isFailed());
+        assertSame(unexpected, broken.getException().getCause());
+    }
+}
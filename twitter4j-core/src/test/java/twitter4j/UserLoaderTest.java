@@ -0,0 +1,213 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationContext;
+import twitter4j.http.NullAuthorization;
+import twitter4j.internal.org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class UserLoaderTest extends TestCase {
+    public UserLoaderTest(String name) {
+        super(name);
+    }
+
+    public void testBatching() throws Exception {
+        final LookupCountingTwitter twitter = new LookupCountingTwitter();
+        final UserLoader loader = new UserLoader(twitter, 200);
+        final int count = 150;
+        final User[] users = new User[count];
+        final TwitterException[] exceptions = new TwitterException[count];
+        Thread[] threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        // id 0 does not exist
+                        users[index] = loader.showUser(index);
+                    } catch (TwitterException te) {
+                        exceptions[index] = te;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        assertEquals(2, twitter.idCalls.get());
+        assertEquals(404, exceptions[0].getStatusCode());
+        for (int i = 1; i < count; i++) {
+            assertNull(exceptions[i]);
+            assertEquals(i, users[i].getId());
+        }
+        loader.shutdown();
+    }
+
+    public void testScreenNameAndListener() throws Exception {
+        LookupCountingTwitter twitter = new LookupCountingTwitter();
+        UserLoader loader = new UserLoader(twitter, 50);
+        final CountDownLatch latch = new CountDownLatch(3);
+        final List<User> received = Collections.synchronizedList(new ArrayList<User>());
+        TwitterListener listener = new TwitterAdapter() {
+            public void gotUserDetail(User user) {
+                received.add(user);
+                latch.countDown();
+            }
+
+            public void onException(TwitterException te, TwitterMethod method) {
+                assertEquals(TwitterMethod.SHOW_USER, method);
+                latch.countDown();
+            }
+        };
+        loader.showUser("User3", listener);
+        loader.showUser("user3", listener);
+        loader.showUser("user4", listener);
+        assertEquals(3, loader.showUser("USER3").getId());
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(3, received.size());
+        assertEquals(1, twitter.screenNameCalls.get());
+
+        twitter.failure = new TwitterException("rate limited", null, 400);
+        try {
+            loader.showUser(5);
+            fail("expecting TwitterException");
+        } catch (TwitterException te) {
+            assertSame(twitter.failure, te);
+        }
+        loader.shutdown();
+        try {
+            loader.showUser(6);
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testUnexpectedException() throws Exception {
+        LookupCountingTwitter twitter = new LookupCountingTwitter();
+        UserLoader loader = new UserLoader(twitter, 10);
+        twitter.unexpected = new IllegalStateException("broken response");
+        final CountDownLatch latch = new CountDownLatch(1);
+        loader.showUser(2, new TwitterAdapter() {
+            public void onException(TwitterException te, TwitterMethod method) {
+                latch.countDown();
+            }
+        });
+        try {
+            loader.showUser(1);
+            fail("expecting TwitterException");
+        } catch (TwitterException te) {
+            assertSame(twitter.unexpected, te.getCause());
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        // still usable
+        twitter.unexpected = null;
+        assertEquals(3, loader.showUser(3).getId());
+        loader.shutdown();
+    }
+
+    private static User user(int id) throws Exception {
+        return new UserJSONImpl(new JSONObject("{\"id\":" + id + ",\"screen_name\":\"user" + id
+                + "\",\"created_at\":\"Mon Oct 18 12:00:00 +0000 2010\"}"));
+    }
+
+    static class UserList extends ArrayList<User> implements ResponseList<User> {
+        private static final long serialVersionUID = 1L;
+
+        public RateLimitStatus getRateLimitStatus() {
+            return null;
+        }
+
+        public RateLimitStatus getFeatureSpecificRateLimitStatus() {
+            return null;
+        }
+
+        public void materializeAll(Executor executor) {
+        }
+    }
+
+    static class LookupCountingTwitter extends Twitter {
+        private static final long serialVersionUID = 1L;
+        final AtomicInteger idCalls = new AtomicInteger();
+        final AtomicInteger screenNameCalls = new AtomicInteger();
+        volatile TwitterException failure;
+        volatile RuntimeException unexpected;
+
+        LookupCountingTwitter() {
+            super(ConfigurationContext.getInstance(), NullAuthorization.getInstance());
+        }
+
+        public ResponseList<User> lookupUsers(int[] ids) throws TwitterException {
+            idCalls.incrementAndGet();
+            assertTrue(ids.length <= UserLoader.MAX_BATCH_SIZE);
+            if (null != failure) {
+                throw failure;
+            }
+            if (null != unexpected) {
+                throw unexpected;
+            }
+            UserList users = new UserList();
+            try {
+                for (int id : ids) {
+                    if (0 != id) {
+                        users.add(user(id));
+                    }
+                }
+            } catch (Exception e) {
+                throw new TwitterException(e);
+            }
+            return users;
+        }
+
+        public ResponseList<User> lookupUsers(String[] screenNames) throws TwitterException {
+            screenNameCalls.incrementAndGet();
+            UserList users = new UserList();
+            try {
+                for (String screenName : screenNames) {
+                    users.add(user(Integer.parseInt(screenName.substring(4))));
+                }
+            } catch (Exception e) {
+                throw new TwitterException(e);
+            }
+            return users;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.async;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class PriorityDispatcherTest extends TestCase {
+    public PriorityDispatcherTest(String name) {
+        super(name);
+    }
+
+    private PriorityDispatcher dispatcher;
+    private final List<TwitterMethod> executed = Collections.synchronizedList(new ArrayList<TwitterMethod>());
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        dispatcher.shutdown();
+    }
+
+    private TwitterMethodTask task(final TwitterMethod method, final CountDownLatch done) {
+        return new TwitterMethodTask() {
+            public TwitterMethod getMethod() {
+                return method;
+            }
+
+            public void run() {
+                executed.add(method);
+                done.countDown();
+            }
+        };
+    }
+
+    /**
+     * occupies the only thread until the latch is released
+     */
+    private CountDownLatch block() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        dispatcher.invokeLater(new Runnable() {
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignore) {
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    public void testPriorityClasses() throws Exception {
+        dispatcher = new PriorityDispatcher(1);
+        assertEquals(PriorityDispatcher.WRITE, dispatcher.getPriorityClass(TwitterMethod.UPDATE_STATUS));
+        assertEquals(PriorityDispatcher.WRITE, dispatcher.getPriorityClass(TwitterMethod.SEND_DIRECT_MESSAGE));
+        assertEquals(PriorityDispatcher.WRITE, dispatcher.getPriorityClass(TwitterMethod.RETWEET_STATUS));
+        assertEquals(PriorityDispatcher.READ, dispatcher.getPriorityClass(TwitterMethod.HOME_TIMELINE));
+        assertEquals(PriorityDispatcher.READ, dispatcher.getPriorityClass(null));
+        assertEquals(PriorityDispatcher.BULK, dispatcher.getPriorityClass(TwitterMethod.FOLLOWERS_IDS));
+
+        dispatcher.setPriorityClass(TwitterMethod.HOME_TIMELINE, PriorityDispatcher.BULK);
+        assertEquals(PriorityDispatcher.BULK, dispatcher.getPriorityClass(TwitterMethod.HOME_TIMELINE));
+        try {
+            dispatcher.setPriorityClass(TwitterMethod.HOME_TIMELINE, 3);
+            fail("should reject unknown classes");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testWritesOvertakeBulkReads() throws Exception {
+        dispatcher = new PriorityDispatcher(1);
+        CountDownLatch release = block();
+        CountDownLatch done = new CountDownLatch(110);
+        for (int i = 0; i < 100; i++) {
+            dispatcher.invokeLater(task(TwitterMethod.FOLLOWERS_IDS, done));
+        }
+        for (int i = 0; i < 5; i++) {
+            dispatcher.invokeLater(task(TwitterMethod.UPDATE_STATUS, done));
+            dispatcher.invokeLater(task(TwitterMethod.HOME_TIMELINE, done));
+        }
+        assertEquals(100, dispatcher.getQueueDepth(PriorityDispatcher.BULK));
+        assertEquals(5, dispatcher.getQueueDepth(PriorityDispatcher.WRITE));
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        List<TwitterMethod> first = executed.subList(0, 13);
+        assertEquals(5, Collections.frequency(first, TwitterMethod.UPDATE_STATUS));
+        assertEquals(5, Collections.frequency(first, TwitterMethod.HOME_TIMELINE));
+        // bulk reads are not starved while other classes have tasks waiting
+        assertTrue(Collections.frequency(first, TwitterMethod.FOLLOWERS_IDS) >= 1);
+        assertEquals(0, dispatcher.getQueueDepth(PriorityDispatcher.BULK));
+        assertEquals(100, dispatcher.getDispatchedCount(PriorityDispatcher.BULK));
+        assertEquals(5, dispatcher.getDispatchedCount(PriorityDispatcher.WRITE));
+        assertTrue(dispatcher.getMaxWaitTime(PriorityDispatcher.BULK) >= dispatcher.getAverageWaitTime(PriorityDispatcher.BULK));
+    }
+
+    public void testWeights() throws Exception {
+        dispatcher = new PriorityDispatcher(1);
+        dispatcher.setWeight(PriorityDispatcher.READ, 1);
+        dispatcher.setWeight(PriorityDispatcher.BULK, 1);
+        CountDownLatch release = block();
+        CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.invokeLater(task(TwitterMethod.FOLLOWERS_IDS, done));
+            dispatcher.invokeLater(task(TwitterMethod.HOME_TIMELINE, done));
+        }
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // equal weights alternate
+        for (int i = 0; i < 20; i += 2) {
+            assertFalse(executed.get(i).equals(executed.get(i + 1)));
+        }
+    }
+}
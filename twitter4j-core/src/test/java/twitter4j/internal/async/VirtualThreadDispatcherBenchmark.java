@@ -0,0 +1,92 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.async;
+
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares DispatcherImpl and VirtualThreadDispatcher running tasks blocked on I/O, like API calls waiting for responses.<br>
+ * Virtual threads are used on Java 21 or later, the thread pool fallback otherwise.<br>
+ * Usage: VirtualThreadDispatcherBenchmark [number of tasks] [milliseconds each task blocks] [numThreads of DispatcherImpl] [maxConcurrency]
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class VirtualThreadDispatcherBenchmark {
+    private VirtualThreadDispatcherBenchmark() {
+        throw new AssertionError();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        long blockMillis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int numThreads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int maxConcurrency = args.length > 3 ? Integer.parseInt(args[3]) : 10000;
+        System.out.println("tasks: " + tasks + ", blocking: " + blockMillis + "ms, virtual threads available: "
+                + VirtualThreadDispatcher.isVirtualThreadAvailable());
+        System.out.println("dispatcher\ttasks/s\theap growth(MB)");
+        run("DispatcherImpl(" + numThreads + ")", new DispatcherFactory(new ConfigurationBuilder()
+                .setAsyncNumThreads(numThreads).build()).getInstance(), tasks, blockMillis);
+        run("VirtualThreadDispatcher(" + maxConcurrency + ")", new DispatcherFactory(new ConfigurationBuilder()
+                .setDispatcherImpl(VirtualThreadDispatcher.class.getName())
+                .setAsyncMaxConcurrency(maxConcurrency).build()).getInstance(), tasks, blockMillis);
+    }
+
+    private static void run(String name, Dispatcher dispatcher, int tasks, final long blockMillis) throws InterruptedException {
+        System.gc();
+        long heapBefore = usedHeap();
+        final long[] maxHeap = {heapBefore};
+        final CountDownLatch done = new CountDownLatch(tasks);
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            dispatcher.invokeLater(new Runnable() {
+                public void run() {
+                    try {
+                        Thread.sleep(blockMillis);
+                    } catch (InterruptedException ignore) {
+                    }
+                    synchronized (maxHeap) {
+                        maxHeap[0] = Math.max(maxHeap[0], usedHeap());
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        System.out.println(name + "\t" + (long) (tasks / (elapsed / 1000000000d))
+                + "\t" + (maxHeap[0] - heapBefore) / 1024 / 1024);
+        dispatcher.shutdown();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.async;
+
+import junit.framework.TestCase;
+import twitter4j.conf.ConfigurationBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class VirtualThreadDispatcherTest extends TestCase {
+    public VirtualThreadDispatcherTest(String name) {
+        super(name);
+    }
+
+    /**
+     * stands for the virtual thread factory on Java versions lacking virtual threads
+     */
+    private static final ThreadFactory THREAD_PER_TASK = new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    public void testFactory() throws Exception {
+        Dispatcher dispatcher = new DispatcherFactory(new ConfigurationBuilder()
+                .setDispatcherImpl(VirtualThreadDispatcher.class.getName()).build()).getInstance();
+        assertTrue(dispatcher instanceof VirtualThreadDispatcher);
+        final CountDownLatch latch = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            dispatcher.invokeLater(new Runnable() {
+                public void run() {
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+        try {
+            dispatcher.invokeLater(new Runnable() {
+                public void run() {
+                }
+            });
+            fail("should be rejected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testThreadPerTaskBoundedConcurrency() throws Exception {
+        assertBounded(new VirtualThreadDispatcher(10, THREAD_PER_TASK), 10);
+    }
+
+    public void testFallbackBoundedConcurrency() throws Exception {
+        assertBounded(new VirtualThreadDispatcher(10, null), 10);
+    }
+
+    private void assertBounded(VirtualThreadDispatcher dispatcher, int maxConcurrency) throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            dispatcher.invokeLater(new Runnable() {
+                public void run() {
+                    int now = running.incrementAndGet();
+                    synchronized (peak) {
+                        peak.set(Math.max(peak.get(), now));
+                    }
+                    try {
+                        // stands for blocking HTTP I/O
+                        Thread.sleep(5);
+                    } catch (InterruptedException ignore) {
+                    }
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(peak.get() <= maxConcurrency);
+        assertTrue(peak.get() > 1);
+        dispatcher.shutdown();
+    }
+
+    public void testFailingTask() throws Exception {
+        VirtualThreadDispatcher dispatcher = new VirtualThreadDispatcher(1, THREAD_PER_TASK);
+        final CountDownLatch latch = new CountDownLatch(1);
+        dispatcher.invokeLater(new Runnable() {
+            public void run() {
+                throw new RuntimeException("failure");
+            }
+        });
+        dispatcher.invokeLater(new Runnable() {
+            public void run() {
+                latch.countDown();
+            }
+        });
+        // the permit of the failed task has been released
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+    }
+}
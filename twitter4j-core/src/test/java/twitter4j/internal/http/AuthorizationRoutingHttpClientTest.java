@@ -0,0 +1,254 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.TwitterMethod;
+import twitter4j.http.Authorization;
+import twitter4j.http.BasicAuthorization;
+import twitter4j.http.PooledAuthorization;
+
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class AuthorizationRoutingHttpClientTest extends TestCase {
+    public AuthorizationRoutingHttpClientTest(String name) {
+        super(name);
+    }
+
+    private final String reset = String.valueOf(System.currentTimeMillis() / 1000 + 3600);
+
+    public void testRouting() throws Exception {
+        Authorization a = new BasicAuthorization("a", "password");
+        Authorization b = new BasicAuthorization("b", "password");
+        Authorization c = new BasicAuthorization("c", "password");
+        PooledAuthorization pool = new PooledAuthorization(a, b, c);
+        MockHttpClient mock = new MockHttpClient();
+        HttpClient client = new AuthorizationRoutingHttpClient(mock);
+
+        // every credential is probed first
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "10", "X-RateLimit-Reset", reset);
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "50", "X-RateLimit-Reset", reset);
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "30", "X-RateLimit-Reset", reset);
+        for (int i = 0; i < 3; i++) {
+            client.request(get(pool, TwitterMethod.SHOW_USER));
+        }
+        assertSame(a, mock.requests.get(0).getAuthorization());
+        assertSame(b, mock.requests.get(1).getAuthorization());
+        assertSame(c, mock.requests.get(2).getAuthorization());
+
+        // then the one with the most remaining hits
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "49", "X-RateLimit-Reset", reset);
+        client.request(get(pool, TwitterMethod.SHOW_USER));
+        assertSame(b, mock.requests.get(3).getAuthorization());
+
+        // a feature specific rate limit applies to its method only
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "48", "X-RateLimit-Reset", reset
+                , "X-FeatureRateLimit-Remaining", "0", "X-FeatureRateLimit-Reset", reset);
+        client.request(get(pool, TwitterMethod.SEARCH));
+        assertSame(b, mock.requests.get(4).getAuthorization());
+        mock.enqueue(200, "{}");
+        client.request(get(pool, TwitterMethod.SEARCH));
+        assertSame(c, mock.requests.get(5).getAuthorization());
+
+        // a rejected credential is quarantined, and the request is sent again with another one
+        mock.enqueue(401, "{\"error\":\"Could not authenticate you.\"}");
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "29", "X-RateLimit-Reset", reset);
+        client.request(get(pool, TwitterMethod.SHOW_USER));
+        assertSame(b, mock.requests.get(6).getAuthorization());
+        assertSame(c, mock.requests.get(7).getAuthorization());
+
+        List<PooledAuthorization.Usage> usage = pool.getUsage();
+        assertEquals(1, usage.get(0).getRequestCount());
+        assertEquals(10, usage.get(0).getRemainingHits());
+        assertEquals(4, usage.get(1).getRequestCount());
+        assertEquals(1, usage.get(1).getFailureCount());
+        assertTrue(usage.get(1).isQuarantined());
+        assertEquals(3, usage.get(2).getRequestCount());
+        assertEquals(29, usage.get(2).getRemainingHits());
+
+        pool.reinstate(b);
+        assertFalse(pool.getUsage().get(1).isQuarantined());
+    }
+
+    public void testExhausted() throws Exception {
+        PooledAuthorization pool = new PooledAuthorization(new BasicAuthorization("a", "password"));
+        MockHttpClient mock = new MockHttpClient();
+        HttpClient client = new AuthorizationRoutingHttpClient(mock);
+        mock.enqueue(403, "{\"error\":\"suspended\"}");
+        try {
+            client.request(get(pool, TwitterMethod.SHOW_USER));
+            fail("expecting TwitterException");
+        } catch (TwitterException te) {
+            assertEquals(403, te.getStatusCode());
+        }
+        // no other credential to tell whether the credential or the resource is at fault
+        assertTrue(pool.isEnabled());
+        assertEquals(1, mock.getRequestCount());
+
+        // requests not authorized by a pool pass through
+        Authorization basic = new BasicAuthorization("b", "password");
+        mock.enqueue(200, "{}");
+        client.request(new HttpRequest(RequestMethod.GET, "http://api.twitter.com/1/help/test.json", null, basic, null));
+        assertSame(basic, mock.requests.get(1).getAuthorization());
+    }
+
+    public void testInaccessibleResource() throws Exception {
+        Authorization a = new BasicAuthorization("a", "password");
+        Authorization b = new BasicAuthorization("b", "password");
+        Authorization c = new BasicAuthorization("c", "password");
+        PooledAuthorization pool = new PooledAuthorization(a, b, c);
+        MockHttpClient mock = new MockHttpClient();
+        HttpClient client = new AuthorizationRoutingHttpClient(mock);
+        // a protected user rejects every credential
+        for (int i = 0; i < 3; i++) {
+            mock.enqueue(401, "{\"error\":\"Not authorized\"}");
+            mock.enqueue(401, "{\"error\":\"Not authorized\"}");
+            try {
+                client.request(get(pool, TwitterMethod.USER_TIMELINE));
+                fail("expecting TwitterException");
+            } catch (TwitterException te) {
+                assertEquals(401, te.getStatusCode());
+            }
+        }
+        // sent again once per request, and nothing has been quarantined
+        assertEquals(6, mock.getRequestCount());
+        for (PooledAuthorization.Usage usage : pool.getUsage()) {
+            assertFalse(usage.isQuarantined());
+        }
+        mock.enqueue(200, "{}");
+        client.request(get(pool, TwitterMethod.SHOW_USER));
+        assertEquals(7, mock.getRequestCount());
+    }
+
+    public void testOnlyReadsAreRouted() throws Exception {
+        Authorization a = new BasicAuthorization("a", "password");
+        Authorization b = new BasicAuthorization("b", "password");
+        PooledAuthorization pool = new PooledAuthorization(a, b);
+        MockHttpClient mock = new MockHttpClient();
+        HttpClient client = new AuthorizationRoutingHttpClient(mock);
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "10", "X-RateLimit-Reset", reset);
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "50", "X-RateLimit-Reset", reset);
+        client.request(get(pool, TwitterMethod.SHOW_USER));
+        client.request(get(pool, TwitterMethod.SHOW_USER));
+
+        // writes are sent with the primary credential, which is not quarantined on failure
+        mock.enqueue(200, "{}");
+        client.request(post(pool));
+        assertSame(a, mock.requests.get(2).getAuthorization());
+        mock.enqueue(401, "{\"error\":\"Could not authenticate you.\"}");
+        try {
+            client.request(post(pool));
+            fail("expecting TwitterException");
+        } catch (TwitterException te) {
+            assertEquals(401, te.getStatusCode());
+        }
+        assertEquals(4, mock.getRequestCount());
+        List<PooledAuthorization.Usage> usage = pool.getUsage();
+        assertEquals(1, usage.get(0).getRequestCount());
+        assertEquals(0, usage.get(0).getFailureCount());
+        assertFalse(usage.get(0).isQuarantined());
+    }
+
+    public void testAuthorizationHeaderHasNoSideEffect() throws Exception {
+        Authorization a = new BasicAuthorization("a", "password");
+        Authorization b = new BasicAuthorization("b", "password");
+        PooledAuthorization pool = new PooledAuthorization(a, b);
+        HttpRequest req = get(pool, TwitterMethod.SHOW_USER);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(a.getAuthorizationHeader(req), pool.getAuthorizationHeader(req));
+        }
+        assertEquals(a.getAuthorizationHeader(req), pool.getAuthorizationHeader(post(pool)));
+        for (PooledAuthorization.Usage usage : pool.getUsage()) {
+            assertEquals(0, usage.getRequestCount());
+        }
+    }
+
+    public void testRuntimeExceptionReleasesCredential() throws Exception {
+        Authorization a = new BasicAuthorization("a", "password");
+        Authorization b = new BasicAuthorization("b", "password");
+        PooledAuthorization pool = new PooledAuthorization(a, b);
+        final MockHttpClient mock = new MockHttpClient();
+        final boolean[] broken = {false};
+        HttpClient client = new AuthorizationRoutingHttpClient(new HttpClient() {
+            public HttpResponse request(HttpRequest req) throws TwitterException {
+                if (broken[0]) {
+                    throw new IllegalStateException("broken");
+                }
+                return mock.request(req);
+            }
+
+            public void shutdown() {
+            }
+        });
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "10", "X-RateLimit-Reset", reset);
+        mock.enqueue(200, "{}", "X-RateLimit-Remaining", "9", "X-RateLimit-Reset", reset);
+        client.request(get(pool, TwitterMethod.SHOW_USER));
+        client.request(get(pool, TwitterMethod.SHOW_USER));
+
+        broken[0] = true;
+        try {
+            client.request(get(pool, TwitterMethod.SHOW_USER));
+            fail("expecting IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(1, pool.getUsage().get(0).getFailureCount());
+
+        // the request is no longer counted as in flight against the first credential
+        broken[0] = false;
+        mock.enqueue(200, "{}");
+        client.request(get(pool, TwitterMethod.SHOW_USER));
+        assertSame(a, mock.requests.get(2).getAuthorization());
+    }
+
+    public void testCancellationIsPassedOn() throws Exception {
+        PooledAuthorization pool = new PooledAuthorization(new BasicAuthorization("a", "password"));
+        MockHttpClient mock = new MockHttpClient();
+        HttpClient client = new AuthorizationRoutingHttpClient(mock);
+        HttpRequest req = get(pool, TwitterMethod.SHOW_USER);
+        HttpCancellation cancellation = new HttpCancellation();
+        req.setCancellation(cancellation);
+        mock.enqueue(200, "{}");
+        client.request(req);
+        assertSame(cancellation, mock.requests.get(0).getCancellation());
+    }
+
+    private static HttpRequest get(Authorization authorization, TwitterMethod method) {
+        return new HttpRequest(RequestMethod.GET, "http://api.twitter.com/1/users/show.json?user_id=6358482"
+                , null, authorization, null, method);
+    }
+
+    private static HttpRequest post(Authorization authorization) {
+        return new HttpRequest(RequestMethod.POST, "http://api.twitter.com/1/statuses/update.json"
+                , new HttpParameter[]{new HttpParameter("status", "hello")}, authorization, null
+                , TwitterMethod.UPDATE_STATUS);
+    }
+}
@@ -0,0 +1,294 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.http.BasicAuthorization;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class CoalescingHttpClientTest extends TestCase {
+    private static final String URL = "http://api.twitter.com/1/statuses/show/1.json";
+    private static final int THREADS = 10;
+
+    public CoalescingHttpClientTest(String name) {
+        super(name);
+    }
+
+    public void testCoalesce() throws Exception {
+        BlockingHttpClient delegate = new BlockingHttpClient(200);
+        final CoalescingHttpClient client = new CoalescingHttpClient(delegate);
+        final List<HttpResponse> responses = new ArrayList<HttpResponse>();
+        List<Thread> threads = start(new Task() {
+            public void run() throws Exception {
+                HttpResponse res = client.request(get(null));
+                synchronized (responses) {
+                    responses.add(res);
+                }
+            }
+        });
+        waitFor(client, THREADS - 1);
+        delegate.latch.countDown();
+        join(threads);
+
+        assertEquals(1, delegate.count.get());
+        assertEquals(THREADS, responses.size());
+        HttpResponse first = responses.get(0);
+        for (HttpResponse res : responses.subList(1, THREADS)) {
+            // every caller reads its own response
+            assertNotSame(first, res);
+            assertEquals(first.asString(), res.asString());
+        }
+        // parsed once, shared with everyone
+        assertSame(first.asJSONObject(), responses.get(THREADS - 1).asJSONObject());
+        assertEquals(150, Integer.parseInt(first.getResponseHeader("X-RateLimit-Limit")));
+
+        // not in flight anymore
+        delegate.latch = new CountDownLatch(0);
+        HttpResponse res = client.request(get(null));
+        assertEquals(2, delegate.count.get());
+        // not shared with anyone, served as is
+        assertFalse(res instanceof CachedHttpResponse);
+    }
+
+    public void testFailureIsShared() throws Exception {
+        BlockingHttpClient delegate = new BlockingHttpClient(503);
+        final CoalescingHttpClient client = new CoalescingHttpClient(delegate);
+        final AtomicInteger failures = new AtomicInteger(0);
+        List<Thread> threads = start(new Task() {
+            public void run() throws Exception {
+                try {
+                    client.request(get(null));
+                } catch (TwitterException te) {
+                    assertEquals(503, te.getStatusCode());
+                    failures.incrementAndGet();
+                }
+            }
+        });
+        waitFor(client, THREADS - 1);
+        delegate.latch.countDown();
+        join(threads);
+        assertEquals(1, delegate.count.get());
+        assertEquals(THREADS, failures.get());
+    }
+
+    public void testWaiterCancellation() throws Exception {
+        final BlockingHttpClient delegate = new BlockingHttpClient(200);
+        final CoalescingHttpClient client = new CoalescingHttpClient(delegate);
+        Thread leader = new Thread() {
+            public void run() {
+                try {
+                    client.request(get(null));
+                } catch (TwitterException ignore) {
+                }
+            }
+        };
+        leader.start();
+        while (0 == delegate.count.get()) {
+            Thread.sleep(10);
+        }
+        final HttpRequest req = get(null);
+        req.setCancellation(new HttpCancellation());
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignore) {
+                }
+                req.getCancellation().cancel();
+            }
+        }.start();
+        try {
+            client.request(req);
+            fail("should have been cancelled");
+        } catch (TwitterException expected) {
+        }
+        assertEquals(1, client.getCoalescedCount());
+        delegate.latch.countDown();
+        leader.join(10000);
+    }
+
+    public void testLeaderCancellation() throws Exception {
+        final BlockingHttpClient delegate = new BlockingHttpClient(200);
+        final CoalescingHttpClient client = new CoalescingHttpClient(delegate);
+        final HttpRequest leading = get(null);
+        leading.setCancellation(new HttpCancellation());
+        final AtomicInteger leaderFailures = new AtomicInteger(0);
+        Thread leader = new Thread() {
+            public void run() {
+                try {
+                    client.request(leading);
+                } catch (TwitterException cancelled) {
+                    leaderFailures.incrementAndGet();
+                }
+            }
+        };
+        leader.start();
+        while (0 == delegate.count.get()) {
+            Thread.sleep(10);
+        }
+        final List<HttpResponse> responses = new ArrayList<HttpResponse>();
+        Thread waiter = new Thread() {
+            public void run() {
+                try {
+                    HttpResponse res = client.request(get(null));
+                    synchronized (responses) {
+                        responses.add(res);
+                    }
+                } catch (TwitterException te) {
+                    te.printStackTrace();
+                }
+            }
+        };
+        waiter.start();
+        waitFor(client, 1);
+        // aborts the leading request only
+        leading.getCancellation().cancel();
+        leader.join(10000);
+        assertEquals(1, leaderFailures.get());
+        delegate.latch.countDown();
+        waiter.join(10000);
+        // the waiter issued the request on its own
+        assertEquals(2, delegate.count.get());
+        assertEquals(1, responses.size());
+        assertEquals(1, responses.get(0).asJSONObject().getInt("id"));
+    }
+
+    public void testDifferentRequestsAreNotCoalesced() throws Exception {
+        BlockingHttpClient delegate = new BlockingHttpClient(200);
+        delegate.latch.countDown();
+        CoalescingHttpClient client = new CoalescingHttpClient(delegate);
+        client.request(get(new BasicAuthorization("foo", "bar")));
+        client.request(get(new BasicAuthorization("foo", "baz")));
+        client.request(new HttpRequest(RequestMethod.POST, URL, null, null, null));
+        assertEquals(3, delegate.count.get());
+        assertEquals(0, client.getCoalescedCount());
+    }
+
+    private static HttpRequest get(BasicAuthorization auth) {
+        return new HttpRequest(RequestMethod.GET, URL, null, auth, null);
+    }
+
+    private static void waitFor(CoalescingHttpClient client, int coalesced) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (client.getCoalescedCount() < coalesced && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(coalesced, client.getCoalescedCount());
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static List<Thread> start(final Task task) {
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread() {
+                public void run() {
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    private static void join(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+    }
+
+    private static class BlockingHttpClient implements HttpClient {
+        final AtomicInteger count = new AtomicInteger(0);
+        private final int statusCode;
+        volatile CountDownLatch latch = new CountDownLatch(1);
+
+        BlockingHttpClient(int statusCode) {
+            this.statusCode = statusCode;
+        }
+
+        public HttpResponse request(HttpRequest req) throws TwitterException {
+            count.incrementAndGet();
+            if (null != req.getCancellation()) {
+                final Thread thread = Thread.currentThread();
+                req.getCancellation().setAbortAction(new Runnable() {
+                    public void run() {
+                        thread.interrupt();
+                    }
+                });
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException ie) {
+                throw new TwitterException(ie);
+            }
+            HashMap<String, String> headers = new HashMap<String, String>();
+            headers.put("X-RateLimit-Limit", "150");
+            if (200 != statusCode) {
+                HttpResponse res = new CachedHttpResponse(statusCode, "{\"error\":\"over capacity\"}", headers);
+                throw new TwitterException(res.asString(), res);
+            }
+            return new StubResponse(headers);
+        }
+
+        public void shutdown() {
+        }
+    }
+
+    private static class StubResponse extends HttpResponse {
+        private final HashMap<String, String> headers;
+
+        StubResponse(HashMap<String, String> headers) {
+            this.statusCode = 200;
+            this.headers = headers;
+            this.is = new java.io.ByteArrayInputStream("{\"id\":1}".getBytes());
+        }
+
+        public String getResponseHeader(String name) {
+            return headers.get(name);
+        }
+
+        public void disconnect() {
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.TwitterMethod;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class DefaultRetryPolicyTest extends TestCase {
+    private static final String URL = "http://api.twitter.com/1/statuses/home_timeline.json";
+
+    public DefaultRetryPolicyTest(String name) {
+        super(name);
+    }
+
+    private DefaultRetryPolicy policy(int maxRetries, long base, long max, RetryBudget budget) {
+        return new DefaultRetryPolicy(maxRetries, base, max, budget
+                , new ConcurrentHashMap<String, CircuitBreaker>());
+    }
+
+    public void testBackoff() throws Exception {
+        DefaultRetryPolicy policy = policy(10, 1000, 5000, new RetryBudget(10, 0.1));
+        for (int i = 0; i < 100; i++) {
+            long first = policy.getBackoffMillis(0);
+            assertTrue(500 <= first && first <= 1000);
+            long third = policy.getBackoffMillis(2);
+            assertTrue(2000 <= third && third <= 4000);
+            long capped = policy.getBackoffMillis(20);
+            assertTrue(2500 <= capped && capped <= 5000);
+        }
+        assertTrue(0 <= policy.afterAttempt(get(), 0, response(500), null));
+        assertTrue(0 <= policy.afterAttempt(get(), 0, response(502), null));
+        assertTrue(0 <= policy.afterAttempt(get(), 0, null, new SocketTimeoutException()));
+        assertTrue(0 > policy.afterAttempt(get(), 0, response(200), null));
+        assertTrue(0 > policy.afterAttempt(get(), 0, response(404), null));
+        assertTrue(0 > policy.afterAttempt(get(), 10, response(500), null));
+    }
+
+    public void testRetryAfter() throws Exception {
+        DefaultRetryPolicy policy = policy(3, 1000, 60000, new RetryBudget(10, 0.1));
+        assertEquals(30000, policy.afterAttempt(get(), 0, response(503, "Retry-After", "30"), null));
+        assertEquals(30000, policy.afterAttempt(get(), 0, response(420, "Retry-After", "30"), null));
+        // rate limited without being told when to retry
+        assertTrue(0 > policy.afterAttempt(get(), 0, response(503), null));
+        // asked to wait longer than the maximum interval
+        assertTrue(0 > policy.afterAttempt(get(), 0, response(503, "Retry-After", "3600"), null));
+        assertEquals(-1, DefaultRetryPolicy.getRetryAfterMillis(response(503, "Retry-After", "soon")));
+        assertEquals(0, DefaultRetryPolicy.getRetryAfterMillis(response(503, "Retry-After", "Tue, 09 Nov 2010 00:00:00 GMT")));
+    }
+
+    public void testPostIsNotRetriedBlindly() throws Exception {
+        DefaultRetryPolicy policy = policy(3, 0, 0, new RetryBudget(10, 0.1));
+        HttpRequest post = new HttpRequest(RequestMethod.POST, URL, null, null, null);
+        assertTrue(0 > policy.afterAttempt(post, 0, response(500), null));
+        assertTrue(0 > policy.afterAttempt(post, 0, null, new SocketTimeoutException()));
+        assertEquals(0, policy.afterAttempt(post, 0, null, new ConnectException()));
+        assertEquals(0, policy.afterAttempt(get(), 0, null, new SocketTimeoutException()));
+    }
+
+    public void testBudget() throws Exception {
+        RetryBudget budget = new RetryBudget(2, 0.5);
+        DefaultRetryPolicy policy = policy(3, 0, 0, budget);
+        assertEquals(0, policy.afterAttempt(get(), 1, response(500), null));
+        assertEquals(0, policy.afterAttempt(get(), 1, response(500), null));
+        // budget exhausted
+        assertTrue(0 > policy.afterAttempt(get(), 1, response(500), null));
+        // first attempts refill the budget
+        assertTrue(0 > policy.afterAttempt(get(), 0, response(500), null));
+        assertEquals(0, policy.afterAttempt(get(), 0, response(500), null));
+    }
+
+    public void testCircuitBreaker() throws Exception {
+        DefaultRetryPolicy policy = policy(0, 0, 0, new RetryBudget(10, 0.1));
+        HttpRequest timeline = new HttpRequest(RequestMethod.GET, URL, null, null, null, TwitterMethod.HOME_TIMELINE);
+        HttpRequest mentions = new HttpRequest(RequestMethod.GET, URL, null, null, null, TwitterMethod.MENTIONS);
+        for (int i = 0; i < DefaultRetryPolicy.FAILURE_THRESHOLD; i++) {
+            policy.beforeAttempt(timeline);
+            policy.afterAttempt(timeline, 0, response(502), null);
+        }
+        try {
+            policy.beforeAttempt(timeline);
+            fail("circuit breaker should be open");
+        } catch (TwitterException expected) {
+        }
+        // other endpoints are not affected
+        policy.beforeAttempt(mentions);
+
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000);
+        breaker.onFailure(0);
+        assertTrue(breaker.allowRequest(0));
+        breaker.onFailure(0);
+        assertFalse(breaker.allowRequest(999));
+        // half-open: a single trial request
+        assertTrue(breaker.allowRequest(1000));
+        assertFalse(breaker.allowRequest(1000));
+        breaker.onSuccess();
+        assertTrue(breaker.allowRequest(1000));
+        assertFalse(breaker.isOpen());
+    }
+
+    public void testRetryLoop() throws Exception {
+        final LinkedList<HttpResponse> responses = new LinkedList<HttpResponse>();
+        HttpClientImpl client = new HttpClientImpl() {
+            HttpResponse send(HttpRequest req) throws IOException {
+                HttpResponse res = responses.removeFirst();
+                if (null == res) {
+                    throw new SocketTimeoutException();
+                }
+                return res;
+            }
+        };
+        client.setRetryPolicy(policy(3, 0, 0, new RetryBudget(10, 0.1)));
+        responses.add(response(500));
+        responses.add(null);
+        responses.add(response(200));
+        assertEquals(200, client.request(get()).getStatusCode());
+        assertTrue(responses.isEmpty());
+
+        responses.add(response(404));
+        responses.add(response(200));
+        try {
+            client.request(get());
+            fail("404 should not be retried");
+        } catch (TwitterException expected) {
+            assertEquals(404, expected.getStatusCode());
+        }
+        assertEquals(1, responses.size());
+    }
+
+    public void testRuntimeExceptionReleasesAttempt() throws Exception {
+        final CircuitBreaker breaker = new CircuitBreaker(1, 1000);
+        breaker.onFailure(0);
+        HttpClientImpl client = new HttpClientImpl() {
+            HttpResponse send(HttpRequest req) throws IOException {
+                throw new IllegalStateException("unexpected");
+            }
+        };
+        client.setRetryPolicy(new RetryPolicy() {
+            public void beforeAttempt(HttpRequest req) throws TwitterException {
+                // half-open: the trial request
+                assertTrue(breaker.allowRequest(1000));
+            }
+
+            public long afterAttempt(HttpRequest req, int retriedCount, HttpResponse res, IOException ioe) {
+                assertNotNull(ioe);
+                breaker.onFailure(1000);
+                return -1;
+            }
+
+            public void attemptCancelled(HttpRequest req) {
+                fail("not cancelled");
+            }
+        });
+        try {
+            client.request(get());
+            fail("should throw IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+        // the trial has been released and the breaker opened again, instead of staying half-open forever
+        assertFalse(breaker.allowRequest(1999));
+        assertTrue(breaker.allowRequest(2000));
+    }
+
+    public void testCancelledAttemptIsNotAFailure() throws Exception {
+        final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+        final HttpRequest req = get();
+        req.setCancellation(new HttpCancellation());
+        HttpClientImpl client = new HttpClientImpl() {
+            HttpResponse send(HttpRequest req) throws IOException {
+                // aborted while in flight
+                req.getCancellation().cancel();
+                throw new SocketTimeoutException();
+            }
+        };
+        DefaultRetryPolicy policy = new DefaultRetryPolicy(3, 60000, 60000, new RetryBudget(10, 0.1), breakers);
+        client.setRetryPolicy(policy);
+        long start = System.currentTimeMillis();
+        try {
+            client.request(req);
+            fail("should have been cancelled");
+        } catch (TwitterException expected) {
+        }
+        // thrown right away instead of waiting for the next retry
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        for (int i = 1; i < DefaultRetryPolicy.FAILURE_THRESHOLD; i++) {
+            policy.afterAttempt(get(), 0, response(502), null);
+        }
+        // the cancelled attempt didn't count towards opening the breaker
+        assertFalse(policy.getCircuitBreaker(get()).isOpen());
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000);
+        breaker.onFailure(0);
+        assertTrue(breaker.allowRequest(1000));
+        // a cancelled trial lets the next request try instead
+        breaker.onCancelled();
+        assertTrue(breaker.allowRequest(1000));
+    }
+
+    public void testCancelWhileWaitingForRetry() throws Exception {
+        final HttpRequest req = get();
+        req.setCancellation(new HttpCancellation());
+        HttpClientImpl client = new HttpClientImpl() {
+            HttpResponse send(HttpRequest req) throws IOException {
+                throw new SocketTimeoutException();
+            }
+        };
+        client.setRetryPolicy(policy(3, 60000, 60000, new RetryBudget(10, 0.1)));
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignore) {
+                }
+                req.getCancellation().cancel();
+            }
+        }.start();
+        long start = System.currentTimeMillis();
+        try {
+            client.request(req);
+            fail("should have been cancelled");
+        } catch (TwitterException expected) {
+        }
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    private static HttpRequest get() {
+        return new HttpRequest(RequestMethod.GET, URL, null, null, null);
+    }
+
+    private static HttpResponse response(int statusCode, String... headers) {
+        Map<String, String> headerMap = new HashMap<String, String>();
+        for (int i = 0; i < headers.length; i += 2) {
+            headerMap.put(headers[i], headers[i + 1]);
+        }
+        return new CachedHttpResponse(statusCode, "", headerMap);
+    }
+}
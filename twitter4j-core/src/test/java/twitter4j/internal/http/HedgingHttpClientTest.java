@@ -0,0 +1,285 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.RateLimitStatus;
+import twitter4j.TwitterException;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class HedgingHttpClientTest extends TestCase {
+    private static final String URL = "http://api.twitter.com/1/statuses/show/1.json";
+    private static final long SLOW = 1000;
+    /**
+     * latency of the other calls, delaying the hedge enough for the original request to be sent first
+     */
+    private static final long FAST = 30;
+
+    public HedgingHttpClientTest(String name) {
+        super(name);
+    }
+
+    public void testHedge() throws Exception {
+        SlowHttpClient delegate = new SlowHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(delegate, new RetryBudget(1, 0));
+        warmUp(client);
+        assertEquals(0, client.getHedgeCount());
+
+        delegate.slowCalls.set(1);
+        long start = System.currentTimeMillis();
+        assertEquals("1", client.request(get()).asString());
+        assertTrue(System.currentTimeMillis() - start < SLOW);
+        assertEquals(1, client.getHedgeCount());
+        assertEquals(1, client.getHedgeWinCount());
+        // the slow original request has been aborted
+        waitFor(delegate.abortCount, 1);
+
+        // budget exhausted
+        delegate.slowCalls.set(1);
+        start = System.currentTimeMillis();
+        client.request(get());
+        assertTrue(SLOW <= System.currentTimeMillis() - start);
+        assertEquals(1, client.getHedgeCount());
+        client.shutdown();
+    }
+
+    public void testRateLimit() throws Exception {
+        SlowHttpClient delegate = new SlowHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(delegate, new RetryBudget(10, 0));
+        warmUp(client);
+        client.setRateLimitStatus(get(), rateLimitStatus(150, 5, System.currentTimeMillis() + 3600 * 1000));
+        delegate.slowCalls.set(1);
+        client.request(get());
+        assertEquals(0, client.getHedgeCount());
+
+        // the search API has its own rate limit
+        client.setRateLimitStatus(get(), rateLimitStatus(150, 150, System.currentTimeMillis() + 3600 * 1000));
+        client.setRateLimitStatus(new HttpRequest(RequestMethod.GET, "http://search.twitter.com/search.json", null, null, null)
+                , rateLimitStatus(150, 5, System.currentTimeMillis() + 3600 * 1000));
+        delegate.slowCalls.set(1);
+        client.request(get());
+        assertEquals(1, client.getHedgeCount());
+
+        // the rate limit has been reset since then
+        client.setRateLimitStatus(get(), rateLimitStatus(150, 5, System.currentTimeMillis() - 1000));
+        delegate.slowCalls.set(1);
+        client.request(get());
+        assertEquals(2, client.getHedgeCount());
+        client.shutdown();
+    }
+
+    public void testAttemptsAreIsolated() throws Exception {
+        SlowHttpClient delegate = new SlowHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(delegate, new RetryBudget(1, 0));
+        warmUp(client);
+        delegate.requests.clear();
+        delegate.threads.clear();
+
+        delegate.slowCalls.set(1);
+        HttpRequest req = get();
+        req.setTiming(new HttpTiming());
+        req.setCancellation(new HttpCancellation());
+        client.request(req);
+        assertEquals(2, delegate.requests.size());
+        // both requests are sent from pooled threads while the caller waits
+        assertFalse(delegate.threads.contains(Thread.currentThread()));
+        assertNotSame(delegate.threads.get(0), delegate.threads.get(1));
+        HttpRequest primary = delegate.requests.get(0);
+        HttpRequest hedge = delegate.requests.get(1);
+        assertNotSame(req, primary);
+        assertNotSame(primary.getCancellation(), hedge.getCancellation());
+        assertNotSame(req.getCancellation(), primary.getCancellation());
+        assertNotSame(primary.getTiming(), hedge.getTiming());
+        assertEquals(req.getURL(), hedge.getURL());
+        client.shutdown();
+    }
+
+    public void testCancel() throws Exception {
+        SlowHttpClient delegate = new SlowHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(delegate, new RetryBudget(1, 0));
+        warmUp(client);
+        delegate.slowCalls.set(2);
+        final HttpRequest req = get();
+        req.setCancellation(new HttpCancellation());
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(SLOW / 2);
+                } catch (InterruptedException ignore) {
+                }
+                req.getCancellation().cancel();
+            }
+        }.start();
+        long start = System.currentTimeMillis();
+        try {
+            client.request(req);
+            fail("should have been aborted");
+        } catch (TwitterException expected) {
+        }
+        assertTrue(System.currentTimeMillis() - start < SLOW);
+        assertEquals(2, delegate.abortCount.get());
+        client.shutdown();
+    }
+
+    public void testLoserCannotBeAborted() throws Exception {
+        SlowHttpClient delegate = new SlowHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(delegate, new RetryBudget(1, 0));
+        warmUp(client);
+        // like a client ignoring the cancellation
+        delegate.abortable = false;
+        delegate.slowCalls.set(1);
+        long start = System.currentTimeMillis();
+        assertEquals("1", client.request(get()).asString());
+        // the hedge is returned without waiting for the original request to complete
+        assertTrue(System.currentTimeMillis() - start < SLOW);
+        assertEquals(1, client.getHedgeWinCount());
+        assertEquals(0, delegate.abortCount.get());
+        client.shutdown();
+    }
+
+    public void testPostIsNotHedged() throws Exception {
+        SlowHttpClient delegate = new SlowHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(delegate, new RetryBudget(10, 0));
+        warmUp(client);
+        delegate.slowCalls.set(1);
+        client.request(new HttpRequest(RequestMethod.POST, URL, null, null, null));
+        assertEquals(0, client.getHedgeCount());
+        client.shutdown();
+    }
+
+    public void testFailure() throws Exception {
+        SlowHttpClient delegate = new SlowHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(delegate, new RetryBudget(10, 0));
+        delegate.failing = true;
+        try {
+            client.request(get());
+            fail("exception expected");
+        } catch (TwitterException expected) {
+            assertEquals(500, expected.getStatusCode());
+        }
+        client.shutdown();
+    }
+
+    private static void warmUp(HedgingHttpClient client) throws TwitterException {
+        for (int i = 0; i < HedgingHttpClient.MIN_SAMPLES; i++) {
+            client.request(get());
+        }
+    }
+
+    private static void waitFor(AtomicInteger count, int expected) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 5000;
+        while (count.get() < expected && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, count.get());
+    }
+
+    private static HttpRequest get() {
+        return new HttpRequest(RequestMethod.GET, URL, null, null, null);
+    }
+
+    private static RateLimitStatus rateLimitStatus(final int limit, final int remaining, final long resetTime) {
+        return new RateLimitStatus() {
+            public int getRemainingHits() {
+                return remaining;
+            }
+
+            public int getHourlyLimit() {
+                return limit;
+            }
+
+            public int getResetTimeInSeconds() {
+                return (int) (resetTime / 1000);
+            }
+
+            public int getSecondsUntilReset() {
+                return (int) ((resetTime - System.currentTimeMillis()) / 1000);
+            }
+
+            public Date getResetTime() {
+                return new Date(resetTime);
+            }
+        };
+    }
+
+    private static class SlowHttpClient implements HttpClient {
+        final AtomicInteger slowCalls = new AtomicInteger(0);
+        final AtomicInteger abortCount = new AtomicInteger(0);
+        final List<HttpRequest> requests = new CopyOnWriteArrayList<HttpRequest>();
+        final List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+        volatile boolean abortable = true;
+        volatile boolean failing = false;
+
+        public HttpResponse request(HttpRequest req) throws TwitterException {
+            requests.add(req);
+            threads.add(Thread.currentThread());
+            if (0 <= slowCalls.decrementAndGet()) {
+                final Thread thread = Thread.currentThread();
+                if (abortable && null != req.getCancellation()) {
+                    // aborts like HttpClientImpl disconnecting the connection
+                    req.getCancellation().setAbortAction(new Runnable() {
+                        public void run() {
+                            thread.interrupt();
+                        }
+                    });
+                }
+                try {
+                    Thread.sleep(SLOW);
+                } catch (InterruptedException aborted) {
+                    abortCount.incrementAndGet();
+                    throw new TwitterException("aborted", aborted);
+                } finally {
+                    if (null != req.getCancellation()) {
+                        req.getCancellation().setAbortAction(null);
+                    }
+                }
+            } else {
+                try {
+                    Thread.sleep(FAST);
+                } catch (InterruptedException ignore) {
+                }
+            }
+            if (failing) {
+                HttpResponse res = new CachedHttpResponse(500, "error", new HashMap<String, String>());
+                throw new TwitterException(res.asString(), res);
+            }
+            return new CachedHttpResponse(200, "1", new HashMap<String, String>());
+        }
+
+        public void shutdown() {
+        }
+    }
+}
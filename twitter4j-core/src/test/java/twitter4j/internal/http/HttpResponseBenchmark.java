@@ -0,0 +1,132 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.internal.org.json.JSONArray;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+
+/**
+ * Compares parsing a home timeline response through the pooled byte buffer against the former line-by-line String path.<br>
+ * Usage: HttpResponseBenchmark [statuses per response] [iterations]
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class HttpResponseBenchmark {
+    private HttpResponseBenchmark() {
+        throw new AssertionError();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int statuses = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        byte[] payload = timeline(statuses).getBytes("UTF-8");
+        System.out.println("statuses: " + statuses + ", payload: " + payload.length / 1024 + "KB, iterations: " + iterations);
+        System.out.println("mode\tms/response\tMB/s");
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up
+            long legacy = 0;
+            long buffered = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                parseLegacy(payload);
+                legacy += System.nanoTime() - start;
+                start = System.nanoTime();
+                new BenchmarkHttpResponse(payload).asJSONArray();
+                buffered += System.nanoTime() - start;
+            }
+            if (1 == round) {
+                print("String", legacy, payload.length, iterations);
+                print("bytes", buffered, payload.length, iterations);
+            }
+        }
+    }
+
+    private static void print(String mode, long elapsed, int length, int iterations) {
+        double millis = elapsed / 1000000d / iterations;
+        double megaBytesPerSecond = (double) length * iterations / (1024 * 1024) / (elapsed / 1000000000d);
+        System.out.println(mode + "\t" + Math.round(millis * 1000) / 1000d + "\t" + Math.round(megaBytesPerSecond * 10) / 10d);
+    }
+
+    /**
+     * Reproduces the former HttpResponse#asString() followed by JSONArray(String).
+     */
+    private static JSONArray parseLegacy(byte[] payload) throws Exception {
+        BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(payload), "UTF-8"));
+        StringBuffer buf = new StringBuffer();
+        String line;
+        while (null != (line = br.readLine())) {
+            buf.append(line).append("\n");
+        }
+        return new JSONArray(buf.toString());
+    }
+
+    private static String timeline(int count) {
+        StringBuffer buf = new StringBuffer("[");
+        for (int i = 0; i < count; i++) {
+            if (0 != i) {
+                buf.append(",");
+            }
+            buf.append("{\"coordinates\":null,\"favorited\":false,\"created_at\":\"Tue Nov 09 01:23:45 +0000 2010\"")
+                    .append(",\"truncated\":false,\"text\":\"status #").append(i)
+                    .append(" \\u3042\\u3044\\u3046 http://t.co/abcdefg #twitter4j @twitter4j\"")
+                    .append(",\"contributors\":null,\"id\":").append(2900000000L + i)
+                    .append(",\"geo\":null,\"in_reply_to_user_id\":null,\"place\":null")
+                    .append(",\"source\":\"<a href=\\\"http://twitter4j.org/\\\" rel=\\\"nofollow\\\">Twitter4J</a>\"")
+                    .append(",\"in_reply_to_screen_name\":null,\"in_reply_to_status_id\":null")
+                    .append(",\"user\":{\"profile_background_color\":\"9ae4e8\",\"description\":\"Java library for the Twitter API\"")
+                    .append(",\"verified\":false,\"followers_count\":").append(1000 + i)
+                    .append(",\"profile_text_color\":\"000000\",\"url\":\"http://twitter4j.org/\",\"following\":true")
+                    .append(",\"profile_background_image_url\":\"http://s.twimg.com/a/1289003935/images/themes/theme1/bg.png\"")
+                    .append(",\"profile_image_url\":\"http://a1.twimg.com/profile_images/1/t4j_normal.png\"")
+                    .append(",\"statuses_count\":").append(5000 + i)
+                    .append(",\"friends_count\":100,\"created_at\":\"Sat Mar 28 03:26:52 +0000 2009\"")
+                    .append(",\"favourites_count\":0,\"utc_offset\":32400,\"time_zone\":\"Tokyo\"")
+                    .append(",\"screen_name\":\"twit4j").append(i % 10)
+                    .append("\",\"location\":\"Tokyo\",\"lang\":\"en\",\"protected\":false,\"id\":").append(6377362 + i % 10)
+                    .append(",\"name\":\"Twitter4J\"}}");
+        }
+        return buf.append("]").toString();
+    }
+
+    private static final class BenchmarkHttpResponse extends HttpResponse {
+        BenchmarkHttpResponse(byte[] payload) {
+            this.statusCode = 200;
+            this.is = new ByteArrayInputStream(payload);
+        }
+
+        public String getResponseHeader(String name) {
+            return null;
+        }
+
+        public void disconnect() {
+        }
+    }
+}
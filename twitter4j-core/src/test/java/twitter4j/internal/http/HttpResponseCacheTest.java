@@ -0,0 +1,198 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.http.AccessToken;
+import twitter4j.http.BasicAuthorization;
+import twitter4j.http.OAuthAuthorization;
+import twitter4j.internal.org.json.JSONArray;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class HttpResponseCacheTest extends TestCase {
+    private static final String URL = "http://api.twitter.com/1/statuses/home_timeline.json";
+
+    public HttpResponseCacheTest(String name) {
+        super(name);
+    }
+
+    public void testRevalidation() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(10, 0);
+        MockHttpClient client = new MockHttpClient()
+                .enqueue(200, "[1]", "ETag", "\"abc\"", "Last-Modified", "Tue, 09 Nov 2010 00:00:00 GMT")
+                .enqueue(304, "");
+        assertEquals("[1]", cache.request(client, get(URL, null)).asString());
+        assertNull(client.requests.get(0).getRequestHeaders());
+
+        HttpResponse res = cache.request(client, get(URL, null));
+        assertEquals(200, res.getStatusCode());
+        assertEquals("[1]", res.asString());
+        assertEquals("\"abc\"", res.getResponseHeader("ETag"));
+        HttpRequest conditional = client.requests.get(1);
+        assertEquals("\"abc\"", conditional.getRequestHeaders().get("If-None-Match"));
+        assertEquals("Tue, 09 Nov 2010 00:00:00 GMT", conditional.getRequestHeaders().get("If-Modified-Since"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getRevalidatedCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    public void testModified() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(10, 0);
+        MockHttpClient client = new MockHttpClient()
+                .enqueue(200, "[1]", "ETag", "\"abc\"")
+                .enqueue(200, "[2]", "ETag", "\"def\"")
+                .enqueue(304, "");
+        assertEquals("[1]", cache.request(client, get(URL, null)).asString());
+        assertEquals("[2]", cache.request(client, get(URL, null)).asString());
+        assertEquals("[2]", cache.request(client, get(URL, null)).asString());
+        assertEquals("\"def\"", client.requests.get(2).getRequestHeaders().get("If-None-Match"));
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1, cache.getRevalidatedCount());
+    }
+
+    public void testTTL() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(10, 0);
+        cache.setTTL("statuses/home_timeline.json", 60);
+        MockHttpClient client = new MockHttpClient()
+                .enqueue(200, "[1]")
+                .enqueue(200, "{}");
+        assertEquals("[1]", cache.request(client, get(URL, null)).asString());
+        assertEquals("[1]", cache.request(client, get(URL, null)).asString());
+        assertEquals(1, client.getRequestCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0.5d, cache.getHitRatio());
+
+        // no TTL and no validators
+        String other = "http://api.twitter.com/1/statuses/mentions.json";
+        assertEquals("{}", cache.request(client, get(other, null)).asString());
+        assertEquals(1, cache.size());
+    }
+
+    public void testKeyedByAuthorization() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(10, 60);
+        MockHttpClient client = new MockHttpClient()
+                .enqueue(200, "[1]")
+                .enqueue(200, "[2]");
+        HttpRequest user1 = get(URL, new BasicAuthorization("user1", "password"));
+        HttpRequest user2 = get(URL, new BasicAuthorization("user2", "password"));
+        assertEquals("[1]", cache.request(client, user1).asString());
+        assertEquals("[2]", cache.request(client, user2).asString());
+        assertEquals("[1]", cache.request(client, user1).asString());
+        assertEquals(2, client.getRequestCount());
+    }
+
+    public void testKeyedByPassword() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(10, 60);
+        MockHttpClient client = new MockHttpClient()
+                .enqueue(200, "[1]")
+                .enqueue(401, "");
+        assertEquals("[1]", cache.request(client, get(URL, new BasicAuthorization("user1", "password"))).asString());
+        // a wrong password must not be served the response of the right one
+        try {
+            cache.request(client, get(URL, new BasicAuthorization("user1", "wrong")));
+            fail("expecting TwitterException");
+        } catch (TwitterException expected) {
+            assertEquals(401, expected.getStatusCode());
+        }
+        assertEquals(2, client.getRequestCount());
+    }
+
+    public void testKeyTellsParametersApart() throws Exception {
+        RequestKey joined = new RequestKey(new HttpRequest(RequestMethod.POST, URL
+                , new HttpParameter[]{new HttpParameter("a", "b&c=d")}, null, null));
+        RequestKey separate = new RequestKey(new HttpRequest(RequestMethod.POST, URL
+                , new HttpParameter[]{new HttpParameter("a", "b"), new HttpParameter("c", "d")}, null, null));
+        assertFalse(joined.equals(separate));
+        assertEquals(joined, new RequestKey(new HttpRequest(RequestMethod.POST, URL
+                , new HttpParameter[]{new HttpParameter("a", "b&c=d")}, null, null)));
+    }
+
+    public void testKeyIsStableWhenTokenChanges() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(10, 60);
+        MockHttpClient client = new MockHttpClient()
+                .enqueue(200, "[1]")
+                .enqueue(200, "[2]");
+        OAuthAuthorization auth = new OAuthAuthorization(new ConfigurationBuilder().build()
+                , "consumer", "secret", new AccessToken("token1", "secret1"));
+        assertEquals("[1]", cache.request(client, get(URL, auth)).asString());
+        // the same authorization now signs as another account
+        auth.setOAuthAccessToken(new AccessToken("token2", "secret2"));
+        assertEquals("[2]", cache.request(client, get(URL, auth)).asString());
+        auth.setOAuthAccessToken(new AccessToken("token1", "secret1"));
+        assertEquals("[1]", cache.request(client, get(URL, auth)).asString());
+        assertEquals(2, client.getRequestCount());
+        assertEquals(2, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    public void testParsedJSONIsCached() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(10, 60);
+        MockHttpClient client = new MockHttpClient().enqueue(200, "[{\"id\":1}]");
+        JSONArray first = cache.request(client, get(URL, null)).asJSONArray();
+        JSONArray second = cache.request(client, get(URL, null)).asJSONArray();
+        assertEquals(1, second.getJSONObject(0).getInt("id"));
+        assertSame(first, second);
+        assertEquals("[{\"id\":1}]", cache.request(client, get(URL, null)).asString());
+    }
+
+    public void testLRU() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(2, 60);
+        MockHttpClient client = new MockHttpClient()
+                .enqueue(200, "a").enqueue(200, "b").enqueue(200, "c").enqueue(200, "b");
+        cache.request(client, get(URL + "?page=1", null));
+        cache.request(client, get(URL + "?page=2", null));
+        // page=1 becomes the most recently used
+        cache.request(client, get(URL + "?page=1", null));
+        cache.request(client, get(URL + "?page=3", null));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("b", cache.request(client, get(URL + "?page=2", null)).asString());
+        assertEquals(5, client.getRequestCount() + cache.getHitCount());
+    }
+
+    public void testErrorIsNotCached() throws Exception {
+        HttpResponseCache cache = new HttpResponseCache(10, 60);
+        MockHttpClient client = new MockHttpClient().enqueue(404, "not found");
+        try {
+            cache.request(client, get(URL, null));
+            fail("should throw TwitterException");
+        } catch (TwitterException te) {
+            assertEquals(404, te.getStatusCode());
+        }
+        assertEquals(0, cache.size());
+    }
+
+    private static HttpRequest get(String url, twitter4j.http.Authorization auth) {
+        return new HttpRequest(RequestMethod.GET, url, null, auth, null);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.internal.org.json.JSONArray;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class HttpResponseTest extends TestCase {
+
+    public HttpResponseTest(String name) {
+        super(name);
+    }
+
+    public void testAsString() throws Exception {
+        StreamHttpResponse res = new StreamHttpResponse("oauth_token=a&oauth_token_secret=あ\r\n");
+        // every line is terminated with a line feed
+        assertEquals("oauth_token=a&oauth_token_secret=あ\n", res.asString());
+        // cached
+        assertEquals("oauth_token=a&oauth_token_secret=あ\n", res.asString());
+        assertEquals("a\nb\n", new StreamHttpResponse("a\rb").asString());
+        assertTrue(res.disconnected);
+        try {
+            res.asStream();
+            fail("stream should have been consumed");
+        } catch (IllegalStateException expected) {
+        }
+        assertNull(new StreamHttpResponse(null).asString());
+    }
+
+    public void testAsJSON() throws Exception {
+        StringBuffer buf = new StringBuffer("[");
+        for (int i = 0; i < 1000; i++) {
+            buf.append(0 == i ? "" : ",").append("{\"id\":").append(i).append(",\"text\":\"あ\"}");
+        }
+        buf.append("]");
+        StreamHttpResponse res = new StreamHttpResponse(buf.toString());
+        JSONArray array = res.asJSONArray();
+        assertEquals(1000, array.length());
+        assertEquals(999, array.getJSONObject(999).getInt("id"));
+        assertEquals("あ", array.getJSONObject(999).getString("text"));
+        assertTrue(res.disconnected);
+
+        assertEquals(1, new StreamHttpResponse("{\"id\":1}").asJSONObject().getInt("id"));
+        // responses holding the body as a string
+        assertEquals(2, new HttpResponseImpl("{\"id\":2}").asJSONObject().getInt("id"));
+        try {
+            new StreamHttpResponse("{\"id\":").asJSONObject();
+            fail("malformed JSON");
+        } catch (TwitterException expected) {
+        }
+    }
+
+    public void testAsStringAfterParse() throws Exception {
+        StreamHttpResponse res = new StreamHttpResponse("{\"id\":1}");
+        assertEquals(1, res.asJSONObject().getInt("id"));
+        assertEquals("{\"id\":1}\n", res.asString());
+        // decoded once for parsing, not copied to be decoded again
+        res = new StreamHttpResponse("[\"あ\"]");
+        assertEquals("あ", res.asJSONArray().getString(0));
+        assertEquals("[\"あ\"]\n", res.asString());
+
+        // error paths read the body after a failed parse
+        res = new StreamHttpResponse("{\"id\":");
+        try {
+            res.asJSONObject();
+            fail("malformed JSON");
+        } catch (TwitterException expected) {
+        }
+        assertEquals("{\"id\":\n", res.asString());
+    }
+
+    public void testAsDocument() throws Exception {
+        StreamHttpResponse res = new StreamHttpResponse("<?xml version=\"1.0\" encoding=\"UTF-8\"?><status><text>あ</text></status>");
+        assertEquals("あ", res.asDocument().getDocumentElement().getFirstChild().getTextContent());
+        // parsed document is cached
+        assertNotNull(res.asDocument());
+    }
+
+    public void testBufferIsRecycled() throws Exception {
+        new StreamHttpResponse("[1]").asJSONArray();
+        int pooled = ResponseBuffer.getPooledCount();
+        assertTrue(0 < pooled);
+        StreamHttpResponse res = new StreamHttpResponse("[2]");
+        assertEquals(2, res.asJSONArray().getInt(0));
+        assertEquals(pooled, ResponseBuffer.getPooledCount());
+    }
+
+    public void testBufferGrows() throws Exception {
+        StringBuffer buf = new StringBuffer();
+        for (int i = 0; i < ResponseBuffer.INITIAL_SIZE * 3; i++) {
+            buf.append((char) ('a' + i % 26));
+        }
+        ResponseBuffer buffer = ResponseBuffer.acquire()
+                .readFrom(new ByteArrayInputStream(buf.toString().getBytes("UTF-8")));
+        assertEquals(ResponseBuffer.INITIAL_SIZE * 3, buffer.size());
+        assertEquals(buf.toString(), buffer.toString());
+        buffer.release();
+    }
+
+    private static class StreamHttpResponse extends HttpResponse {
+        boolean disconnected = false;
+
+        StreamHttpResponse(String body) throws Exception {
+            this.statusCode = 200;
+            this.is = null == body ? null : new ByteArrayInputStream(body.getBytes("UTF-8"));
+        }
+
+        public String getResponseHeader(String name) {
+            return null;
+        }
+
+        public void disconnect() {
+            disconnected = true;
+        }
+    }
+}
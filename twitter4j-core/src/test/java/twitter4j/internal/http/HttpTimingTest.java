@@ -0,0 +1,158 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterMethod;
+import twitter4j.conf.ConfigurationContext;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class HttpTimingTest extends TestCase {
+
+    public HttpTimingTest(String name) {
+        super(name);
+    }
+
+    public void testPhases() throws Exception {
+        HttpTiming timing = new HttpTiming();
+        assertEquals(-1, timing.getNanos(HttpTiming.DNS_LOOKUP));
+        assertEquals(0, timing.getTotalNanos());
+        timing.mark(HttpTiming.CONNECT);
+        Thread.sleep(5);
+        timing.mark(HttpTiming.TIME_TO_FIRST_BYTE);
+        assertTrue(0 <= timing.getNanos(HttpTiming.CONNECT));
+        // measured from the end of the latest preceding phase recorded
+        assertTrue(5000000 <= timing.getNanos(HttpTiming.TIME_TO_FIRST_BYTE));
+        assertEquals(-1, timing.getNanos(HttpTiming.TLS_HANDSHAKE));
+        assertEquals(timing.getNanos(HttpTiming.CONNECT) + timing.getNanos(HttpTiming.TIME_TO_FIRST_BYTE)
+                , timing.getTotalNanos());
+
+        // phases of a reused connection are not reported
+        timing.unmark(HttpTiming.CONNECT);
+        assertEquals(-1, timing.getNanos(HttpTiming.CONNECT));
+        assertTrue(5000000 <= timing.getNanos(HttpTiming.TIME_TO_FIRST_BYTE));
+    }
+
+    public void testHistogram() throws Exception {
+        for (long value = 0; value < 100000; value += 7) {
+            long middle = LatencyHistogram.valueOf(LatencyHistogram.indexOf(value));
+            assertTrue(value + " -> " + middle, Math.abs(middle - value) <= value / 8 + 1);
+        }
+        assertEquals(Long.MAX_VALUE >> 1, LatencyHistogram.valueOf(LatencyHistogram.indexOf(Long.MAX_VALUE >> 1)), Long.MAX_VALUE >> 4);
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(-1, histogram.getPercentile(50));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500000, histogram.getPercentile(50), 500000 / 8);
+        assertEquals(990000, histogram.getPercentile(99), 990000 / 8);
+        assertEquals(1000000, histogram.getPercentile(100));
+    }
+
+    public void testStatistics() throws Exception {
+        String body = "{\"id\":1,\"text\":\"timing\"}";
+        ServerSocket server = new ServerSocket(0);
+        Thread thread = serve(server, body);
+        try {
+            HttpClientWrapper http = new HttpClientWrapper(ConfigurationContext.getInstance());
+            HttpTimingStatistics statistics = new HttpTimingStatistics();
+            String url = "http://127.0.0.1:" + server.getLocalPort() + "/1/statuses/show/1.json";
+            http.get(TwitterMethod.SHOW_STATUS, url).asJSONObject();
+
+            final List<HttpResponseEvent> events = new ArrayList<HttpResponseEvent>();
+            http.addHttpTimingListener(statistics);
+            http.addHttpTimingListener(new HttpResponseListener() {
+                public void httpResponseReceived(HttpResponseEvent event) {
+                    events.add(event);
+                }
+            });
+            HttpResponse res = http.get(TwitterMethod.SHOW_STATUS, url);
+            // notified once the body has been parsed
+            assertEquals(0, events.size());
+            assertEquals(1, res.asJSONObject().getInt("id"));
+            assertEquals(1, events.size());
+
+            HttpTiming timing = events.get(0).getTiming();
+            assertTrue(0 <= timing.getNanos(HttpTiming.DNS_LOOKUP));
+            assertTrue(0 <= timing.getNanos(HttpTiming.CONNECT));
+            assertEquals(-1, timing.getNanos(HttpTiming.TLS_HANDSHAKE));
+            assertTrue(0 <= timing.getNanos(HttpTiming.TIME_TO_FIRST_BYTE));
+            assertTrue(0 <= timing.getNanos(HttpTiming.BODY));
+            assertTrue(0 <= timing.getNanos(HttpTiming.PARSE));
+            assertEquals(0, timing.getBytesSent());
+            assertEquals(body.length(), timing.getBytesReceived());
+
+            assertEquals(1, statistics.getEndpoints().size());
+            assertEquals("SHOW_STATUS", statistics.getEndpoints().get(0));
+            assertEquals(1, statistics.getCount("SHOW_STATUS"));
+            assertTrue(0 <= statistics.getPercentileNanos("SHOW_STATUS", HttpTimingStatistics.TOTAL, 99));
+            assertEquals(-1, statistics.getPercentileNanos("SHOW_STATUS", HttpTiming.TLS_HANDSHAKE, 99));
+            assertTrue(statistics.toString().contains("SHOW_STATUS\t1\t"));
+        } finally {
+            server.close();
+            thread.join(5000);
+        }
+    }
+
+    private static Thread serve(final ServerSocket server, final String body) {
+        Thread thread = new Thread() {
+            public void run() {
+                try {
+                    while (true) {
+                        Socket socket = server.accept();
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+                        String line;
+                        while (null != (line = reader.readLine()) && 0 < line.length()) {
+                        }
+                        OutputStream os = socket.getOutputStream();
+                        byte[] bytes = body.getBytes("UTF-8");
+                        os.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + bytes.length
+                                + "\r\nConnection: close\r\n\r\n").getBytes("UTF-8"));
+                        os.write(bytes);
+                        os.flush();
+                        socket.close();
+                    }
+                } catch (Exception closed) {
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.TwitterException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HttpClient returning scripted responses, recording the requests.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+class MockHttpClient implements HttpClient {
+    final List<HttpRequest> requests = new ArrayList<HttpRequest>();
+    private final LinkedList<HttpResponse> responses = new LinkedList<HttpResponse>();
+
+    MockHttpClient enqueue(int statusCode, String body, String... headers) {
+        Map<String, String> headerMap = new HashMap<String, String>();
+        for (int i = 0; i < headers.length; i += 2) {
+            headerMap.put(headers[i], headers[i + 1]);
+        }
+        synchronized (responses) {
+            responses.add(new CachedHttpResponse(statusCode, body, headerMap));
+        }
+        return this;
+    }
+
+    synchronized int getRequestCount() {
+        return requests.size();
+    }
+
+    public HttpResponse request(HttpRequest req) throws TwitterException {
+        HttpResponse res;
+        synchronized (this) {
+            requests.add(req);
+        }
+        synchronized (responses) {
+            if (responses.isEmpty()) {
+                throw new AssertionError("no response enqueued for " + req);
+            }
+            res = responses.removeFirst();
+        }
+        if (res.getStatusCode() < HttpResponseCode.OK || HttpResponseCode.MULTIPLE_CHOICES <= res.getStatusCode()) {
+            throw new TwitterException(res.asString(), res);
+        }
+        return res;
+    }
+
+    public void shutdown() {
+    }
+}
@@ -0,0 +1,99 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import junit.framework.TestCase;
+import twitter4j.UploadProgressListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class MultipartBodyTest extends TestCase {
+    private File file;
+
+    public MultipartBodyTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("twitter4j", ".png");
+        FileOutputStream fos = new FileOutputStream(file);
+        // larger than a chunk
+        byte[] content = new byte[MultipartBody.CHUNK_SIZE * 2 + 10];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        fos.write(content);
+        fos.close();
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        file.delete();
+    }
+
+    public void testContentLength() throws Exception {
+        MultipartBody body = new MultipartBody("boundary", new HttpParameter[]{
+                new HttpParameter("image", file), new HttpParameter("status", "あ")});
+        final long[] lastProgress = {0, 0};
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        body.writeTo(baos, new UploadProgressListener() {
+            public void onProgress(long bytesWritten, long contentLength) {
+                assertTrue(lastProgress[0] < bytesWritten);
+                lastProgress[0] = bytesWritten;
+                lastProgress[1] = contentLength;
+            }
+        });
+        assertEquals(body.getContentLength(), baos.size());
+        assertEquals(body.getContentLength(), lastProgress[0]);
+        assertEquals(body.getContentLength(), lastProgress[1]);
+
+        String written = new String(baos.toByteArray(), "ISO-8859-1");
+        assertTrue(written.startsWith("--boundary\r\nContent-Disposition: form-data; name=\"image\"; filename=\""
+                + file.getName() + "\"\r\nContent-Type: image/png\r\n\r\n"));
+        assertTrue(written.endsWith("Content-Type: text/plain; charset=UTF-8\r\n\r\n"
+                + new String("あ".getBytes("UTF-8"), "ISO-8859-1") + "\r\n--boundary--\r\n\r\n"));
+    }
+
+    public void testStreamBody() throws Exception {
+        byte[] content = "GIF89a".getBytes("UTF-8");
+        MultipartBody body = new MultipartBody("boundary", new HttpParameter[]{
+                new HttpParameter("image", "image.gif", new ByteArrayInputStream(content))});
+        assertEquals(-1, body.getContentLength());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        body.writeTo(baos, null);
+        assertEquals("--boundary\r\nContent-Disposition: form-data; name=\"image\"; filename=\"image.gif\"\r\n"
+                + "Content-Type: image/gif\r\n\r\nGIF89a\r\n--boundary--\r\n\r\n", baos.toString("UTF-8"));
+    }
+}
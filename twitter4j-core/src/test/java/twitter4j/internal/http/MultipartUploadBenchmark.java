@@ -0,0 +1,212 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http;
+
+import twitter4j.conf.ConfigurationContext;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Random;
+
+/**
+ * Measures multipart upload throughput of HttpClientImpl against a local sink discarding request bodies.<br>
+ * Usage: MultipartUploadBenchmark [file size in MB] [iterations]
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class MultipartUploadBenchmark {
+    private MultipartUploadBenchmark() {
+        throw new AssertionError();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int sizeInMB = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        File file = File.createTempFile("twitter4j-upload", ".jpg");
+        file.deleteOnExit();
+        writeRandomFile(file, sizeInMB * 1024 * 1024);
+
+        Sink sink = new Sink();
+        sink.start();
+        String url = "http://127.0.0.1:" + sink.getPort() + "/1/account/update_profile_image.json";
+        HttpClient client = new HttpClientImpl(ConfigurationContext.getInstance());
+        try {
+            System.out.println("file size: " + sizeInMB + "MB, iterations: " + iterations);
+            System.out.println("mode\tMB/s\theap growth(MB)");
+            // warm up
+            upload(client, url, new HttpParameter("image", file));
+            for (int mode = 0; mode < 2; mode++) {
+                String name = 0 == mode ? "file(fixed-length)" : "stream(chunked)";
+                long maxHeapGrowth = 0;
+                long elapsed = 0;
+                for (int i = 0; i < iterations; i++) {
+                    System.gc();
+                    long heapBefore = usedHeap();
+                    HttpParameter param = 0 == mode ? new HttpParameter("image", file)
+                            : new HttpParameter("image", file.getName(), new FileInputStream(file));
+                    long start = System.nanoTime();
+                    upload(client, url, param);
+                    elapsed += System.nanoTime() - start;
+                    maxHeapGrowth = Math.max(maxHeapGrowth, sink.getHeapAtLastRequest() - heapBefore);
+                }
+                double megaBytes = (double) sizeInMB * iterations;
+                System.out.println(name + "\t" + Math.round(megaBytes / (elapsed / 1000000000d) * 10) / 10d
+                        + "\t" + Math.max(0, maxHeapGrowth) / (1024 * 1024));
+            }
+        } finally {
+            sink.close();
+        }
+    }
+
+    private static void upload(HttpClient client, String url, HttpParameter param) throws Exception {
+        client.request(new HttpRequest(RequestMethod.POST, url
+                , new HttpParameter[]{param, new HttpParameter("status", "benchmark")}, null, null)).asString();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void writeRandomFile(File file, int size) throws IOException {
+        byte[] buf = new byte[64 * 1024];
+        Random random = new Random(0);
+        OutputStream os = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            for (int written = 0; written < size; written += buf.length) {
+                random.nextBytes(buf);
+                os.write(buf, 0, Math.min(buf.length, size - written));
+            }
+        } finally {
+            os.close();
+        }
+    }
+
+    /**
+     * HTTP/1.1 server reading and discarding request bodies, with either Content-Length or chunked encoding
+     */
+    private static final class Sink extends Thread {
+        private final ServerSocket serverSocket;
+        private volatile long heapAtLastRequest;
+
+        Sink() throws IOException {
+            super("upload sink");
+            setDaemon(true);
+            serverSocket = new ServerSocket(0);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        long getHeapAtLastRequest() {
+            return heapAtLastRequest;
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+
+        public void run() {
+            byte[] buf = new byte[64 * 1024];
+            while (!serverSocket.isClosed()) {
+                Socket socket = null;
+                try {
+                    socket = serverSocket.accept();
+                    InputStream is = new BufferedInputStream(socket.getInputStream());
+                    long contentLength = -1;
+                    boolean chunked = false;
+                    String line;
+                    while (0 != (line = readLine(is)).length()) {
+                        String lower = line.toLowerCase();
+                        if (lower.startsWith("content-length:")) {
+                            contentLength = Long.parseLong(line.substring("content-length:".length()).trim());
+                        } else if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) {
+                            chunked = true;
+                        }
+                    }
+                    // the client has sent the whole body by the time it gets here
+                    heapAtLastRequest = usedHeap();
+                    if (chunked) {
+                        long chunkSize;
+                        while (0 != (chunkSize = Long.parseLong(readLine(is).trim(), 16))) {
+                            skip(is, buf, chunkSize);
+                            readLine(is);
+                        }
+                        readLine(is);
+                    } else if (0 < contentLength) {
+                        skip(is, buf, contentLength);
+                    }
+                    OutputStream os = socket.getOutputStream();
+                    os.write("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: 2\r\nConnection: close\r\n\r\n{}"
+                            .getBytes("UTF-8"));
+                    os.flush();
+                } catch (IOException ignore) {
+                } finally {
+                    if (null != socket) {
+                        try {
+                            socket.close();
+                        } catch (IOException ignore) {
+                        }
+                    }
+                }
+            }
+        }
+
+        private static void skip(InputStream is, byte[] buf, long length) throws IOException {
+            long remaining = length;
+            while (0 < remaining) {
+                int count = is.read(buf, 0, (int) Math.min(buf.length, remaining));
+                if (-1 == count) {
+                    throw new IOException("unexpected end of stream");
+                }
+                remaining -= count;
+            }
+        }
+
+        private static String readLine(InputStream is) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while (-1 != (b = is.read()) && '\n' != b) {
+                if ('\r' != b) {
+                    line.write(b);
+                }
+            }
+            return line.toString("ISO-8859-1");
+        }
+    }
+}
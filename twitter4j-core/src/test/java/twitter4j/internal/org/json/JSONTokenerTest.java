@@ -0,0 +1,151 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.org.json;
+
+import junit.framework.TestCase;
+
+import java.io.StringReader;
+import java.util.Iterator;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class JSONTokenerTest extends TestCase {
+    public JSONTokenerTest(String name) {
+        super(name);
+    }
+
+    public void testValues() throws Exception {
+        JSONObject json = new JSONObject("{\"int\":-123, \"long\":12345678901, \"double\":1.5e3"
+                + ", \"huge\":123456789012345678901, \"zero\":0, \"octal\":010, \"hex\":0x1F"
+                + ", \"t\":true, \"f\":FALSE, \"n\":null, 'single':'quoted', unquoted : some text ;"
+                + "\"escaped\":\"a\\\"b\\\\c\\/d\\n\\u00e9\\u3042\", \"empty\":\"\", \"array\":[1,[],{}]}");
+        assertEquals(new Integer(-123), json.get("int"));
+        assertEquals(new Long(12345678901L), json.get("long"));
+        assertEquals(new Double(1500), json.get("double"));
+        assertEquals(new Double(123456789012345678901d), json.get("huge"));
+        assertEquals(new Integer(0), json.get("zero"));
+        assertEquals(new Integer(8), json.get("octal"));
+        assertEquals(new Integer(31), json.get("hex"));
+        assertEquals(Boolean.TRUE, json.get("t"));
+        assertEquals(Boolean.FALSE, json.get("f"));
+        assertTrue(json.isNull("n"));
+        assertEquals("quoted", json.get("single"));
+        assertEquals("some text", json.get("unquoted"));
+        assertEquals("a\"b\\c/d\n\u00e9\u3042", json.get("escaped"));
+        assertEquals("", json.get("empty"));
+        assertEquals(3, json.getJSONArray("array").length());
+        assertEquals(json.toString(), new JSONObject(json.toString()).toString());
+    }
+
+    public void testSources() throws Exception {
+        String source = "{\"text\":\"\u3042\u3044\ud83d\ude00 caf\u00e9\",\"id\":1}";
+        byte[] bytes = ("xx" + source).getBytes("UTF-8");
+        JSONObject fromBytes = new JSONObject(new JSONTokener(bytes, 2, bytes.length - 2));
+        assertEquals("\u3042\u3044\ud83d\ude00 caf\u00e9", fromBytes.getString("text"));
+        JSONObject fromReader = new JSONObject(new JSONTokener(new StringReader(source)));
+        assertEquals(fromBytes.toString(), fromReader.toString());
+        char[] chars = ("[" + source + "]").toCharArray();
+        JSONObject fromChars = new JSONObject(new JSONTokener(chars, 1, chars.length - 2));
+        assertEquals(1, fromChars.getInt("id"));
+    }
+
+    public void testErrors() throws Exception {
+        assertSyntaxError("{\"a\":\"unterminated}");
+        assertSyntaxError("{\"a\":\"bad escape \\u00zz\"}");
+        assertSyntaxError("{\"a\":}");
+        assertSyntaxError("{\"a\":1");
+        assertSyntaxError("[1,2");
+        try {
+            new JSONObject("{\"a\":\"line\nbreak\"}");
+            fail("expecting JSONException");
+        } catch (JSONException expected) {
+            assertTrue(expected.getMessage().startsWith("Unterminated string at character"));
+        }
+    }
+
+    private static void assertSyntaxError(String source) {
+        try {
+            new JSONTokener(source).nextValue();
+            fail("expecting JSONException: " + source);
+        } catch (JSONException expected) {
+        }
+    }
+
+    public void testTokenerPrimitives() throws Exception {
+        JSONTokener x = new JSONTokener("ab");
+        assertTrue(x.more());
+        assertEquals('a', x.next());
+        x.back();
+        assertEquals('a', x.next());
+        assertEquals("b", x.next(1));
+        assertEquals(0, x.next());
+        x.back();
+        assertEquals(0, x.next());
+        assertFalse(x.more());
+
+        x = new JSONTokener("key=value; next");
+        assertEquals("key", x.nextTo('='));
+        assertEquals('=', x.skipTo('='));
+        assertEquals('=', x.next());
+        assertEquals(0, x.skipTo('#'));
+        assertEquals("value", x.nextTo(";"));
+
+        JSONObject cookie = Cookie.toJSONObject("name=value; path=/; secure");
+        assertEquals("value", cookie.getString("value"));
+        assertTrue(cookie.getBoolean("secure"));
+        JSONObject xml = XML.toJSONObject("<status><id>1</id><text>a &amp; b</text></status>");
+        assertEquals("a & b", xml.getJSONObject("status").getString("text"));
+    }
+
+    public void testCompactMap() throws Exception {
+        JSONObject json = new JSONObject();
+        for (int i = 0; i < 40; i++) {
+            json.put("key" + i, i);
+            assertEquals(i + 1, json.length());
+            assertEquals(i, json.getInt("key" + i));
+            assertEquals(0, json.getInt("key0"));
+        }
+        json.put("key3", "replaced");
+        assertEquals("replaced", json.get("key3"));
+        assertEquals(40, json.length());
+
+        JSONObject small = new JSONObject("{\"a\":1,\"b\":2,\"c\":3}");
+        Iterator keys = small.keys();
+        assertEquals("a", keys.next());
+        keys.remove();
+        assertEquals("b", keys.next());
+        assertEquals("c", keys.next());
+        assertFalse(keys.hasNext());
+        assertFalse(small.has("a"));
+        assertEquals(new Integer(2), small.remove("b"));
+        assertEquals(1, small.length());
+        assertEquals("{\"c\":3}", small.toString());
+        assertNull(small.opt("missing"));
+    }
+}
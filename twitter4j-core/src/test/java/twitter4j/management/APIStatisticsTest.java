@@ -0,0 +1,234 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.management;
+
+import junit.framework.TestCase;
+import twitter4j.TwitterException;
+import twitter4j.TwitterMethod;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.internal.http.HttpClientWrapper;
+import twitter4j.internal.http.HttpResponse;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class APIStatisticsTest extends TestCase {
+
+    public APIStatisticsTest(String name) {
+        super(name);
+    }
+
+    public void testRecord() throws Exception {
+        APIStatistics statistics = new APIStatistics();
+        for (int i = 1; i <= 100; i++) {
+            statistics.record(TwitterMethod.SHOW_STATUS, i * 1000000L, 100, 10000);
+        }
+        statistics.recordError(TwitterMethod.SHOW_STATUS, 404, 1000000);
+        statistics.recordError(TwitterMethod.SHOW_STATUS, 503, 1000000);
+        statistics.recordError(TwitterMethod.SHOW_STATUS, 503, 1000000);
+        statistics.recordError(TwitterMethod.UPDATE_STATUS, -1, 1000000);
+
+        MethodStatistics showStatus = statistics.getMethodStatistics(TwitterMethod.SHOW_STATUS);
+        assertEquals(103, showStatus.getCallCount());
+        assertEquals(3, showStatus.getErrorCount());
+        assertEquals("404=1, 503=2", showStatus.getErrorCountsByStatus());
+        assertEquals(10000, showStatus.getResponseBytes());
+        assertEquals(0.01, showStatus.getAverageParseTimeMillis(), 0.0001);
+        assertEquals(50, showStatus.getLatency50thPercentileMillis(), 50 / 8d);
+        assertEquals(99, showStatus.getLatency99thPercentileMillis(), 99 / 8d);
+        assertEquals(100, showStatus.getMaxLatencyMillis(), 0.0001);
+
+        assertEquals(104, statistics.getCallCount());
+        assertEquals(4, statistics.getErrorCount());
+        assertEquals(2, statistics.getInvokedMethods().length);
+        assertEquals("SHOW_STATUS", statistics.getInvokedMethods()[0]);
+
+        List<MethodStatisticsSnapshot> snapshot = statistics.getSnapshot();
+        assertEquals(2, snapshot.size());
+        assertEquals("SHOW_STATUS", snapshot.get(0).getMethod());
+        assertEquals(2L, snapshot.get(0).getErrorCounts().get(503).longValue());
+        assertEquals("UPDATE_STATUS", snapshot.get(1).getMethod());
+        assertEquals(1L, snapshot.get(1).getErrorCounts().get(-1).longValue());
+
+        statistics.reset();
+        assertEquals(0, showStatus.getCallCount());
+        assertEquals(0, showStatus.getResponseBytes());
+        assertEquals(-1, showStatus.getLatencyPercentileNanos(50));
+        // the snapshot is not affected
+        assertEquals(103, snapshot.get(0).getCallCount());
+    }
+
+    public void testConcurrentRecording() throws Exception {
+        final APIStatistics statistics = new APIStatistics();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        statistics.record(TwitterMethod.HOME_TIMELINE, j, 1, -1);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        MethodStatistics homeTimeline = statistics.getMethodStatistics(TwitterMethod.HOME_TIMELINE);
+        assertEquals(80000, homeTimeline.getCallCount());
+        assertEquals(80000, homeTimeline.getResponseBytes());
+        assertEquals(0, homeTimeline.getAverageParseTimeMillis(), 0);
+    }
+
+    public void testMBeans() throws Exception {
+        APIStatistics statistics = APIStatistics.getInstance();
+        assertSame(statistics, APIStatistics.getInstance());
+        statistics.record(TwitterMethod.USER_TIMELINE, 1000000, 10, 1000);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName apiStatistics = new ObjectName("twitter4j.management:type=APIStatistics");
+        assertTrue(server.isRegistered(apiStatistics));
+        assertTrue(0 < (Long) server.getAttribute(apiStatistics, "CallCount"));
+
+        ObjectName userTimeline = new ObjectName("twitter4j.management:type=MethodStatistics,name=USER_TIMELINE");
+        assertTrue(server.isRegistered(userTimeline));
+        assertTrue(0 < (Long) server.getAttribute(userTimeline, "CallCount"));
+        assertTrue(10 <= (Long) server.getAttribute(userTimeline, "ResponseBytes"));
+    }
+
+    public void testRecordedByHttpClientWrapper() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        Thread thread = serve(server);
+        try {
+            HttpClientWrapper http = new HttpClientWrapper(new ConfigurationBuilder()
+                    .setMethodStatisticsEnabled(true).build());
+            MethodStatistics showStatus = APIStatistics.getInstance().getMethodStatistics(TwitterMethod.SHOW_STATUS);
+            showStatus.reset();
+            String url = "http://127.0.0.1:" + server.getLocalPort() + "/1/statuses/show/";
+            // recorded once the response has been received
+            HttpResponse res = http.get(TwitterMethod.SHOW_STATUS, url + "1.json");
+            assertEquals(1, showStatus.getCallCount());
+            assertEquals(0, showStatus.getResponseBytes());
+            // payload recorded once the body has been parsed
+            res.asJSONObject();
+            try {
+                http.get(TwitterMethod.SHOW_STATUS, url + "404.json");
+                fail("expecting TwitterException");
+            } catch (TwitterException expected) {
+            }
+            assertEquals(2, showStatus.getCallCount());
+            assertEquals(1, showStatus.getErrorCount());
+            assertEquals("404=1", showStatus.getErrorCountsByStatus());
+            assertEquals("{\"id\":1}".length(), showStatus.getResponseBytes());
+            assertTrue(0 <= showStatus.getAverageParseTimeMillis());
+            assertTrue(0 < showStatus.getMaxLatencyMillis());
+
+            // unparsable bodies are counted as errors of the call
+            res = http.get(TwitterMethod.SHOW_STATUS, url + "malformed.json");
+            try {
+                res.asJSONObject();
+                fail("expecting TwitterException");
+            } catch (TwitterException expected) {
+            }
+            assertEquals(3, showStatus.getCallCount());
+            assertEquals(2, showStatus.getErrorCount());
+            assertEquals(Long.valueOf(1), showStatus.getErrorCounts().get(200));
+        } finally {
+            server.close();
+            thread.join(5000);
+        }
+    }
+
+    public void testCacheHitsAreKeptOutOfLatency() throws Exception {
+        ServerSocket server = new ServerSocket(0);
+        Thread thread = serve(server);
+        try {
+            HttpClientWrapper http = new HttpClientWrapper(new ConfigurationBuilder()
+                    .setMethodStatisticsEnabled(true).setHttpResponseCacheSize(10)
+                    .setHttpResponseCacheTTLSeconds(60).build());
+            MethodStatistics showStatus = APIStatistics.getInstance().getMethodStatistics(TwitterMethod.SHOW_STATUS);
+            showStatus.reset();
+            String url = "http://127.0.0.1:" + server.getLocalPort() + "/1/statuses/show/1.json";
+            assertEquals(1, http.get(TwitterMethod.SHOW_STATUS, url).asJSONObject().getInt("id"));
+            double maxLatency = showStatus.getMaxLatencyMillis();
+            double averageLatency = showStatus.getAverageLatencyMillis();
+            assertEquals(0, showStatus.getCacheHitCount());
+
+            assertEquals(1, http.get(TwitterMethod.SHOW_STATUS, url).asJSONObject().getInt("id"));
+            assertEquals(2, showStatus.getCallCount());
+            assertEquals(1, showStatus.getCacheHitCount());
+            assertEquals(0, showStatus.getErrorCount());
+            assertEquals(maxLatency, showStatus.getMaxLatencyMillis());
+            assertEquals(averageLatency, showStatus.getAverageLatencyMillis());
+            assertEquals(1, new MethodStatisticsSnapshot(showStatus).getCacheHitCount());
+        } finally {
+            server.close();
+            thread.join(5000);
+        }
+    }
+
+    private static Thread serve(final ServerSocket server) {
+        Thread thread = new Thread() {
+            public void run() {
+                try {
+                    while (true) {
+                        Socket socket = server.accept();
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+                        String requestLine = reader.readLine();
+                        String line;
+                        while (null != (line = reader.readLine()) && 0 < line.length()) {
+                        }
+                        boolean notFound = requestLine.contains("404");
+                        byte[] bytes = (notFound ? "{\"error\":\"Not found\"}"
+                                : requestLine.contains("malformed") ? "{\"id\":" : "{\"id\":1}").getBytes("UTF-8");
+                        OutputStream os = socket.getOutputStream();
+                        os.write(((notFound ? "HTTP/1.1 404 Not Found" : "HTTP/1.1 200 OK")
+                                + "\r\nContent-Type: application/json\r\nContent-Length: " + bytes.length
+                                + "\r\nConnection: close\r\n\r\n").getBytes("UTF-8"));
+                        os.write(bytes);
+                        os.flush();
+                        socket.close();
+                    }
+                } catch (Exception closed) {
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+}
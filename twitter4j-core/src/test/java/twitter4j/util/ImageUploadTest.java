@@ -31,6 +31,8 @@ import java.io.InputStream;
 import twitter4j.TwitterTestBase;
 import twitter4j.conf.ConfigurationContext;
 import twitter4j.http.AccessToken;
+import twitter4j.http.BasicAuthorization;
+import twitter4j.internal.http.HttpClientWrapper;
 import twitter4j.http.OAuthAuthorization;
 
 /**
@@ -59,6 +61,17 @@ public class ImageUploadTest extends TwitterTestBase {
         tweetPhotoApiKey = p.getProperty("tweetPhoto.apiKey");
     }
 
+    public void testCreateHttpClientWrapper() throws Exception {
+        ImageUpload upload = ImageUpload.getTwitpicUploader(new BasicAuthorization("user", "password"));
+        upload.setUploadProgressListener(new twitter4j.UploadProgressListener() {
+            public void onProgress(long bytesWritten, long contentLength) {
+            }
+        });
+        HttpClientWrapper client = upload.createHttpClientWrapper();
+        assertNotNull(client);
+        assertNotSame(client, upload.createHttpClientWrapper());
+    }
+
     public void testTwitPicOAuthUploader() throws Exception {
         InputStream is = getClass().getResourceAsStream("/" + fileName);
         try {
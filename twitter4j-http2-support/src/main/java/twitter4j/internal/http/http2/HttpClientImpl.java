@@ -0,0 +1,318 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http.http2;
+
+import okhttp3.Authenticator;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Credentials;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.Route;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+import twitter4j.TwitterException;
+import twitter4j.internal.http.DefaultRetryPolicy;
+import twitter4j.internal.http.HttpCancellation;
+import twitter4j.internal.http.HttpClientConfiguration;
+import twitter4j.internal.http.HttpParameter;
+import twitter4j.internal.http.HttpRequest;
+import twitter4j.internal.http.HttpResponseCode;
+import twitter4j.internal.http.HttpTiming;
+import twitter4j.internal.http.RequestMethod;
+import twitter4j.internal.http.RetryPolicy;
+import twitter4j.internal.logging.Logger;
+import twitter4j.internal.util.StringUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpClient implementation for OkHttp 3.x.<br>
+ * Requests to the same host are multiplexed over a single connection when the server negotiates HTTP/2 via ALPN.
+ * Otherwise requests fall back to HTTP/1.1 over pooled keep-alive connections.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public class HttpClientImpl implements twitter4j.internal.http.HttpClient, HttpResponseCode {
+    private static final Logger logger = Logger.getLogger(HttpClientImpl.class);
+    private static final MediaType FORM_URLENCODED = MediaType.parse("application/x-www-form-urlencoded");
+    private static final MediaType TEXT_PLAIN = MediaType.parse("text/plain; charset=UTF-8");
+    private static final RequestBody EMPTY_BODY = RequestBody.create(null, new byte[0]);
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private final HttpClientConfiguration conf;
+    private final OkHttpClient client;
+    private RetryPolicy retryPolicy;
+
+    public HttpClientImpl(HttpClientConfiguration conf) {
+        this.conf = conf;
+        this.retryPolicy = new DefaultRetryPolicy(conf);
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                // an HTTP/2 connection serves all requests to the host, idle HTTP/1.1 connections are kept up to this number
+                .connectionPool(new ConnectionPool(conf.getHttpMaxTotalConnections(), KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .connectTimeout(conf.getHttpConnectionTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(conf.getHttpReadTimeout(), TimeUnit.MILLISECONDS)
+                .writeTimeout(conf.getHttpReadTimeout(), TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false);
+
+        if (conf.getHttpProxyHost() != null && !conf.getHttpProxyHost().equals("")) {
+            builder.proxy(new Proxy(Proxy.Type.HTTP
+                    , InetSocketAddress.createUnresolved(conf.getHttpProxyHost(), conf.getHttpProxyPort())));
+            if (conf.getHttpProxyUser() != null && !conf.getHttpProxyUser().equals("")) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Proxy AuthUser: " + conf.getHttpProxyUser());
+                    logger.debug("Proxy AuthPassword: " + StringUtil.maskString(conf.getHttpProxyPassword()));
+                }
+                final String credential = Credentials.basic(conf.getHttpProxyUser(), conf.getHttpProxyPassword());
+                builder.proxyAuthenticator(new Authenticator() {
+                    public Request authenticate(Route route, Response response) {
+                        if (null != response.request().header("Proxy-Authorization")) {
+                            // the credential has already been rejected
+                            return null;
+                        }
+                        return response.request().newBuilder()
+                                .header("Proxy-Authorization", credential).build();
+                    }
+                });
+            }
+        }
+        this.client = builder.build();
+    }
+
+    public void shutdown() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    /**
+     * Returns the number of open connections held by the connection pool.
+     *
+     * @return number of open connections
+     */
+    public int getConnectionCount() {
+        return client.connectionPool().connectionCount();
+    }
+
+    /**
+     * Sets the retry policy applied to requests that do not specify their own.
+     *
+     * @param retryPolicy retry policy
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (null == retryPolicy) {
+            throw new NullPointerException("RetryPolicy cannot be null.");
+        }
+        this.retryPolicy = retryPolicy;
+    }
+
+    public twitter4j.internal.http.HttpResponse request(HttpRequest req) throws TwitterException {
+        Request request = toRequest(req);
+        RetryPolicy policy = null != req.getRetryPolicy() ? req.getRetryPolicy() : retryPolicy;
+        HttpCancellation cancellation = req.getCancellation();
+        for (int retriedCount = 0; ; retriedCount++) {
+            if (null != cancellation && cancellation.isCancelled()) {
+                throw new TwitterException("The request has been cancelled.");
+            }
+            policy.beforeAttempt(req);
+            OkHttpResponseImpl res = null;
+            IOException ioe = null;
+            try {
+                final Call call = client.newCall(request);
+                if (null != cancellation) {
+                    // cancelling the call unblocks the thread executing it or reading the response body
+                    cancellation.setAbortAction(new Runnable() {
+                        public void run() {
+                            call.cancel();
+                        }
+                    });
+                }
+                res = new OkHttpResponseImpl(call.execute());
+                if (null != req.getTiming()) {
+                    req.getTiming().mark(HttpTiming.TIME_TO_FIRST_BYTE);
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Response: " + res.getProtocol() + " " + res.getStatusCode());
+                }
+            } catch (IOException e) {
+                // connection timeout or read timeout
+                ioe = e;
+            } catch (RuntimeException re) {
+                // let the policy release what beforeAttempt() reserved, such as the trial request of a half-open circuit breaker
+                IOException failure = new IOException(re.toString());
+                failure.initCause(re);
+                policy.afterAttempt(req, retriedCount, null, failure);
+                throw re;
+            }
+            if (null != cancellation && cancellation.isCancelled()) {
+                // aborted on purpose: neither a failure of the endpoint nor worth a retry
+                policy.attemptCancelled(req);
+                if (null != res) {
+                    try {
+                        res.disconnect();
+                    } catch (IOException ignore) {
+                    }
+                }
+                throw new TwitterException("The request has been cancelled.", ioe);
+            }
+            long interval = policy.afterAttempt(req, retriedCount, res, ioe);
+            if (null != res && OK <= res.getStatusCode() && res.getStatusCode() < MULTIPLE_CHOICES) {
+                return res;
+            }
+            if (interval < 0) {
+                if (null != ioe) {
+                    throw new TwitterException(ioe.getMessage(), ioe, -1);
+                }
+                throw new TwitterException(res.asString(), res);
+            }
+            if (null != res) {
+                try {
+                    res.disconnect();
+                } catch (IOException ignore) {
+                }
+            }
+            logger.debug("Sleeping " + interval + " milliseconds until the next retry.");
+            try {
+                if (null == cancellation) {
+                    Thread.sleep(interval);
+                } else if (cancellation.await(interval)) {
+                    throw new TwitterException("The request has been cancelled.");
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new TwitterException("Interrupted while waiting for the next retry.", ie);
+            }
+        }
+    }
+
+    private Request toRequest(HttpRequest req) throws TwitterException {
+        Request.Builder builder = new Request.Builder().url(req.getURL());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request: ");
+            logger.debug(req.getMethod().name() + " ", req.getURL());
+        }
+        if (req.getMethod() == RequestMethod.GET) {
+            builder.get();
+        } else if (req.getMethod() == RequestMethod.POST) {
+            builder.post(toRequestBody(req.getParameters()));
+        } else if (req.getMethod() == RequestMethod.DELETE) {
+            builder.delete();
+        } else if (req.getMethod() == RequestMethod.HEAD) {
+            builder.head();
+        } else if (req.getMethod() == RequestMethod.PUT) {
+            builder.put(EMPTY_BODY);
+        } else {
+            throw new AssertionError();
+        }
+        Map<String, String> headers = req.getRequestHeaders();
+        if (null != headers) {
+            for (String headerName : headers.keySet()) {
+                // connection management is up to the pool. "Connection: close" would defeat keep-alive and is illegal in HTTP/2
+                if (!"Connection".equalsIgnoreCase(headerName)) {
+                    builder.addHeader(headerName, headers.get(headerName));
+                    logger.debug(headerName + ": " + headers.get(headerName));
+                }
+            }
+        }
+        String authorizationHeader;
+        if (null != req.getAuthorization()
+                && null != (authorizationHeader = req.getAuthorization().getAuthorizationHeader(req))) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Authorization: ", StringUtil.maskString(authorizationHeader));
+            }
+            builder.header("Authorization", authorizationHeader);
+        }
+        return builder.build();
+    }
+
+    private RequestBody toRequestBody(HttpParameter[] params) throws TwitterException {
+        if (null == params || params.length == 0) {
+            return RequestBody.create(FORM_URLENCODED, new byte[0]);
+        }
+        if (!HttpParameter.containsFile(params)) {
+            String postParam = HttpParameter.encodeParameters(params);
+            logger.debug("Post Params: ", postParam);
+            try {
+                return RequestBody.create(FORM_URLENCODED, postParam.getBytes("UTF-8"));
+            } catch (java.io.UnsupportedEncodingException neverHappen) {
+                throw new AssertionError("will never happen");
+            }
+        }
+        MultipartBody.Builder multipart = new MultipartBody.Builder().setType(MultipartBody.FORM);
+        for (HttpParameter param : params) {
+            if (param.isFile()) {
+                MediaType contentType = MediaType.parse(param.getContentType());
+                RequestBody body = param.hasFileBody()
+                        ? new InputStreamRequestBody(contentType, param.getFileBody())
+                        : RequestBody.create(contentType, param.getFile());
+                multipart.addFormDataPart(param.getName(), param.getFile().getName(), body);
+            } else {
+                multipart.addFormDataPart(param.getName(), null, RequestBody.create(TEXT_PLAIN, param.getValue()));
+            }
+        }
+        return multipart.build();
+    }
+
+    /**
+     * streams a file body of unknown length
+     */
+    private static final class InputStreamRequestBody extends RequestBody {
+        private final MediaType contentType;
+        private final InputStream is;
+
+        InputStreamRequestBody(MediaType contentType, InputStream is) {
+            this.contentType = contentType;
+            this.is = is;
+        }
+
+        public MediaType contentType() {
+            return contentType;
+        }
+
+        public void writeTo(BufferedSink sink) throws IOException {
+            Source source = Okio.source(is);
+            try {
+                sink.writeAll(source);
+            } finally {
+                source.close();
+            }
+        }
+    }
+}
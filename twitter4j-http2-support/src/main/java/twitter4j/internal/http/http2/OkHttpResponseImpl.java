@@ -0,0 +1,79 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http.http2;
+
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+final class OkHttpResponseImpl extends twitter4j.internal.http.HttpResponse {
+    private final Response res;
+
+    OkHttpResponseImpl(Response res) throws IOException {
+        this.res = res;
+        statusCode = res.code();
+        ResponseBody body = res.body();
+        if (null != body) {
+            is = body.byteStream();
+            if ("gzip".equals(getResponseHeader("Content-Encoding"))) {
+                // the response is gzipped
+                is = new GZIPInputStream(is);
+            }
+        }
+    }
+
+    /**
+     * Returns the protocol negotiated for this response.
+     *
+     * @return protocol
+     */
+    Protocol getProtocol() {
+        return res.protocol();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public final String getResponseHeader(String name) {
+        return res.header(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public void disconnect() throws IOException {
+        // releases the stream so that the connection is returned to the pool
+        res.close();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http.http2;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.internal.http.HttpClient;
+import twitter4j.internal.http.HttpClientFactory;
+import twitter4j.internal.http.HttpRequest;
+import twitter4j.internal.http.RequestMethod;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares fan-out latency and number of connections of the HttpClient implementations against a local server
+ * which speaks HTTP/2 and HTTP/1.1.<br>
+ * Usage: Http2HttpClientBenchmark [fan-out] [rounds] [server latency in milliseconds]
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+public final class Http2HttpClientBenchmark {
+    private static final String[] IMPLEMENTATIONS = {
+            "twitter4j.internal.http.HttpClientImpl",
+            "twitter4j.internal.http.alternative.HttpClientImpl",
+            "twitter4j.internal.http.http2.HttpClientImpl"};
+    private static final String BODY;
+
+    static {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 256; i++) {
+            buf.append("{\"id\":").append(i).append(",\"text\":\"Twitter4J benchmark payload\"}\n");
+        }
+        BODY = buf.toString();
+    }
+
+    private Http2HttpClientBenchmark() {
+        throw new AssertionError();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int fanOut = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final long latency = args.length > 2 ? Long.parseLong(args[2]) : 50;
+        System.out.println("fan-out: " + fanOut + ", rounds: " + rounds + ", server latency: " + latency + "ms");
+        System.out.println("implementation\tp50(ms)\tp90(ms)\tp99(ms)\tmax(ms)\tround(ms)\tconnections");
+        for (String implementation : IMPLEMENTATIONS) {
+            try {
+                Class.forName(implementation);
+            } catch (ClassNotFoundException cnfe) {
+                System.out.println(implementation + "\tnot available");
+                continue;
+            }
+            MockWebServer server = LocalServers.start(new Dispatcher() {
+                public MockResponse dispatch(RecordedRequest request) {
+                    return new MockResponse().setBody(BODY).setHeadersDelay(latency, TimeUnit.MILLISECONDS);
+                }
+            });
+            try {
+                run(implementation, server, fanOut, rounds);
+            } finally {
+                server.shutdown();
+            }
+        }
+    }
+
+    private static void run(String implementation, MockWebServer server, int fanOut, int rounds) throws Exception {
+        Configuration conf = new ConfigurationBuilder()
+                .setHttpClientImpl(implementation)
+                .setHttpMaxTotalConnections(fanOut)
+                .setHttpDefaultMaxPerRoute(fanOut)
+                .build();
+        HttpClient client = HttpClientFactory.getInstance(conf);
+        HttpRequest req = new HttpRequest(RequestMethod.GET, server.url("/1/statuses/home_timeline.json").toString()
+                , null, null, conf.getRequestHeaders());
+        ExecutorService executor = Executors.newFixedThreadPool(fanOut);
+        try {
+            // warm up
+            fanOut(client, req, executor, fanOut, new long[fanOut]);
+            long[] latencies = new long[fanOut * rounds];
+            long roundTotal = 0;
+            for (int round = 0; round < rounds; round++) {
+                long[] roundLatencies = new long[fanOut];
+                roundTotal += fanOut(client, req, executor, fanOut, roundLatencies);
+                System.arraycopy(roundLatencies, 0, latencies, round * fanOut, fanOut);
+            }
+            Arrays.sort(latencies);
+            int connections = LocalServers.countConnections(server, server.getRequestCount());
+            System.out.println(implementation
+                    + "\t" + millis(percentile(latencies, 50))
+                    + "\t" + millis(percentile(latencies, 90))
+                    + "\t" + millis(percentile(latencies, 99))
+                    + "\t" + millis(latencies[latencies.length - 1])
+                    + "\t" + millis(roundTotal / rounds)
+                    + "\t" + connections);
+        } finally {
+            executor.shutdown();
+            client.shutdown();
+        }
+    }
+
+    /**
+     * issues the same request concurrently
+     *
+     * @return elapsed time in nanoseconds until the all responses are read
+     */
+    private static long fanOut(final HttpClient client, final HttpRequest req, ExecutorService executor
+            , int fanOut, final long[] latencies) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(fanOut);
+        final AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < fanOut; i++) {
+            final int index = i;
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        long begin = System.nanoTime();
+                        client.request(req).asString();
+                        latencies[index] = System.nanoTime() - begin;
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        if (0 < failures.get()) {
+            System.out.println(failures.get() + " request(s) failed.");
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(sorted.length * percentile / 100d) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(nanos / 100000 / 10d);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http.http2;
+
+import junit.framework.TestCase;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import twitter4j.TwitterException;
+import twitter4j.conf.Configuration;
+import twitter4j.conf.ConfigurationBuilder;
+import twitter4j.internal.http.HttpCancellation;
+import twitter4j.internal.http.HttpClient;
+import twitter4j.internal.http.HttpClientFactory;
+import twitter4j.internal.http.HttpParameter;
+import twitter4j.internal.http.HttpRequest;
+import twitter4j.internal.http.HttpResponse;
+import twitter4j.internal.http.RequestMethod;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ */
+public class Http2HttpClientTest extends TestCase {
+    private MockWebServer server;
+    private Configuration conf;
+    private HttpClient client;
+
+    public Http2HttpClientTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        server = LocalServers.start(new Dispatcher() {
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().startsWith("/notfound")) {
+                    return new MockResponse().setResponseCode(404).setBody("{\"error\":\"Not found\"}");
+                }
+                if (request.getPath().startsWith("/slow")) {
+                    return new MockResponse().setBody("slow").setHeadersDelay(10, TimeUnit.SECONDS);
+                }
+                if (request.getPath().startsWith("/gzip")) {
+                    return new MockResponse().addHeader("Content-Encoding", "gzip").setBody(gzip("gzipped body"));
+                }
+                return new MockResponse().setBody(request.getMethod() + " " + request.getPath());
+            }
+        });
+        conf = new ConfigurationBuilder()
+                .setHttpClientImpl(HttpClientImpl.class.getName())
+                .build();
+        client = HttpClientFactory.getInstance(conf);
+        assertTrue(client instanceof HttpClientImpl);
+    }
+
+    protected void tearDown() throws Exception {
+        super.tearDown();
+        client.shutdown();
+        server.shutdown();
+    }
+
+    public void testGet() throws Exception {
+        HttpResponse res = client.request(request(RequestMethod.GET, "/get"
+                , new HttpParameter[]{new HttpParameter("q", "twitter4j")}));
+        assertEquals(200, res.getStatusCode());
+        assertEquals("GET /get?q=twitter4j\n", res.asString());
+        RecordedRequest recorded = server.takeRequest();
+        assertEquals("gzip", recorded.getHeader("Accept-Encoding"));
+        assertNull(recorded.getHeader("Connection"));
+    }
+
+    public void testRequestsAreMultiplexed() throws Exception {
+        // establishes the connection
+        client.request(request(RequestMethod.GET, "/warmup", null)).asString();
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 10; i++) {
+                final String path = "/multiplexed/" + i;
+                results.add(executor.submit(new Callable<String>() {
+                    public String call() throws Exception {
+                        HttpResponse res = client.request(request(RequestMethod.GET, path, null));
+                        assertEquals("h2", ((OkHttpResponseImpl) res).getProtocol().toString());
+                        return res.asString();
+                    }
+                }));
+            }
+            for (int i = 0; i < 10; i++) {
+                assertEquals("GET /multiplexed/" + i + "\n", results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, LocalServers.countConnections(server, 11));
+    }
+
+    public void testPost() throws Exception {
+        HttpResponse res = client.request(request(RequestMethod.POST, "/post"
+                , new HttpParameter[]{new HttpParameter("status", "hello world")}));
+        assertEquals("POST /post\n", res.asString());
+        RecordedRequest recorded = server.takeRequest();
+        assertEquals("application/x-www-form-urlencoded", recorded.getHeader("Content-Type"));
+        // encoded the same way as the core HttpClientImpl does
+        assertEquals("status=hello+world", recorded.getBody().readUtf8());
+    }
+
+    public void testMultipartPost() throws Exception {
+        File file = File.createTempFile("twitter4j", ".gif");
+        file.deleteOnExit();
+        FileOutputStream fos = new FileOutputStream(file);
+        fos.write("GIF89a".getBytes("UTF-8"));
+        fos.close();
+        HttpResponse res = client.request(request(RequestMethod.POST, "/upload"
+                , new HttpParameter[]{new HttpParameter("image", file)
+                        , new HttpParameter("tile", "true")}));
+        assertEquals("POST /upload\n", res.asString());
+        RecordedRequest recorded = server.takeRequest();
+        assertTrue(recorded.getHeader("Content-Type").startsWith("multipart/form-data; boundary="));
+        String body = recorded.getBody().readUtf8();
+        assertTrue(body.contains("name=\"image\"; filename=\"" + file.getName() + "\""));
+        assertTrue(body.contains("Content-Type: image/gif"));
+        assertTrue(body.contains("GIF89a"));
+        assertTrue(body.contains("name=\"tile\""));
+    }
+
+    public void testGzippedResponse() throws Exception {
+        assertEquals("gzipped body\n", client.request(request(RequestMethod.GET, "/gzip", null)).asString());
+    }
+
+    public void testErrorResponse() throws Exception {
+        try {
+            client.request(request(RequestMethod.GET, "/notfound", null));
+            fail("should throw TwitterException");
+        } catch (TwitterException te) {
+            assertEquals(404, te.getStatusCode());
+        }
+    }
+
+    public void testCancel() throws Exception {
+        final HttpRequest req = request(RequestMethod.GET, "/slow", null);
+        req.setCancellation(new HttpCancellation());
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignore) {
+                }
+                req.getCancellation().cancel();
+            }
+        }.start();
+        long start = System.currentTimeMillis();
+        try {
+            client.request(req);
+            fail("should have been cancelled");
+        } catch (TwitterException expected) {
+        }
+        // the call in flight has been cancelled instead of waiting for the response
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    private HttpRequest request(RequestMethod method, String path, HttpParameter[] params) {
+        return new HttpRequest(method, server.url(path).toString(), params, null, conf.getRequestHeaders());
+    }
+
+    private static Buffer gzip(String str) {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            GZIPOutputStream gzos = new GZIPOutputStream(baos);
+            gzos.write(str.getBytes("UTF-8"));
+            gzos.close();
+            return new Buffer().write(baos.toByteArray());
+        } catch (java.io.IOException ioe) {
+            throw new AssertionError(ioe);
+        }
+    }
+}
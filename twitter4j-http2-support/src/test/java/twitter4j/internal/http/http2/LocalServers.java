@@ -0,0 +1,121 @@
+/*
+Copyright (c) 2007-2010, Yusuke Yamamoto
+All rights reserved.
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+    * Redistributions of source code must retain the above copyright
+      notice, this list of conditions and the following disclaimer.
+    * Redistributions in binary form must reproduce the above copyright
+      notice, this list of conditions and the following disclaimer in the
+      documentation and/or other materials provided with the distribution.
+    * Neither the name of the Yusuke Yamamoto nor the
+      names of its contributors may be used to endorse or promote products
+      derived from this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY Yusuke Yamamoto ``AS IS'' AND ANY
+EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL Yusuke Yamamoto BE LIABLE FOR ANY
+DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+(INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package twitter4j.internal.http.http2;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
+
+/**
+ * Launches local TLS servers negotiating HTTP/2 or HTTP/1.1 via ALPN.<br>
+ * The self-signed certificate is installed as the default trust store so that all HttpClient implementations accept it.
+ *
+ * @author Yusuke Yamamoto - yusuke at mac.com
+ * @since Twitter4J 2.1.7
+ */
+final class LocalServers {
+    private static final String TRUST_STORE_PASSWORD = "twitter4j";
+    private static HandshakeCertificates serverCertificates;
+
+    private LocalServers() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param dispatcher dispatcher responds to the requests
+     * @return started server
+     * @throws IOException when the server failed to start
+     */
+    static synchronized MockWebServer start(Dispatcher dispatcher) throws IOException {
+        if (null == serverCertificates) {
+            serverCertificates = installCertificate();
+        }
+        MockWebServer server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+        server.setProtocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        server.setDispatcher(dispatcher);
+        server.start(InetAddress.getByName("localhost"), 0);
+        return server;
+    }
+
+    /**
+     * Counts connections which carried requests so far.
+     *
+     * @param server       server
+     * @param requestCount number of requests to be taken from the server
+     * @return number of connections
+     * @throws InterruptedException when interrupted
+     */
+    static int countConnections(MockWebServer server, int requestCount) throws InterruptedException {
+        int connections = 0;
+        for (int i = 0; i < requestCount; i++) {
+            if (0 == server.takeRequest().getSequenceNumber()) {
+                connections++;
+            }
+        }
+        return connections;
+    }
+
+    private static HandshakeCertificates installCertificate() throws IOException {
+        InetAddress localhost = InetAddress.getByName("localhost");
+        HeldCertificate certificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost")
+                .addSubjectAlternativeName(localhost.getCanonicalHostName())
+                .addSubjectAlternativeName(localhost.getHostAddress())
+                .build();
+        File trustStore = File.createTempFile("twitter4j-trust", ".jks");
+        trustStore.deleteOnExit();
+        OutputStream os = new FileOutputStream(trustStore);
+        try {
+            KeyStore keyStore = KeyStore.getInstance("JKS");
+            keyStore.load(null, null);
+            keyStore.setCertificateEntry("localhost", certificate.certificate());
+            keyStore.store(os, TRUST_STORE_PASSWORD.toCharArray());
+        } catch (GeneralSecurityException gse) {
+            throw new AssertionError(gse);
+        } finally {
+            os.close();
+        }
+        // must be set before any SSL context gets initialized
+        System.setProperty("javax.net.ssl.trustStore", trustStore.getAbsolutePath());
+        System.setProperty("javax.net.ssl.trustStorePassword", TRUST_STORE_PASSWORD);
+        return new HandshakeCertificates.Builder().heldCertificate(certificate).build();
+    }
+}
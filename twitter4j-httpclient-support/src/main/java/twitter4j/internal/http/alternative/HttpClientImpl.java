@@ -54,10 +54,14 @@ import org.apache.http.params.CoreProtocolPNames;
 import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
 import twitter4j.TwitterException;
+import twitter4j.internal.http.DefaultRetryPolicy;
+import twitter4j.internal.http.HttpCancellation;
 import twitter4j.internal.http.HttpClientConfiguration;
 import twitter4j.internal.http.HttpParameter;
 import twitter4j.internal.http.HttpRequest;
+import twitter4j.internal.http.HttpTiming;
 import twitter4j.internal.http.RequestMethod;
+import twitter4j.internal.http.RetryPolicy;
 import twitter4j.internal.logging.Logger;
 import twitter4j.internal.util.StringUtil;
 
@@ -76,9 +80,11 @@ public class HttpClientImpl implements twitter4j.internal.http.HttpClient {
     private static final Logger logger = Logger.getLogger(HttpClientImpl.class);
     private final HttpClientConfiguration conf;
     private final HttpClient client;
+    private RetryPolicy retryPolicy;
 
     public HttpClientImpl(HttpClientConfiguration conf) {
         this.conf = conf;
+        this.retryPolicy = new DefaultRetryPolicy(conf);
 
         SchemeRegistry schemeRegistry = new SchemeRegistry();
         schemeRegistry.register(
@@ -114,72 +120,152 @@ public class HttpClientImpl implements twitter4j.internal.http.HttpClient {
         client.getConnectionManager().shutdown();
     }
 
+    /**
+     * Sets the retry policy applied to requests that do not specify their own.
+     *
+     * @param retryPolicy retry policy
+     * @since Twitter4J 2.1.7
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (null == retryPolicy) {
+            throw new NullPointerException("RetryPolicy cannot be null.");
+        }
+        this.retryPolicy = retryPolicy;
+    }
+
     public twitter4j.internal.http.HttpResponse request(twitter4j.internal.http.HttpRequest req) throws TwitterException {
-        try {
-            HttpRequestBase commonsRequest = null;
+        RetryPolicy policy = null != req.getRetryPolicy() ? req.getRetryPolicy() : retryPolicy;
+        HttpCancellation cancellation = req.getCancellation();
+        for (int retriedCount = 0; ; retriedCount++) {
+            if (null != cancellation && cancellation.isCancelled()) {
+                throw new TwitterException("The request has been cancelled.");
+            }
+            policy.beforeAttempt(req);
+            ApacheHttpClientHttpResponseImpl res = null;
+            IOException ioe = null;
+            try {
+                final HttpRequestBase commonsRequest = createRequest(req);
+                if (null != cancellation) {
+                    // aborting the request unblocks the thread executing it or reading the response entity
+                    cancellation.setAbortAction(new Runnable() {
+                        public void run() {
+                            commonsRequest.abort();
+                        }
+                    });
+                }
+                HttpTiming timing = req.getTiming();
+                if (null != timing) {
+                    // connection phases are not exposed by HttpClient 4.0
+                    timing.setBytesSent(commonsRequest instanceof HttpPost
+                            && null != ((HttpPost) commonsRequest).getEntity()
+                            ? ((HttpPost) commonsRequest).getEntity().getContentLength() : 0);
+                }
+                res = new ApacheHttpClientHttpResponseImpl(client.execute(commonsRequest));
+                if (null != timing) {
+                    timing.mark(HttpTiming.TIME_TO_FIRST_BYTE);
+                }
+            } catch (IOException e) {
+                ioe = e;
+            } catch (RuntimeException re) {
+                // let the policy release what beforeAttempt() reserved, such as the trial request of a half-open circuit breaker
+                IOException failure = new IOException(re.toString());
+                failure.initCause(re);
+                policy.afterAttempt(req, retriedCount, null, failure);
+                throw re;
+            }
+            if (null != cancellation && cancellation.isCancelled()) {
+                // aborted on purpose: neither a failure of the endpoint nor worth a retry
+                policy.attemptCancelled(req);
+                throw new TwitterException("The request has been cancelled.", ioe);
+            }
+            long interval = policy.afterAttempt(req, retriedCount, res, ioe);
+            if (null != res && 200 == res.getStatusCode()) {
+                return res;
+            }
+            if (interval < 0) {
+                if (null != ioe) {
+                    throw new TwitterException(ioe);
+                }
+                throw new TwitterException(res.asString(), res);
+            }
+            if (null != res) {
+                // consume the entity so that the connection is released
+                try {
+                    res.asString();
+                } catch (TwitterException ignore) {
+                }
+            }
+            logger.debug("Sleeping " + interval + " milliseconds until the next retry.");
+            try {
+                if (null == cancellation) {
+                    Thread.sleep(interval);
+                } else if (cancellation.await(interval)) {
+                    throw new TwitterException("The request has been cancelled.");
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new TwitterException("Interrupted while waiting for the next retry.", ie);
+            }
+        }
+    }
+
+    private HttpRequestBase createRequest(HttpRequest req) throws IOException {
+        HttpRequestBase commonsRequest = null;
 
-            if (req.getMethod() == RequestMethod.GET) {
-                commonsRequest = new HttpGet(composeURL(req));
+        if (req.getMethod() == RequestMethod.GET) {
+            commonsRequest = new HttpGet(composeURL(req));
 
-            } else if (req.getMethod() == RequestMethod.POST) {
-                HttpPost post = new HttpPost(req.getURL());
-                // parameter has a file?
-                boolean hasFile = false;
-                if (null != req.getParameters()) {
+        } else if (req.getMethod() == RequestMethod.POST) {
+            HttpPost post = new HttpPost(req.getURL());
+            // parameter has a file?
+            boolean hasFile = false;
+            if (null != req.getParameters()) {
+                for (HttpParameter parameter : req.getParameters()) {
+                    if (parameter.isFile()) {
+                        hasFile = true;
+                        break;
+                    }
+                }
+                if (!hasFile) {
+                    List<NameValuePair> nameValuePair = asNameValuePairList(req);
+                    if (null != nameValuePair) {
+                        UrlEncodedFormEntity entity = new UrlEncodedFormEntity(nameValuePair, "UTF-8");
+                        post.setEntity(entity);
+                    }
+                } else {
+                    MultipartEntity me = new MultipartEntity();
                     for (HttpParameter parameter : req.getParameters()) {
                         if (parameter.isFile()) {
-                            hasFile = true;
-                            break;
+                            me.addPart(parameter.getName(), new FileBody(parameter.getFile(), parameter.getContentType()));
+                        } else {
+                            me.addPart(parameter.getName(), new StringBody(parameter.getValue()));
                         }
                     }
-                    if (!hasFile) {
-                        List<NameValuePair> nameValuePair = asNameValuePairList(req);
-                        if (null != nameValuePair) {
-                            UrlEncodedFormEntity entity = new UrlEncodedFormEntity(nameValuePair, "UTF-8");
-                            post.setEntity(entity);
-                        }
-                    } else {
-                        MultipartEntity me = new MultipartEntity();
-                        for (HttpParameter parameter : req.getParameters()) {
-                            if (parameter.isFile()) {
-                                me.addPart(parameter.getName(), new FileBody(parameter.getFile(), parameter.getContentType()));
-                            } else {
-                                me.addPart(parameter.getName(), new StringBody(parameter.getValue()));
-                            }
-                        }
-                        post.setEntity(me);
+                    post.setEntity(me);
 
-                    }
                 }
-                post.getParams().setBooleanParameter(CoreProtocolPNames.USE_EXPECT_CONTINUE, false);
-                commonsRequest = post;
-            } else if (req.getMethod() == RequestMethod.DELETE) {
-                commonsRequest = new HttpDelete(composeURL(req));
-            } else if (req.getMethod() == RequestMethod.HEAD) {
-                commonsRequest = new HttpHead(composeURL(req));
-            } else if (req.getMethod() == RequestMethod.PUT) {
-                commonsRequest = new HttpPut(composeURL(req));
-            } else {
-                throw new AssertionError();
             }
-            Map<String, String> headers = req.getRequestHeaders();
-            for (String headerName : headers.keySet()) {
-                commonsRequest.addHeader(headerName, headers.get(headerName));
-            }
-            String authorizationHeader;
-            if (null != req.getAuthorization()
-                    && null != (authorizationHeader = req.getAuthorization().getAuthorizationHeader(req))) {
-                commonsRequest.addHeader("Authorization", authorizationHeader);
-            }
-
-            ApacheHttpClientHttpResponseImpl res = new ApacheHttpClientHttpResponseImpl(client.execute(commonsRequest));
-            if (200 != res.getStatusCode()) {
-                throw new TwitterException(res.asString(), res);
-            }
-            return res;
-        } catch (IOException e) {
-            throw new TwitterException(e);
+            post.getParams().setBooleanParameter(CoreProtocolPNames.USE_EXPECT_CONTINUE, false);
+            commonsRequest = post;
+        } else if (req.getMethod() == RequestMethod.DELETE) {
+            commonsRequest = new HttpDelete(composeURL(req));
+        } else if (req.getMethod() == RequestMethod.HEAD) {
+            commonsRequest = new HttpHead(composeURL(req));
+        } else if (req.getMethod() == RequestMethod.PUT) {
+            commonsRequest = new HttpPut(composeURL(req));
+        } else {
+            throw new AssertionError();
+        }
+        Map<String, String> headers = req.getRequestHeaders();
+        for (String headerName : headers.keySet()) {
+            commonsRequest.addHeader(headerName, headers.get(headerName));
+        }
+        String authorizationHeader;
+        if (null != req.getAuthorization()
+                && null != (authorizationHeader = req.getAuthorization().getAuthorizationHeader(req))) {
+            commonsRequest.addHeader("Authorization", authorizationHeader);
         }
+        return commonsRequest;
     }
 
     private String composeURL(HttpRequest req) {